@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.benchmarks;
+
+import com.amplifyframework.extended.video.VideoException;
+import com.amplifyframework.video.config.AWSVideoPluginConfiguration;
+import com.amplifyframework.video.config.AWSVideoPluginConfigurationReader;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link AWSVideoPluginConfigurationReader#readFrom(JSONObject)}, which runs on
+ * the app's startup path, over configurations of increasing size.
+ */
+@State(Scope.Benchmark)
+public class ConfigurationParsingBenchmark {
+
+    /**
+     * Number of resources in the configuration, half live and half on demand.
+     */
+    @Param({"10", "1000", "50000"})
+    public int resourceCount;
+
+    private JSONObject configuration;
+
+    /**
+     * Build the configuration once per trial; only reading it is measured.
+     * @throws JSONException Not expected
+     */
+    @Setup
+    public void setUp() throws JSONException {
+        configuration = Configurations.create(resourceCount);
+    }
+
+    /**
+     * Read the whole configuration.
+     * @return The parsed configuration
+     * @throws VideoException Not expected
+     */
+    @Benchmark
+    public AWSVideoPluginConfiguration readFrom() throws VideoException {
+        return AWSVideoPluginConfigurationReader.readFrom(configuration);
+    }
+}
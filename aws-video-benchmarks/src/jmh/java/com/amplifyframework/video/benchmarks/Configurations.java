@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.benchmarks;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Builds plugin configurations shaped like the ones the Amplify Video CLI generates.
+ */
+final class Configurations {
+
+    private Configurations() { }
+
+    /**
+     * Build a configuration with as many live as on-demand resources.
+     * @param resourceCount Total number of resources
+     * @return Plugin configuration JSON
+     * @throws JSONException Not expected
+     */
+    static JSONObject create(int resourceCount) throws JSONException {
+        JSONObject configuration = new JSONObject();
+        for (int index = 0; index < resourceCount; index++) {
+            configuration.put(identifier(index), index % 2 == 0 ? live(index) : onDemand(index));
+        }
+        return configuration;
+    }
+
+    /**
+     * Get the identifier {@link #create(int)} gives a resource.
+     * @param index Resource index; even indices are live, odd ones on demand
+     * @return Resource identifier
+     */
+    static String identifier(int index) {
+        return (index % 2 == 0 ? "livestream" : "vod") + index;
+    }
+
+    private static JSONObject live(int index) throws JSONException {
+        JSONObject egress = new JSONObject()
+                .put("hls", "https://abc" + index + ".mediapackage.us-west-2.amazonaws.com/out/v1/hls/index.m3u8")
+                .put("dash", "https://abc" + index + ".mediapackage.us-west-2.amazonaws.com/out/v1/dash/index.mpd")
+                .put("mediastore", "https://xyz" + index + ".data.mediastore.us-west-2.amazonaws.com/p/index.m3u8");
+        return new JSONObject()
+                .put("type", "LIVE")
+                .put("egress", egress);
+    }
+
+    private static JSONObject onDemand(int index) throws JSONException {
+        return new JSONObject()
+                .put("type", "ON_DEMAND")
+                .put("input", "vod" + index + "-input")
+                .put("output", "vod" + index + "-output")
+                .put("outputUrl", "https://d" + index + ".cloudfront.net");
+    }
+}
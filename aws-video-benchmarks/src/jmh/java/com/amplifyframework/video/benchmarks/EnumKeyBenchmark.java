@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.benchmarks;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+import com.amplifyframework.extended.video.resources.ondemand.InputType;
+import com.amplifyframework.extended.video.resources.ondemand.OutputType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures decoding configuration keys into resource enums, once per key in a configuration.
+ */
+@State(Scope.Thread)
+public class EnumKeyBenchmark {
+
+    private static final String[] EGRESS_KEYS = {"hls", "dash", "mss", "cmaf", "mediastore"};
+    private static final String[] OUTPUT_KEYS = {"outputUrl", "output"};
+
+    private int egressIndex;
+    private int outputIndex;
+
+    /**
+     * Decode egress keys, cycling through every type so the scan length varies.
+     * @return The decoded type
+     */
+    @Benchmark
+    public EgressType egressFromKey() {
+        egressIndex = (egressIndex + 1) % EGRESS_KEYS.length;
+        return EgressType.fromKey(EGRESS_KEYS[egressIndex]);
+    }
+
+    /**
+     * Decode the on-demand input key.
+     * @return The decoded type
+     */
+    @Benchmark
+    public InputType inputFromKey() {
+        return InputType.fromKey("input");
+    }
+
+    /**
+     * Decode on-demand output keys.
+     * @return The decoded type
+     */
+    @Benchmark
+    public OutputType outputFromKey() {
+        outputIndex = (outputIndex + 1) % OUTPUT_KEYS.length;
+        return OutputType.fromKey(OUTPUT_KEYS[outputIndex]);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.benchmarks;
+
+import com.amplifyframework.extended.video.VideoCategory;
+import com.amplifyframework.extended.video.resources.live.LiveResource;
+import com.amplifyframework.extended.video.resources.ondemand.OnDemandResource;
+import com.amplifyframework.video.AWSVideoPlugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures resource lookups through {@link VideoCategory}, as apps make them when opening
+ * a player, against a configuration of {@value #RESOURCE_COUNT} resources.
+ */
+@State(Scope.Thread)
+public class ResourceLookupBenchmark {
+
+    private static final int RESOURCE_COUNT = 1000;
+    private static final int BATCH_SIZE = 10;
+
+    private VideoCategory category;
+    private String[] liveIdentifiers;
+    private String[] onDemandIdentifiers;
+    private List<String> batch;
+    private int next;
+
+    /**
+     * Configure a plugin and hand it to a category.
+     * @throws Exception Not expected
+     */
+    @Setup
+    public void setUp() throws Exception {
+        AWSVideoPlugin plugin = new AWSVideoPlugin();
+        plugin.configure(Configurations.create(RESOURCE_COUNT), null);
+        category = new VideoCategory();
+        // Configuring the category through Amplify needs an Android Context; instead, set the
+        // plugin the category keeps after its first selection, which is the steady state.
+        Field selected = VideoCategory.class.getDeclaredField("plugin");
+        selected.setAccessible(true);
+        selected.set(category, plugin);
+
+        liveIdentifiers = new String[RESOURCE_COUNT / 2];
+        onDemandIdentifiers = new String[RESOURCE_COUNT / 2];
+        for (int index = 0; index < liveIdentifiers.length; index++) {
+            liveIdentifiers[index] = Configurations.identifier(index * 2);
+            onDemandIdentifiers[index] = Configurations.identifier(index * 2 + 1);
+        }
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int index = 0; index < BATCH_SIZE; index++) {
+            batch.add(liveIdentifiers[index]);
+        }
+    }
+
+    /**
+     * Look up one live resource by identifier.
+     * @return The resource
+     */
+    @Benchmark
+    public LiveResource getLiveResource() {
+        return category.getLiveResource(liveIdentifiers[nextIndex()]);
+    }
+
+    /**
+     * Look up one on-demand resource by identifier.
+     * @return The resource
+     */
+    @Benchmark
+    public OnDemandResource getOnDemandResource() {
+        return category.getOnDemandResource(onDemandIdentifiers[nextIndex()]);
+    }
+
+    /**
+     * Look up {@value #BATCH_SIZE} live resources in one call.
+     * @return The resources, keyed by identifier
+     */
+    @Benchmark
+    public Map<String, LiveResource> getLiveResources() {
+        return category.getLiveResources(batch);
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % liveIdentifiers.length;
+        return next;
+    }
+}
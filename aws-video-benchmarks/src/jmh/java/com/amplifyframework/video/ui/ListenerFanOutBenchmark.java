@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.view.MotionEvent;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.metrics.NoOpMetricsRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Measures delivering player events to every attached {@link VideoPlayer.Listener}
+ * through {@link PlayerEventDispatcher}: each operation enqueues the events of one frame
+ * and then drains that frame, as the player's handler would. The gc profiler reports
+ * the allocation per operation.
+ *
+ * This lives in the players' package because the dispatcher is package-private. The
+ * handler is replaced by an executor which keeps the posted frame, so the benchmark runs
+ * on a plain JVM and the frame is drained on the benchmark thread.
+ */
+@State(Scope.Thread)
+public class ListenerFanOutBenchmark {
+
+    /**
+     * Number of attached listeners.
+     */
+    @Param({"1", "10", "100"})
+    public int listenerCount;
+
+    private FanOutPlayer player;
+    private PlayerEventDispatcher dispatcher;
+    private Runnable postedFrame;
+    private long position;
+
+    /**
+     * Attach the listeners and build a dispatcher over their snapshot.
+     */
+    @Setup
+    public void setUp() {
+        player = new FanOutPlayer();
+        for (int index = 0; index < listenerCount; index++) {
+            player.addListener(new CountingListener());
+        }
+        PlayerMetrics metrics = new PlayerMetrics(NoOpMetricsRegistry.INSTANCE);
+        Executor frames = frame -> postedFrame = frame;
+        dispatcher = new PlayerEventDispatcher(frames, player::snapshot, () -> metrics);
+    }
+
+    /**
+     * One event in its own frame.
+     * @return A value derived from every listener, so the calls cannot be eliminated
+     */
+    @Benchmark
+    public long singleEvent() {
+        dispatcher.dispatchPlay(++position);
+        return drain();
+    }
+
+    /**
+     * A state change and the callback which caused it, delivered in one frame.
+     * @return A value derived from every listener, so the calls cannot be eliminated
+     */
+    @Benchmark
+    public long stateChangeBatch() {
+        dispatcher.dispatchStateChange(VideoPlayer.State.PLAYING);
+        dispatcher.dispatchPlay(++position);
+        return drain();
+    }
+
+    private long drain() {
+        Runnable frame = postedFrame;
+        postedFrame = null;
+        frame.run();
+        long sum = 0;
+        for (VideoPlayer.Listener listener : player.snapshot()) {
+            sum += ((CountingListener) listener).calls;
+        }
+        return sum;
+    }
+
+    private static final class FanOutPlayer extends VideoPlayer {
+        VideoPlayer.Listener[] snapshot() {
+            return getListenerSnapshot();
+        }
+
+        @Override
+        public long getCurrentPosition() {
+            return 0;
+        }
+
+        @Override
+        public long getDuration() {
+            return 0;
+        }
+    }
+
+    private static final class CountingListener extends VideoPlayer.Listener {
+        private long calls;
+
+        @Override
+        public void onStateChange(VideoPlayer.State newState) {
+            calls++;
+        }
+
+        @Override
+        public void onPreparing(long totalDuration) {
+            calls++;
+        }
+
+        @Override
+        public void onReady() {
+            calls++;
+        }
+
+        @Override
+        public void onPlay(long currentPosition) {
+            calls += currentPosition & 1;
+        }
+
+        @Override
+        public void onPause(long currentPosition) {
+            calls++;
+        }
+
+        @Override
+        public void onEnd(long totalDuration) {
+            calls++;
+        }
+
+        @Override
+        public void onSeek(long oldPosition, int newPosition) {
+            calls++;
+        }
+
+        @Override
+        public void onBufferingStart(long currentPosition) {
+            calls++;
+        }
+
+        @Override
+        public void onBufferingComplete(long currentPosition) {
+            calls++;
+        }
+
+        @Override
+        public void onTouch(MotionEvent event) {
+            calls++;
+        }
+    }
+}
@@ -18,21 +18,53 @@ package com.amplifyframework.extended.video;
 import android.net.Uri;
 import androidx.annotation.NonNull;
 
+import com.amplifyframework.core.Consumer;
 import com.amplifyframework.core.category.CategoryType;
 import com.amplifyframework.extended.ExtendedCategory;
 import com.amplifyframework.extended.video.resources.live.LiveResource;
 import com.amplifyframework.extended.video.resources.ondemand.OnDemandResource;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 /**
  * Video provides live and/or on-demand media streaming using the HLS protocol.
  * The category is implemented by zero or more {@link VideoPlugin}.
  * The operations made available by the category are defined in the
  * {@link VideoCategoryBehavior}.
+ *
+ * Every lookup also has a callback variant which runs on a background thread, so plugins
+ * which load resources lazily or remotely never block the caller. Callbacks are invoked
+ * on that background thread.
  */
 public final class VideoCategory extends ExtendedCategory<VideoPlugin<?>> implements VideoCategoryBehavior {
 
+    // Plugins are fixed once the category is configured, so the first successful
+    // selection is kept rather than repeated on every lookup.
+    private final Supplier<VideoPlugin<?>> selector;
+    private volatile VideoPlugin<?> plugin;
+    private volatile ExecutorService lookupExecutor;
+
+    /**
+     * Create the category, which looks resources up through its selected plugin.
+     */
+    public VideoCategory() {
+        this.selector = this::getSelectedPlugin;
+    }
+
+    /**
+     * Create a category which looks resources up through the plugin a selector returns.
+     * @param selector Returns the plugin to use, or throws if there is none yet
+     */
+    VideoCategory(@NonNull Supplier<VideoPlugin<?>> selector) {
+        this.selector = Objects.requireNonNull(selector);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -53,27 +85,181 @@ public final class VideoCategory extends ExtendedCategory<VideoPlugin<?>> implem
 
     @Override
     public Uri getEgressFor(String resourceName) {
-        return getSelectedPlugin().getEgressFor(resourceName);
+        return plugin().getEgressFor(resourceName);
+    }
+
+    @Override
+    public Map<String, Uri> getEgressPoints(Collection<String> resourceNames) {
+        return plugin().getEgressPoints(resourceNames);
     }
 
     @Override
     public Collection<LiveResource> liveResources() {
-        return getSelectedPlugin().liveResources();
+        return plugin().liveResources();
     }
 
     @Override
     public LiveResource getLiveResource(String identifier) {
-        return getSelectedPlugin().getLiveResource(identifier);
+        return plugin().getLiveResource(identifier);
+    }
+
+    @Override
+    public Map<String, LiveResource> getLiveResources(Collection<String> identifiers) {
+        return plugin().getLiveResources(identifiers);
     }
 
     @Override
     public Collection<OnDemandResource> onDemandResources() {
-        return getSelectedPlugin().onDemandResources();
+        return plugin().onDemandResources();
     }
 
     @Override
     public OnDemandResource getOnDemandResource(String identifier) {
-        return getSelectedPlugin().getOnDemandResource(identifier);
+        return plugin().getOnDemandResource(identifier);
+    }
+
+    @Override
+    public Map<String, OnDemandResource> getOnDemandResources(Collection<String> identifiers) {
+        return plugin().getOnDemandResources(identifiers);
+    }
+
+    /**
+     * Get the stream egress point for a named resource without blocking.
+     * @param resourceName Name of the stream resource
+     * @param onResult Receives the URI, or null if the resource has none
+     * @param onError Receives a lookup failure
+     */
+    public void getEgressFor(@NonNull String resourceName,
+                             @NonNull Consumer<Uri> onResult,
+                             @NonNull Consumer<VideoException> onError) {
+        lookup(() -> plugin().getEgressFor(resourceName), onResult, onError);
+    }
+
+    /**
+     * Get the stream egress points for several named resources without blocking.
+     * @param resourceNames Names of the stream resources
+     * @param onResult Receives the URIs found, keyed by resource name
+     * @param onError Receives a lookup failure
+     */
+    public void getEgressPoints(@NonNull Collection<String> resourceNames,
+                                @NonNull Consumer<Map<String, Uri>> onResult,
+                                @NonNull Consumer<VideoException> onError) {
+        lookup(() -> plugin().getEgressPoints(resourceNames), onResult, onError);
+    }
+
+    /**
+     * Retrieve all configured live video resources without blocking.
+     * @param onResult Receives the live resources
+     * @param onError Receives a lookup failure
+     */
+    public void liveResources(@NonNull Consumer<Collection<LiveResource>> onResult,
+                              @NonNull Consumer<VideoException> onError) {
+        lookup(() -> plugin().liveResources(), onResult, onError);
+    }
+
+    /**
+     * Get a live resource by its identifier without blocking.
+     * @param identifier String resource identifier
+     * @param onResult Receives the resource, or null if none has the identifier
+     * @param onError Receives a lookup failure
+     */
+    public void getLiveResource(@NonNull String identifier,
+                                @NonNull Consumer<LiveResource> onResult,
+                                @NonNull Consumer<VideoException> onError) {
+        lookup(() -> plugin().getLiveResource(identifier), onResult, onError);
+    }
+
+    /**
+     * Get several live resources without blocking.
+     * @param identifiers String resource identifiers
+     * @param onResult Receives the resources found, keyed by identifier
+     * @param onError Receives a lookup failure
+     */
+    public void getLiveResources(@NonNull Collection<String> identifiers,
+                                 @NonNull Consumer<Map<String, LiveResource>> onResult,
+                                 @NonNull Consumer<VideoException> onError) {
+        lookup(() -> plugin().getLiveResources(identifiers), onResult, onError);
+    }
+
+    /**
+     * Retrieve all configured on-demand video resources without blocking.
+     * @param onResult Receives the on-demand resources
+     * @param onError Receives a lookup failure
+     */
+    public void onDemandResources(@NonNull Consumer<Collection<OnDemandResource>> onResult,
+                                  @NonNull Consumer<VideoException> onError) {
+        lookup(() -> plugin().onDemandResources(), onResult, onError);
+    }
+
+    /**
+     * Get an on-demand resource by its identifier without blocking.
+     * @param identifier String resource identifier
+     * @param onResult Receives the resource, or null if none has the identifier
+     * @param onError Receives a lookup failure
+     */
+    public void getOnDemandResource(@NonNull String identifier,
+                                    @NonNull Consumer<OnDemandResource> onResult,
+                                    @NonNull Consumer<VideoException> onError) {
+        lookup(() -> plugin().getOnDemandResource(identifier), onResult, onError);
+    }
+
+    /**
+     * Get several on-demand resources without blocking.
+     * @param identifiers String resource identifiers
+     * @param onResult Receives the resources found, keyed by identifier
+     * @param onError Receives a lookup failure
+     */
+    public void getOnDemandResources(@NonNull Collection<String> identifiers,
+                                     @NonNull Consumer<Map<String, OnDemandResource>> onResult,
+                                     @NonNull Consumer<VideoException> onError) {
+        lookup(() -> plugin().getOnDemandResources(identifiers), onResult, onError);
+    }
+
+    private VideoPlugin<?> plugin() {
+        VideoPlugin<?> selected = plugin;
+        if (selected == null) {
+            // Throws until the category is configured, so nothing is cached before then.
+            selected = selector.get();
+            plugin = selected;
+        }
+        return selected;
+    }
+
+    private <T> void lookup(Callable<T> query, Consumer<T> onResult, Consumer<VideoException> onError) {
+        Objects.requireNonNull(onResult);
+        Objects.requireNonNull(onError);
+        executor().execute(() -> {
+            T result;
+            try {
+                result = query.call();
+            } catch (Exception error) {
+                onError.accept(new VideoException(
+                        "Video resource lookup failed.",
+                        error,
+                        "Check that Amplify is configured with a video plugin before looking up resources."
+                ));
+                return;
+            }
+            onResult.accept(result);
+        });
+    }
+
+    private ExecutorService executor() {
+        ExecutorService executor = lookupExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = lookupExecutor;
+                if (executor == null) {
+                    executor = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "amplify-video-lookup");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    lookupExecutor = executor;
+                }
+            }
+        }
+        return executor;
     }
 
 }
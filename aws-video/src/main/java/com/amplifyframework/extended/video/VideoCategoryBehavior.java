@@ -20,6 +20,10 @@ import android.net.Uri;
 import com.amplifyframework.extended.video.resources.live.LiveBehavior;
 import com.amplifyframework.extended.video.resources.ondemand.OnDemandBehavior;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Video category behaviors include live and on-demand operations.
  * TODO: operations like what?
@@ -33,4 +37,22 @@ public interface VideoCategoryBehavior extends LiveBehavior, OnDemandBehavior {
      */
     Uri getEgressFor(String resourceName);
 
+    /**
+     * Get the stream egress points for several named resources in one call. By default,
+     * looks each name up in turn; implementations with a bulk source should override this.
+     * @param resourceNames Names of the stream resources
+     * @return URIs keyed by resource name, in the order requested. Resources without an
+     *         egress point are left out.
+     */
+    default Map<String, Uri> getEgressPoints(Collection<String> resourceNames) {
+        Map<String, Uri> found = new LinkedHashMap<>();
+        for (String resourceName : resourceNames) {
+            Uri egress = getEgressFor(resourceName);
+            if (egress != null) {
+                found.put(resourceName, egress);
+            }
+        }
+        return found;
+    }
+
 }
@@ -40,6 +40,9 @@ public enum EgressType {
      */
     MEDIASTORE("mediastore");
 
+    // values() clones its array on every call; lookups scan this copy instead.
+    private static final EgressType[] VALUES = values();
+
     private String key;
 
     /**
@@ -64,7 +67,7 @@ public enum EgressType {
      * @return The corresponding egress type
      */
     public static EgressType fromKey(String key) {
-        for (final EgressType egressType : values()) {
+        for (final EgressType egressType : VALUES) {
             if (egressType.key().equals(key)) {
                 return egressType;
             }
@@ -79,7 +82,7 @@ public enum EgressType {
      * @return The corresponding egress type
      */
     public static EgressType from(String name) {
-        for (final EgressType egressType : values()) {
+        for (final EgressType egressType : VALUES) {
             if (egressType.name().equals(name)) {
                 return egressType;
             }
@@ -16,6 +16,8 @@
 package com.amplifyframework.extended.video.resources.live;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Live video behaviors include TODO: what? .
@@ -35,4 +37,22 @@ public interface LiveBehavior {
      */
     LiveResource getLiveResource(String identifier);
 
+    /**
+     * Get several live resources in one call. By default, looks each identifier up in
+     * turn; implementations with a bulk source should override this.
+     * @param identifiers String resource identifiers.
+     * @return The resources found, keyed by identifier, in the order requested. Unknown
+     *         identifiers are left out.
+     */
+    default Map<String, LiveResource> getLiveResources(Collection<String> identifiers) {
+        Map<String, LiveResource> found = new LinkedHashMap<>();
+        for (String identifier : identifiers) {
+            LiveResource resource = getLiveResource(identifier);
+            if (resource != null) {
+                found.put(identifier, resource);
+            }
+        }
+        return found;
+    }
+
 }
@@ -24,6 +24,8 @@ public enum InputType {
      */
     S3_BUCKET_NAME("input");
 
+    private static final InputType[] VALUES = values();
+
     private String key;
 
     /**
@@ -48,7 +50,7 @@ public enum InputType {
      * @return The corresponding input type
      */
     public static InputType fromKey(String key) {
-        for (final InputType inputType : values()) {
+        for (final InputType inputType : VALUES) {
             if (inputType.key().equals(key)) {
                 return inputType;
             }
@@ -63,7 +65,7 @@ public enum InputType {
      * @return The corresponding input type
      */
     public static InputType from(String name) {
-        for (final InputType inputType : values()) {
+        for (final InputType inputType : VALUES) {
             if (inputType.name().equals(name)) {
                 return inputType;
             }
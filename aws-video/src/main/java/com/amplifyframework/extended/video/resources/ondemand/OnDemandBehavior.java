@@ -16,6 +16,8 @@
 package com.amplifyframework.extended.video.resources.ondemand;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * On-demand behaviors include TODO: what? .
@@ -35,4 +37,22 @@ public interface OnDemandBehavior {
      */
     OnDemandResource getOnDemandResource(String identifier);
 
+    /**
+     * Get several on-demand resources in one call. By default, looks each identifier up
+     * in turn; implementations with a bulk source should override this.
+     * @param identifiers String resource identifiers.
+     * @return The resources found, keyed by identifier, in the order requested. Unknown
+     *         identifiers are left out.
+     */
+    default Map<String, OnDemandResource> getOnDemandResources(Collection<String> identifiers) {
+        Map<String, OnDemandResource> found = new LinkedHashMap<>();
+        for (String identifier : identifiers) {
+            OnDemandResource resource = getOnDemandResource(identifier);
+            if (resource != null) {
+                found.put(identifier, resource);
+            }
+        }
+        return found;
+    }
+
 }
@@ -29,6 +29,8 @@ public enum OutputType {
      */
     S3_BUCKET_NAME("output");
 
+    private static final OutputType[] VALUES = values();
+
     private String key;
 
     /**
@@ -53,7 +55,7 @@ public enum OutputType {
      * @return The corresponding ingress type
      */
     public static OutputType fromKey(String key) {
-        for (final OutputType outputType : values()) {
+        for (final OutputType outputType : VALUES) {
             if (outputType.key().equals(key)) {
                 return outputType;
             }
@@ -68,7 +70,7 @@ public enum OutputType {
      * @return The corresponding output type
      */
     public static OutputType from(String name) {
-        for (final OutputType outputType : values()) {
+        for (final OutputType outputType : VALUES) {
             if (outputType.name().equals(name)) {
                 return outputType;
             }
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.extended.video.ui;
+
+import android.net.Uri;
+import androidx.annotation.NonNull;
+
+/**
+ * The media pipeline underneath a {@link VideoPlayer}.
+ *
+ * An engine loads and renders one source at a time. Players drive it through this
+ * interface and receive its events through a single {@link Callback}, so the same player
+ * logic runs over a view-backed engine, a headless one, or a third-party pipeline.
+ * Event codes follow {@link android.media.MediaPlayer}'s {@code MEDIA_INFO_*} and
+ * {@code MEDIA_ERROR_*} constants. Methods are called on the main thread, and callbacks
+ * must be delivered there too.
+ */
+public interface PlaybackEngine {
+
+    /**
+     * Set the callback which receives this engine's events, replacing any previous one.
+     * @param callback A callback, or null to stop receiving events
+     */
+    void setCallback(Callback callback);
+
+    /**
+     * Load a source and start preparing it asynchronously. Any previous source is dropped.
+     * {@link Callback#onPrepared()} is called once playback can start.
+     * @param source URI of the media to play
+     */
+    void prepare(@NonNull Uri source);
+
+    /**
+     * Start or resume playback. If the source is still preparing, playback starts as soon
+     * as it is prepared.
+     */
+    void start();
+
+    /**
+     * Pause playback.
+     */
+    void pause();
+
+    /**
+     * Seek to a position. {@link Callback#onSeekComplete()} is called once it completes.
+     * @param positionMillis Target position in milliseconds
+     */
+    void seekTo(long positionMillis);
+
+    /**
+     * Change the playback speed without pausing or seeking.
+     * @param rate Speed, where 1 is normal; must be positive
+     * @return true if the rate was applied, false if the engine cannot change speed
+     *         (e.g. before Android M) or the source is not playing
+     */
+    boolean setPlaybackRate(float rate);
+
+    /**
+     * Get the current playback position.
+     * @return Position in milliseconds, or 0 before the source is prepared
+     */
+    long getCurrentPosition();
+
+    /**
+     * Get the duration of the current source.
+     * @return Duration in milliseconds, or -1 if unknown
+     */
+    long getDuration();
+
+    /**
+     * Whether the engine is currently playing.
+     * @return true if playing
+     */
+    boolean isPlaying();
+
+    /**
+     * Get how much of the source has been buffered.
+     * @return Percentage from 0 to 100
+     */
+    int getBufferPercentage();
+
+    /**
+     * Release the engine's media resources. The engine must not be used afterwards.
+     */
+    void release();
+
+    /**
+     * Receives engine events on the main thread.
+     */
+    interface Callback {
+
+        /**
+         * Called when the source has been prepared.
+         */
+        void onPrepared();
+
+        /**
+         * Called with an informational event, such as buffering starting or the first frame rendering.
+         * @param what One of MediaPlayer's MEDIA_INFO_* codes
+         * @param extra Code-specific detail
+         * @return true if the event was handled
+         */
+        boolean onInfo(int what, int extra);
+
+        /**
+         * Called when playback fails.
+         * @param what One of MediaPlayer's MEDIA_ERROR_* codes
+         * @param extra Code-specific detail, such as MEDIA_ERROR_IO
+         * @return true if the error was handled
+         */
+        boolean onError(int what, int extra);
+
+        /**
+         * Called when playback reaches the end of the source.
+         */
+        void onCompletion();
+
+        /**
+         * Called when the last requested seek has completed.
+         */
+        void onSeekComplete();
+    }
+}
@@ -17,30 +17,46 @@ package com.amplifyframework.extended.video.ui;
 
 import android.view.MotionEvent;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Collections;
 
 /**
  * A video player for Amplify Video.
  */
 public abstract class VideoPlayer {
 
-    private Set<Listener> listeners;
+    private static final Listener[] NO_LISTENERS = new Listener[0];
+
+    // Copy-on-write: mutations swap in a new array, so a dispatch that is already
+    // iterating a snapshot is never disturbed by a listener adding or removing itself.
+    private final Object listenersLock = new Object();
+    private volatile Listener[] listeners;
     private State state;
 
     /**
      * Constructor for {@link VideoPlayer}.
      */
     public VideoPlayer() {
-        listeners = new HashSet<>();
+        listeners = NO_LISTENERS;
     }
 
     /**
      * Add a new {@link Listener} to handle player events.
+     * Adding a listener that is already attached has no effect.
      * @param listener a player event listener
      */
     public void addListener(Listener listener) {
-        listeners.add(listener);
+        synchronized (listenersLock) {
+            Listener[] current = listeners;
+            for (Listener existing : current) {
+                if (existing.equals(listener)) {
+                    return;
+                }
+            }
+            Listener[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+            listeners = updated;
+        }
     }
 
     /**
@@ -49,14 +65,36 @@ public abstract class VideoPlayer {
      * @return true if the listener was removed
      */
     public boolean removeListener(Listener listener) {
-        return listeners.remove(listener);
+        synchronized (listenersLock) {
+            Listener[] current = listeners;
+            for (int index = 0; index < current.length; index++) {
+                if (current[index].equals(listener)) {
+                    Listener[] updated = current.length == 1 ? NO_LISTENERS : new Listener[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, index);
+                    System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                    listeners = updated;
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 
     /**
      * Get all of the listeners attached to this player.
-     * @return Iterable of attached listeners
+     * @return Iterable over a snapshot of the attached listeners
      */
     protected Iterable<Listener> getListeners() {
+        return Collections.unmodifiableList(Arrays.asList(listeners));
+    }
+
+    /**
+     * Get the current listener snapshot without copying it. Callers must treat
+     * the returned array as read-only; it is replaced, never mutated, when
+     * listeners are added or removed.
+     * @return Array of attached listeners
+     */
+    protected final Listener[] getListenerSnapshot() {
         return listeners;
     }
 
@@ -133,7 +171,17 @@ public abstract class VideoPlayer {
         public abstract void onBufferingComplete(long currentPosition);
 
         /**
-         * Called when the player is touched.
+         * Called when buffer and throughput trends predict a rebuffering stall, early
+         * enough to react, e.g. by switching to a lower bitrate. Does nothing by default.
+         * @param currentPosition current playback position
+         * @param timeToStallMillis predicted milliseconds until the buffer runs dry
+         */
+        public void onStallPredicted(long currentPosition, long timeToStallMillis) { }
+
+        /**
+         * Called when the player is touched. The event is recycled once this method
+         * returns; use {@link MotionEvent#obtain(MotionEvent)} to keep a copy. Several
+         * moves within one frame may be delivered as only the latest move.
          * @param event touch event
          */
         public abstract void onTouch(MotionEvent event);
@@ -163,6 +211,10 @@ public abstract class VideoPlayer {
          * Playing.
          */
         PLAYING,
+        /**
+         * Paused.
+         */
+        PAUSED,
         /**
          * Ended.
          */
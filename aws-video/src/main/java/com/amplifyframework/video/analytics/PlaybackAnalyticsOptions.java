@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.analytics;
+
+/**
+ * Options controlling how a {@link PlaybackAnalyticsRecorder} reports to Amplify Analytics.
+ */
+public final class PlaybackAnalyticsOptions {
+
+    /**
+     * Default interval between session-summary events.
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 60_000L;
+
+    private long flushIntervalMillis;
+    private boolean recordRawEvents;
+
+    private PlaybackAnalyticsOptions() {
+        this.flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+        this.recordRawEvents = false;
+    }
+
+    /**
+     * Get the interval at which a summary is recorded while a session is active.
+     * @return Interval in milliseconds; 0 means summaries are only recorded at session end
+     */
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    /**
+     * Whether every player callback is also recorded as its own analytics event.
+     * @return true if raw per-event recording is enabled
+     */
+    public boolean isRecordRawEvents() {
+        return recordRawEvents;
+    }
+
+    /**
+     * Get options with the default flush interval and raw recording disabled.
+     * @return Default options
+     */
+    public static PlaybackAnalyticsOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Builder for {@link PlaybackAnalyticsOptions}.
+     * @return A new {@link PlaybackAnalyticsOptions.Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder class for {@link PlaybackAnalyticsOptions}.
+     */
+    public static class Builder {
+        private PlaybackAnalyticsOptions toBuild;
+
+        /**
+         * Constructor.
+         */
+        public Builder() {
+            toBuild = new PlaybackAnalyticsOptions();
+        }
+
+        /**
+         * Set how often a summary event is recorded during an active session.
+         * @param flushIntervalMillis Interval in milliseconds; 0 to record only at session end
+         * @return The {@link Builder}.
+         */
+        public Builder flushIntervalMillis(long flushIntervalMillis) {
+            if (flushIntervalMillis < 0) {
+                throw new IllegalArgumentException("Flush interval must not be negative: " + flushIntervalMillis);
+            }
+            toBuild.flushIntervalMillis = flushIntervalMillis;
+            return this;
+        }
+
+        /**
+         * Also record every player callback as an individual event. Intended for debugging.
+         * @param recordRawEvents true to record raw events alongside summaries
+         * @return The {@link Builder}.
+         */
+        public Builder recordRawEvents(boolean recordRawEvents) {
+            toBuild.recordRawEvents = recordRawEvents;
+            return this;
+        }
+
+        /**
+         * Build the {@link PlaybackAnalyticsOptions}.
+         * @return The {@link PlaybackAnalyticsOptions}.
+         */
+        public PlaybackAnalyticsOptions build() {
+            return toBuild;
+        }
+    }
+}
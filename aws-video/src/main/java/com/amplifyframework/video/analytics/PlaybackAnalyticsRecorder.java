@@ -0,0 +1,283 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.analytics;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.analytics.AnalyticsCategory;
+import com.amplifyframework.analytics.AnalyticsEvent;
+import com.amplifyframework.extended.video.resources.VideoResource;
+import com.amplifyframework.extended.video.resources.VideoResourceType;
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.event.PlayerEvent;
+import com.amplifyframework.video.event.PlayerEventPipeline;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Aggregates player events into periodic session-summary analytics events.
+ *
+ * The recorder consumes a {@link PlayerEventPipeline}, so aggregation runs on the
+ * pipeline's worker thread rather than the main thread. Counters and durations are kept
+ * in primitive fields and reported as one compact event every
+ * {@link PlaybackAnalyticsOptions#getFlushIntervalMillis()} and when the session ends,
+ * instead of one event per callback. Each summary covers the activity since the previous
+ * one. Durations are measured from event timestamps, so the pipeline and the recorder
+ * should share the player's clock.
+ */
+public final class PlaybackAnalyticsRecorder extends PlayerEventPipeline.Consumer {
+
+    private static volatile ScheduledExecutorService flusher;
+
+    private final AnalyticsCategory analytics;
+    private final Supplier<VideoResource> resource;
+    private final PlaybackAnalyticsOptions options;
+    private final TimeSource clock;
+    private ScheduledFuture<?> intervalFlush;
+
+    private boolean sessionActive;
+    private int summarySequence;
+    private long sessionStart;
+    private long intervalStart;
+    private long lastEventTime;
+    private VideoPlayer.State state = VideoPlayer.State.IDLE;
+    private long stateSince;
+    private long preparingAt = -1;
+    private long timeToReady = -1;
+    private long playingMillis;
+    private long bufferingMillis;
+    private int playCount;
+    private int pauseCount;
+    private int seekCount;
+    private int bufferingCount;
+
+    /**
+     * Create a recorder for a player's resource.
+     * @param analytics Amplify Analytics category to record to
+     * @param resource Supplies the player's current video resource; may supply null before attach
+     * @param options Flush interval and raw recording options
+     * @param clock The clock which stamps the pipeline's events
+     */
+    public PlaybackAnalyticsRecorder(@NonNull AnalyticsCategory analytics,
+                                     @NonNull Supplier<VideoResource> resource,
+                                     @NonNull PlaybackAnalyticsOptions options,
+                                     @NonNull TimeSource clock) {
+        this.analytics = Objects.requireNonNull(analytics);
+        this.resource = Objects.requireNonNull(resource);
+        this.options = Objects.requireNonNull(options);
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * Record a final summary for the current session, if one is active, and reset.
+     * Safe to call from any thread.
+     */
+    public synchronized void endSession() {
+        if (!sessionActive) {
+            return;
+        }
+        if (intervalFlush != null) {
+            intervalFlush.cancel(false);
+            intervalFlush = null;
+        }
+        recordSummary(true, currentTime());
+        sessionActive = false;
+        summarySequence = 0;
+        preparingAt = -1;
+        timeToReady = -1;
+    }
+
+    /**
+     * Records the summary of the session in progress, once the pipeline has delivered
+     * the events published before it was shut down.
+     */
+    @Override
+    public void onShutdown() {
+        endSession();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void onEvent(@NonNull PlayerEvent event) {
+        if (event.getType() == PlayerEvent.Type.TOUCH) {
+            // Touches are not part of the session summary.
+            return;
+        }
+        long now = touchSession(event.getTimestamp());
+        switch (event.getType()) {
+            case STATE_CHANGE:
+                accrue(now);
+                state = event.getState();
+                break;
+            case PREPARING:
+                preparingAt = now;
+                recordRaw("Preparing", "TotalDuration", event.getDuration());
+                break;
+            case READY:
+                if (timeToReady < 0 && preparingAt >= 0) {
+                    timeToReady = now - preparingAt;
+                }
+                recordRaw("Ready", null, 0);
+                break;
+            case PLAY:
+                playCount++;
+                recordRaw("Play", "CurrentPosition", event.getPosition());
+                break;
+            case PAUSE:
+                pauseCount++;
+                recordRaw("Pause", "CurrentPosition", event.getPosition());
+                break;
+            case END:
+                recordRaw("End", "TotalDuration", event.getDuration());
+                endSession();
+                break;
+            case SEEK:
+                seekCount++;
+                if (options.isRecordRawEvents()) {
+                    analytics.recordEvent(event("Seek")
+                            .addProperty("OldPosition", (double) event.getPreviousPosition())
+                            .addProperty("NewPosition", (double) event.getPosition())
+                            .build());
+                }
+                break;
+            case BUFFERING_START:
+                bufferingCount++;
+                recordRaw("BufferingStart", "CurrentPosition", event.getPosition());
+                break;
+            case BUFFERING_COMPLETE:
+                recordRaw("BufferingComplete", "CurrentPosition", event.getPosition());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private long touchSession(long timestamp) {
+        // Events are drained in order, but never let time run backwards.
+        long now = Math.max(timestamp, lastEventTime);
+        lastEventTime = now;
+        if (!sessionActive) {
+            sessionActive = true;
+            sessionStart = now;
+            intervalStart = now;
+            stateSince = now;
+            long interval = options.getFlushIntervalMillis();
+            if (interval > 0) {
+                intervalFlush = flusher().scheduleWithFixedDelay(this::onFlushInterval,
+                        interval, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+        return now;
+    }
+
+    private long currentTime() {
+        return Math.max(clock.now(), lastEventTime);
+    }
+
+    private void accrue(long now) {
+        long elapsed = now - stateSince;
+        if (state == VideoPlayer.State.PLAYING) {
+            playingMillis += elapsed;
+        } else if (state == VideoPlayer.State.BUFFERING) {
+            bufferingMillis += elapsed;
+        }
+        stateSince = now;
+    }
+
+    private synchronized void onFlushInterval() {
+        if (sessionActive) {
+            recordSummary(false, currentTime());
+        }
+    }
+
+    private void recordSummary(boolean isFinal, long now) {
+        accrue(now);
+        AnalyticsEvent.Builder summary = event("SessionSummary")
+                .addProperty("SummarySequence", summarySequence++)
+                .addProperty("Final", isFinal)
+                .addProperty("SessionDuration", (double) (now - sessionStart))
+                .addProperty("IntervalDuration", (double) (now - intervalStart))
+                .addProperty("PlayingDuration", (double) playingMillis)
+                .addProperty("BufferingDuration", (double) bufferingMillis)
+                .addProperty("PlayCount", playCount)
+                .addProperty("PauseCount", pauseCount)
+                .addProperty("SeekCount", seekCount)
+                .addProperty("BufferingCount", bufferingCount);
+        if (timeToReady >= 0) {
+            summary.addProperty("TimeToReady", (double) timeToReady);
+        }
+        analytics.recordEvent(summary.build());
+
+        intervalStart = now;
+        playingMillis = 0;
+        bufferingMillis = 0;
+        playCount = 0;
+        pauseCount = 0;
+        seekCount = 0;
+        bufferingCount = 0;
+    }
+
+    private void recordRaw(String name, String property, long value) {
+        if (!options.isRecordRawEvents()) {
+            return;
+        }
+        AnalyticsEvent.Builder raw = event(name);
+        if (property != null) {
+            raw.addProperty(property, (double) value);
+        }
+        analytics.recordEvent(raw.build());
+    }
+
+    private AnalyticsEvent.Builder event(String name) {
+        VideoResource current = resource.get();
+        boolean onDemand = current != null && current.getType() == VideoResourceType.ON_DEMAND;
+        String prefix = onDemand ? "OnDemandStream" : "LiveStream";
+        AnalyticsEvent.Builder builder = AnalyticsEvent.builder().name(prefix + name);
+        if (current != null) {
+            builder.addProperty(prefix + "Identifier", current.getIdentifier());
+        }
+        return builder;
+    }
+
+    /**
+     * One timer thread schedules the interval summaries of every recorder.
+     */
+    private static ScheduledExecutorService flusher() {
+        ScheduledExecutorService executor = flusher;
+        if (executor == null) {
+            synchronized (PlaybackAnalyticsRecorder.class) {
+                executor = flusher;
+                if (executor == null) {
+                    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "amplify-video-analytics");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    flusher = executor;
+                }
+            }
+        }
+        return executor;
+    }
+}
@@ -26,12 +26,17 @@ import java.util.Map;
  */
 public final class AWSVideoPluginConfiguration {
 
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int DEFAULT_EXPECTED_RESOURCES = 8;
+
     private Map<String, LiveResource> liveResources;
     private Map<String, OnDemandResource> onDemandResources;
 
-    private AWSVideoPluginConfiguration() {
-        this.liveResources = new HashMap<>();
-        this.onDemandResources = new HashMap<>();
+    private AWSVideoPluginConfiguration(int expectedResources) {
+        // Sized so that adding the expected number of resources never rehashes.
+        int capacity = (int) (expectedResources / LOAD_FACTOR) + 1;
+        this.liveResources = new HashMap<>(capacity, LOAD_FACTOR);
+        this.onDemandResources = new HashMap<>(capacity, LOAD_FACTOR);
     }
 
     /**
@@ -58,6 +63,15 @@ public final class AWSVideoPluginConfiguration {
         return new Builder();
     }
 
+    /**
+     * Builder for {@link AWSVideoPluginConfiguration}, sized for a known number of resources.
+     * @param expectedResources Number of resources, live and on-demand, which will be added
+     * @return A new {@link AWSVideoPluginConfiguration.Builder}.
+     */
+    public static Builder builder(int expectedResources) {
+        return new Builder(expectedResources);
+    }
+
     /**
      * Builder class for {@link AWSVideoPluginConfiguration}.
      */
@@ -68,7 +82,15 @@ public final class AWSVideoPluginConfiguration {
          * Constructor.
          */
         public Builder() {
-            toBuild = new AWSVideoPluginConfiguration();
+            this(DEFAULT_EXPECTED_RESOURCES);
+        }
+
+        /**
+         * Constructor for a configuration with a known number of resources.
+         * @param expectedResources Number of resources, live and on-demand, which will be added
+         */
+        public Builder(int expectedResources) {
+            toBuild = new AWSVideoPluginConfiguration(Math.max(0, expectedResources));
         }
 
         /**
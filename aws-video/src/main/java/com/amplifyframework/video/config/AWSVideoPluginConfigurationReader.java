@@ -26,7 +26,7 @@ import com.amplifyframework.extended.video.resources.ondemand.OutputType;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -59,7 +59,8 @@ public final class AWSVideoPluginConfigurationReader {
     private static AWSVideoPluginConfiguration parseConfigurationJson(JSONObject configurationJson)
             throws VideoException {
         try {
-            AWSVideoPluginConfiguration.Builder config = AWSVideoPluginConfiguration.builder();
+            AWSVideoPluginConfiguration.Builder config =
+                    AWSVideoPluginConfiguration.builder(configurationJson.length());
 
             Iterator<String> iter = configurationJson.keys();
             while (iter.hasNext()) {
@@ -75,10 +76,10 @@ public final class AWSVideoPluginConfigurationReader {
                         break;
                     case ON_DEMAND:
                         String input = videoResource.getString("input");
-                        Map<InputType, String> inputMethods = new HashMap<>();
+                        Map<InputType, String> inputMethods = new EnumMap<>(InputType.class);
                         inputMethods.put(InputType.S3_BUCKET_NAME, input);
 
-                        Map<OutputType, String> outputMethods = new HashMap<>();
+                        Map<OutputType, String> outputMethods = new EnumMap<>(OutputType.class);
                         String outputS3 = videoResource.getString("output");
                         outputMethods.put(OutputType.S3_BUCKET_NAME, outputS3);
 
@@ -107,7 +108,7 @@ public final class AWSVideoPluginConfigurationReader {
     }
 
     private static Map<EgressType, String> readEgressAsMap(JSONObject jsonObject) throws JSONException {
-        Map<EgressType, String> map = new HashMap<>();
+        Map<EgressType, String> map = new EnumMap<>(EgressType.class);
         Iterator<String> iter = jsonObject.keys();
         while (iter.hasNext()) {
             String key = iter.next();
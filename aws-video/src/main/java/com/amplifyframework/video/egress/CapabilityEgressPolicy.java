@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.egress;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+import com.amplifyframework.extended.video.resources.live.LiveResource;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Prefers the egress point a device plays with the least overhead. Candidates are ranked
+ * by, in order:
+ * <ol>
+ *     <li>whether the playback engine reads the format at all,</li>
+ *     <li>how the codec the format carries is decoded: hardware, software, or not at all,</li>
+ *     <li>the app's preference order,</li>
+ *     <li>the declaration order of {@link EgressType}.</li>
+ * </ol>
+ * A resource whose only egress points are unsupported still gets one, so the player can try.
+ *
+ * Decoders only separate egress types the app declared different codecs for, so a policy
+ * without {@link Builder#codec(EgressType, String) declared codecs}, such as the default,
+ * ranks by container support and preference and never probes the codec list. A policy with
+ * declared codecs over this device's capabilities starts probing in the background when it
+ * is built, and reads the result on its first selection.
+ */
+public final class CapabilityEgressPolicy implements EgressPolicy {
+
+    /**
+     * Codec assumed for egress types without a declared one.
+     */
+    public static final String DEFAULT_CODEC = "video/avc";
+
+    private static final EgressType[] TYPES = EgressType.values();
+
+    private static volatile CapabilityEgressPolicy defaultPolicy;
+
+    // Per egress ordinal: 0 if the engine reads the container, else 1.
+    private final int[] containerCost = new int[TYPES.length];
+    // Per egress ordinal: position in the app's preference list, or its length if absent.
+    private final int[] preferenceRank = new int[TYPES.length];
+    private final DeviceCapabilities capabilities;
+    private final String[] codecs;
+    private final boolean codecsDeclared;
+    // Per egress ordinal: 0 for hardware decoding, 1 for software, 2 for none. Computed on
+    // first use; a race computes the same values twice.
+    private volatile int[] decoderCost;
+
+    private CapabilityEgressPolicy(Builder builder) {
+        this.capabilities = builder.capabilities != null ? builder.capabilities : MediaCodecCapabilities.get();
+        this.codecs = builder.codecs.clone();
+        this.codecsDeclared = builder.codecsDeclared;
+        Arrays.fill(preferenceRank, builder.preference.length);
+        for (int rank = builder.preference.length - 1; rank >= 0; rank--) {
+            preferenceRank[builder.preference[rank].ordinal()] = rank;
+        }
+        for (EgressType type : TYPES) {
+            containerCost[type.ordinal()] = capabilities.supportsContainer(type) ? 0 : 1;
+        }
+        if (codecsDeclared && builder.capabilities == null) {
+            MediaCodecCapabilities.probeInBackground();
+        }
+    }
+
+    /**
+     * Get a policy over this device's capabilities, with no app preference and
+     * {@link #DEFAULT_CODEC} for every egress type. It ranks by container support alone,
+     * so it never probes the codec list and is cheap to get and use on the main thread.
+     * @return The shared default policy
+     */
+    @NonNull
+    public static CapabilityEgressPolicy getDefault() {
+        CapabilityEgressPolicy policy = defaultPolicy;
+        if (policy == null) {
+            synchronized (CapabilityEgressPolicy.class) {
+                policy = defaultPolicy;
+                if (policy == null) {
+                    policy = builder().build();
+                    defaultPolicy = policy;
+                }
+            }
+        }
+        return policy;
+    }
+
+    /**
+     * Begin building a policy.
+     * @return A new builder
+     */
+    @NonNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public EgressType select(@NonNull LiveResource resource) {
+        int[] decoders = decoderCost();
+        EgressType best = null;
+        for (EgressType type : TYPES) {
+            if (resource.getEgressPoint(type) != null && (best == null || compare(type, best, decoders) < 0)) {
+                best = type;
+            }
+        }
+        return best;
+    }
+
+    private int[] decoderCost() {
+        int[] cost = decoderCost;
+        if (cost == null) {
+            cost = new int[TYPES.length];
+            // Without declared codecs every type carries the default one, so all tie.
+            if (codecsDeclared) {
+                for (EgressType type : TYPES) {
+                    DecoderSupport support = capabilities.getDecoderSupport(codecs[type.ordinal()]);
+                    cost[type.ordinal()] = DecoderSupport.HARDWARE.ordinal() - support.ordinal();
+                }
+            }
+            decoderCost = cost;
+        }
+        return cost;
+    }
+
+    private int compare(EgressType first, EgressType second, int[] decoders) {
+        int a = first.ordinal();
+        int b = second.ordinal();
+        if (containerCost[a] != containerCost[b]) {
+            return containerCost[a] - containerCost[b];
+        }
+        if (decoders[a] != decoders[b]) {
+            return decoders[a] - decoders[b];
+        }
+        if (preferenceRank[a] != preferenceRank[b]) {
+            return preferenceRank[a] - preferenceRank[b];
+        }
+        return a - b;
+    }
+
+    /**
+     * Builds a {@link CapabilityEgressPolicy}.
+     */
+    public static final class Builder {
+        private DeviceCapabilities capabilities;
+        private EgressType[] preference = new EgressType[0];
+        private final String[] codecs = new String[TYPES.length];
+        private boolean codecsDeclared;
+
+        private Builder() {
+            Arrays.fill(codecs, DEFAULT_CODEC);
+        }
+
+        /**
+         * Set the capabilities to rank against. Defaults to this device's, from
+         * {@link MediaCodecCapabilities}.
+         * @param capabilities Device capabilities
+         * @return This builder
+         */
+        @NonNull
+        public Builder capabilities(@NonNull DeviceCapabilities capabilities) {
+            this.capabilities = Objects.requireNonNull(capabilities);
+            return this;
+        }
+
+        /**
+         * Set the app's preferred egress order, used between equally capable formats.
+         * Types not listed rank after those listed.
+         * @param preference Egress types, most preferred first
+         * @return This builder
+         */
+        @NonNull
+        public Builder preference(@NonNull EgressType... preference) {
+            for (EgressType type : preference) {
+                Objects.requireNonNull(type);
+            }
+            this.preference = preference.clone();
+            return this;
+        }
+
+        /**
+         * Declare the video codec an egress type carries, when the app knows its
+         * encoder settings. Defaults to {@link #DEFAULT_CODEC}. Declaring any codec makes
+         * the policy rank by decoder support, which needs the device's codec list.
+         * @param type An egress type
+         * @param mimeType Codec MIME type, such as {@code video/hevc}
+         * @return This builder
+         */
+        @NonNull
+        public Builder codec(@NonNull EgressType type, @NonNull String mimeType) {
+            codecs[type.ordinal()] = Objects.requireNonNull(mimeType);
+            codecsDeclared = true;
+            return this;
+        }
+
+        /**
+         * Build the policy.
+         * @return A capability-aware egress policy
+         */
+        @NonNull
+        public CapabilityEgressPolicy build() {
+            return new CapabilityEgressPolicy(this);
+        }
+    }
+}
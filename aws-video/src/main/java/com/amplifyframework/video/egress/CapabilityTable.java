@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.egress;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A fixed set of device capabilities. The device probe produces one, and tests can build
+ * their own to stand in for any device.
+ */
+public final class CapabilityTable implements DeviceCapabilities {
+
+    private final Set<EgressType> containers;
+    private final Map<String, DecoderSupport> decoders;
+
+    private CapabilityTable(Builder builder) {
+        this.containers = EnumSet.copyOf(builder.containers);
+        this.decoders = new HashMap<>(builder.decoders);
+    }
+
+    /**
+     * Begin building a capability table. Nothing is supported until added.
+     * @return A new builder
+     */
+    @NonNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supportsContainer(@NonNull EgressType type) {
+        return containers.contains(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public DecoderSupport getDecoderSupport(@NonNull String mimeType) {
+        DecoderSupport support = decoders.get(mimeType.toLowerCase(Locale.US));
+        return support == null ? DecoderSupport.NONE : support;
+    }
+
+    /**
+     * Builds a {@link CapabilityTable}.
+     */
+    public static final class Builder {
+        private final Set<EgressType> containers = EnumSet.noneOf(EgressType.class);
+        private final Map<String, DecoderSupport> decoders = new HashMap<>();
+
+        private Builder() { }
+
+        /**
+         * Mark a streaming format as playable.
+         * @param type An egress type
+         * @return This builder
+         */
+        @NonNull
+        public Builder container(@NonNull EgressType type) {
+            containers.add(Objects.requireNonNull(type));
+            return this;
+        }
+
+        /**
+         * Record a decoder. When several are recorded for one codec, the best is kept.
+         * @param mimeType Codec MIME type
+         * @param support How well the decoder handles it
+         * @return This builder
+         */
+        @NonNull
+        public Builder decoder(@NonNull String mimeType, @NonNull DecoderSupport support) {
+            String key = mimeType.toLowerCase(Locale.US);
+            DecoderSupport current = decoders.get(key);
+            if (current == null || support.compareTo(current) > 0) {
+                decoders.put(key, Objects.requireNonNull(support));
+            }
+            return this;
+        }
+
+        /**
+         * Build the table.
+         * @return A capability table
+         */
+        @NonNull
+        public CapabilityTable build() {
+            return new CapabilityTable(this);
+        }
+    }
+}
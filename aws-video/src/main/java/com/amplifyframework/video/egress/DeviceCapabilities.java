@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.egress;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+
+/**
+ * What a device can play: which streaming containers its playback engine reads, and
+ * which codecs it can decode.
+ */
+public interface DeviceCapabilities {
+
+    /**
+     * Check whether the playback engine reads a streaming format.
+     * @param type An egress type
+     * @return true if streams of that type can be played
+     */
+    boolean supportsContainer(@NonNull EgressType type);
+
+    /**
+     * Check how well the device decodes a codec.
+     * @param mimeType Codec MIME type, such as {@code video/avc}
+     * @return The best available decoder support
+     */
+    @NonNull
+    DecoderSupport getDecoderSupport(@NonNull String mimeType);
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.egress;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+import com.amplifyframework.extended.video.resources.live.LiveResource;
+
+/**
+ * Chooses which of a live resource's egress points a player connects to.
+ */
+public interface EgressPolicy {
+
+    /**
+     * Choose an egress type for a resource.
+     * @param resource A live resource
+     * @return An egress type the resource has a point for, or null if it has none
+     */
+    @Nullable
+    EgressType select(@NonNull LiveResource resource);
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.egress;
+
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.os.Build;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+
+import java.util.Locale;
+
+/**
+ * The capabilities of this device with the platform media player. Container support is
+ * known without probing; the decoders installed are found by walking the codec list, which
+ * happens once per process, on first use or in the background after
+ * {@link #probeInBackground()}, since it does not change while the app runs.
+ */
+public final class MediaCodecCapabilities implements DeviceCapabilities {
+
+    private static final MediaCodecCapabilities INSTANCE = new MediaCodecCapabilities();
+
+    private static volatile CapabilityTable decoders;
+
+    private MediaCodecCapabilities() { }
+
+    /**
+     * Get the capabilities of this device with the platform media player. Does not probe
+     * the codec list; the first decoder lookup does.
+     * @return Capabilities of this device
+     */
+    @NonNull
+    public static DeviceCapabilities get() {
+        return INSTANCE;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The platform player reads HLS, which is also what MediaStore origins serve.
+     */
+    @Override
+    public boolean supportsContainer(@NonNull EgressType type) {
+        return type == EgressType.HLS || type == EgressType.MEDIASTORE;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Blocks to probe the codec list if it has not been probed yet.
+     */
+    @NonNull
+    @Override
+    public DecoderSupport getDecoderSupport(@NonNull String mimeType) {
+        return decoders().getDecoderSupport(mimeType);
+    }
+
+    /**
+     * Probe the codec list on a background thread, unless it has been probed already, so
+     * that decoder lookups do not wait for it.
+     */
+    static void probeInBackground() {
+        if (decoders != null) {
+            return;
+        }
+        Thread thread = new Thread(MediaCodecCapabilities::decoders, "amplify-video-codec-probe");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static CapabilityTable decoders() {
+        CapabilityTable table = decoders;
+        if (table == null) {
+            synchronized (MediaCodecCapabilities.class) {
+                table = decoders;
+                if (table == null) {
+                    table = probe();
+                    decoders = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static CapabilityTable probe() {
+        CapabilityTable.Builder builder = CapabilityTable.builder();
+        int count = MediaCodecList.getCodecCount();
+        for (int index = 0; index < count; index++) {
+            MediaCodecInfo info = MediaCodecList.getCodecInfoAt(index);
+            if (info.isEncoder()) {
+                continue;
+            }
+            DecoderSupport support = isHardware(info) ? DecoderSupport.HARDWARE : DecoderSupport.SOFTWARE;
+            for (String type : info.getSupportedTypes()) {
+                builder.decoder(type, support);
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean isHardware(MediaCodecInfo info) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            return info.isHardwareAccelerated();
+        }
+        // Before Q the platform does not say; its own software codecs follow these names.
+        String name = info.getName().toLowerCase(Locale.US);
+        return !name.startsWith("omx.google.")
+                && !name.startsWith("c2.android.")
+                && !name.contains(".sw.");
+    }
+}
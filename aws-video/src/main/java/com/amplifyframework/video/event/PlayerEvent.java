@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.event;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+
+/**
+ * A reusable record of a single player event.
+ *
+ * Instances are owned by a {@link PlayerEventRingBuffer} and overwritten once
+ * consumed, so a {@link PlayerEventPipeline.Consumer} must copy out anything it
+ * wants to keep before returning from its callback.
+ */
+public final class PlayerEvent {
+
+    private Type type;
+    private long timestamp;
+    private long value;
+    private long secondaryValue;
+    private VideoPlayer.State state;
+    private int touchAction;
+    private float touchX;
+    private float touchY;
+
+    PlayerEvent() { }
+
+    void set(Type type, long timestamp, long value, long secondaryValue, VideoPlayer.State state) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.value = value;
+        this.secondaryValue = secondaryValue;
+        this.state = state;
+        this.touchAction = 0;
+        this.touchX = 0;
+        this.touchY = 0;
+    }
+
+    void setTouch(long timestamp, int action, float posX, float posY) {
+        set(Type.TOUCH, timestamp, 0, 0, null);
+        this.touchAction = action;
+        this.touchX = posX;
+        this.touchY = posY;
+    }
+
+    /**
+     * Get the kind of event this record describes.
+     * @return Event type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the time at which the event was published.
+     * @return Milliseconds on the pipeline's clock, by default
+     *         {@link android.os.SystemClock#elapsedRealtime()}
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the playback position carried by {@link Type#PLAY}, {@link Type#PAUSE},
+     * {@link Type#BUFFERING_START}, {@link Type#BUFFERING_COMPLETE} and
+     * {@link Type#STALL_PREDICTED} events, or the target position of a {@link Type#SEEK}.
+     * @return Playback position in milliseconds
+     */
+    public long getPosition() {
+        return type == Type.SEEK ? secondaryValue : value;
+    }
+
+    /**
+     * Get the position a {@link Type#SEEK} started from.
+     * @return Previous playback position in milliseconds
+     */
+    public long getPreviousPosition() {
+        return type == Type.SEEK ? value : 0;
+    }
+
+    /**
+     * Get the predicted time until playback stalls, carried by {@link Type#STALL_PREDICTED}.
+     * @return Milliseconds until the buffer is expected to run dry, or 0 for other event types
+     */
+    public long getTimeToStall() {
+        return type == Type.STALL_PREDICTED ? secondaryValue : 0;
+    }
+
+    /**
+     * Get the clip duration carried by {@link Type#PREPARING} and {@link Type#END} events.
+     * @return Total duration in milliseconds
+     */
+    public long getDuration() {
+        return value;
+    }
+
+    /**
+     * Get the new state carried by a {@link Type#STATE_CHANGE} event.
+     * @return New player state, or null for other event types
+     */
+    public VideoPlayer.State getState() {
+        return state;
+    }
+
+    /**
+     * Get the masked action of a {@link Type#TOUCH} event.
+     * @return A {@link android.view.MotionEvent} action constant
+     */
+    public int getTouchAction() {
+        return touchAction;
+    }
+
+    /**
+     * Get the horizontal coordinate of a {@link Type#TOUCH} event.
+     * @return X coordinate relative to the video view
+     */
+    public float getTouchX() {
+        return touchX;
+    }
+
+    /**
+     * Get the vertical coordinate of a {@link Type#TOUCH} event.
+     * @return Y coordinate relative to the video view
+     */
+    public float getTouchY() {
+        return touchY;
+    }
+
+    /**
+     * Kinds of player event, one for each {@link VideoPlayer.Listener} callback.
+     */
+    public enum Type {
+        /**
+         * The player entered a new state.
+         */
+        STATE_CHANGE,
+        /**
+         * The player started preparing a source.
+         */
+        PREPARING,
+        /**
+         * The player is ready.
+         */
+        READY,
+        /**
+         * Playback started.
+         */
+        PLAY,
+        /**
+         * Playback paused.
+         */
+        PAUSE,
+        /**
+         * Playback ended.
+         */
+        END,
+        /**
+         * Playback seeked to a new position.
+         */
+        SEEK,
+        /**
+         * Buffering started.
+         */
+        BUFFERING_START,
+        /**
+         * Buffering completed.
+         */
+        BUFFERING_COMPLETE,
+        /**
+         * A rebuffering stall is predicted.
+         */
+        STALL_PREDICTED,
+        /**
+         * The player view was touched.
+         */
+        TOUCH
+    }
+}
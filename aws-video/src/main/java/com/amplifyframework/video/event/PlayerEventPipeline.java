@@ -0,0 +1,377 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.event;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers player events to {@link Consumer}s on a background thread.
+ *
+ * A player publishes each event into a bounded ring of reusable {@link PlayerEvent}
+ * records; a single worker thread drains the ring in batches. Use this for analytics,
+ * logging and other listeners that never touch views, so that the main thread only
+ * runs the {@link VideoPlayer.Listener}s that do. Publishing never blocks: when the
+ * consumers fall behind and the ring fills up, new events are dropped and counted.
+ * The ring has a single producer, so a pipeline serves one player at a time.
+ */
+public final class PlayerEventPipeline {
+
+    /**
+     * Ring capacity used by {@link #PlayerEventPipeline()}.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final String TAG = "PlayerEventPipeline";
+    private static final int MAX_BATCH = 64;
+    private static final Consumer[] NO_CONSUMERS = new Consumer[0];
+
+    private final PlayerEventRingBuffer ring;
+    private final TimeSource clock;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final Object consumersLock = new Object();
+    private final AtomicReference<VideoPlayer> producer = new AtomicReference<>();
+    private volatile Consumer[] consumers = NO_CONSUMERS;
+    private volatile boolean running;
+    private volatile boolean parked;
+    private volatile Thread worker;
+    // Bumped on every start, so a worker left draining by a shutdown stops once replaced.
+    private volatile int generation;
+
+    /**
+     * Create a pipeline with {@link #DEFAULT_CAPACITY} event slots.
+     */
+    public PlayerEventPipeline() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a pipeline with a fixed number of event slots.
+     * @param capacity Number of events that may be in flight at once; a power of two
+     */
+    public PlayerEventPipeline(int capacity) {
+        this(capacity, TimeSource.SYSTEM);
+    }
+
+    /**
+     * Create a pipeline whose events are stamped by the given clock. Pass the player's
+     * clock so event timestamps follow the same, possibly virtual, time.
+     * @param capacity Number of events that may be in flight at once; a power of two
+     * @param clock Monotonic millisecond clock for event timestamps
+     */
+    public PlayerEventPipeline(int capacity, @NonNull TimeSource clock) {
+        this.ring = new PlayerEventRingBuffer(capacity);
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * Add a consumer which will receive every subsequently drained event.
+     * @param consumer A background event consumer
+     */
+    public void addConsumer(@NonNull Consumer consumer) {
+        Objects.requireNonNull(consumer);
+        synchronized (consumersLock) {
+            Consumer[] current = consumers;
+            Consumer[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = consumer;
+            consumers = updated;
+        }
+    }
+
+    /**
+     * Remove a consumer.
+     * @param consumer A consumer added before
+     * @return true if the consumer was removed
+     */
+    public boolean removeConsumer(@NonNull Consumer consumer) {
+        synchronized (consumersLock) {
+            Consumer[] current = consumers;
+            for (int index = 0; index < current.length; index++) {
+                if (current[index] == consumer) {
+                    Consumer[] updated = new Consumer[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, index);
+                    System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                    consumers = updated;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Bind the pipeline to the player which publishes into it.
+     * @param player The publishing player; binding the same player again has no effect
+     * @throws IllegalStateException If the pipeline is bound to another player
+     */
+    public void bindProducer(@NonNull VideoPlayer player) {
+        Objects.requireNonNull(player);
+        if (!producer.compareAndSet(null, player) && producer.get() != player) {
+            throw new IllegalStateException("The event pipeline is already bound to another player.");
+        }
+    }
+
+    /**
+     * Release the binding made by {@link #bindProducer(VideoPlayer)}, so another player
+     * may publish into the pipeline.
+     * @param player The player which bound the pipeline
+     */
+    public void unbindProducer(@NonNull VideoPlayer player) {
+        producer.compareAndSet(player, null);
+    }
+
+    /**
+     * Start the worker thread. Has no effect if the pipeline is already running. After a
+     * {@link #shutdown()}, the new worker waits for the old one to finish its batch, so
+     * events are never drained by two threads at once.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        final int current = ++generation;
+        final Thread previous = worker;
+        if (previous != null) {
+            // It may be parked, waiting for events, since it saw running set again.
+            LockSupport.unpark(previous);
+        }
+        worker = new Thread(() -> drainLoop(previous, current), "amplify-video-events");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stop the worker thread once it has drained the events already published.
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Publish a player event. Must only be called from the player's event thread,
+     * since the ring supports a single producer.
+     * @param type Type of event
+     * @param value Position or duration, per {@link PlayerEvent}
+     * @param secondaryValue Seek target for {@link PlayerEvent.Type#SEEK}, otherwise 0
+     * @param state New state for {@link PlayerEvent.Type#STATE_CHANGE}, otherwise null
+     * @return false if the event was dropped because the ring was full
+     */
+    public boolean publish(@NonNull PlayerEvent.Type type, long value, long secondaryValue, VideoPlayer.State state) {
+        PlayerEvent slot = ring.claim();
+        if (slot == null) {
+            return false;
+        }
+        slot.set(type, clock.now(), value, secondaryValue, state);
+        commit();
+        return true;
+    }
+
+    /**
+     * Publish a touch event, copying the coordinates out of the framework's event.
+     * Same threading rules as {@link #publish(PlayerEvent.Type, long, long, VideoPlayer.State)}.
+     * @param action Masked {@link android.view.MotionEvent} action
+     * @param posX X coordinate of the touch
+     * @param posY Y coordinate of the touch
+     * @return false if the event was dropped because the ring was full
+     */
+    public boolean publishTouch(int action, float posX, float posY) {
+        PlayerEvent slot = ring.claim();
+        if (slot == null) {
+            return false;
+        }
+        slot.setTouch(clock.now(), action, posX, posY);
+        commit();
+        return true;
+    }
+
+    private void commit() {
+        ring.publish();
+        if (parked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Get the number of event slots.
+     * @return Ring capacity
+     */
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    /**
+     * Get the number of events accepted into the ring since creation.
+     * @return Published event count
+     */
+    public long getPublishedCount() {
+        return ring.published();
+    }
+
+    /**
+     * Get the number of events rejected because the ring was full.
+     * @return Dropped event count
+     */
+    public long getDroppedCount() {
+        return ring.dropped();
+    }
+
+    /**
+     * Get the number of events handed to consumers since creation.
+     * @return Delivered event count
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Get the number of batches drained since creation.
+     * @return Drained batch count
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Get the number of events published but not yet drained.
+     * @return Current backlog
+     */
+    public long getBacklog() {
+        return ring.backlog();
+    }
+
+    /**
+     * Get the largest backlog observed; approaching {@link #getCapacity()} means
+     * consumers are close to causing drops.
+     * @return Peak backlog
+     */
+    public long getHighWaterMark() {
+        return ring.highWaterMark();
+    }
+
+    private void drainLoop(Thread previous, int current) {
+        if (previous != null) {
+            awaitTermination(previous);
+        }
+        while (current == generation && (running || !ring.isEmpty())) {
+            if (drainBatch() == 0) {
+                parked = true;
+                // Re-check after raising the flag, so a publish racing with us either
+                // lands before the check or sees the flag and unparks us.
+                if (current == generation && running && ring.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        }
+        if (current == generation) {
+            // Stopped by shutdown() rather than replaced by a newer worker.
+            notifyShutdown();
+        }
+    }
+
+    private void notifyShutdown() {
+        for (Consumer consumer : consumers) {
+            try {
+                consumer.onShutdown();
+            } catch (RuntimeException exception) {
+                Log.w(TAG, "Player event consumer failed.", exception);
+            }
+        }
+    }
+
+    private static void awaitTermination(Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException exception) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int drainBatch() {
+        int count = ring.available(MAX_BATCH);
+        if (count == 0) {
+            return 0;
+        }
+        Consumer[] snapshot = consumers;
+        for (int offset = 0; offset < count; offset++) {
+            PlayerEvent event = ring.peek(offset);
+            for (Consumer consumer : snapshot) {
+                try {
+                    consumer.onEvent(event);
+                } catch (RuntimeException exception) {
+                    Log.w(TAG, "Player event consumer failed.", exception);
+                }
+            }
+        }
+        ring.advance(count);
+        for (Consumer consumer : snapshot) {
+            try {
+                consumer.onBatchEnd();
+            } catch (RuntimeException exception) {
+                Log.w(TAG, "Player event consumer failed.", exception);
+            }
+        }
+        delivered.addAndGet(count);
+        batches.incrementAndGet();
+        return count;
+    }
+
+    /**
+     * Receives player events on the pipeline's worker thread.
+     */
+    public abstract static class Consumer {
+
+        /**
+         * Called for each event, in publication order.
+         * @param event The event record; reused once this method returns
+         */
+        public abstract void onEvent(@NonNull PlayerEvent event);
+
+        /**
+         * Called after each drained batch. A good place to flush accumulated work.
+         */
+        public void onBatchEnd() {
+        }
+
+        /**
+         * Called once the pipeline has drained the events published before
+         * {@link PlayerEventPipeline#shutdown()}, as its worker thread exits.
+         */
+        public void onShutdown() {
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer, single-consumer ring of preallocated {@link PlayerEvent}s.
+ *
+ * The producer never blocks: when the ring is full the event is dropped and counted.
+ */
+final class PlayerEventRingBuffer {
+
+    private final PlayerEvent[] slots;
+    private final int mask;
+    // Next sequence the producer will write, and next sequence the consumer will read.
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long highWaterMark;
+
+    PlayerEventRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        slots = new PlayerEvent[capacity];
+        for (int index = 0; index < capacity; index++) {
+            slots[index] = new PlayerEvent();
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Claim the next free slot for writing. Must be followed by {@link #publish()}
+     * before the next claim. Producer thread only.
+     * @return A slot to fill in, or null if the ring is full and the event was dropped
+     */
+    PlayerEvent claim() {
+        long sequence = head.get();
+        if (sequence - tail.get() >= slots.length) {
+            dropped.incrementAndGet();
+            return null;
+        }
+        return slots[(int) (sequence & mask)];
+    }
+
+    /**
+     * Make the most recently claimed slot visible to the consumer. Producer thread only.
+     */
+    void publish() {
+        long sequence = head.get() + 1;
+        // Volatile write: pairs with the consumer's parked flag so a wake-up is never lost.
+        head.set(sequence);
+        long backlog = sequence - tail.get();
+        if (backlog > highWaterMark) {
+            highWaterMark = backlog;
+        }
+    }
+
+    /**
+     * Number of published events ready to be read, capped at {@code maxEvents}.
+     * Consumer thread only.
+     * @param maxEvents Upper bound on the returned count
+     * @return Events readable through {@link #peek(int)}
+     */
+    int available(int maxEvents) {
+        return (int) Math.min(head.get() - tail.get(), maxEvents);
+    }
+
+    /**
+     * Read a published event without consuming it. Consumer thread only.
+     * @param offset Offset from the oldest unconsumed event, below {@link #available(int)}
+     * @return The event record; valid until {@link #advance(int)} passes it
+     */
+    PlayerEvent peek(int offset) {
+        return slots[(int) ((tail.get() + offset) & mask)];
+    }
+
+    /**
+     * Release consumed slots back to the producer. Consumer thread only.
+     * @param count Number of events consumed
+     */
+    void advance(int count) {
+        tail.lazySet(tail.get() + count);
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    long backlog() {
+        return head.get() - tail.get();
+    }
+
+    long published() {
+        return head.get();
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    long highWaterMark() {
+        return highWaterMark;
+    }
+}
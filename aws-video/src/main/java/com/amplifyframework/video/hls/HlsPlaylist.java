@@ -0,0 +1,357 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.hls;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * A parsed HLS playlist: either a master playlist listing variant streams, or a media
+ * playlist listing segments.
+ *
+ * Only the tags the player needs are read: variants and their bandwidth and resolution, target
+ * duration, media sequence, segment durations and URIs, program date-time and the end
+ * marker. Segment and variant URIs are resolved against the playlist's own URL.
+ */
+public final class HlsPlaylist {
+
+    private static final String HEADER = "#EXTM3U";
+    private static final String TARGET_DURATION = "#EXT-X-TARGETDURATION:";
+    private static final String MEDIA_SEQUENCE = "#EXT-X-MEDIA-SEQUENCE:";
+    private static final String SEGMENT = "#EXTINF:";
+    private static final String PROGRAM_DATE_TIME = "#EXT-X-PROGRAM-DATE-TIME:";
+    private static final String END_LIST = "#EXT-X-ENDLIST";
+    private static final String STREAM_INF = "#EXT-X-STREAM-INF:";
+    private static final String BANDWIDTH = "BANDWIDTH=";
+    private static final String RESOLUTION = "RESOLUTION=";
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final String url;
+    private final long targetDurationMillis;
+    private final long mediaSequence;
+    private final long[] segmentDurations;
+    private final String[] segmentUris;
+    private final long[] programDateTimes;
+    private final boolean endList;
+    private final String[] variantUris;
+    private final long[] variantBandwidths;
+    private final int[] variantWidths;
+    private final int[] variantHeights;
+
+    private HlsPlaylist(Parser parser) {
+        this.url = parser.url;
+        this.targetDurationMillis = parser.targetDurationMillis;
+        this.mediaSequence = parser.mediaSequence;
+        this.segmentDurations = Arrays.copyOf(parser.segmentDurations, parser.segmentCount);
+        this.segmentUris = Arrays.copyOf(parser.segmentUris, parser.segmentCount);
+        this.programDateTimes = Arrays.copyOf(parser.programDateTimes, parser.segmentCount);
+        this.endList = parser.endList;
+        this.variantUris = Arrays.copyOf(parser.variantUris, parser.variantCount);
+        this.variantBandwidths = Arrays.copyOf(parser.variantBandwidths, parser.variantCount);
+        this.variantWidths = Arrays.copyOf(parser.variantWidths, parser.variantCount);
+        this.variantHeights = Arrays.copyOf(parser.variantHeights, parser.variantCount);
+    }
+
+    /**
+     * Parse a playlist.
+     * @param text Playlist body
+     * @param url URL the playlist was loaded from, used to resolve relative URIs
+     * @return The parsed playlist
+     * @throws IOException If the text is not an HLS playlist
+     */
+    @NonNull
+    public static HlsPlaylist parse(@NonNull String text, @NonNull String url) throws IOException {
+        Parser parser = new Parser(url);
+        parser.parse(text);
+        return new HlsPlaylist(parser);
+    }
+
+    /**
+     * Get the URL this playlist was loaded from.
+     * @return Playlist URL
+     */
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Whether this is a master playlist, listing variants rather than segments.
+     * @return true for a master playlist
+     */
+    public boolean isMaster() {
+        return variantUris.length > 0;
+    }
+
+    /**
+     * Get the number of variant streams in a master playlist.
+     * @return Variant count; 0 for a media playlist
+     */
+    public int getVariantCount() {
+        return variantUris.length;
+    }
+
+    /**
+     * Get the media playlist URL of a variant.
+     * @param index Variant index, in playlist order
+     * @return Absolute URL
+     */
+    @NonNull
+    public String getVariantUri(int index) {
+        return variantUris[index];
+    }
+
+    /**
+     * Get the peak bandwidth a variant declares.
+     * @param index Variant index, in playlist order
+     * @return Bits per second, or 0 if not declared
+     */
+    public long getVariantBandwidth(int index) {
+        return variantBandwidths[index];
+    }
+
+    /**
+     * Get the video width a variant declares.
+     * @param index Variant index, in playlist order
+     * @return Pixels, or 0 if not declared
+     */
+    public int getVariantWidth(int index) {
+        return variantWidths[index];
+    }
+
+    /**
+     * Get the video height a variant declares.
+     * @param index Variant index, in playlist order
+     * @return Pixels, or 0 if not declared
+     */
+    public int getVariantHeight(int index) {
+        return variantHeights[index];
+    }
+
+    /**
+     * Get the maximum segment duration the playlist promises.
+     * @return Milliseconds
+     */
+    public long getTargetDurationMillis() {
+        return targetDurationMillis;
+    }
+
+    /**
+     * Get the media sequence number of the first segment.
+     * @return Sequence number
+     */
+    public long getMediaSequence() {
+        return mediaSequence;
+    }
+
+    /**
+     * Get the media sequence number of the last segment.
+     * @return Sequence number, or one less than {@link #getMediaSequence()} if there are no segments
+     */
+    public long getLastMediaSequence() {
+        return mediaSequence + segmentDurations.length - 1;
+    }
+
+    /**
+     * Get the number of segments listed.
+     * @return Segment count
+     */
+    public int getSegmentCount() {
+        return segmentDurations.length;
+    }
+
+    /**
+     * Get a segment's duration.
+     * @param index Segment index within this playlist
+     * @return Milliseconds
+     */
+    public long getSegmentDurationMillis(int index) {
+        return segmentDurations[index];
+    }
+
+    /**
+     * Get a segment's URL.
+     * @param index Segment index within this playlist
+     * @return Absolute URL
+     */
+    @NonNull
+    public String getSegmentUri(int index) {
+        return segmentUris[index];
+    }
+
+    /**
+     * Get the wall-clock time of a segment's first sample, from the most recent
+     * program date-time tag at or before it.
+     * @param index Segment index within this playlist
+     * @return Epoch milliseconds, or -1 if the playlist carries no program date-time
+     */
+    public long getProgramDateTime(int index) {
+        return programDateTimes[index];
+    }
+
+    /**
+     * Get the total duration of the listed segments.
+     * @return Milliseconds
+     */
+    public long getDurationMillis() {
+        long total = 0;
+        for (long duration : segmentDurations) {
+            total += duration;
+        }
+        return total;
+    }
+
+    /**
+     * Whether the stream has ended and no more segments will be added.
+     * @return true if the playlist is complete
+     */
+    public boolean isEndList() {
+        return endList;
+    }
+
+    private static final class Parser {
+        private final String url;
+        private long targetDurationMillis;
+        private long mediaSequence;
+        private long[] segmentDurations = new long[INITIAL_CAPACITY];
+        private String[] segmentUris = new String[INITIAL_CAPACITY];
+        private long[] programDateTimes = new long[INITIAL_CAPACITY];
+        private int segmentCount;
+        private boolean endList;
+        private String[] variantUris = new String[0];
+        private long[] variantBandwidths = new long[0];
+        private int[] variantWidths = new int[0];
+        private int[] variantHeights = new int[0];
+        private int variantCount;
+
+        Parser(String url) {
+            this.url = url;
+        }
+
+        void parse(String text) throws IOException {
+            String[] lines = text.split("\\r?\\n");
+            if (lines.length == 0 || !lines[0].trim().startsWith(HEADER)) {
+                throw new IOException("Not an HLS playlist: " + url);
+            }
+            long pendingDuration = -1;
+            long pendingBandwidth = -1;
+            String pendingResolution = null;
+            long programDateTime = -1;
+            try {
+                for (int index = 1; index < lines.length; index++) {
+                    String line = lines[index].trim();
+                    if (line.isEmpty()) {
+                        continue;
+                    } else if (line.startsWith(TARGET_DURATION)) {
+                        targetDurationMillis = Long.parseLong(value(line, TARGET_DURATION)) * MILLIS_PER_SECOND;
+                    } else if (line.startsWith(MEDIA_SEQUENCE)) {
+                        mediaSequence = Long.parseLong(value(line, MEDIA_SEQUENCE));
+                    } else if (line.startsWith(SEGMENT)) {
+                        String duration = value(line, SEGMENT);
+                        int comma = duration.indexOf(',');
+                        duration = comma >= 0 ? duration.substring(0, comma) : duration;
+                        pendingDuration = Math.round(Double.parseDouble(duration) * MILLIS_PER_SECOND);
+                    } else if (line.startsWith(PROGRAM_DATE_TIME)) {
+                        programDateTime = OffsetDateTime.parse(value(line, PROGRAM_DATE_TIME))
+                                .toInstant().toEpochMilli();
+                    } else if (line.startsWith(END_LIST)) {
+                        endList = true;
+                    } else if (line.startsWith(STREAM_INF)) {
+                        String attributes = value(line, STREAM_INF);
+                        pendingBandwidth = bandwidth(attributes);
+                        pendingResolution = attribute(attributes, RESOLUTION);
+                    } else if (line.charAt(0) != '#') {
+                        if (pendingBandwidth >= 0) {
+                            addVariant(resolve(line), pendingBandwidth, pendingResolution);
+                            pendingBandwidth = -1;
+                        } else if (pendingDuration >= 0) {
+                            addSegment(resolve(line), pendingDuration, programDateTime);
+                            if (programDateTime >= 0) {
+                                programDateTime += pendingDuration;
+                            }
+                            pendingDuration = -1;
+                        }
+                    }
+                }
+            } catch (NumberFormatException | DateTimeParseException exception) {
+                throw new IOException("Malformed HLS playlist: " + url, exception);
+            }
+        }
+
+        private void addSegment(String uri, long duration, long programDateTime) {
+            if (segmentCount == segmentDurations.length) {
+                int capacity = segmentCount * 2;
+                segmentDurations = Arrays.copyOf(segmentDurations, capacity);
+                segmentUris = Arrays.copyOf(segmentUris, capacity);
+                programDateTimes = Arrays.copyOf(programDateTimes, capacity);
+            }
+            segmentDurations[segmentCount] = duration;
+            segmentUris[segmentCount] = uri;
+            programDateTimes[segmentCount] = programDateTime;
+            segmentCount++;
+        }
+
+        private void addVariant(String uri, long bandwidth, String resolution) {
+            if (variantCount == variantUris.length) {
+                int capacity = Math.max(INITIAL_CAPACITY, variantCount * 2);
+                variantUris = Arrays.copyOf(variantUris, capacity);
+                variantBandwidths = Arrays.copyOf(variantBandwidths, capacity);
+                variantWidths = Arrays.copyOf(variantWidths, capacity);
+                variantHeights = Arrays.copyOf(variantHeights, capacity);
+            }
+            variantUris[variantCount] = uri;
+            variantBandwidths[variantCount] = bandwidth;
+            int separator = resolution == null ? -1 : resolution.indexOf('x');
+            if (separator > 0) {
+                variantWidths[variantCount] = Integer.parseInt(resolution.substring(0, separator));
+                variantHeights[variantCount] = Integer.parseInt(resolution.substring(separator + 1));
+            }
+            variantCount++;
+        }
+
+        private String resolve(String uri) {
+            return URI.create(url).resolve(uri).toString();
+        }
+
+        private static String value(String line, String tag) {
+            return line.substring(tag.length()).trim();
+        }
+
+        private static String attribute(String attributes, String name) {
+            int start = attributes.indexOf(name);
+            // Match whole names only, so BANDWIDTH does not match AVERAGE-BANDWIDTH.
+            while (start > 0 && attributes.charAt(start - 1) != ',') {
+                start = attributes.indexOf(name, start + 1);
+            }
+            if (start < 0) {
+                return null;
+            }
+            int end = attributes.indexOf(',', start);
+            return attributes.substring(start + name.length(), end < 0 ? attributes.length() : end);
+        }
+
+        private static long bandwidth(String attributes) {
+            String value = attribute(attributes, BANDWIDTH);
+            return value == null ? 0 : Long.parseLong(value);
+        }
+    }
+}
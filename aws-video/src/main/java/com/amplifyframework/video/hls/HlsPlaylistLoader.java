@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.hls;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+
+/**
+ * Downloads HLS playlists over HTTP. Blocking; call it off the main thread.
+ */
+public final class HlsPlaylistLoader {
+
+    // StandardCharsets needs API 19.
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int TIMEOUT_MILLIS = 10_000;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ManifestCache cache;
+
+    /**
+     * Create a loader which always downloads.
+     */
+    public HlsPlaylistLoader() {
+        this(null);
+    }
+
+    /**
+     * Create a loader which reads through a manifest cache: playlists which cannot change
+     * come from disk, and the rest are revalidated with conditional requests.
+     * @param cache A manifest cache, or null to always download
+     */
+    public HlsPlaylistLoader(ManifestCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Load a media playlist. If the URL names a master playlist, its first variant, which
+     * HLS designates as the default, is loaded instead.
+     * @param url Playlist URL
+     * @return A media playlist
+     * @throws IOException If the download fails or the playlist is malformed
+     */
+    @NonNull
+    public HlsPlaylist loadMediaPlaylist(@NonNull String url) throws IOException {
+        HlsPlaylist playlist = load(url);
+        if (playlist.isMaster()) {
+            playlist = load(playlist.getVariantUri(0));
+        }
+        return playlist;
+    }
+
+    /**
+     * Load and parse one playlist.
+     * @param url Playlist URL
+     * @return The playlist, master or media
+     * @throws IOException If the download fails or the playlist is malformed
+     */
+    @NonNull
+    public HlsPlaylist load(@NonNull String url) throws IOException {
+        return HlsPlaylist.parse(fetch(url), url);
+    }
+
+    /**
+     * Read a UTF-8 body to the end.
+     * @param input Body stream
+     * @return The body text
+     * @throws IOException If the stream cannot be read
+     */
+    static String readText(InputStream input) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return new String(body.toByteArray(), UTF_8);
+    }
+
+    private String fetch(String url) throws IOException {
+        if (cache != null) {
+            return cache.load(url);
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        try {
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Playlist request failed with HTTP " + status + ": " + url);
+            }
+            try (InputStream input = connection.getInputStream()) {
+                return readText(input);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
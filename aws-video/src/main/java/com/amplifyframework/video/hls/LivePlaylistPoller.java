@@ -0,0 +1,280 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.hls;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls live HLS media playlists for live edge trackers, so that several trackers
+ * following the same egress URL, e.g. in a mini-player and a full-screen view of one
+ * channel, cost one playlist download per refresh between them.
+ *
+ * Only playlist polling is shared, and only among subscribers. Media segments are never
+ * fetched here: the platform media player cannot be handed a playlist or segment data, so
+ * every player still downloads the playlists and segments it plays on its own. Following a
+ * stream through the poller therefore adds one playlist download per refresh for the
+ * stream, on top of the players' own.
+ *
+ * Subscriptions are reference counted per URL: the first one starts polling, later ones
+ * immediately receive the latest playlist, and closing the last one stops polling.
+ * Playlists are immutable, so every subscriber receives the same instance. The refresh
+ * cadence follows the HLS spec: every target duration, or half of one when the playlist
+ * has not changed. A master playlist is downloaded once; refreshes then poll its default
+ * variant directly.
+ */
+public final class LivePlaylistPoller {
+
+    private static final long RETRY_DELAY_MILLIS = 2000L;
+    private static final String TAG = "LivePlaylistPoller";
+    private static final Listener[] NO_LISTENERS = new Listener[0];
+    private static final LivePlaylistPoller DEFAULT = new LivePlaylistPoller(new HlsPlaylistLoader());
+
+    private final HlsPlaylistLoader loader;
+    private final ScheduledExecutorService refresher;
+    private final Map<String, Channel> channels = new HashMap<>();
+    private long loadCount;
+
+    /**
+     * Create a poller with its own polling thread.
+     * @param loader Loader for playlist downloads
+     */
+    public LivePlaylistPoller(@NonNull HlsPlaylistLoader loader) {
+        this.loader = Objects.requireNonNull(loader);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-playlist");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the poller shared by all players in the process.
+     * @return The default poller
+     */
+    @NonNull
+    public static LivePlaylistPoller getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Follow a live playlist. The listener is called on the poller's thread with
+     * each playlist loaded, starting with the latest one if the URL is already followed.
+     * @param url URL of a master or media playlist; a master playlist is followed through
+     *            its default variant
+     * @param listener Receives loaded media playlists
+     * @return A subscription to close when the playlist is no longer needed
+     */
+    @NonNull
+    public Subscription subscribe(@NonNull String url, @NonNull Listener listener) {
+        Objects.requireNonNull(url);
+        Objects.requireNonNull(listener);
+        Channel channel;
+        synchronized (this) {
+            channel = channels.get(url);
+            if (channel == null) {
+                channel = new Channel(url);
+                channels.put(url, channel);
+                channel.pendingRefresh = refresher.submit(channel::refresh);
+            }
+            channel.add(listener);
+        }
+        final Channel subscribed = channel;
+        if (subscribed.latest != null) {
+            refresher.execute(() -> subscribed.replay(listener));
+        }
+        return new Subscription(subscribed, listener);
+    }
+
+    /**
+     * Get the number of playlist URLs currently being polled.
+     * @return Followed URL count
+     */
+    public synchronized int getFollowedCount() {
+        return channels.size();
+    }
+
+    /**
+     * Get the number of playlist downloads made, for comparison with the number of
+     * subscribers they served.
+     * @return Download count
+     */
+    public synchronized long getLoadCount() {
+        return loadCount;
+    }
+
+    private void release(Channel channel, Listener listener) {
+        synchronized (this) {
+            if (!channel.remove(listener) || channel.listeners.length > 0) {
+                return;
+            }
+            channels.remove(channel.url);
+            channel.closed = true;
+            if (channel.pendingRefresh != null) {
+                channel.pendingRefresh.cancel(false);
+                channel.pendingRefresh = null;
+            }
+        }
+    }
+
+    private synchronized void schedule(Channel channel, long delayMillis) {
+        if (!channel.closed) {
+            channel.pendingRefresh = refresher.schedule(channel::refresh, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Receives playlists from a {@link LivePlaylistPoller}.
+     */
+    public interface Listener {
+
+        /**
+         * Called on the poller's thread with each loaded media playlist.
+         * @param playlist The playlist; shared with other subscribers and immutable
+         */
+        void onPlaylist(@NonNull HlsPlaylist playlist);
+    }
+
+    /**
+     * One subscriber's interest in a playlist.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final Channel channel;
+        private final Listener listener;
+
+        private Subscription(Channel channel, Listener listener) {
+            this.channel = channel;
+            this.listener = listener;
+        }
+
+        /**
+         * Get the master playlist the followed media playlist was chosen from.
+         * @return The master playlist, or null if the URL names a media playlist or has
+         *         not loaded yet
+         */
+        @Nullable
+        public HlsPlaylist getMasterPlaylist() {
+            return channel.master;
+        }
+
+        /**
+         * Stop receiving playlists. Polling stops once every subscriber to the URL has
+         * closed. Closing twice has no effect.
+         */
+        @Override
+        public void close() {
+            release(channel, listener);
+        }
+    }
+
+    /**
+     * Polling state for one URL. Only the polling thread loads and notifies; subscriber
+     * bookkeeping is guarded by the poller.
+     */
+    private final class Channel {
+        private final String url;
+        private volatile Listener[] listeners = NO_LISTENERS;
+        private volatile HlsPlaylist latest;
+        private volatile HlsPlaylist master;
+        // Only touched on the polling thread.
+        private String mediaUrl;
+        private Future<?> pendingRefresh;
+        private boolean closed;
+
+        Channel(String url) {
+            this.url = url;
+        }
+
+        void add(Listener listener) {
+            Listener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+            updated[listeners.length] = listener;
+            listeners = updated;
+        }
+
+        boolean remove(Listener listener) {
+            Listener[] current = listeners;
+            for (int index = 0; index < current.length; index++) {
+                if (current[index] == listener) {
+                    Listener[] updated = current.length == 1 ? NO_LISTENERS : new Listener[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, index);
+                    System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                    listeners = updated;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        HlsPlaylist load() throws IOException {
+            if (mediaUrl != null) {
+                return loader.load(mediaUrl);
+            }
+            HlsPlaylist first = loader.load(url);
+            if (!first.isMaster()) {
+                mediaUrl = url;
+                return first;
+            }
+            HlsPlaylist media = loader.load(first.getVariantUri(0));
+            master = first;
+            mediaUrl = first.getVariantUri(0);
+            return media;
+        }
+
+        void replay(Listener listener) {
+            HlsPlaylist current = latest;
+            // Skip if the listener unsubscribed before the replay ran.
+            if (current != null && Arrays.asList(listeners).contains(listener)) {
+                listener.onPlaylist(current);
+            }
+        }
+
+        void refresh() {
+            HlsPlaylist loaded;
+            try {
+                loaded = load();
+            } catch (IOException exception) {
+                Log.w(TAG, "Unable to refresh live playlist.", exception);
+                schedule(this, RETRY_DELAY_MILLIS);
+                return;
+            }
+            synchronized (LivePlaylistPoller.this) {
+                loadCount++;
+            }
+            HlsPlaylist previous = latest;
+            latest = loaded;
+            for (Listener listener : listeners) {
+                listener.onPlaylist(loaded);
+            }
+            if (loaded.isEndList()) {
+                return;
+            }
+            boolean changed = previous == null || loaded.getLastMediaSequence() != previous.getLastMediaSequence();
+            long delay = changed ? loaded.getTargetDurationMillis() : loaded.getTargetDurationMillis() / 2;
+            schedule(this, Math.max(RETRY_DELAY_MILLIS / 2, delay));
+        }
+    }
+}
@@ -0,0 +1,491 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.hls;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.video.metrics.Gauge;
+import com.amplifyframework.video.metrics.MetricsRegistry;
+import com.amplifyframework.video.metrics.NoOpMetricsRegistry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps manifests (HLS playlists and DASH MPDs) on disk, keyed by URL without its query,
+ * with the validators needed to revalidate them cheaply.
+ *
+ * What a cached manifest is served for depends on what it is:
+ * <ul>
+ *   <li>manifests that cannot change, i.e. HLS playlists with an end marker and static
+ *       MPDs, are served from disk without touching the network;</li>
+ *   <li>HLS master playlists, which rarely change even for live channels, are served
+ *       from disk and revalidated in the background;</li>
+ *   <li>everything else, such as live media playlists, is revalidated with a conditional
+ *       request before use, which costs a round trip but no body when unchanged.</li>
+ * </ul>
+ * A cached master playlist can also be played from a local copy whose URIs are made
+ * absolute, which {@link #getPlayableSource(String, SourceCallback)} hands to the player in
+ * place of the remote URL so that a warm start skips the master playlist request. Copies
+ * listing only some of the variants, e.g. to cap bitrate, come from
+ * {@link #getPlayableSource(String, boolean[])}. Copies are written for each playback from
+ * the URL being played, so URIs resolved against a signed URL are never served to a later
+ * playback whose signature differs.
+ */
+public final class ManifestCache {
+
+    private static final String DIRECTORY_NAME = "amplify-video-manifests";
+    private static final String BODY_SUFFIX = ".body";
+    private static final String META_SUFFIX = ".meta";
+    private static final String PLAYABLE_SUFFIX = ".m3u8";
+    private static final String ENTRY_URL = "url";
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String STREAM_INF = "#EXT-X-STREAM-INF";
+    private static final String END_LIST = "#EXT-X-ENDLIST";
+    private static final String URI_ATTRIBUTE = "URI=\"";
+    private static final int TIMEOUT_MILLIS = 10_000;
+    private static final String TAG = "ManifestCache";
+    private static final String METRIC_PREFIX = "amplify.video.manifest.cache.";
+    private static volatile ManifestCache instance;
+
+    private final File directory;
+    private final ExecutorService worker;
+    // Local file work, kept off the worker so it never waits behind a revalidation.
+    private final ExecutorService files;
+    private final Set<String> revalidating = new HashSet<>();
+    private long hits;
+    private long misses;
+    private long notModified;
+    private Gauge hitGauge = NoOpMetricsRegistry.INSTANCE.gauge(METRIC_PREFIX + "hits");
+    private Gauge missGauge = NoOpMetricsRegistry.INSTANCE.gauge(METRIC_PREFIX + "misses");
+
+    /**
+     * Create a cache over a directory.
+     * @param directory Directory to keep manifests in; created if missing
+     */
+    public ManifestCache(@NonNull File directory) {
+        this.directory = Objects.requireNonNull(directory);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Unable to create manifest cache directory " + directory);
+        }
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-manifests");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.files = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-manifest-files");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the process-wide cache in the app's cache directory.
+     * @param context Any context; only its application context is used
+     * @return The shared cache
+     */
+    @NonNull
+    public static ManifestCache getInstance(@NonNull Context context) {
+        ManifestCache cache = instance;
+        if (cache == null) {
+            synchronized (ManifestCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    cache = new ManifestCache(new File(context.getApplicationContext().getCacheDir(), DIRECTORY_NAME));
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Get a manifest, from disk when its kind allows. Blocking; call it off the main thread.
+     * @param url Manifest URL
+     * @return The manifest text
+     * @throws IOException If the manifest is not cached, or must be revalidated, and the
+     *         request fails
+     */
+    @NonNull
+    public String load(@NonNull String url) throws IOException {
+        String key = key(url);
+        String cached = readBody(key, url);
+        if (cached != null && isImmutable(cached)) {
+            countHit();
+            return cached;
+        }
+        if (cached != null && isMaster(cached)) {
+            countHit();
+            revalidateInBackground(url);
+            return cached;
+        }
+        return revalidate(url);
+    }
+
+    /**
+     * Fetch a manifest with a conditional request, storing the result. Blocking; call it
+     * off the main thread.
+     * @param url Manifest URL
+     * @return The current manifest text
+     * @throws IOException If the request fails
+     */
+    @NonNull
+    public String revalidate(@NonNull String url) throws IOException {
+        String key = key(url);
+        Properties meta = readMeta(key, url);
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        if (meta != null) {
+            if (meta.getProperty(ETAG) != null) {
+                connection.setRequestProperty("If-None-Match", meta.getProperty(ETAG));
+            }
+            if (meta.getProperty(LAST_MODIFIED) != null) {
+                connection.setRequestProperty("If-Modified-Since", meta.getProperty(LAST_MODIFIED));
+            }
+        }
+        try {
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && meta != null) {
+                String cached = readBody(key, url);
+                if (cached != null) {
+                    synchronized (this) {
+                        notModified++;
+                    }
+                    return cached;
+                }
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Manifest request failed with HTTP " + status + ": " + url);
+            }
+            String body;
+            try (InputStream input = connection.getInputStream()) {
+                body = HlsPlaylistLoader.readText(input);
+            }
+            synchronized (this) {
+                missGauge.set(++misses);
+            }
+            store(key, url, body, connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+            return body;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Get a local copy of a master playlist to play instead of its URL, looked up and
+     * written on a background thread. A hit is revalidated in the background; a miss is
+     * fetched in the background so the next start is warm.
+     * @param url Playback URL, against which the copy's URIs are resolved
+     * @param callback Called on the cache's file thread with a file URI of the copy, or with
+     *                 null if no master playlist is cached for the URL or the copy cannot
+     *                 be written
+     */
+    public void getPlayableSource(@NonNull String url, @NonNull SourceCallback callback) {
+        Objects.requireNonNull(callback);
+        files.execute(() -> {
+            Uri source = null;
+            try {
+                source = writePlayableCopy(url, null);
+            } catch (IOException exception) {
+                Log.w(TAG, "Unable to write a playable copy of " + url, exception);
+            }
+            if (source != null) {
+                countHit();
+                revalidateInBackground(url);
+            } else {
+                prefetch(url);
+            }
+            callback.onPlayableSource(source);
+        });
+    }
+
+    /**
+     * Get a local copy of a cached master playlist which lists only some of its variants,
+     * so the player cannot switch to the others. Reads and writes small files only; call
+     * it off the main thread.
+     * @param url Playback URL, whose master playlist was cached by {@link #load(String)},
+     *            and against which the copy's URIs are resolved
+     * @param variants Which variants to keep, indexed in playlist order as in
+     *                 {@link HlsPlaylist#getVariantUri(int)}
+     * @return A file URI of the filtered master playlist, or null if no master is cached
+     * @throws IOException If the copy cannot be written
+     */
+    public Uri getPlayableSource(@NonNull String url, @NonNull boolean[] variants) throws IOException {
+        return writePlayableCopy(url, Objects.requireNonNull(variants));
+    }
+
+    /**
+     * Fetch a manifest into the cache in the background, e.g. for channels the user is
+     * likely to open.
+     * @param url Manifest URL
+     */
+    public void prefetch(@NonNull String url) {
+        revalidateInBackground(url);
+    }
+
+    /**
+     * Report this cache's running hit and miss counts as the gauges
+     * {@code amplify.video.manifest.cache.hits} and {@code amplify.video.manifest.cache.misses}.
+     * The cache is usually shared, so it reports into the registry set last.
+     * @param registry Registry to report into
+     */
+    public synchronized void setMetricsRegistry(@NonNull MetricsRegistry registry) {
+        hitGauge = registry.gauge(METRIC_PREFIX + "hits");
+        missGauge = registry.gauge(METRIC_PREFIX + "misses");
+        hitGauge.set(hits);
+        missGauge.set(misses);
+    }
+
+    /**
+     * Get the number of manifests served from disk without waiting for the network.
+     * @return Hit count
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Get the number of manifest bodies downloaded.
+     * @return Download count
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Get the number of revalidations answered with 304 Not Modified.
+     * @return Not-modified count
+     */
+    public synchronized long getNotModifiedCount() {
+        return notModified;
+    }
+
+    private synchronized void countHit() {
+        hitGauge.set(++hits);
+    }
+
+    private void revalidateInBackground(String url) {
+        String key = key(url);
+        synchronized (revalidating) {
+            if (!revalidating.add(key)) {
+                return;
+            }
+        }
+        worker.execute(() -> {
+            try {
+                revalidate(url);
+            } catch (IOException exception) {
+                Log.w(TAG, "Unable to revalidate manifest " + url, exception);
+            } finally {
+                synchronized (revalidating) {
+                    revalidating.remove(key);
+                }
+            }
+        });
+    }
+
+    private synchronized void store(String key, String url, String body, String eTag, String lastModified)
+            throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty(ENTRY_URL, stripQuery(url));
+        if (eTag != null) {
+            meta.setProperty(ETAG, eTag);
+        }
+        if (lastModified != null) {
+            meta.setProperty(LAST_MODIFIED, lastModified);
+        }
+        // Body first: a body without meta is ignored, while meta without its body is not.
+        write(new File(directory, key + BODY_SUFFIX), body.getBytes(HlsPlaylistLoader.UTF_8));
+        File metaFile = new File(directory, key + META_SUFFIX);
+        File temporary = new File(metaFile.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporary)) {
+            meta.store(output, null);
+        }
+        rename(temporary, metaFile);
+    }
+
+    private synchronized Properties readMeta(String key, String url) {
+        File metaFile = new File(directory, key + META_SUFFIX);
+        if (!metaFile.isFile()) {
+            return null;
+        }
+        Properties meta = new Properties();
+        try (InputStream input = new FileInputStream(metaFile)) {
+            meta.load(input);
+        } catch (IOException exception) {
+            return null;
+        }
+        // Keys are hashes; make sure this entry really is for the URL.
+        return stripQuery(url).equals(meta.getProperty(ENTRY_URL)) ? meta : null;
+    }
+
+    private synchronized String readBody(String key, String url) {
+        if (readMeta(key, url) == null) {
+            return null;
+        }
+        try (InputStream input = new FileInputStream(new File(directory, key + BODY_SUFFIX))) {
+            return HlsPlaylistLoader.readText(input);
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the local copy of a cached master playlist, keeping the given variants or all
+     * of them if null, with its URIs resolved against the URL being played.
+     */
+    private synchronized Uri writePlayableCopy(String url, boolean[] variants) throws IOException {
+        String key = key(url);
+        String master = readBody(key, url);
+        if (master == null || !isMaster(master)) {
+            return null;
+        }
+        if (variants != null) {
+            master = filterVariants(master, variants);
+        }
+        // Named by the selection, so players with different caps do not share a copy.
+        String suffix = variants == null ? "" : "-" + Integer.toHexString(Arrays.hashCode(variants));
+        File playable = new File(directory, key + suffix + PLAYABLE_SUFFIX);
+        write(playable, absolutize(master, url).getBytes(HlsPlaylistLoader.UTF_8));
+        return Uri.fromFile(playable);
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporary)) {
+            output.write(content);
+        }
+        rename(temporary, file);
+    }
+
+    private static void rename(File from, File to) throws IOException {
+        if (!from.renameTo(to)) {
+            throw new IOException("Unable to replace " + to);
+        }
+    }
+
+    /**
+     * Rewrite every URI in a playlist as absolute, so the playlist can be read from a file.
+     */
+    private static String absolutize(String playlist, String url) {
+        URI base = URI.create(url);
+        StringBuilder result = new StringBuilder(playlist.length() * 2);
+        for (String line : playlist.split("\\r?\\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                result.append(line);
+            } else if (!trimmed.startsWith("#")) {
+                result.append(base.resolve(trimmed));
+            } else {
+                int start = trimmed.indexOf(URI_ATTRIBUTE);
+                int end = start < 0 ? -1 : trimmed.indexOf('"', start + URI_ATTRIBUTE.length());
+                if (end < 0) {
+                    result.append(line);
+                } else {
+                    String uri = trimmed.substring(start + URI_ATTRIBUTE.length(), end);
+                    result.append(trimmed, 0, start + URI_ATTRIBUTE.length())
+                            .append(base.resolve(uri))
+                            .append(trimmed, end, trimmed.length());
+                }
+            }
+            result.append('\n');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Drop the variants not kept, with their URI lines, from a master playlist.
+     */
+    private static String filterVariants(String master, boolean[] variants) {
+        StringBuilder result = new StringBuilder(master.length());
+        int variant = -1;
+        boolean skipping = false;
+        for (String line : master.split("\\r?\\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith(STREAM_INF)) {
+                variant++;
+                skipping = variant < variants.length && !variants[variant];
+            } else if (skipping && !trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                // The variant's URI line ends it.
+                skipping = false;
+                continue;
+            }
+            if (!skipping) {
+                result.append(line).append('\n');
+            }
+        }
+        return result.toString();
+    }
+
+    private static boolean isMaster(String manifest) {
+        return manifest.contains(STREAM_INF);
+    }
+
+    private static boolean isImmutable(String manifest) {
+        if (manifest.contains(END_LIST)) {
+            return true;
+        }
+        return manifest.contains("<MPD") && !manifest.contains("type=\"dynamic\"");
+    }
+
+    private static String key(String url) {
+        return Integer.toHexString(stripQuery(url).hashCode());
+    }
+
+    private static String stripQuery(String url) {
+        int end = url.length();
+        int query = url.indexOf('?');
+        int fragment = url.indexOf('#');
+        if (query >= 0) {
+            end = query;
+        }
+        if (fragment >= 0) {
+            end = Math.min(end, fragment);
+        }
+        return url.substring(0, end);
+    }
+
+    /**
+     * Receives the result of {@link #getPlayableSource(String, SourceCallback)}.
+     */
+    public interface SourceCallback {
+
+        /**
+         * Called with the local copy to play.
+         * @param source A file URI of the copy, or null to play the remote URL
+         */
+        void onPlayableSource(Uri source);
+    }
+}
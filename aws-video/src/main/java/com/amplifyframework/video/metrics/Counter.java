@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+/**
+ * A monotonically increasing count, such as reconnect attempts.
+ */
+public interface Counter {
+
+    /**
+     * Add one to the count.
+     */
+    void increment();
+
+    /**
+     * Add to the count.
+     * @param delta Non-negative amount to add
+     */
+    void add(long delta);
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link MetricsRegistry} which keeps every metric in memory and hands them to a
+ * {@link MetricsExporter} on demand or on a fixed schedule.
+ *
+ * Counters and gauges are single atomic longs; timers and histograms are
+ * {@link LogHistogram}s, so memory does not grow with the number of recordings.
+ */
+public final class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private static final String TAG = "InMemoryMetricsRegistry";
+
+    private final Map<String, AtomicCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicGauge> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Distribution> distributions = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Counter counter(@NonNull String name) {
+        return counters.computeIfAbsent(Objects.requireNonNull(name), key -> new AtomicCounter());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Gauge gauge(@NonNull String name) {
+        return gauges.computeIfAbsent(Objects.requireNonNull(name), key -> new AtomicGauge());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Timer timer(@NonNull String name) {
+        return distributions.computeIfAbsent(Objects.requireNonNull(name), key -> new Distribution());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Histogram histogram(@NonNull String name) {
+        return distributions.computeIfAbsent(Objects.requireNonNull(name), key -> new Distribution());
+    }
+
+    /**
+     * Report every metric to an exporter on the calling thread.
+     * @param exporter Destination for the current values
+     */
+    public void exportTo(@NonNull MetricsExporter exporter) {
+        for (Map.Entry<String, AtomicCounter> entry : counters.entrySet()) {
+            exporter.onCounter(entry.getKey(), entry.getValue().get());
+        }
+        for (Map.Entry<String, AtomicGauge> entry : gauges.entrySet()) {
+            exporter.onGauge(entry.getKey(), entry.getValue().value);
+        }
+        for (Map.Entry<String, Distribution> entry : distributions.entrySet()) {
+            exporter.onDistribution(entry.getKey(), entry.getValue().histogram);
+        }
+        exporter.onExportComplete();
+    }
+
+    /**
+     * Export to the given exporter every {@code intervalMillis} on a background thread,
+     * replacing any schedule started before.
+     * @param exporter Destination for the current values
+     * @param intervalMillis Time between exports
+     */
+    public synchronized void startPeriodicExport(@NonNull MetricsExporter exporter, long intervalMillis) {
+        Objects.requireNonNull(exporter);
+        stopPeriodicExport();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                exportTo(exporter);
+            } catch (RuntimeException exception) {
+                Log.w(TAG, "Metrics export failed.", exception);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop a schedule started with {@link #startPeriodicExport(MetricsExporter, long)}.
+     */
+    public synchronized void stopPeriodicExport() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    private static final class AtomicCounter extends AtomicLong implements Counter {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void increment() {
+            incrementAndGet();
+        }
+
+        @Override
+        public void add(long delta) {
+            addAndGet(delta);
+        }
+    }
+
+    private static final class AtomicGauge implements Gauge {
+        private volatile long value;
+
+        @Override
+        public void set(long value) {
+            this.value = value;
+        }
+    }
+
+    private static final class Distribution implements Timer, Histogram {
+        private final LogHistogram histogram = new LogHistogram();
+
+        @Override
+        public void record(long value) {
+            histogram.record(value);
+        }
+    }
+}
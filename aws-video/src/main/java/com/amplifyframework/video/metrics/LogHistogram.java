@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-memory histogram of non-negative longs with logarithmic buckets.
+ *
+ * Each power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so any
+ * recorded value is reported back within 12.5% of itself, and the whole range of a
+ * long fits in under 500 counters. Recording never allocates. All methods are safe
+ * to call from any thread.
+ */
+public final class LogHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HIGHEST_EXPONENT = 62;
+    private static final int BUCKET_COUNT = SUB_BUCKETS * (HIGHEST_EXPONENT - SUB_BUCKET_BITS + 2);
+    private static final double PERCENT = 100.0;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Record a value. Negative values are recorded as 0.
+     * @param value Value to record, e.g. a latency in milliseconds
+     */
+    public synchronized void record(long value) {
+        long clamped = Math.max(0, value);
+        counts[bucketIndex(clamped)]++;
+        count++;
+        sum += clamped;
+        min = Math.min(min, clamped);
+        max = Math.max(max, clamped);
+    }
+
+    /**
+     * Get the number of recorded values.
+     * @return Count of values
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the smallest recorded value.
+     * @return Minimum, or 0 if nothing was recorded
+     */
+    public synchronized long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Get the largest recorded value.
+     * @return Maximum, or 0 if nothing was recorded
+     */
+    public synchronized long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Get the exact arithmetic mean of recorded values.
+     * @return Mean, or 0 if nothing was recorded
+     */
+    public synchronized double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Get an approximate percentile of recorded values.
+     * @param percentile Percentile in the range [0, 100], e.g. 95 for p95
+     * @return The upper bound of the bucket holding that percentile, clamped to the
+     *         recorded range; 0 if nothing was recorded
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > PERCENT) {
+            throw new IllegalArgumentException("Percentile must be within [0, 100]: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / PERCENT * count));
+        long seen = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, bucketUpperBound(index)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Discard every recorded value.
+     */
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = HIGHEST_EXPONENT + 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS * (shift + 1) + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
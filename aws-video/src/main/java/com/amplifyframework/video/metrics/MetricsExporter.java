@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Receives the contents of a {@link InMemoryMetricsRegistry} when it is exported, for
+ * forwarding to a telemetry backend. Callbacks for one export happen on one thread,
+ * in no particular order, followed by {@link #onExportComplete()}.
+ */
+public interface MetricsExporter {
+
+    /**
+     * Called with the current value of a counter.
+     * @param name Metric name
+     * @param value Count since the registry was created
+     */
+    void onCounter(@NonNull String name, long value);
+
+    /**
+     * Called with the latest sample of a gauge.
+     * @param name Metric name
+     * @param value Last value set
+     */
+    void onGauge(@NonNull String name, long value);
+
+    /**
+     * Called with the distribution behind a timer or histogram.
+     * @param name Metric name
+     * @param distribution Recorded values; read it during this call only
+     */
+    void onDistribution(@NonNull String name, @NonNull LogHistogram distribution);
+
+    /**
+     * Called once every metric of an export has been reported.
+     */
+    void onExportComplete();
+}
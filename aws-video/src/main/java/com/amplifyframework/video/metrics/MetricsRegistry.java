@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Creates named instruments which player internals report into.
+ *
+ * Players look instruments up once and keep them, so implementations may do
+ * comparatively expensive work here, but the instruments themselves sit on playback
+ * paths and should be cheap. Asking twice for the same name returns an instrument
+ * reporting into the same metric. {@link NoOpMetricsRegistry} is the default.
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Get or create a counter.
+     * @param name Metric name
+     * @return A counter
+     */
+    @NonNull
+    Counter counter(@NonNull String name);
+
+    /**
+     * Get or create a gauge.
+     * @param name Metric name
+     * @return A gauge
+     */
+    @NonNull
+    Gauge gauge(@NonNull String name);
+
+    /**
+     * Get or create a timer.
+     * @param name Metric name
+     * @return A timer
+     */
+    @NonNull
+    Timer timer(@NonNull String name);
+
+    /**
+     * Get or create a histogram.
+     * @param name Metric name
+     * @return A histogram
+     */
+    @NonNull
+    Histogram histogram(@NonNull String name);
+}
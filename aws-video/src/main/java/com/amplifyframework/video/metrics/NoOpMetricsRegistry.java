@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A {@link MetricsRegistry} whose instruments discard everything. Every lookup returns
+ * the same stateless instance, so reporting costs one empty virtual call.
+ */
+public final class NoOpMetricsRegistry implements MetricsRegistry {
+
+    /**
+     * The shared instance.
+     */
+    public static final NoOpMetricsRegistry INSTANCE = new NoOpMetricsRegistry();
+
+    private static final NoOpInstrument INSTRUMENT = new NoOpInstrument();
+
+    private NoOpMetricsRegistry() { }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Counter counter(@NonNull String name) {
+        return INSTRUMENT;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Gauge gauge(@NonNull String name) {
+        return INSTRUMENT;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Timer timer(@NonNull String name) {
+        return INSTRUMENT;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Histogram histogram(@NonNull String name) {
+        return INSTRUMENT;
+    }
+
+    private static final class NoOpInstrument implements Counter, Gauge, Timer, Histogram {
+        @Override
+        public void increment() {
+        }
+
+        @Override
+        public void add(long delta) {
+        }
+
+        @Override
+        public void set(long value) {
+        }
+
+        @Override
+        public void record(long value) {
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import android.os.Build;
+import android.os.Trace;
+import androidx.annotation.NonNull;
+
+/**
+ * Times the stages of playback startup, from attach or reconnect to the first rendered frame.
+ *
+ * Completed spans are kept per {@link Span} and reported to an optional {@link Listener}.
+ * Synchronous spans are also emitted as platform trace sections on Android 4.3 and above,
+ * and asynchronous ones as async sections on Android Q and above, so they line up with
+ * system traces. While the tracer is disabled, which is the default, every call returns
+ * after one volatile read.
+ */
+public final class PlaybackTracer {
+
+    private static final Span[] SPANS = Span.values();
+
+    private final long[] openedAt = new long[SPANS.length];
+    private final long[] lastDuration = new long[SPANS.length];
+    private volatile boolean enabled;
+    private volatile boolean platformSections = true;
+    private volatile Listener listener;
+    private int attempt;
+
+    /**
+     * Turn span collection on or off.
+     * @param enabled true to record spans
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether spans are being recorded.
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Choose whether spans are also emitted as platform trace sections. On by default.
+     * @param platformSections false to only record spans programmatically
+     */
+    public void setPlatformSectionsEnabled(boolean platformSections) {
+        this.platformSections = platformSections;
+    }
+
+    /**
+     * Receive every completed span.
+     * @param listener A listener, or null to remove it
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Get the duration of the most recent completed span of a kind.
+     * @param span Kind of span
+     * @return Duration in nanoseconds, or -1 if none has completed
+     */
+    public synchronized long getLastDurationNanos(@NonNull Span span) {
+        return lastDuration[span.ordinal()] == 0 ? -1 : lastDuration[span.ordinal()];
+    }
+
+    /**
+     * Get the startup attempt spans are currently attributed to.
+     * @return 0 for the first attach, incremented by each reconnect or re-attach
+     */
+    public synchronized int getAttempt() {
+        return attempt;
+    }
+
+    /**
+     * Start a new startup attempt: opens {@link Span#ATTACH} or {@link Span#RECONNECT}
+     * and abandons spans left open by the previous attempt.
+     * @param reconnect true if this attempt is a reconnect rather than an attach
+     */
+    public void beginAttempt(boolean reconnect) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            for (Span span : SPANS) {
+                if (openedAt[span.ordinal()] != 0) {
+                    endPlatformSection(span);
+                    openedAt[span.ordinal()] = 0;
+                }
+            }
+            attempt++;
+        }
+        begin(reconnect ? Span.RECONNECT : Span.ATTACH);
+    }
+
+    /**
+     * Open a span. Synchronous spans must be ended on the same thread, in reverse order.
+     * @param span Kind of span
+     */
+    public void begin(@NonNull Span span) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            openedAt[span.ordinal()] = System.nanoTime();
+            if (platformSections) {
+                if (!span.async) {
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                        Trace.beginSection(span.sectionName);
+                    }
+                } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                    Trace.beginAsyncSection(span.sectionName, attempt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Close a span. Has no effect if the span is not open.
+     * @param span Kind of span
+     */
+    public void end(@NonNull Span span) {
+        if (!enabled) {
+            return;
+        }
+        long duration;
+        int spanAttempt;
+        synchronized (this) {
+            long start = openedAt[span.ordinal()];
+            if (start == 0) {
+                return;
+            }
+            duration = Math.max(1, System.nanoTime() - start);
+            openedAt[span.ordinal()] = 0;
+            lastDuration[span.ordinal()] = duration;
+            spanAttempt = attempt;
+            endPlatformSection(span);
+        }
+        Listener current = listener;
+        if (current != null) {
+            current.onSpan(span, spanAttempt, duration);
+        }
+    }
+
+    /**
+     * Close {@link Span#ATTACH} or {@link Span#RECONNECT}, whichever is open.
+     */
+    public void endAttempt() {
+        end(Span.ATTACH);
+        end(Span.RECONNECT);
+    }
+
+    private void endPlatformSection(Span span) {
+        if (!platformSections) {
+            return;
+        }
+        if (!span.async) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                Trace.endSection();
+            }
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(span.sectionName, attempt);
+        }
+    }
+
+    /**
+     * Receives completed spans on the thread which ended them.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a span completes.
+         * @param span Kind of span
+         * @param attempt Startup attempt the span belongs to
+         * @param durationNanos Span duration in nanoseconds
+         */
+        void onSpan(@NonNull Span span, int attempt, long durationNanos);
+    }
+
+    /**
+     * Stages of playback startup.
+     */
+    public enum Span {
+        /**
+         * From {@code attach} to the first rendered frame.
+         */
+        ATTACH(true),
+        /**
+         * From a reconnect attempt to the next rendered frame.
+         */
+        RECONNECT(true),
+        /**
+         * Reading the resource's configured egress points.
+         */
+        CONFIGURATION_LOOKUP(false),
+        /**
+         * Choosing an egress point and building its URI.
+         */
+        EGRESS_SELECTION(false),
+        /**
+         * Handing the source URI to the video view.
+         */
+        SET_SOURCE(false),
+        /**
+         * From setting the source until the media player reports it is prepared.
+         */
+        PREPARE(true),
+        /**
+         * Running the player's prepared callback.
+         */
+        ON_PREPARED(false),
+        /**
+         * From prepared until the first frame is rendered.
+         */
+        FIRST_FRAME(true);
+
+        private final boolean async;
+        private final String sectionName;
+
+        Span(boolean async) {
+            this.async = async;
+            this.sectionName = "AmplifyVideo." + name();
+        }
+    }
+}
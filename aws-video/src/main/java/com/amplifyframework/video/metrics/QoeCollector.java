@@ -0,0 +1,222 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Quality-of-experience metrics for one player.
+ *
+ * The player reports its state transitions and a few milestones (attach, first frame,
+ * reconnect, seek start and completion) as they happen, and this collector turns them
+ * into time-to-first-frame, rebuffering, reconnect, time-in-state and seek latency
+ * figures. Latencies go into {@link LogHistogram}s, so memory use is fixed no matter how
+ * long the session runs. Getters may be called from any thread.
+ */
+public final class QoeCollector {
+
+    private static final VideoPlayer.State[] STATES = VideoPlayer.State.values();
+
+    private final TimeSource clock;
+    private final LogHistogram timeToFirstFrame = new LogHistogram();
+    private final LogHistogram rebufferDuration = new LogHistogram();
+    private final LogHistogram seekLatency = new LogHistogram();
+    private final long[] stateMillis = new long[STATES.length];
+
+    private VideoPlayer.State state = VideoPlayer.State.IDLE;
+    private long stateSince;
+    private long attachedAt = -1;
+    private boolean firstFrameRendered;
+    private long rebufferStartedAt = -1;
+    private long seekStartedAt = -1;
+    private long rebufferCount;
+    private long rebufferMillis;
+    private long reconnectCount;
+
+    /**
+     * Create a collector using the system clock.
+     */
+    public QoeCollector() {
+        this(TimeSource.SYSTEM);
+    }
+
+    /**
+     * Create a collector which reads time from the given clock.
+     * @param clock Monotonic millisecond clock
+     */
+    public QoeCollector(@NonNull TimeSource clock) {
+        this.clock = Objects.requireNonNull(clock);
+        this.stateSince = clock.now();
+    }
+
+    /**
+     * Called when the player is attached to a new resource. Starts a time-to-first-frame measurement.
+     */
+    public synchronized void onAttach() {
+        attachedAt = clock.now();
+        firstFrameRendered = false;
+        rebufferStartedAt = -1;
+    }
+
+    /**
+     * Called when the player moves to a new state.
+     * @param newState State being entered
+     */
+    public synchronized void onStateChange(@NonNull VideoPlayer.State newState) {
+        long now = clock.now();
+        stateMillis[state.ordinal()] += now - stateSince;
+        if (state == VideoPlayer.State.BUFFERING && rebufferStartedAt >= 0) {
+            rebufferDuration.record(now - rebufferStartedAt);
+            rebufferMillis += now - rebufferStartedAt;
+            rebufferStartedAt = -1;
+        }
+        // Buffering before the first frame is startup, not a rebuffer.
+        if (newState == VideoPlayer.State.BUFFERING && firstFrameRendered) {
+            rebufferCount++;
+            rebufferStartedAt = now;
+        }
+        state = newState;
+        stateSince = now;
+    }
+
+    /**
+     * Called when a video frame starts rendering; only the first one after an attach is measured.
+     * @return The recorded time to first frame in milliseconds, or -1 if this was not
+     *         the first frame after an attach
+     */
+    public synchronized long onFirstFrame() {
+        long elapsed = -1;
+        if (!firstFrameRendered && attachedAt >= 0) {
+            elapsed = clock.now() - attachedAt;
+            timeToFirstFrame.record(elapsed);
+        }
+        firstFrameRendered = true;
+        return elapsed;
+    }
+
+    /**
+     * Called each time the player retries its connection to the stream.
+     */
+    public synchronized void onReconnect() {
+        reconnectCount++;
+    }
+
+    /**
+     * Called when a seek is requested.
+     */
+    public synchronized void onSeekStart() {
+        seekStartedAt = clock.now();
+    }
+
+    /**
+     * Called when the engine reports that the last requested seek has completed.
+     */
+    public synchronized void onSeekComplete() {
+        if (seekStartedAt >= 0) {
+            seekLatency.record(clock.now() - seekStartedAt);
+            seekStartedAt = -1;
+        }
+    }
+
+    /**
+     * Get the distribution of attach-to-first-frame times.
+     * @return Histogram in milliseconds
+     */
+    @NonNull
+    public LogHistogram getTimeToFirstFrame() {
+        return timeToFirstFrame;
+    }
+
+    /**
+     * Get the distribution of rebuffer durations.
+     * @return Histogram in milliseconds
+     */
+    @NonNull
+    public LogHistogram getRebufferDuration() {
+        return rebufferDuration;
+    }
+
+    /**
+     * Get the distribution of seek request-to-completion times.
+     * @return Histogram in milliseconds
+     */
+    @NonNull
+    public LogHistogram getSeekLatency() {
+        return seekLatency;
+    }
+
+    /**
+     * Get the number of times playback stalled after the first frame.
+     * @return Rebuffer count
+     */
+    public synchronized long getRebufferCount() {
+        return rebufferCount;
+    }
+
+    /**
+     * Get the number of connection retries.
+     * @return Reconnect count
+     */
+    public synchronized long getReconnectCount() {
+        return reconnectCount;
+    }
+
+    /**
+     * Get the total time spent in a state, including the current stay.
+     * @param queried State of interest
+     * @return Milliseconds spent in that state
+     */
+    public synchronized long getTimeInState(@NonNull VideoPlayer.State queried) {
+        long total = stateMillis[queried.ordinal()];
+        if (queried == state) {
+            total += clock.now() - stateSince;
+        }
+        return total;
+    }
+
+    /**
+     * Get the share of watch time spent rebuffering: time stalled after the first frame,
+     * divided by that time plus time spent playing.
+     * @return Ratio in [0, 1]; 0 before anything has played
+     */
+    public synchronized double getRebufferRatio() {
+        long stalled = rebufferMillis;
+        if (rebufferStartedAt >= 0) {
+            stalled += clock.now() - rebufferStartedAt;
+        }
+        long watched = stalled + getTimeInState(VideoPlayer.State.PLAYING);
+        return watched == 0 ? 0 : (double) stalled / watched;
+    }
+
+    /**
+     * Discard all collected metrics, keeping the current state.
+     */
+    public synchronized void reset() {
+        timeToFirstFrame.reset();
+        rebufferDuration.reset();
+        seekLatency.reset();
+        Arrays.fill(stateMillis, 0);
+        stateSince = clock.now();
+        rebufferCount = 0;
+        rebufferMillis = 0;
+        reconnectCount = 0;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+/**
+ * Predicts rebuffering before it happens, from the trend of the buffer ahead of the
+ * playhead and of download throughput.
+ *
+ * Feed it a sample every few hundred milliseconds while playing. Two rules estimate the
+ * time left until the buffer runs dry:
+ * <ul>
+ *   <li>the buffer is draining: its smoothed rate of decline, extrapolated to zero;</li>
+ *   <li>throughput has stayed below the stream bitrate, when that is known: the buffer
+ *       then drains at the shortfall's share of real time.</li>
+ * </ul>
+ * A prediction is raised once when the estimate falls inside the horizon, and the
+ * predictor re-arms once the estimate leaves it again or after {@link #reset()}.
+ */
+public final class StallPredictor {
+
+    /**
+     * Default warning horizon: long enough to switch rendition or egress before the stall.
+     */
+    public static final long DEFAULT_HORIZON_MILLIS = 4000L;
+
+    // Weight of the newest sample in the smoothed rates.
+    private static final double SMOOTHING = 0.5;
+    // Consecutive below-bitrate samples needed before throughput alone predicts a stall.
+    private static final int SLOW_SAMPLES_TO_PREDICT = 2;
+    private static final double MILLIS_PER_SECOND = 1000.0;
+    private static final int BITS_PER_BYTE = 8;
+
+    private final long horizonMillis;
+    private long streamBitrate;
+    private long lastSampleAt = -1;
+    private long lastBufferAhead = -1;
+    private long lastReceivedBytes = -1;
+    private double drainRate;
+    private double throughput = -1;
+    private int slowSamples;
+    private boolean armed = true;
+    private long predictionCount;
+
+    /**
+     * Create a predictor with the {@link #DEFAULT_HORIZON_MILLIS default horizon}.
+     */
+    public StallPredictor() {
+        this(DEFAULT_HORIZON_MILLIS);
+    }
+
+    /**
+     * Create a predictor.
+     * @param horizonMillis How far ahead a stall must be predicted to raise a warning
+     */
+    public StallPredictor(long horizonMillis) {
+        if (horizonMillis <= 0) {
+            throw new IllegalArgumentException("Horizon must be positive.");
+        }
+        this.horizonMillis = horizonMillis;
+    }
+
+    /**
+     * Set the bitrate of the stream being played, enabling the throughput rule.
+     * @param bitsPerSecond Stream bitrate, or 0 if unknown
+     */
+    public synchronized void setStreamBitrate(long bitsPerSecond) {
+        this.streamBitrate = Math.max(0, bitsPerSecond);
+    }
+
+    /**
+     * Add a sample.
+     * @param nowMillis Monotonic time of the sample
+     * @param bufferAheadMillis Media buffered ahead of the playhead, or -1 if unknown
+     * @param receivedBytes Running total of bytes received, or -1 if unknown
+     * @return Predicted milliseconds until the buffer runs dry if this sample raises a
+     *         new prediction, otherwise -1
+     */
+    public synchronized long sample(long nowMillis, long bufferAheadMillis, long receivedBytes) {
+        long elapsed = nowMillis - lastSampleAt;
+        if (lastSampleAt < 0 || elapsed <= 0) {
+            remember(nowMillis, bufferAheadMillis, receivedBytes);
+            return -1;
+        }
+        if (receivedBytes >= 0 && lastReceivedBytes >= 0) {
+            double rate = (receivedBytes - lastReceivedBytes) * MILLIS_PER_SECOND / elapsed;
+            throughput = throughput < 0 ? rate : smooth(throughput, rate);
+        }
+        long timeToStall = -1;
+        if (bufferAheadMillis >= 0 && lastBufferAhead >= 0) {
+            drainRate = smooth(drainRate, (double) (lastBufferAhead - bufferAheadMillis) / elapsed);
+            if (drainRate > 0) {
+                timeToStall = (long) (bufferAheadMillis / drainRate);
+            }
+        }
+        if (streamBitrate > 0 && throughput >= 0) {
+            double supply = throughput * BITS_PER_BYTE / streamBitrate;
+            slowSamples = supply < 1 ? slowSamples + 1 : 0;
+            if (slowSamples >= SLOW_SAMPLES_TO_PREDICT) {
+                long starved = bufferAheadMillis >= 0 ? (long) (bufferAheadMillis / (1 - supply)) : horizonMillis;
+                timeToStall = timeToStall < 0 ? starved : Math.min(timeToStall, starved);
+            }
+        }
+        remember(nowMillis, bufferAheadMillis, receivedBytes);
+
+        if (timeToStall < 0 || timeToStall > horizonMillis) {
+            armed = true;
+            return -1;
+        }
+        if (!armed) {
+            return -1;
+        }
+        armed = false;
+        predictionCount++;
+        return timeToStall;
+    }
+
+    /**
+     * Forget sample history and re-arm, e.g. after an actual stall or a new source.
+     */
+    public synchronized void reset() {
+        lastSampleAt = -1;
+        lastBufferAhead = -1;
+        lastReceivedBytes = -1;
+        drainRate = 0;
+        throughput = -1;
+        slowSamples = 0;
+        armed = true;
+    }
+
+    /**
+     * Get the smoothed download throughput.
+     * @return Bytes per second, or -1 if unknown
+     */
+    public synchronized long getThroughput() {
+        return (long) throughput;
+    }
+
+    /**
+     * Get the number of predictions raised.
+     * @return Prediction count
+     */
+    public synchronized long getPredictionCount() {
+        return predictionCount;
+    }
+
+    private void remember(long nowMillis, long bufferAheadMillis, long receivedBytes) {
+        lastSampleAt = nowMillis;
+        lastBufferAhead = bufferAheadMillis;
+        lastReceivedBytes = receivedBytes;
+    }
+
+    private static double smooth(double previous, double latest) {
+        return SMOOTHING * latest + (1 - SMOOTHING) * previous;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import android.os.SystemClock;
+
+/**
+ * A monotonic millisecond clock. Metrics take one of these so they can be driven
+ * by a fake clock in tests.
+ */
+public interface TimeSource {
+
+    /**
+     * A time source backed by {@link SystemClock#elapsedRealtime()}.
+     */
+    TimeSource SYSTEM = SystemClock::elapsedRealtime;
+
+    /**
+     * Get the current time.
+     * @return Milliseconds since an arbitrary, fixed origin; never decreases
+     */
+    long now();
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.signing;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * A signed playback URL and its validity.
+ */
+public final class SignedUrl {
+
+    private final String url;
+    private final long validForMillis;
+
+    /**
+     * Create a signed URL.
+     * @param url The signed URL
+     * @param validForMillis How long the signature stays valid from the moment signing began
+     */
+    public SignedUrl(@NonNull String url, long validForMillis) {
+        if (validForMillis <= 0) {
+            throw new IllegalArgumentException("Validity must be positive: " + validForMillis);
+        }
+        this.url = Objects.requireNonNull(url);
+        this.validForMillis = validForMillis;
+    }
+
+    /**
+     * Get the signed URL.
+     * @return Signed URL
+     */
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Get how long the signature stays valid.
+     * @return Milliseconds from the moment signing began
+     */
+    public long getValidForMillis() {
+        return validForMillis;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.signing;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+import com.amplifyframework.extended.video.resources.live.LiveResource;
+import com.amplifyframework.video.metrics.Gauge;
+import com.amplifyframework.video.metrics.MetricsRegistry;
+import com.amplifyframework.video.metrics.NoOpMetricsRegistry;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches signed playback URLs until shortly before they expire, and re-signs the ones in
+ * use in the background before that, so that after a {@link #prefetch(String)} starting
+ * playback reads a signature from memory instead of computing one.
+ *
+ * Signatures are keyed by the unsigned URL, i.e. by resource and path, and shared by every
+ * player and screen using the cache. Concurrent requests for a URL being signed wait for
+ * the same signing. A signature which was not read since it was last signed is dropped at
+ * its refresh time rather than renewed, so abandoned URLs stop costing signing work.
+ */
+public final class SignedUrlCache {
+
+    /**
+     * Default time before expiry at which a signature in use is renewed.
+     */
+    public static final long DEFAULT_REFRESH_MARGIN_MILLIS = 60_000L;
+
+    // A signature is not handed out with less validity than this left: the player still
+    // has to fetch the manifest with it.
+    private static final long MIN_REMAINING_MILLIS = 10_000L;
+    private static final String TAG = "SignedUrlCache";
+    private static final String METRIC_PREFIX = "amplify.video.signing.cache.";
+
+    private final UrlSigner signer;
+    private final TimeSource clock;
+    private final long refreshMarginMillis;
+    private final ScheduledExecutorService worker;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long signings;
+    private Gauge hitGauge = NoOpMetricsRegistry.INSTANCE.gauge(METRIC_PREFIX + "hits");
+    private Gauge missGauge = NoOpMetricsRegistry.INSTANCE.gauge(METRIC_PREFIX + "misses");
+
+    /**
+     * Create a cache with the {@link #DEFAULT_REFRESH_MARGIN_MILLIS default refresh margin}.
+     * @param signer Signer for cache misses and refreshes
+     */
+    public SignedUrlCache(@NonNull UrlSigner signer) {
+        this(signer, TimeSource.SYSTEM, DEFAULT_REFRESH_MARGIN_MILLIS);
+    }
+
+    /**
+     * Create a cache.
+     * @param signer Signer for cache misses and refreshes
+     * @param clock Monotonic millisecond clock
+     * @param refreshMarginMillis How long before expiry a signature in use is renewed
+     */
+    public SignedUrlCache(@NonNull UrlSigner signer, @NonNull TimeSource clock, long refreshMarginMillis) {
+        if (refreshMarginMillis < 0) {
+            throw new IllegalArgumentException("Refresh margin must not be negative: " + refreshMarginMillis);
+        }
+        this.signer = Objects.requireNonNull(signer);
+        this.clock = Objects.requireNonNull(clock);
+        this.refreshMarginMillis = refreshMarginMillis;
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-signing");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get a cached signature without waiting.
+     * @param url Unsigned playback URL
+     * @return The signed URL, or null if none is cached with enough validity left; a
+     *         signing is then started in the background
+     */
+    public synchronized String peek(@NonNull String url) {
+        Entry entry = entries.get(url);
+        long now = clock.now();
+        if (entry != null && entry.isUsable(now)) {
+            hitGauge.set(++hits);
+            entry.lastUsedAt = now;
+            return entry.signedUrl;
+        }
+        missGauge.set(++misses);
+        prefetch(url);
+        return null;
+    }
+
+    /**
+     * Get a signed URL, from the cache if possible.
+     * @param url Unsigned playback URL
+     * @param callback Called on this thread if the signature is cached, otherwise on the
+     *                 cache's signing thread once it is signed
+     */
+    public void get(@NonNull String url, @NonNull Callback callback) {
+        Objects.requireNonNull(callback);
+        String cached;
+        synchronized (this) {
+            cached = peek(url);
+            if (cached == null) {
+                // peek() has started a signing, which holds the entry until it finishes.
+                entries.get(url).waiters.add(callback);
+            }
+        }
+        if (cached != null) {
+            callback.onSigned(cached);
+        }
+    }
+
+    /**
+     * Sign a URL in the background if it has no usable signature yet, e.g. when it is
+     * shown in a list, so that playing it later finds the signature ready.
+     * @param url Unsigned playback URL
+     */
+    public synchronized void prefetch(@NonNull String url) {
+        Objects.requireNonNull(url);
+        Entry entry = entries.get(url);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(url, entry);
+        }
+        if (!entry.signing && !entry.isUsable(clock.now())) {
+            // Counts as a use, so the signature is kept fresh until playback picks it up.
+            entry.lastUsedAt = clock.now();
+            startSigning(url, entry);
+        }
+    }
+
+    /**
+     * Sign every egress point of a live resource in the background.
+     * @param resource A live resource
+     */
+    public void prefetch(@NonNull LiveResource resource) {
+        for (EgressType type : EgressType.values()) {
+            String egressPoint = resource.getEgressPoint(type);
+            if (egressPoint != null) {
+                prefetch(egressPoint);
+            }
+        }
+    }
+
+    /**
+     * Drop a cached signature, e.g. after the server rejected it.
+     * @param url Unsigned playback URL
+     */
+    public synchronized void invalidate(@NonNull String url) {
+        Entry entry = entries.get(url);
+        if (entry != null && !entry.signing) {
+            entries.remove(url);
+            if (entry.refresh != null) {
+                entry.refresh.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Report this cache's running hit and miss counts as the gauges
+     * {@code amplify.video.signing.cache.hits} and {@code amplify.video.signing.cache.misses}.
+     * The cache is usually shared, so it reports into the registry set last.
+     * @param registry Registry to report into
+     */
+    public synchronized void setMetricsRegistry(@NonNull MetricsRegistry registry) {
+        hitGauge = registry.gauge(METRIC_PREFIX + "hits");
+        missGauge = registry.gauge(METRIC_PREFIX + "misses");
+        hitGauge.set(hits);
+        missGauge.set(misses);
+    }
+
+    /**
+     * Get the number of lookups served from the cache.
+     * @return Hit count
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups which found no usable signature.
+     * @return Miss count
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Get the number of signing operations run, including background refreshes.
+     * @return Signing count
+     */
+    public synchronized long getSigningCount() {
+        return signings;
+    }
+
+    private void startSigning(String url, Entry entry) {
+        entry.signing = true;
+        if (entry.refresh != null) {
+            entry.refresh.cancel(false);
+            entry.refresh = null;
+        }
+        worker.execute(() -> sign(url, entry));
+    }
+
+    private void sign(String url, Entry entry) {
+        long startedAt = clock.now();
+        SignedUrl signed = null;
+        IOException failure = null;
+        try {
+            signed = Objects.requireNonNull(signer.sign(url), "Signer returned no URL.");
+        } catch (IOException exception) {
+            failure = exception;
+        } catch (RuntimeException exception) {
+            // A signer bug must still release the entry and its waiters, or every later
+            // request for the URL would wait on a signing which never finishes.
+            failure = new IOException("Signer failed.", exception);
+        }
+        List<Callback> waiters;
+        synchronized (this) {
+            signings++;
+            entry.signing = false;
+            waiters = new ArrayList<>(entry.waiters);
+            entry.waiters.clear();
+            if (signed != null) {
+                entry.signedUrl = signed.getUrl();
+                entry.signedAt = startedAt;
+                entry.expiresAt = startedAt + signed.getValidForMillis();
+                scheduleRefresh(url, entry, signed.getValidForMillis());
+            } else if (!entry.isUsable(clock.now())) {
+                entries.remove(url);
+            }
+        }
+        for (Callback waiter : waiters) {
+            if (signed != null) {
+                waiter.onSigned(signed.getUrl());
+            } else {
+                waiter.onError(failure);
+            }
+        }
+        if (failure != null) {
+            Log.w(TAG, "Unable to sign playback URL.", failure);
+        }
+    }
+
+    private void scheduleRefresh(String url, Entry entry, long validForMillis) {
+        // Short-lived signatures renew halfway through their life instead.
+        long delay = validForMillis - Math.min(refreshMarginMillis, validForMillis / 2);
+        entry.refresh = worker.schedule(() -> refresh(url, entry), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void refresh(String url, Entry entry) {
+        entry.refresh = null;
+        if (entries.get(url) != entry || entry.signing) {
+            return;
+        }
+        if (entry.lastUsedAt < entry.signedAt) {
+            entries.remove(url);
+        } else {
+            startSigning(url, entry);
+        }
+    }
+
+    /**
+     * Receives a signed URL.
+     */
+    public interface Callback {
+
+        /**
+         * Called with the signed URL.
+         * @param signedUrl Signed playback URL
+         */
+        void onSigned(@NonNull String signedUrl);
+
+        /**
+         * Called if the URL could not be signed.
+         * @param error The signer's failure
+         */
+        void onError(@NonNull IOException error);
+    }
+
+    /**
+     * One URL's signature; guarded by the cache.
+     */
+    private static final class Entry {
+        private final List<Callback> waiters = new ArrayList<>();
+        private String signedUrl;
+        private long signedAt;
+        private long expiresAt;
+        private long lastUsedAt;
+        private boolean signing;
+        private Future<?> refresh;
+
+        boolean isUsable(long now) {
+            return signedUrl != null && expiresAt - now >= MIN_REMAINING_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.signing;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Signs playback URLs, e.g. as CloudFront or S3 pre-signed URLs, using whatever keys or
+ * credentials the app holds. Called on a {@link SignedUrlCache}'s background thread.
+ */
+public interface UrlSigner {
+
+    /**
+     * Sign a URL.
+     * @param url Unsigned playback URL
+     * @return The signed URL and how long it stays valid
+     * @throws IOException If the URL cannot be signed, e.g. credentials are unavailable
+     */
+    @NonNull
+    SignedUrl sign(@NonNull String url) throws IOException;
+}
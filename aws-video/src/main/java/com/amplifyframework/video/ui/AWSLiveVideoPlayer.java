@@ -15,20 +15,21 @@
 
 package com.amplifyframework.video.ui;
 
-import android.annotation.SuppressLint;
 import android.media.MediaPlayer;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Handler;
 import android.util.Log;
-import android.view.MotionEvent;
-import android.view.View;
 import android.widget.VideoView;
 import androidx.annotation.NonNull;
 
 import com.amplifyframework.extended.video.resources.live.EgressType;
 import com.amplifyframework.extended.video.resources.live.LiveResource;
-import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.extended.video.ui.PlaybackEngine;
+import com.amplifyframework.video.egress.CapabilityEgressPolicy;
+import com.amplifyframework.video.egress.EgressPolicy;
+import com.amplifyframework.video.hls.LivePlaylistPoller;
+import com.amplifyframework.video.metrics.PlaybackTracer;
+import com.amplifyframework.video.metrics.TimeSource;
 
 import java.util.Objects;
 
@@ -37,9 +38,25 @@ import java.util.Objects;
  */
 public class AWSLiveVideoPlayer extends AWSVideoPlayer {
 
+    /**
+     * Default wait before retrying the stream after an I/O error or a buffering stall.
+     */
+    public static final long DEFAULT_RECONNECT_DELAY_MILLIS = 5000L;
+
+    private static final EgressType[] EGRESS_TYPES = EgressType.values();
+
+    private final Runnable doTryReconnect = () -> {
+        Log.d("AMPAPP", "Attempting to reconnect to the video stream.");
+        reconnect();
+        Log.d("AMPAPP", "Waiting and trying again...");
+    };
+    private final LiveEdgeTracker edgeTracker = new LiveEdgeTracker(LivePlaylistPoller.getDefault());
+    private long reconnectDelayMillis = DEFAULT_RECONNECT_DELAY_MILLIS;
+    private EgressPolicy egressPolicy;
+    private boolean liveEdgeTracking;
+    // Whether the source being connected should have its playlist followed.
+    private boolean trackingSource;
     private LiveResource liveResource;
-    private Handler handler;
-    private State currentState = State.IDLE;
 
     /**
      * Create a new {@link AWSVideoPlayer} composed of a {@link VideoView}.
@@ -47,9 +64,32 @@ public class AWSLiveVideoPlayer extends AWSVideoPlayer {
      * @param videoView The primary {@link VideoView} used by the player.
      */
     public AWSLiveVideoPlayer(@NonNull VideoView videoView) {
-        super(videoView);
-        handler = new Handler();
-        configureListeners();
+        this(videoView, new Handler(), TimeSource.SYSTEM);
+    }
+
+    /**
+     * Create a new {@link AWSVideoPlayer} whose listener delivery and reconnect retries run
+     * on the given handler, and whose metrics read the given clock. Driving both from
+     * virtual time makes reconnect timing and state transitions reproducible.
+     *
+     * @param videoView The primary {@link VideoView} used by the player.
+     * @param handler Handler for listener callbacks and reconnect retries
+     * @param clock Monotonic millisecond clock
+     */
+    public AWSLiveVideoPlayer(@NonNull VideoView videoView, @NonNull Handler handler, @NonNull TimeSource clock) {
+        super(videoView, handler, clock);
+    }
+
+    /**
+     * Create a new {@link AWSVideoPlayer} over any {@link PlaybackEngine}. With a headless
+     * {@link MediaPlayerEngine}, a stream can be attached and prepared before any view exists.
+     *
+     * @param engine Media pipeline to drive
+     * @param handler Handler for listener callbacks and reconnect retries
+     * @param clock Monotonic millisecond clock
+     */
+    public AWSLiveVideoPlayer(@NonNull PlaybackEngine engine, @NonNull Handler handler, @NonNull TimeSource clock) {
+        super(engine, handler, clock);
     }
 
     /**
@@ -59,281 +99,269 @@ public class AWSLiveVideoPlayer extends AWSVideoPlayer {
      */
     public void attach(LiveResource liveResource) {
         this.liveResource = Objects.requireNonNull(liveResource);
+        getQoeMetrics().onAttach();
+        getTracer().beginAttempt(false);
         handlePreparing(getDuration());
         connect(liveResource);
     }
 
-    private void connect(LiveResource liveResource) {
-        // Try all of the egress types until one isn't null.
-        for (EgressType type : EgressType.values()) {
-            String egressPoint = liveResource.getEgressPoint(type);
-            if (egressPoint != null) {
-                setSourceURI(Uri.parse(egressPoint));
-                break;
-            }
-        }
-        if (getState() == State.PREPARING) {
-            handleReady();
+    /**
+     * Set how long the player waits before retrying the stream after an I/O error or a
+     * buffering stall. Defaults to {@link #DEFAULT_RECONNECT_DELAY_MILLIS}.
+     * @param reconnectDelayMillis Delay in milliseconds
+     */
+    public void setReconnectDelay(long reconnectDelayMillis) {
+        if (reconnectDelayMillis < 0) {
+            throw new IllegalArgumentException("Reconnect delay must not be negative.");
         }
-        getVideoView().requestFocus();
-        getVideoView().start();
+        this.reconnectDelayMillis = reconnectDelayMillis;
     }
 
     /**
-     * {@inheritDoc}
+     * Set how the player chooses among a resource's egress points. Defaults to
+     * {@link CapabilityEgressPolicy#getDefault()}, which prefers formats the platform player
+     * reads. Selection runs on the handler's thread at every attach and reconnect, so a
+     * policy should not block; one ranking by declared codecs should be built ahead of time.
+     * Takes effect from the next attach or reconnect.
+     * @param egressPolicy An egress selection policy
      */
-    @Override
-    public LiveResource getVideoResource() {
-        return liveResource;
+    public void setEgressPolicy(@NonNull EgressPolicy egressPolicy) {
+        this.egressPolicy = Objects.requireNonNull(egressPolicy);
     }
 
-    @SuppressLint("ClickableViewAccessibility")
-    private void configureListeners() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-            getVideoView().setOnInfoListener(new LiveInfoListener());
+    /**
+     * Follow the stream's HLS playlist so that {@link #getLiveEdgeDistance()} and
+     * {@link #skipToLive()} work. Costs one playlist download per target duration while
+     * attached, in addition to the platform player's own playlist and segment downloads,
+     * which are never shared; only the tracking download is shared by players tracking the
+     * same stream. Off by default; takes effect from the next attach or reconnect.
+     * @param enabled true to track the live edge
+     */
+    public void setLiveEdgeTrackingEnabled(boolean enabled) {
+        this.liveEdgeTracking = enabled;
+        if (!enabled) {
+            edgeTracker.stop();
         }
-        getVideoView().setOnErrorListener(new LiveErrorListener());
-        getVideoView().setOnPreparedListener(new LivePreparedListener());
-        getVideoView().setOnTouchListener(new LiveTouchListener());
-        getVideoView().setOnCompletionListener(new LiveCompletionListener());
     }
 
     /**
-     * Move the player into a new state; notifies listeners of the change.
-     * @param newState new {@link State} to enter.
+     * Get how far playback is behind the newest content in the live playlist.
+     * @return Milliseconds behind the live edge, or -1 if unknown: tracking is off, the
+     *         stream is not HLS, or playback has not started
      */
-    private void setState(State newState) {
-        if (newState != currentState) {
-            currentState = newState;
-            handleStateChange(newState);
-        }
+    public long getLiveEdgeDistance() {
+        return edgeTracker.getDistanceToEdge(getCurrentPosition());
     }
 
     /**
-     * Begin playback.
+     * Get the wall-clock time at which the content at position 0 was captured, from the
+     * playlist's {@code EXT-X-PROGRAM-DATE-TIME} tags. Players of one event which carry
+     * program date-times can be aligned with it, e.g. by a {@link LiveSyncGroup}.
+     * @return Epoch milliseconds, or -1 if unknown: tracking is off, the stream carries no
+     *         program date-time, or playback has not started
      */
-    public void play() {
-        handlePlay(getCurrentPosition());
-        getVideoView().requestFocus();
-        getVideoView().start();
+    public long getProgramDateTimeOffset() {
+        return edgeTracker.getStartProgramDateTime();
     }
 
     /**
-     * Pause playback.
+     * Jump to the start of the newest segment in the already-loaded playlist, and resume
+     * playback if paused. Much cheaper than reconnecting.
+     * @return true if the player is now at the live edge, false if the edge is unknown
      */
-    public void pause() {
-        handlePause(getCurrentPosition());
-        getVideoView().pause();
+    public boolean skipToLive() {
+        long target = edgeTracker.getNewestSegmentStart();
+        if (target < 0) {
+            return false;
+        }
+        if (target > getCurrentPosition()) {
+            seekTo(target);
+        }
+        if (!isPlaying()) {
+            play();
+        }
+        return true;
     }
 
     /**
-     * Check if the player currently playing.
-     * @return true if the player is playing
+     * {@inheritDoc} Also cancels a pending reconnect and stops following the live playlist.
      */
-    public boolean isPlaying() {
-        return getVideoView().isPlaying();
+    @Override
+    public void release() {
+        cancelReconnect();
+        edgeTracker.stop();
+        super.release();
     }
 
     /**
-     * To be called when a seek event happens.
-     * @param newPosition new playback position
+     * Schedule one reconnect attempt, replacing any attempt already pending. If it fails,
+     * the resulting error or stall schedules the next one.
      */
-    public void onSeek(int oldPosition, int newPosition) {
-        handleSeek(oldPosition, newPosition);
+    private void scheduleReconnect() {
+        getHandler().removeCallbacks(doTryReconnect);
+        getHandler().postDelayed(doTryReconnect, reconnectDelayMillis);
     }
 
-    private State getState() {
-        return currentState;
+    private void cancelReconnect() {
+        getHandler().removeCallbacks(doTryReconnect);
     }
 
-    private void handleStateChange(VideoPlayer.State newState) {
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onStateChange(newState);
-            }
-        });
+    private void reconnect() {
+        getQoeMetrics().onReconnect();
+        getMetrics().onReconnectAttempt();
+        getTracer().beginAttempt(true);
+        connect(getVideoResource());
     }
 
-    private void handlePreparing(long totalDuration) {
-        setState(State.PREPARING);
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onPreparing(totalDuration);
+    private void connect(LiveResource liveResource) {
+        PlaybackTracer tracer = getTracer();
+        if (egressPolicy == null) {
+            egressPolicy = CapabilityEgressPolicy.getDefault();
+        }
+        tracer.begin(PlaybackTracer.Span.CONFIGURATION_LOOKUP);
+        boolean configured = hasEgressPoint(liveResource);
+        tracer.end(PlaybackTracer.Span.CONFIGURATION_LOOKUP);
+        EgressType selected = null;
+        String egressPoint = null;
+        if (configured) {
+            tracer.begin(PlaybackTracer.Span.EGRESS_SELECTION);
+            selected = egressPolicy.select(liveResource);
+            if (selected != null) {
+                getMetrics().onEgressSelected(selected);
+                egressPoint = liveResource.getEgressPoint(selected);
             }
-        });
-    }
-
-    private void handleReady() {
-        setState(State.READY);
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onReady();
+            tracer.end(PlaybackTracer.Span.EGRESS_SELECTION);
+        }
+        if (selected != null) {
+            trackingSource = liveEdgeTracking && selected == EgressType.HLS;
+            if (!trackingSource) {
+                edgeTracker.stop();
             }
-        });
+            setSourceUrl(egressPoint);
+        }
+        if (getState() == State.PREPARING) {
+            handleReady();
+        }
+        getEngine().start();
     }
 
-    private void handlePlay(long currentPosition) {
-        setState(State.PLAYING);
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onPlay(currentPosition);
+    private static boolean hasEgressPoint(LiveResource liveResource) {
+        for (EgressType type : EGRESS_TYPES) {
+            if (liveResource.getEgressPoint(type) != null) {
+                return true;
             }
-        });
+        }
+        return false;
     }
 
-    private void handlePause(long currentPosition) {
-        setState(State.IDLE);
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onPause(currentPosition);
-            }
-        });
+    /**
+     * {@inheritDoc}
+     * The live edge is followed through the remote, possibly signed, source URL.
+     */
+    @Override
+    public void setSourceURI(Uri uri) {
+        super.setSourceURI(uri);
+        if (trackingSource) {
+            trackingSource = false;
+            edgeTracker.start(getSourceUrl());
+        }
     }
 
-    private void handleEnd(long totalDuration) {
-        setState(State.ENDED);
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onEnd(totalDuration);
-            }
-        });
+    /**
+     * {@inheritDoc}
+     * A live stream's duration is unknown, so with live edge tracking on, the content
+     * published ahead of the playhead stands in for the buffer: the player cannot have
+     * buffered more, and it shrinks towards a stall when the origin stops publishing or
+     * playback catches up with the edge. The lowest rendition's bitrate from the master
+     * playlist feeds the predictor's throughput rule, since the rendition playing is not
+     * reported by the platform player.
+     */
+    @Override
+    protected long sampleBufferAhead(long position) {
+        long lowestBitrate = edgeTracker.getLowestVariantBandwidth();
+        if (lowestBitrate > 0) {
+            getStallPredictor().setStreamBitrate(lowestBitrate);
+        }
+        return edgeTracker.getDistanceToEdge(position);
     }
 
-    private void handleSeek(long oldPosition, int newPosition) {
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onSeek(oldPosition, newPosition);
-            }
-        });
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LiveResource getVideoResource() {
+        return liveResource;
     }
 
-    private void handleBufferingStart(long currentPosition) {
-        setState(State.BUFFERING);
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onBufferingStart(currentPosition);
-            }
-        });
-    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean onEngineError(int what, int extra) {
+        switch (extra) {
+            case MediaPlayer.MEDIA_ERROR_IO:
+                if (getState() != State.BUFFERING) {
+                    handleBufferingStart(getCurrentPosition());
+                }
 
-    private void handleBufferingComplete(long currentPosition) {
-        setState(State.PLAYING);
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onBufferingComplete(currentPosition);
-            }
-        });
+                // Trigger 1 connection re-try event. If it fails, an error will propogate right back
+                // to this point, triggering another re-try event.
+                scheduleReconnect();
+                return true;
+            default:
+                return false;
+        }
     }
 
-    private void handleTouch(MotionEvent event) {
-        handler.post(() -> {
-            for (Listener l : getListeners()) {
-                l.onTouch(event);
-            }
-        });
-    }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean onEngineInfo(int what, int extra) {
+        switch (what) {
+            case MediaPlayer.MEDIA_INFO_BUFFERING_START:
+                Log.d("AMPAPP", "Buffering started...");
 
-    private class LivePreparedListener implements MediaPlayer.OnPreparedListener {
-        @Override
-        public void onPrepared(MediaPlayer mediaPlayer) {
-            handleReady();
-        }
-    }
+                if (getState() != State.BUFFERING) {
+                    handleBufferingStart(getCurrentPosition());
+                }
 
-    private class LiveErrorListener implements MediaPlayer.OnErrorListener {
-        private static final int RETRY_DELAY = 5000;
-        private Handler handler = new Handler();
-        private Runnable doTryReconnect = () -> {
-            Log.d("AMPAPP", "Attempting to connect to the video stream.");
-            connect(getVideoResource());
-            Log.d("AMPAPP", "Waiting and trying again...");
-        };
-
-        @Override
-        public boolean onError(MediaPlayer mediaPlayer, int what, int extra) {
-            switch (extra) {
-                case MediaPlayer.MEDIA_ERROR_IO:
-                    if (getState() != State.BUFFERING) {
-                        handleBufferingStart(getCurrentPosition());
-                    }
-
-                    // Trigger 1 connection re-try event. If it fails, an error will propogate right back
-                    // to this point, triggering another re-try event.
-                    handler.postDelayed(doTryReconnect, RETRY_DELAY);
-                    return true;
-                default:
-                    return false;
-            }
-        }
-    }
+                // Buffering triggers 1 connection re-try event after the reconnect delay. If the connection
+                // fails, onEngineError will be called, and another re-try event will be triggered.
+                scheduleReconnect();
 
-    private class LiveInfoListener implements MediaPlayer.OnInfoListener {
-        private static final int RETRY_DELAY = 5000;
-        private Handler handler = new Handler();
-        private Runnable doTryReconnect = () -> {
-            Log.d("AMPAPP", "Attempting to reconnect to the video stream.");
-            connect(getVideoResource());
-            Log.d("AMPAPP", "Waiting and trying again...");
-        };
-
-        @Override
-        public boolean onInfo(MediaPlayer mediaPlayer, int what, int extra) {
-            switch (what) {
-                case MediaPlayer.MEDIA_INFO_BUFFERING_START:
-                    Log.d("AMPAPP", "Buffering started...");
-
-                    if (getState() != State.BUFFERING) {
-                        handleBufferingStart(getCurrentPosition());
-                    }
-
-                    // Buffering triggers 1 connection re-try event after RETRY_DELAY seconds. If the connection
-                    // fails, LiveErrorListener.onError will be called, and another re-try event will be triggered.
-                    handler.postDelayed(doTryReconnect, RETRY_DELAY);
-
-                    return true;
-                case MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START:
-                    Log.d("AMPAPP", "Buffering has stopped, won't try to reconnect.");
-
-                    if (getState() == State.BUFFERING) {
-                        handleBufferingComplete(getCurrentPosition());
-                    } else if (getState() != State.PLAYING) {
-                        handlePlay(getCurrentPosition());
-                    }
-
-                    // If the player signals that buffering has stopped, don't try to reconnect.
-                    handler.removeCallbacks(doTryReconnect);
-
-                    return true;
-                default:
-                    return false;
-            }
-        }
-    }
+                return true;
+            case MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START:
+                Log.d("AMPAPP", "Buffering has stopped, won't try to reconnect.");
+                getTracer().end(PlaybackTracer.Span.FIRST_FRAME);
+                getTracer().endAttempt();
+                edgeTracker.onPlaybackStarted();
+                long timeToFirstFrame = getQoeMetrics().onFirstFrame();
+                if (timeToFirstFrame >= 0) {
+                    getMetrics().onFirstFrame(timeToFirstFrame);
+                }
 
-    private class LiveTouchListener implements View.OnTouchListener {
-
-        @Override
-        public boolean onTouch(View view, MotionEvent event) {
-            handleTouch(event);
-            view.performClick();
-            if (event.getAction() == MotionEvent.ACTION_DOWN) {
-                if (getVideoView().isPlaying()) {
-                    pause();
-                } else {
-                    play();
+                if (getState() == State.BUFFERING) {
+                    handleBufferingComplete(getCurrentPosition());
+                } else if (getState() != State.PLAYING) {
+                    handlePlay(getCurrentPosition());
                 }
+
+                // If the player signals that buffering has stopped, don't try to reconnect.
+                cancelReconnect();
+
                 return true;
-            }
-            return false;
+            default:
+                return false;
         }
     }
 
-    private class LiveCompletionListener implements MediaPlayer.OnCompletionListener {
-
-        @Override
-        public void onCompletion(MediaPlayer mediaPlayer) {
-            handleEnd(getDuration());
-        }
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onEngineCompletion() {
+        handleEnd(getDuration());
     }
 
 }
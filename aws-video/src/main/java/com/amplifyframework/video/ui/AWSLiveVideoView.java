@@ -21,7 +21,6 @@ import android.util.Log;
 import android.view.MotionEvent;
 import android.widget.VideoView;
 
-import com.amplifyframework.analytics.AnalyticsEvent;
 import com.amplifyframework.extended.video.ui.VideoPlayer;
 
 /**
@@ -65,14 +64,6 @@ public class AWSLiveVideoView extends VideoView {
             @Override
             public void onPreparing(long totalDuration) {
                 Log.i("AWSLivePlayer", "Preparing.");
-                getPlayer().getAnalyticsCategory().ifPresent(analytics -> {
-                    AnalyticsEvent preparing = AnalyticsEvent.builder()
-                            .name("LiveStreamPreparing")
-                            .addProperty("LiveStreamIdentifier", getPlayer().getVideoResource().getIdentifier())
-                            .addProperty("TotalDuration", (double) totalDuration)
-                            .build();
-                    analytics.recordEvent(preparing);
-                });
             }
 
             /**
@@ -81,13 +72,6 @@ public class AWSLiveVideoView extends VideoView {
             @Override
             public void onReady() {
                 Log.i("AWSLivePlayer", "Ready.");
-                getPlayer().getAnalyticsCategory().ifPresent(analytics -> {
-                    AnalyticsEvent ready = AnalyticsEvent.builder()
-                            .name("LiveStreamReady")
-                            .addProperty("LiveStreamIdentifier", getPlayer().getVideoResource().getIdentifier())
-                            .build();
-                    analytics.recordEvent(ready);
-                });
             }
 
             /**
@@ -96,15 +80,6 @@ public class AWSLiveVideoView extends VideoView {
             @Override
             public void onSeek(long oldPosition, int newPosition) {
                 Log.i("AWSLivePlayer", "Seek from " + oldPosition + " to " + newPosition + ".");
-                getPlayer().getAnalyticsCategory().ifPresent(analytics -> {
-                    AnalyticsEvent seek = AnalyticsEvent.builder()
-                            .name("LiveStreamSeek")
-                            .addProperty("LiveStreamIdentifier", getPlayer().getVideoResource().getIdentifier())
-                            .addProperty("OldPosition", (double) oldPosition)
-                            .addProperty("NewPosition", (double) newPosition)
-                            .build();
-                    analytics.recordEvent(seek);
-                });
             }
 
             /**
@@ -113,14 +88,6 @@ public class AWSLiveVideoView extends VideoView {
             @Override
             public void onPlay(long currentPosition) {
                 Log.i("AWSLivePlayer", "Play.");
-                getPlayer().getAnalyticsCategory().ifPresent(analytics -> {
-                    AnalyticsEvent play = AnalyticsEvent.builder()
-                            .name("LiveStreamPlay")
-                            .addProperty("LiveStreamIdentifier", getPlayer().getVideoResource().getIdentifier())
-                            .addProperty("CurrentPosition", (double) currentPosition)
-                            .build();
-                    analytics.recordEvent(play);
-                });
             }
 
             /**
@@ -129,14 +96,6 @@ public class AWSLiveVideoView extends VideoView {
             @Override
             public void onPause(long currentPosition) {
                 Log.i("AWSLivePlayer", "Pause.");
-                getPlayer().getAnalyticsCategory().ifPresent(analytics -> {
-                    AnalyticsEvent pause = AnalyticsEvent.builder()
-                            .name("LiveStreamPause")
-                            .addProperty("LiveStreamIdentifier", getPlayer().getVideoResource().getIdentifier())
-                            .addProperty("CurrentPosition", (double) currentPosition)
-                            .build();
-                    analytics.recordEvent(pause);
-                });
             }
 
             /**
@@ -145,14 +104,6 @@ public class AWSLiveVideoView extends VideoView {
             @Override
             public void onBufferingStart(long currentPosition) {
                 Log.i("AWSLivePlayer", "Buffer start.");
-                getPlayer().getAnalyticsCategory().ifPresent(analytics -> {
-                    AnalyticsEvent bufferStart = AnalyticsEvent.builder()
-                            .name("LiveStreamBufferingStart")
-                            .addProperty("LiveStreamIdentifier", getPlayer().getVideoResource().getIdentifier())
-                            .addProperty("CurrentPosition", (double) currentPosition)
-                            .build();
-                    analytics.recordEvent(bufferStart);
-                });
             }
 
             /**
@@ -161,14 +112,6 @@ public class AWSLiveVideoView extends VideoView {
             @Override
             public void onBufferingComplete(long currentPosition) {
                 Log.i("AWSLivePlayer", "Buffer complete.");
-                getPlayer().getAnalyticsCategory().ifPresent(analytics -> {
-                    AnalyticsEvent bufferComplete = AnalyticsEvent.builder()
-                            .name("LiveStreamBufferingComplete")
-                            .addProperty("LiveStreamIdentifier", getPlayer().getVideoResource().getIdentifier())
-                            .addProperty("CurrentPosition", (double) currentPosition)
-                            .build();
-                    analytics.recordEvent(bufferComplete);
-                });
             }
 
             /**
@@ -177,14 +120,6 @@ public class AWSLiveVideoView extends VideoView {
             @Override
             public void onEnd(long totalDuration) {
                 Log.i("AWSLivePlayer", "End.");
-                getPlayer().getAnalyticsCategory().ifPresent(analytics -> {
-                    AnalyticsEvent end = AnalyticsEvent.builder()
-                            .name("LiveStreamEnd")
-                            .addProperty("LiveStreamIdentifier", getPlayer().getVideoResource().getIdentifier())
-                            .addProperty("TotalDuration", (double) totalDuration)
-                            .build();
-                    analytics.recordEvent(end);
-                });
             }
 
             /**
@@ -219,4 +154,10 @@ public class AWSLiveVideoView extends VideoView {
         super.seekTo(newPosition);
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        player.release();
+        super.onDetachedFromWindow();
+    }
+
 }
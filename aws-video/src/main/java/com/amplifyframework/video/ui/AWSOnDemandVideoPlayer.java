@@ -0,0 +1,263 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.media.MediaPlayer;
+import android.os.Handler;
+import android.util.Log;
+import android.widget.VideoView;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.ondemand.OnDemandResource;
+import com.amplifyframework.extended.video.resources.ondemand.OutputType;
+import com.amplifyframework.extended.video.ui.PlaybackEngine;
+import com.amplifyframework.video.metrics.PlaybackTracer;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import java.util.Objects;
+
+/**
+ * Manages a video player for an on-demand AWS resource.
+ *
+ * Playback is resolved from the resource's {@link OutputType#BASE_URL}. With a
+ * {@link ResumePositionStore}, the position is checkpointed while playing and on every
+ * pause or stall, and the next {@link #attach(OnDemandResource, String)} of the same
+ * video resumes from it.
+ */
+public class AWSOnDemandVideoPlayer extends AWSVideoPlayer {
+
+    /**
+     * How often the position is checkpointed while playing.
+     */
+    public static final long CHECKPOINT_INTERVAL_MILLIS = 5000L;
+
+    // Stopping this close to the end counts as finished, so the next attach starts over.
+    private static final long FINISHED_MARGIN_MILLIS = 3000L;
+
+    private OnDemandResource onDemandResource;
+    private ResumePositionStore resumeStore;
+    private String resumeKey;
+    private long resumePosition = -1;
+    private long lastCheckpointAt;
+
+    /**
+     * Create a new {@link AWSOnDemandVideoPlayer} composed of a {@link VideoView}.
+     *
+     * @param videoView The primary {@link VideoView} used by the player.
+     */
+    public AWSOnDemandVideoPlayer(@NonNull VideoView videoView) {
+        this(videoView, new Handler(), TimeSource.SYSTEM);
+    }
+
+    /**
+     * Create a new {@link AWSOnDemandVideoPlayer} whose callbacks run on the given handler
+     * and whose metrics read the given clock.
+     *
+     * @param videoView The primary {@link VideoView} used by the player.
+     * @param handler Handler for listener callbacks
+     * @param clock Monotonic millisecond clock
+     */
+    public AWSOnDemandVideoPlayer(@NonNull VideoView videoView, @NonNull Handler handler, @NonNull TimeSource clock) {
+        super(videoView, handler, clock);
+        addProgressListener(this::checkpoint);
+    }
+
+    /**
+     * Create a new {@link AWSOnDemandVideoPlayer} over any {@link PlaybackEngine}.
+     *
+     * @param engine Media pipeline to drive
+     * @param handler Handler for listener callbacks
+     * @param clock Monotonic millisecond clock
+     */
+    public AWSOnDemandVideoPlayer(@NonNull PlaybackEngine engine, @NonNull Handler handler,
+                                  @NonNull TimeSource clock) {
+        super(engine, handler, clock);
+        addProgressListener(this::checkpoint);
+    }
+
+    /**
+     * Remember and restore playback positions in a store, such as
+     * {@link ResumePositionStore#getInstance(android.content.Context)}. Takes effect
+     * from the next attach.
+     * @param store A store, or null to stop remembering positions
+     */
+    public void setResumePositionStore(ResumePositionStore store) {
+        this.resumeStore = store;
+    }
+
+    /**
+     * Play the resource's output URL itself.
+     *
+     * @param onDemandResource the {@link OnDemandResource} to source from.
+     */
+    public void attach(@NonNull OnDemandResource onDemandResource) {
+        attach(onDemandResource, null);
+    }
+
+    /**
+     * Play a video under the resource's output URL, resuming where the viewer last stopped.
+     *
+     * @param onDemandResource the {@link OnDemandResource} to source from.
+     * @param path Path of the video relative to the output URL, e.g. {@code "clip/clip.m3u8"},
+     *             or null to play the output URL itself
+     * @throws IllegalArgumentException If the resource has no output URL configured
+     */
+    public void attach(@NonNull OnDemandResource onDemandResource, String path) {
+        Objects.requireNonNull(onDemandResource);
+        String url = getPlaybackUrl(onDemandResource, path);
+        this.onDemandResource = onDemandResource;
+        this.resumeKey = onDemandResource.getIdentifier() + "/" + (path == null ? "" : path);
+        this.resumePosition = resumeStore != null ? resumeStore.get(resumeKey) : -1;
+        this.lastCheckpointAt = getTimeSource().now();
+
+        getQoeMetrics().onAttach();
+        getTracer().beginAttempt(false);
+        handlePreparing(getDuration());
+        setSourceUrl(url);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OnDemandResource getVideoResource() {
+        return onDemandResource;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onEnginePrepared() {
+        handleReady();
+        if (resumePosition > 0 && !isFinished(resumePosition, getDuration())) {
+            getPlayheadClock().onSeek(resumePosition);
+            getEngine().seekTo(resumePosition);
+        }
+        resumePosition = -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean onEngineInfo(int what, int extra) {
+        switch (what) {
+            case MediaPlayer.MEDIA_INFO_BUFFERING_START:
+                if (getState() != State.BUFFERING) {
+                    handleBufferingStart(getCurrentPosition());
+                }
+                return true;
+            case MediaPlayer.MEDIA_INFO_BUFFERING_END:
+                if (getState() == State.BUFFERING) {
+                    handleBufferingComplete(getCurrentPosition());
+                }
+                return true;
+            case MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START:
+                getTracer().end(PlaybackTracer.Span.FIRST_FRAME);
+                getTracer().endAttempt();
+                long timeToFirstFrame = getQoeMetrics().onFirstFrame();
+                if (timeToFirstFrame >= 0) {
+                    getMetrics().onFirstFrame(timeToFirstFrame);
+                }
+                if (getState() != State.PLAYING) {
+                    handlePlay(getCurrentPosition());
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean onEngineError(int what, int extra) {
+        Log.w("AMPAPP", "On-demand playback failed: " + what + ", " + extra);
+        // Keep the last checkpoint so a retry resumes from it.
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onEngineCompletion() {
+        if (resumeStore != null && resumeKey != null) {
+            resumeStore.clear(resumeKey);
+        }
+        handleEnd(getDuration());
+    }
+
+    private void checkpoint(long position, long duration) {
+        if (resumeStore == null || resumeKey == null) {
+            return;
+        }
+        long now = getTimeSource().now();
+        switch (getState()) {
+            case PLAYING:
+                if (now - lastCheckpointAt < CHECKPOINT_INTERVAL_MILLIS) {
+                    return;
+                }
+                break;
+            case PAUSED:
+            case BUFFERING:
+                // Paused or stalled: always checkpoint.
+                break;
+            default:
+                // Idle, preparing, ready or ended: the position is not meaningful yet, or any more.
+                return;
+        }
+        lastCheckpointAt = now;
+        if (isFinished(position, duration)) {
+            resumeStore.clear(resumeKey);
+        } else {
+            resumeStore.save(resumeKey, position);
+        }
+    }
+
+    private static boolean isFinished(long position, long duration) {
+        return duration > 0 && position >= duration - FINISHED_MARGIN_MILLIS;
+    }
+
+    /**
+     * Get the unsigned URL a video under an on-demand resource is played from, e.g. to
+     * {@link com.amplifyframework.video.signing.SignedUrlCache#prefetch(String) prefetch}
+     * its signature.
+     * @param onDemandResource the {@link OnDemandResource} to source from.
+     * @param path Path of the video relative to the output URL, or null for the output URL
+     * @return Playback URL
+     * @throws IllegalArgumentException If the resource has no output URL configured
+     */
+    @NonNull
+    public static String getPlaybackUrl(@NonNull OnDemandResource onDemandResource, String path) {
+        String baseUrl = onDemandResource.getOutputPoint(OutputType.BASE_URL);
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("On-demand resource " + onDemandResource.getIdentifier()
+                    + " has no output URL.");
+        }
+        if (path == null || path.isEmpty()) {
+            return baseUrl;
+        }
+        boolean baseSlash = baseUrl.endsWith("/");
+        boolean pathSlash = path.startsWith("/");
+        if (baseSlash && pathSlash) {
+            return baseUrl + path.substring(1);
+        }
+        return baseSlash || pathSlash ? baseUrl + path : baseUrl + "/" + path;
+    }
+}
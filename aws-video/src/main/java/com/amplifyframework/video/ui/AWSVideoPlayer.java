@@ -15,14 +15,37 @@
 
 package com.amplifyframework.video.ui;
 
+import android.annotation.SuppressLint;
+import android.media.MediaPlayer;
+import android.net.TrafficStats;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
 import android.widget.VideoView;
 import androidx.annotation.NonNull;
 
 import com.amplifyframework.analytics.AnalyticsCategory;
 import com.amplifyframework.extended.video.resources.VideoResource;
+import com.amplifyframework.extended.video.ui.PlaybackEngine;
 import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.analytics.PlaybackAnalyticsOptions;
+import com.amplifyframework.video.analytics.PlaybackAnalyticsRecorder;
+import com.amplifyframework.video.event.PlayerEventPipeline;
+import com.amplifyframework.video.hls.ManifestCache;
+import com.amplifyframework.video.metrics.MetricsRegistry;
+import com.amplifyframework.video.metrics.NoOpMetricsRegistry;
+import com.amplifyframework.video.metrics.PlaybackTracer;
+import com.amplifyframework.video.metrics.QoeCollector;
+import com.amplifyframework.video.metrics.StallPredictor;
+import com.amplifyframework.video.metrics.TimeSource;
+import com.amplifyframework.video.signing.SignedUrlCache;
+import com.amplifyframework.video.upload.UploadQueue;
 
+import java.io.IOException;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -31,30 +54,204 @@ import java.util.Optional;
  */
 public abstract class AWSVideoPlayer extends VideoPlayer {
 
+    /**
+     * How often buffer and throughput are sampled for stall prediction while playing.
+     */
+    public static final long STALL_SAMPLE_INTERVAL_MILLIS = 500L;
+    /**
+     * Returned by {@link #sampleBufferAhead(long)} when the whole source is buffered.
+     */
+    protected static final long FULLY_BUFFERED = Long.MAX_VALUE;
+
+    private static final int FULLY_BUFFERED_PERCENT = 100;
+
     private VideoView videoView;
+    private final PlaybackEngine engine;
+    private final Handler handler;
+    private final TimeSource clock;
+    private final PlayheadClock playhead;
+    private final EngineCallback engineCallback = new EngineCallback();
+    private SignedUrlCache signedUrls;
+    private ManifestCache manifestCache;
+    private String sourceUrl;
+    private int sourceGeneration;
+
+    // Data saver.
+    private DataSaver dataSaver;
+    // Guards the savings below; state transitions may arrive on an engine thread.
+    private final Object savingsLock = new Object();
+    private long savedBitsPerSecond;
+    private long savingSince = -1;
+    private long bytesSaved;
 
     // Analytics.
     private Optional<AnalyticsCategory> analyticsCategory = Optional.empty();
+    private PlaybackAnalyticsRecorder analyticsRecorder;
+    private PlayerEventPipeline eventPipeline;
+    private PlayerEventPipeline ownedPipeline;
     private boolean autoplay = true;
 
+    // Uploads held back while playback needs the bandwidth.
+    private UploadQueue uploadQueue;
+    private UploadQueue.PlaybackHold uploadHold;
+
+    private final PlayerEventDispatcher dispatcher;
+    private boolean seekInProgress;
+    private float playbackRate = 1f;
+    private boolean playbackRatePending;
+    private final PlayerStateMachine stateMachine;
+
+    private final QoeCollector qoeMetrics;
+    private final PlaybackTracer tracer = new PlaybackTracer();
+    private final StallPredictor stallPredictor = new StallPredictor();
+    private final Runnable stallSampler = this::sampleStall;
+    private boolean stallSampling;
+    private volatile PlayerMetrics metrics = new PlayerMetrics(NoOpMetricsRegistry.INSTANCE);
+    private MetricsRegistry metricsRegistry;
+
     /**
      * Create a new {@link AWSVideoPlayer} composed of a {@link VideoView}.
      * @param videoView The primary {@link VideoView} used by the player.
      */
     protected AWSVideoPlayer(@NonNull VideoView videoView) {
+        this(videoView, new Handler(), TimeSource.SYSTEM);
+    }
+
+    /**
+     * Create a new {@link AWSVideoPlayer} which schedules its work on the given handler
+     * and reads time from the given clock, e.g. a virtual-time pair in a simulation.
+     * @param videoView The primary {@link VideoView} used by the player.
+     * @param handler Handler for callbacks and delayed work such as retries
+     * @param clock Monotonic millisecond clock for metrics and position estimates
+     */
+    protected AWSVideoPlayer(@NonNull VideoView videoView, @NonNull Handler handler, @NonNull TimeSource clock) {
+        this(new VideoViewEngine(videoView), handler, clock);
         setVideoView(videoView);
+        configureTouch();
+    }
+
+    /**
+     * Create a new {@link AWSVideoPlayer} over any {@link PlaybackEngine}, such as a
+     * headless {@link MediaPlayerEngine} which can prepare a stream before a view exists.
+     * The player takes over the engine's callback.
+     * @param engine Media pipeline to drive
+     * @param handler Handler for callbacks and delayed work such as retries
+     * @param clock Monotonic millisecond clock for metrics and position estimates
+     */
+    protected AWSVideoPlayer(@NonNull PlaybackEngine engine, @NonNull Handler handler, @NonNull TimeSource clock) {
+        this.engine = Objects.requireNonNull(engine);
+        this.handler = Objects.requireNonNull(handler);
+        this.clock = Objects.requireNonNull(clock);
+        this.qoeMetrics = new QoeCollector(clock);
+        this.playhead = new PlayheadClock(clock, engine::getCurrentPosition, engine::getDuration, handler);
+        this.dispatcher = new PlayerEventDispatcher(handler::post, this::getListenerSnapshot, this::getMetrics);
+        this.stateMachine = new PlayerStateMachine(handler, this::onTransition);
+        engine.setCallback(engineCallback);
     }
 
     private void setVideoView(@NonNull VideoView videoView) {
         this.videoView = Objects.requireNonNull(videoView);
     }
 
+    @SuppressLint("ClickableViewAccessibility")
+    private void configureTouch() {
+        videoView.setOnTouchListener(new PlayerTouchListener());
+    }
+
     /**
-     * Record player actions to an Amplify Analytics provider.
+     * Record player sessions to an Amplify Analytics provider, using
+     * {@link PlaybackAnalyticsOptions#defaults()}.
      * @param amplifyAnalytics {@link AnalyticsCategory} for AWS PinPoint Analytics, etc.
      */
     public void addAnalytics(AnalyticsCategory amplifyAnalytics) {
+        addAnalytics(amplifyAnalytics, PlaybackAnalyticsOptions.defaults());
+    }
+
+    /**
+     * Record player sessions to an Amplify Analytics provider. Player events are
+     * aggregated into periodic session-summary events rather than recorded one by one,
+     * unless the options ask for raw events as well. The recorder consumes the player's
+     * {@link PlayerEventPipeline}; if none was set, the player starts one of its own.
+     * Must be called on the main thread.
+     * @param amplifyAnalytics {@link AnalyticsCategory} for AWS PinPoint Analytics, etc.
+     * @param options Summary interval and raw recording options
+     */
+    public void addAnalytics(AnalyticsCategory amplifyAnalytics, PlaybackAnalyticsOptions options) {
         this.analyticsCategory = Optional.of(amplifyAnalytics);
+        if (analyticsRecorder != null) {
+            analyticsRecorder.endSession();
+            analyticsPipeline().removeConsumer(analyticsRecorder);
+        }
+        analyticsRecorder = new PlaybackAnalyticsRecorder(amplifyAnalytics, this::getVideoResource,
+                Objects.requireNonNull(options), clock);
+        analyticsPipeline().addConsumer(analyticsRecorder);
+    }
+
+    private PlayerEventPipeline analyticsPipeline() {
+        if (eventPipeline != null) {
+            return eventPipeline;
+        }
+        if (ownedPipeline == null) {
+            ownedPipeline = new PlayerEventPipeline(PlayerEventPipeline.DEFAULT_CAPACITY, clock);
+            ownedPipeline.start();
+            dispatcher.setPipeline(ownedPipeline);
+        }
+        return ownedPipeline;
+    }
+
+    /**
+     * Record the summary for the current analytics session now and start a new one.
+     * Call this when the viewer leaves the player. Has no effect without analytics.
+     */
+    public void endAnalyticsSession() {
+        if (analyticsRecorder != null) {
+            analyticsRecorder.endSession();
+        }
+    }
+
+    /**
+     * Release the background work this player started. The event pipeline the player started
+     * for analytics drains the events already published, the recorder records its session
+     * summary, and the pipeline's thread exits. A pipeline set through
+     * {@link #setEventPipeline(PlayerEventPipeline)} belongs to the caller and keeps running:
+     * the player stops publishing to it and releases it for another player, and the recorder
+     * leaves it and records its summary at once. Analytics stays off until
+     * {@link #addAnalytics(AnalyticsCategory)} is called again. The views call this when they
+     * are detached from their window. Must be called on the main thread.
+     */
+    public void release() {
+        setStallSampling(false);
+        setUploadQueue(null);
+        if (ownedPipeline != null) {
+            // Shutting down delivers the backlog first, then tells the recorder to flush.
+            ownedPipeline.shutdown();
+            ownedPipeline = null;
+        } else if (eventPipeline != null) {
+            if (analyticsRecorder != null) {
+                eventPipeline.removeConsumer(analyticsRecorder);
+                analyticsRecorder.endSession();
+            }
+            eventPipeline.unbindProducer(this);
+            eventPipeline = null;
+        }
+        dispatcher.setPipeline(null);
+        analyticsRecorder = null;
+    }
+
+    /**
+     * Get the handler this player schedules callbacks and delayed work on.
+     * @return The player's handler
+     */
+    protected Handler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Get the clock this player measures time with.
+     * @return The player's clock
+     */
+    protected TimeSource getTimeSource() {
+        return clock;
     }
 
     /**
@@ -70,15 +267,668 @@ public abstract class AWSVideoPlayer extends VideoPlayer {
      * @param uri A valid {@link Uri}.
      */
     public void setSourceURI(Uri uri) {
-        videoView.setVideoURI(uri);
-        if (autoplay) {
-            videoView.setOnPreparedListener(player -> player.start());
+        tracer.begin(PlaybackTracer.Span.SET_SOURCE);
+        playhead.onSourceChanged();
+        // The engine starts a new source at normal speed; restore the rate once it plays.
+        playbackRatePending = playbackRate != 1f;
+        stallPredictor.reset();
+        engine.prepare(uri);
+        tracer.end(PlaybackTracer.Span.SET_SOURCE);
+        tracer.begin(PlaybackTracer.Span.PREPARE);
+    }
+
+    /**
+     * Sign source URLs through a cache before playing them. With a cache shared across
+     * screens and warmed through {@link SignedUrlCache#prefetch(String)}, starting playback
+     * reads a signature from memory; on a miss, the source is set once signing completes.
+     * The cache reports its hits and misses into this player's metrics registry, if one is set.
+     * @param cache A signed URL cache, or null to play URLs unsigned
+     */
+    public void setSignedUrlCache(SignedUrlCache cache) {
+        this.signedUrls = cache;
+        if (cache != null && metricsRegistry != null) {
+            cache.setMetricsRegistry(metricsRegistry);
+        }
+    }
+
+    /**
+     * Start sources from cached manifests where possible. A warm start of an HLS source
+     * plays the cached master playlist from disk, skipping its request, while the cache
+     * revalidates it in the background; cold starts fill the cache for next time.
+     * The cache reports its hits and misses into this player's metrics registry, if one is set.
+     * @param cache A manifest cache, such as
+     *              {@link ManifestCache#getInstance(android.content.Context)}, or null
+     */
+    public void setManifestCache(ManifestCache cache) {
+        this.manifestCache = cache;
+        if (cache != null && metricsRegistry != null) {
+            cache.setMetricsRegistry(metricsRegistry);
+        }
+    }
+
+    /**
+     * Limit the renditions HLS sources play under a data saver's policy. The policy and
+     * network type are read whenever the source is loaded, i.e. on attach and on a live
+     * reconnect; a change in between, or setting the data saver itself, leaves the
+     * current session alone and applies from the next load. Requires a
+     * {@link ManifestCache}, through which the capped master playlist is played.
+     * @param saver A data saver, possibly shared with other players, or null for no limits
+     */
+    public void setDataSaver(DataSaver saver) {
+        this.dataSaver = saver;
+    }
+
+    /**
+     * Hold a queue's uploads back while this player is preparing, ready, playing or
+     * buffering, so that playback wins the bandwidth; an idle, paused or ended player
+     * releases the hold. Must be called on the handler's thread.
+     * @param queue An upload queue, or null to stop holding uploads back
+     */
+    public void setUploadQueue(UploadQueue queue) {
+        if (queue == uploadQueue) {
+            return;
+        }
+        if (uploadHold != null) {
+            uploadHold.close();
+            uploadHold = null;
+        }
+        uploadQueue = queue;
+        updateUploadHold(getState());
+    }
+
+    /**
+     * Get the bytes this player saved by playing capped renditions. Estimated from the
+     * declared peak bitrates of the best rendition removed and the best one kept.
+     * @return Estimated bytes saved
+     */
+    public long getBytesSaved() {
+        synchronized (savingsLock) {
+            long pending = savingSince >= 0 ? DataSaver.bytesFor(savedBitsPerSecond, clock.now() - savingSince) : 0;
+            return bytesSaved + pending;
+        }
+    }
+
+    /**
+     * Set the source from an unsigned URL, signing it first if a {@link SignedUrlCache} is
+     * set and playing it from a {@link ManifestCache} if one is set. A signing failure is
+     * reported to {@link #onEngineError(int, int)} as an I/O error. Must be called on the
+     * handler's thread.
+     * @param url Unsigned playback URL
+     */
+    protected final void setSourceUrl(@NonNull String url) {
+        final int generation = ++sourceGeneration;
+        if (signedUrls == null) {
+            applySourceUrl(url);
+            return;
+        }
+        signedUrls.get(url, new SignedUrlCache.Callback() {
+            @Override
+            public void onSigned(@NonNull String signedUrl) {
+                runForSource(generation, () -> applySourceUrl(signedUrl));
+            }
+
+            @Override
+            public void onError(@NonNull IOException error) {
+                Log.w("AMPAPP", "Unable to sign the playback URL.", error);
+                runForSource(generation,
+                        () -> engineCallback.onError(MediaPlayer.MEDIA_ERROR_UNKNOWN, MediaPlayer.MEDIA_ERROR_IO));
+            }
+        });
+    }
+
+    private void applySourceUrl(String url) {
+        sourceUrl = url;
+        DataSaver saver = dataSaver;
+        if (saver != null && manifestCache != null) {
+            resolveCappedSource(saver, url);
+            return;
+        }
+        resolveUncappedSource(url);
+    }
+
+    /**
+     * Play a URL's master playlist from the manifest cache if it holds a copy, otherwise
+     * from the URL. The cache is read off the handler's thread.
+     */
+    private void resolveUncappedSource(String url) {
+        setSavedBandwidth(0);
+        if (manifestCache == null) {
+            setSourceURI(Uri.parse(url));
+            return;
+        }
+        final int generation = sourceGeneration;
+        manifestCache.getPlayableSource(url, source -> runForSource(generation,
+                () -> setSourceURI(source != null ? source : Uri.parse(url))));
+    }
+
+    /**
+     * Play a URL's master playlist with only the renditions the data saver allows.
+     */
+    private void resolveCappedSource(DataSaver saver, String url) {
+        final int generation = sourceGeneration;
+        int viewWidth = videoView != null ? videoView.getWidth() : 0;
+        int viewHeight = videoView != null ? videoView.getHeight() : 0;
+        saver.resolve(manifestCache, url, viewWidth, viewHeight, new DataSaver.Resolution() {
+            @Override
+            public void onResolved(Uri source, long savedBandwidth) {
+                runForSource(generation, () -> {
+                    setSavedBandwidth(savedBandwidth);
+                    // Not an HLS master playlist, so there is no local copy to play either.
+                    setSourceURI(source != null ? source : Uri.parse(url));
+                });
+            }
+
+            @Override
+            public void onError(@NonNull IOException error) {
+                Log.w("AMPAPP", "Unable to apply the data saver; playing uncapped.", error);
+                runForSource(generation, () -> resolveUncappedSource(url));
+            }
+        });
+    }
+
+    private void setSavedBandwidth(long bitsPerSecond) {
+        synchronized (savingsLock) {
+            accrueBytesSaved();
+            if (savingSince < 0 && getState() == State.PLAYING) {
+                savingSince = clock.now();
+            }
+            savedBitsPerSecond = bitsPerSecond;
+        }
+    }
+
+    /**
+     * Credit the savings of the playing time since the last accrual.
+     */
+    private void accrueBytesSaved() {
+        if (savingSince < 0) {
+            return;
+        }
+        long now = clock.now();
+        long bytes = DataSaver.bytesFor(savedBitsPerSecond, now - savingSince);
+        savingSince = now;
+        if (bytes > 0) {
+            bytesSaved += bytes;
+            metrics.onBytesSaved(bytes);
+            DataSaver saver = dataSaver;
+            if (saver != null) {
+                saver.addBytesSaved(bytes);
+            }
+        }
+    }
+
+    /**
+     * Get the remote URL behind the source set through {@link #setSourceUrl(String)}, after
+     * signing. The player itself may be reading a cached copy of its manifest.
+     * @return Source URL, or null before one is set
+     */
+    protected final String getSourceUrl() {
+        return sourceUrl;
+    }
+
+    private void runForSource(int generation, Runnable action) {
+        Runnable guarded = () -> {
+            // A newer source replaced this one while it was being signed or resolved.
+            if (generation == sourceGeneration) {
+                action.run();
+            }
+        };
+        if (Looper.myLooper() == handler.getLooper()) {
+            guarded.run();
+        } else {
+            handler.post(guarded);
+        }
+    }
+
+    /**
+     * Also publish every player event to a background {@link PlayerEventPipeline}.
+     * Listeners added through {@link #addListener(Listener)} keep running on the main thread;
+     * analytics and logging work can move to pipeline consumers instead. The analytics
+     * recorder, if any, moves to the given pipeline, which should share this player's clock.
+     * A pipeline serves one player at a time; the previous pipeline is released for reuse.
+     * @param pipeline A started pipeline, or null to stop publishing
+     * @throws IllegalStateException If the pipeline is already set on another player
+     */
+    public void setEventPipeline(PlayerEventPipeline pipeline) {
+        if (pipeline != null) {
+            pipeline.bindProducer(this);
+        }
+        if (eventPipeline != null && eventPipeline != pipeline) {
+            eventPipeline.unbindProducer(this);
+        }
+        if (analyticsRecorder != null) {
+            analyticsPipeline().removeConsumer(analyticsRecorder);
+        }
+        eventPipeline = pipeline;
+        if (ownedPipeline != null) {
+            ownedPipeline.shutdown();
+            ownedPipeline = null;
+        }
+        dispatcher.setPipeline(pipeline);
+        if (analyticsRecorder != null) {
+            // Without a pipeline of its own, analytics falls back to one owned by the player.
+            analyticsPipeline().addConsumer(analyticsRecorder);
         }
     }
 
+    /**
+     * Apply a lifecycle event to the state machine, counting it if it is not valid in the
+     * current state.
+     * @param event What happened
+     * @return true if the event was valid
+     */
+    private boolean fire(PlayerStateMachine.Event event) {
+        boolean valid = stateMachine.fire(event);
+        if (!valid) {
+            metrics.onInvalidTransition();
+        }
+        return valid;
+    }
+
+    // Runs on the handler's thread, whichever thread fired the event, so the engine may be read.
+    private void onTransition(State from, State to) {
+        synchronized (savingsLock) {
+            accrueBytesSaved();
+            savingSince = to == State.PLAYING ? clock.now() : -1;
+        }
+        qoeMetrics.onStateChange(to);
+        if (to == State.PLAYING && playbackRatePending) {
+            playbackRatePending = false;
+            if (!engine.setPlaybackRate(playbackRate)) {
+                // The engine plays the new source at normal speed; estimate at that speed.
+                playbackRate = 1f;
+                playhead.setPlaybackRate(1f);
+            }
+        }
+        playhead.onStateChange(to);
+        metrics.onBufferPercent(engine.getBufferPercentage());
+        if (to == State.BUFFERING) {
+            // The stall happened; predict the next one from fresh trends.
+            stallPredictor.reset();
+        }
+        setStallSampling(to == State.PLAYING);
+        updateUploadHold(to);
+        dispatcher.dispatchStateChange(to);
+    }
+
+    private void updateUploadHold(State state) {
+        // READY is only a step towards playing.
+        boolean needsBandwidth = state != State.IDLE && state != State.PAUSED && state != State.ENDED;
+        if (needsBandwidth && uploadHold == null && uploadQueue != null) {
+            uploadHold = uploadQueue.holdForPlayback();
+        } else if (!needsBandwidth && uploadHold != null) {
+            uploadHold.close();
+            uploadHold = null;
+        }
+    }
+
+    private void setStallSampling(boolean enabled) {
+        if (enabled == stallSampling) {
+            return;
+        }
+        stallSampling = enabled;
+        if (enabled) {
+            handler.postDelayed(stallSampler, STALL_SAMPLE_INTERVAL_MILLIS);
+        } else {
+            handler.removeCallbacks(stallSampler);
+            stallPredictor.reset();
+        }
+    }
+
+    private void sampleStall() {
+        if (!stallSampling) {
+            return;
+        }
+        long position = engine.getCurrentPosition();
+        long bufferAhead = sampleBufferAhead(position);
+        if (bufferAhead != FULLY_BUFFERED) {
+            long timeToStall = stallPredictor.sample(clock.now(), bufferAhead, receivedBytes());
+            if (timeToStall >= 0) {
+                handleStallPredicted(position, timeToStall);
+            }
+        }
+        handler.postDelayed(stallSampler, STALL_SAMPLE_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Estimate how much media is buffered ahead of the playhead, for the stall predictor.
+     * Called on the handler every {@link #STALL_SAMPLE_INTERVAL_MILLIS} while playing.
+     * By default, derived from the engine's buffer percentage, which only maps to media
+     * time when the duration is known.
+     * @param position Current playback position
+     * @return Milliseconds buffered ahead, {@link #FULLY_BUFFERED} if the whole source is
+     *         buffered and no stall is possible, or -1 if unknown
+     */
+    protected long sampleBufferAhead(long position) {
+        int percent = engine.getBufferPercentage();
+        if (percent >= FULLY_BUFFERED_PERCENT) {
+            return FULLY_BUFFERED;
+        }
+        long duration = getDuration();
+        return duration > 0 ? Math.max(0, duration * percent / FULLY_BUFFERED_PERCENT - position) : -1;
+    }
+
+    /**
+     * Bytes received by this app so far. The media player downloads in-process, so the
+     * app's receive counter approximates its throughput. It also counts every other
+     * download the app makes, such as images, API calls or uploads' responses, and
+     * playlist polling; that traffic makes the estimate optimistic, so the throughput rule
+     * can miss a stall but does not raise false ones.
+     * @return Received bytes, or -1 if the platform does not account for them
+     */
+    private static long receivedBytes() {
+        long received = TrafficStats.getUidRxBytes(Process.myUid());
+        return received == TrafficStats.UNSUPPORTED ? -1 : received;
+    }
+
+    /**
+     * Begin playback.
+     */
+    public void play() {
+        handlePlay(getCurrentPosition());
+        engine.start();
+    }
+
+    /**
+     * Pause playback.
+     */
+    public void pause() {
+        handlePause(getCurrentPosition());
+        engine.pause();
+    }
+
+    /**
+     * Change the playback speed, keeping position estimates in step. The speed carries over
+     * to later sources, such as the stream after a reconnect or a rendition switch.
+     * @param rate Speed, where 1 is normal; must be positive
+     * @return true if the engine applied the rate
+     */
+    public boolean setPlaybackRate(float rate) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("Playback rate must be positive.");
+        }
+        if (!engine.setPlaybackRate(rate)) {
+            return false;
+        }
+        playbackRate = rate;
+        playbackRatePending = false;
+        playhead.setPlaybackRate(rate);
+        return true;
+    }
+
+    /**
+     * Check if the player currently playing.
+     * @return true if the player is playing
+     */
+    public boolean isPlaying() {
+        return engine.isPlaying();
+    }
+
+    /**
+     * Seek to a position, notifying listeners.
+     * @param positionMillis Target position in milliseconds
+     */
+    public void seekTo(long positionMillis) {
+        onSeek((int) getCurrentPosition(), (int) positionMillis);
+        seekInProgress = true;
+        try {
+            engine.seekTo(positionMillis);
+        } finally {
+            seekInProgress = false;
+        }
+    }
+
+    /**
+     * To be called when a seek event happens.
+     * @param oldPosition previous playback position
+     * @param newPosition new playback position
+     */
+    public void onSeek(int oldPosition, int newPosition) {
+        if (seekInProgress) {
+            // Echo of our own seekTo from a view which reports its seeks.
+            return;
+        }
+        qoeMetrics.onSeekStart();
+        playhead.onSeek(newPosition);
+        handleSeek(oldPosition, newPosition);
+    }
+
+    /**
+     * Get the player's current state.
+     * @return Current {@link State}
+     */
+    protected final State getState() {
+        return stateMachine.getState();
+    }
+
+    /**
+     * Get the number of lifecycle events which arrived in a state where they are not valid,
+     * e.g. buffering completing while not buffering, and were therefore ignored.
+     * @return Invalid transition count
+     */
+    public long getInvalidStateTransitionCount() {
+        return stateMachine.getInvalidTransitionCount();
+    }
+
+    /**
+     * Enter {@link State#PREPARING} and notify listeners.
+     * @param totalDuration Duration of the source, if known
+     */
+    protected final void handlePreparing(long totalDuration) {
+        if (fire(PlayerStateMachine.Event.PREPARE)) {
+            dispatcher.dispatchPreparing(totalDuration);
+        }
+    }
+
+    /**
+     * Enter {@link State#READY} and notify listeners.
+     */
+    protected final void handleReady() {
+        if (fire(PlayerStateMachine.Event.READY)) {
+            dispatcher.dispatchReady();
+        }
+    }
+
+    /**
+     * Enter {@link State#PLAYING} and notify listeners that playback started.
+     * @param currentPosition Playback position
+     */
+    protected final void handlePlay(long currentPosition) {
+        if (fire(PlayerStateMachine.Event.PLAY)) {
+            dispatcher.dispatchPlay(currentPosition);
+        }
+    }
+
+    /**
+     * Enter {@link State#PAUSED} and notify listeners that playback paused.
+     * @param currentPosition Playback position
+     */
+    protected final void handlePause(long currentPosition) {
+        if (fire(PlayerStateMachine.Event.PAUSE)) {
+            dispatcher.dispatchPause(currentPosition);
+        }
+    }
+
+    /**
+     * Enter {@link State#ENDED} and notify listeners.
+     * @param totalDuration Duration of the source
+     */
+    protected final void handleEnd(long totalDuration) {
+        if (fire(PlayerStateMachine.Event.END)) {
+            dispatcher.dispatchEnd(totalDuration);
+        }
+    }
+
+    /**
+     * Notify listeners of a seek.
+     * @param oldPosition Position before the seek
+     * @param newPosition Target position
+     */
+    protected final void handleSeek(long oldPosition, int newPosition) {
+        dispatcher.dispatchSeek(oldPosition, newPosition);
+    }
+
+    /**
+     * Enter {@link State#BUFFERING} and notify listeners.
+     * @param currentPosition Playback position
+     */
+    protected final void handleBufferingStart(long currentPosition) {
+        if (fire(PlayerStateMachine.Event.BUFFERING_START)) {
+            metrics.onBufferingStart();
+            dispatcher.dispatchBufferingStart(currentPosition);
+        }
+    }
+
+    /**
+     * Return to {@link State#PLAYING} after buffering and notify listeners.
+     * @param currentPosition Playback position
+     */
+    protected final void handleBufferingComplete(long currentPosition) {
+        if (fire(PlayerStateMachine.Event.BUFFERING_COMPLETE)) {
+            dispatcher.dispatchBufferingComplete(currentPosition);
+        }
+    }
+
+    /**
+     * Notify listeners that a stall is predicted.
+     * @param currentPosition Playback position
+     * @param timeToStallMillis Predicted milliseconds until the buffer runs dry
+     */
+    protected final void handleStallPredicted(long currentPosition, long timeToStallMillis) {
+        metrics.onStallPredicted(timeToStallMillis);
+        dispatcher.dispatchStallPredicted(currentPosition, timeToStallMillis);
+    }
+
+    /**
+     * Forward a touch on the player's view to listeners.
+     * @param event Touch event from the view's touch listener
+     */
+    protected final void handleTouch(MotionEvent event) {
+        dispatcher.dispatchTouch(event);
+    }
+
+    /**
+     * Called when the engine has prepared a source set through {@link #setSourceURI(Uri)},
+     * before autoplay starts it.
+     */
+    protected void onEnginePrepared() { }
+
+    /**
+     * Called with the engine's informational events.
+     * @param what One of MediaPlayer's MEDIA_INFO_* codes
+     * @param extra Code-specific detail
+     * @return true if the event was handled
+     */
+    protected boolean onEngineInfo(int what, int extra) {
+        return false;
+    }
+
+    /**
+     * Called when the engine reports a playback error.
+     * @param what One of MediaPlayer's MEDIA_ERROR_* codes
+     * @param extra Code-specific detail
+     * @return true if the error was handled
+     */
+    protected boolean onEngineError(int what, int extra) {
+        return false;
+    }
+
+    /**
+     * Called when the engine reaches the end of the source.
+     */
+    protected void onEngineCompletion() { }
+
+    /**
+     * Receive the playback position periodically while playing, and once after every
+     * state change. Updates are driven by the player's {@link PlayheadClock}, at a cadence
+     * suited to the clip length, so the UI does not need to poll.
+     * @param listener A progress listener, called on the main thread
+     */
+    public void addProgressListener(@NonNull PlayheadClock.ProgressListener listener) {
+        playhead.addProgressListener(listener);
+    }
+
+    /**
+     * Stop receiving playback position updates.
+     * @param listener A listener added through {@link #addProgressListener(PlayheadClock.ProgressListener)}
+     */
+    public void removeProgressListener(@NonNull PlayheadClock.ProgressListener listener) {
+        playhead.removeProgressListener(listener);
+    }
+
+    /**
+     * Get the clock which estimates this player's position between media player queries.
+     * Tell it about playback rate changes through {@link PlayheadClock#setPlaybackRate(float)}.
+     * @return This player's playhead clock
+     */
+    public PlayheadClock getPlayheadClock() {
+        return playhead;
+    }
+
+    /**
+     * Report player internals (reconnect attempts, egress choice, buffer fill, listener
+     * dispatch queue depth, startup time, and the hit and miss counts of the player's
+     * signed URL and manifest caches) into a metrics registry, such as an
+     * {@link com.amplifyframework.video.metrics.InMemoryMetricsRegistry} with an exporter
+     * for your telemetry backend. Defaults to {@link NoOpMetricsRegistry}.
+     * @param registry Registry to report into
+     */
+    public void setMetricsRegistry(@NonNull MetricsRegistry registry) {
+        this.metricsRegistry = Objects.requireNonNull(registry);
+        this.metrics = new PlayerMetrics(registry);
+        if (signedUrls != null) {
+            signedUrls.setMetricsRegistry(registry);
+        }
+        if (manifestCache != null) {
+            manifestCache.setMetricsRegistry(registry);
+        }
+    }
+
+    PlayerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the startup tracer for this player. It is disabled until
+     * {@link PlaybackTracer#setEnabled(boolean)} is called.
+     * @return This player's tracer
+     */
+    public PlaybackTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Get the predictor which raises {@link Listener#onStallPredicted(long, long)} while
+     * playing. Give it the stream bitrate through
+     * {@link StallPredictor#setStreamBitrate(long)} to predict stalls from throughput as
+     * well as from buffer drain. Throughput is read from the app's whole receive counter,
+     * so other downloads by the app inflate it.
+     * @return This player's stall predictor
+     */
+    public StallPredictor getStallPredictor() {
+        return stallPredictor;
+    }
+
+    /**
+     * Get quality-of-experience metrics for this player: time to first frame, rebuffering,
+     * reconnects, time in each {@link VideoPlayer.State} and seek latency.
+     * @return This player's metrics; safe to read from any thread
+     */
+    public QoeCollector getQoeMetrics() {
+        return qoeMetrics;
+    }
+
+    /**
+     * Access the engine this player drives.
+     * @return The player's {@link PlaybackEngine}
+     */
+    public PlaybackEngine getEngine() {
+        return engine;
+    }
+
     /**
      * Access the underlying {@link VideoView}.
-     * @return The {@link VideoView} managed by this player.
+     * @return The {@link VideoView} managed by this player, or null if the player was
+     *         created over a headless {@link PlaybackEngine}.
      */
     public VideoView getVideoView() {
         return videoView;
@@ -92,18 +942,76 @@ public abstract class AWSVideoPlayer extends VideoPlayer {
 
     /**
      * {@inheritDoc}
+     * The duration is cached once known.
      */
     @Override
     public long getDuration() {
-        return getVideoView().getDuration();
+        return playhead.getDuration();
     }
 
     /**
      * {@inheritDoc}
+     * The position is estimated by the {@link PlayheadClock}, which samples the media
+     * player at most every {@link PlayheadClock#RESAMPLE_INTERVAL_MILLIS} while playing.
      */
     @Override
     public long getCurrentPosition() {
-        return getVideoView().getCurrentPosition();
+        return playhead.getPosition();
+    }
+
+    private final class EngineCallback implements PlaybackEngine.Callback {
+
+        @Override
+        public void onPrepared() {
+            tracer.end(PlaybackTracer.Span.PREPARE);
+            tracer.begin(PlaybackTracer.Span.ON_PREPARED);
+            onEnginePrepared();
+            if (autoplay) {
+                engine.start();
+            }
+            tracer.end(PlaybackTracer.Span.ON_PREPARED);
+            tracer.begin(PlaybackTracer.Span.FIRST_FRAME);
+        }
+
+        @Override
+        public boolean onInfo(int what, int extra) {
+            return onEngineInfo(what, extra);
+        }
+
+        @Override
+        public boolean onError(int what, int extra) {
+            return onEngineError(what, extra);
+        }
+
+        @Override
+        public void onCompletion() {
+            onEngineCompletion();
+        }
+
+        @Override
+        public void onSeekComplete() {
+            qoeMetrics.onSeekComplete();
+            playhead.resync();
+        }
     }
 
+    private final class PlayerTouchListener implements View.OnTouchListener {
+
+        @Override
+        public boolean onTouch(View view, MotionEvent event) {
+            // Listeners get a pooled copy; moves during a scrub coalesce to one per frame.
+            handleTouch(event);
+            // The tap-to-toggle decision is made here, synchronously, on the original event.
+            if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                view.performClick();
+                if (isPlaying()) {
+                    pause();
+                } else {
+                    play();
+                }
+                return true;
+            }
+            return false;
+        }
+    }
 }
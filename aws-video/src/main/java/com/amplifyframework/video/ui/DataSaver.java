@@ -0,0 +1,221 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.content.Context;
+import android.net.Uri;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.video.hls.HlsPlaylist;
+import com.amplifyframework.video.hls.ManifestCache;
+import com.amplifyframework.video.upload.NetworkType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies a {@link DataSaverPolicy} to the players and manifest prefetching that share it,
+ * and totals the bytes the policy saved.
+ *
+ * Players given a data saver through {@link AWSVideoPlayer#setDataSaver(DataSaver)} play
+ * HLS sources from a {@link ManifestCache} copy of the master playlist which lists only
+ * the allowed variants. The platform player cannot change its rendition set mid-session
+ * without re-preparing, which interrupts playback, so a change of policy or network type
+ * leaves sessions in progress alone: each player applies it from its next source load,
+ * i.e. its next attach or live reconnect.
+ */
+public final class DataSaver {
+
+    private static final long BITS_PER_BYTE = 8L;
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final ExecutorService worker;
+    private volatile DataSaverPolicy policy;
+    // Assume the worst until told otherwise.
+    private volatile NetworkType networkType = NetworkType.METERED;
+
+    /**
+     * Create a data saver.
+     * @param policy Limits to apply, such as {@link DataSaverPolicy#getDefault()}
+     */
+    public DataSaver(@NonNull DataSaverPolicy policy) {
+        this.policy = Objects.requireNonNull(policy);
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-data-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Replace the policy. Players apply it from their next attach or live reconnect.
+     * @param policy Limits to apply
+     */
+    public void setPolicy(@NonNull DataSaverPolicy policy) {
+        this.policy = Objects.requireNonNull(policy);
+    }
+
+    /**
+     * Get the policy being applied.
+     * @return The current policy
+     */
+    @NonNull
+    public DataSaverPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Set the kind of network playback uses, e.g. from a connectivity callback. Defaults to
+     * {@link NetworkType#METERED}. Players apply the change from their next attach or live
+     * reconnect; manifest prefetching applies it at once.
+     * @param networkType Kind of the active network
+     */
+    public void setNetworkType(@NonNull NetworkType networkType) {
+        this.networkType = Objects.requireNonNull(networkType);
+    }
+
+    /**
+     * Read the kind of the active network and apply it.
+     * @param context Any context
+     */
+    public void updateNetworkType(@NonNull Context context) {
+        setNetworkType(NetworkType.current(context));
+    }
+
+    /**
+     * Get the kind of network the policy is applied for.
+     * @return Kind of the active network
+     */
+    @NonNull
+    public NetworkType getNetworkType() {
+        return networkType;
+    }
+
+    /**
+     * Get how many streams' manifests may be prefetched on the current network.
+     * @return Stream count, or {@link Integer#MAX_VALUE} if not limited
+     */
+    public int getManifestPrefetchLimit() {
+        return policy.getMaxManifestPrefetch(networkType);
+    }
+
+    /**
+     * Prefetch the manifests of the streams a user is most likely to open, up to the
+     * current network's manifest prefetch limit. Only manifests are fetched, not media.
+     * @param cache Cache to prefetch into
+     * @param urls Manifest URLs, most likely first
+     * @return The number of manifests prefetched
+     */
+    public int prefetchManifests(@NonNull ManifestCache cache, @NonNull List<String> urls) {
+        int count = Math.min(urls.size(), getManifestPrefetchLimit());
+        for (int index = 0; index < count; index++) {
+            cache.prefetch(urls.get(index));
+        }
+        return count;
+    }
+
+    /**
+     * Get the bytes saved by capping renditions, across every player using this data
+     * saver. Estimated from the declared peak bitrates of the best rendition the policy
+     * removed and the best one it kept, over the time spent playing.
+     * @return Estimated bytes saved
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    static long bytesFor(long bitsPerSecond, long millis) {
+        return bitsPerSecond * millis / BITS_PER_BYTE / MILLIS_PER_SECOND;
+    }
+
+    void addBytesSaved(long bytes) {
+        bytesSaved.addAndGet(bytes);
+    }
+
+    /**
+     * Resolve the source to play for a URL under the current policy. The master playlist
+     * is loaded through the cache, so this costs no more requests than the player would
+     * have made for it.
+     */
+    void resolve(@NonNull ManifestCache cache,
+                 @NonNull String url,
+                 int viewWidth,
+                 int viewHeight,
+                 @NonNull Resolution resolution) {
+        DataSaverPolicy currentPolicy = policy;
+        NetworkType currentNetwork = networkType;
+        worker.execute(() -> {
+            Uri source;
+            long savedBitsPerSecond = 0;
+            try {
+                String manifest = cache.load(url);
+                HlsPlaylist master;
+                try {
+                    master = HlsPlaylist.parse(manifest, url);
+                } catch (IOException notHls) {
+                    // Other formats, such as DASH, are played as they are.
+                    master = null;
+                }
+                if (master == null || !master.isMaster()) {
+                    source = null;
+                } else {
+                    boolean[] keep = currentPolicy.selectVariants(master, currentNetwork, viewWidth, viewHeight);
+                    savedBitsPerSecond = Math.max(0, bestBitrate(master, null) - bestBitrate(master, keep));
+                    source = cache.getPlayableSource(url, keep);
+                }
+            } catch (IOException error) {
+                resolution.onError(error);
+                return;
+            }
+            resolution.onResolved(source, savedBitsPerSecond);
+        });
+    }
+
+    private static long bestBitrate(HlsPlaylist master, boolean[] keep) {
+        long best = 0;
+        for (int index = 0; index < master.getVariantCount(); index++) {
+            if (keep == null || keep[index]) {
+                best = Math.max(best, master.getVariantBandwidth(index));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Receives a resolved source on the data saver's worker thread.
+     */
+    interface Resolution {
+
+        /**
+         * Called with the source to play.
+         * @param source A filtered master playlist, or null if the URL is not an HLS
+         *               master playlist and should be played as is
+         * @param savedBandwidth Bits per second saved at the top of the rendition ladder
+         */
+        void onResolved(Uri source, long savedBandwidth);
+
+        /**
+         * Called if the master playlist could not be loaded.
+         * @param error The failure
+         */
+        void onError(@NonNull IOException error);
+    }
+}
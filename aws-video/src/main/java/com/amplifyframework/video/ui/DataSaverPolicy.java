@@ -0,0 +1,236 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.video.hls.HlsPlaylist;
+import com.amplifyframework.video.upload.NetworkType;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Limits, per kind of network, how much data playback may use: the highest rendition
+ * bitrate, whether renditions larger than the view are allowed, and how many streams'
+ * manifests a {@link DataSaver} may prefetch; media segments are never prefetched.
+ * Immutable; change a {@link DataSaver}'s policy to change behavior.
+ */
+public final class DataSaverPolicy {
+
+    /**
+     * Highest rendition bitrate {@link #getDefault()} allows on metered networks.
+     */
+    public static final long DEFAULT_METERED_MAX_BITRATE = 1_500_000L;
+
+    /**
+     * Most streams whose manifests {@link #getDefault()} prefetches on metered networks.
+     */
+    public static final int DEFAULT_METERED_MAX_MANIFEST_PREFETCH = 1;
+
+    private static final NetworkType[] NETWORK_TYPES = NetworkType.values();
+    private static final DataSaverPolicy OFF = builder().build();
+    private static final DataSaverPolicy DEFAULT = builder()
+            .maxBitrate(NetworkType.METERED, DEFAULT_METERED_MAX_BITRATE)
+            .capToViewSize(NetworkType.METERED, true)
+            .maxManifestPrefetch(NetworkType.METERED, DEFAULT_METERED_MAX_MANIFEST_PREFETCH)
+            .maxManifestPrefetch(NetworkType.NONE, 0)
+            .build();
+
+    private final long[] maxBitrates;
+    private final boolean[] viewSizeCaps;
+    private final int[] maxManifestPrefetches;
+
+    private DataSaverPolicy(Builder builder) {
+        this.maxBitrates = builder.maxBitrates.clone();
+        this.viewSizeCaps = builder.viewSizeCaps.clone();
+        this.maxManifestPrefetches = builder.maxManifestPrefetches.clone();
+    }
+
+    /**
+     * Get a policy which limits nothing.
+     * @return A policy without limits
+     */
+    @NonNull
+    public static DataSaverPolicy off() {
+        return OFF;
+    }
+
+    /**
+     * Get the default data-saver policy: on metered networks, renditions are capped at
+     * {@link #DEFAULT_METERED_MAX_BITRATE} and at the view's size, and the manifests of at most
+     * {@link #DEFAULT_METERED_MAX_MANIFEST_PREFETCH} stream are prefetched. Unmetered networks are
+     * not limited.
+     * @return The default policy
+     */
+    @NonNull
+    public static DataSaverPolicy getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Begin building a policy. Nothing is limited until set.
+     * @return A new builder
+     */
+    @NonNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the highest rendition bitrate allowed on a network.
+     * @param network Kind of network
+     * @return Bits per second, or {@link Long#MAX_VALUE} if not limited
+     */
+    public long getMaxBitrate(@NonNull NetworkType network) {
+        return maxBitrates[network.ordinal()];
+    }
+
+    /**
+     * Whether renditions larger than the view are skipped on a network.
+     * @param network Kind of network
+     * @return true if renditions are capped at the view's size
+     */
+    public boolean isCappedToViewSize(@NonNull NetworkType network) {
+        return viewSizeCaps[network.ordinal()];
+    }
+
+    /**
+     * Get how many streams' manifests may be prefetched on a network.
+     * @param network Kind of network
+     * @return Stream count, or {@link Integer#MAX_VALUE} if not limited
+     */
+    public int getMaxManifestPrefetch(@NonNull NetworkType network) {
+        return maxManifestPrefetches[network.ordinal()];
+    }
+
+    /**
+     * Choose the variants of a master playlist which playback may use. A variant is kept if
+     * its bitrate is within the cap and, when capping to the view, it is no larger than the
+     * smallest variant which still fills the view. If no variant qualifies, the one with
+     * the lowest bitrate is kept, so playback never has nothing to play.
+     * @param master A master playlist
+     * @param network Kind of network playback uses
+     * @param viewWidth Width of the view in pixels, or 0 if unknown
+     * @param viewHeight Height of the view in pixels, or 0 if unknown
+     * @return Which variants to keep, indexed in playlist order
+     */
+    @NonNull
+    public boolean[] selectVariants(@NonNull HlsPlaylist master,
+                                    @NonNull NetworkType network,
+                                    int viewWidth,
+                                    int viewHeight) {
+        int count = master.getVariantCount();
+        long maxBitrate = getMaxBitrate(network);
+        int maxWidth = Integer.MAX_VALUE;
+        int maxHeight = Integer.MAX_VALUE;
+        if (isCappedToViewSize(network) && viewWidth > 0 && viewHeight > 0) {
+            int cover = -1;
+            for (int index = 0; index < count; index++) {
+                if (master.getVariantWidth(index) >= viewWidth && master.getVariantHeight(index) >= viewHeight
+                        && (cover < 0 || master.getVariantHeight(index) < master.getVariantHeight(cover))) {
+                    cover = index;
+                }
+            }
+            // With no variant as large as the view, every variant fits it.
+            if (cover >= 0) {
+                maxWidth = master.getVariantWidth(cover);
+                maxHeight = master.getVariantHeight(cover);
+            }
+        }
+        boolean[] keep = new boolean[count];
+        boolean any = false;
+        int lowest = -1;
+        for (int index = 0; index < count; index++) {
+            keep[index] = master.getVariantBandwidth(index) <= maxBitrate
+                    && master.getVariantWidth(index) <= maxWidth
+                    && master.getVariantHeight(index) <= maxHeight;
+            any |= keep[index];
+            if (lowest < 0 || master.getVariantBandwidth(index) < master.getVariantBandwidth(lowest)) {
+                lowest = index;
+            }
+        }
+        if (!any && lowest >= 0) {
+            keep[lowest] = true;
+        }
+        return keep;
+    }
+
+    /**
+     * Builds a {@link DataSaverPolicy}.
+     */
+    public static final class Builder {
+        private final long[] maxBitrates = new long[NETWORK_TYPES.length];
+        private final boolean[] viewSizeCaps = new boolean[NETWORK_TYPES.length];
+        private final int[] maxManifestPrefetches = new int[NETWORK_TYPES.length];
+
+        private Builder() {
+            Arrays.fill(maxBitrates, Long.MAX_VALUE);
+            Arrays.fill(maxManifestPrefetches, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Cap the rendition bitrate on a network.
+         * @param network Kind of network
+         * @param bitsPerSecond Highest declared peak bitrate to play
+         * @return This builder
+         */
+        @NonNull
+        public Builder maxBitrate(@NonNull NetworkType network, long bitsPerSecond) {
+            if (bitsPerSecond <= 0) {
+                throw new IllegalArgumentException("Bitrate cap must be positive.");
+            }
+            maxBitrates[Objects.requireNonNull(network).ordinal()] = bitsPerSecond;
+            return this;
+        }
+
+        /**
+         * Skip renditions larger than the view on a network.
+         * @param network Kind of network
+         * @param enabled true to cap renditions at the view's size
+         * @return This builder
+         */
+        @NonNull
+        public Builder capToViewSize(@NonNull NetworkType network, boolean enabled) {
+            viewSizeCaps[Objects.requireNonNull(network).ordinal()] = enabled;
+            return this;
+        }
+
+        /**
+         * Limit how many streams' manifests may be prefetched on a network.
+         * @param network Kind of network
+         * @param streams Most streams whose manifests to prefetch; 0 disables prefetching
+         * @return This builder
+         */
+        @NonNull
+        public Builder maxManifestPrefetch(@NonNull NetworkType network, int streams) {
+            if (streams < 0) {
+                throw new IllegalArgumentException("Prefetch limit must not be negative.");
+            }
+            maxManifestPrefetches[Objects.requireNonNull(network).ordinal()] = streams;
+            return this;
+        }
+
+        /**
+         * Build the policy.
+         * @return A data-saver policy
+         */
+        @NonNull
+        public DataSaverPolicy build() {
+            return new DataSaverPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.video.hls.HlsPlaylist;
+import com.amplifyframework.video.hls.LivePlaylistPoller;
+
+import java.util.Objects;
+
+/**
+ * Follows a live HLS media playlist to locate the live edge relative to the player's
+ * position.
+ *
+ * Playlists come from a {@link LivePlaylistPoller}, so trackers in several players on the
+ * same stream share one playlist download per refresh; the platform player fetches its
+ * own playlists and segments separately.
+ * When playback starts, the segment the platform player started from is taken as
+ * position 0; from then on, each new segment in the playlist pushes the edge forward by
+ * its duration.
+ */
+final class LiveEdgeTracker {
+
+    // The platform HLS client (PlaylistFetcher in libstagefright) starts a live stream at
+    // the last media sequence number minus 3: three whole segments behind the newest one.
+    private static final int START_SEGMENTS_BEHIND_NEWEST = 3;
+
+    private final LivePlaylistPoller poller;
+    private final Object lock = new Object();
+    private int generation;
+    private LivePlaylistPoller.Subscription subscription;
+    private HlsPlaylist playlist;
+    private boolean anchorPending;
+    private long anchorSequence = -1;
+    private long lastSequence;
+    private long lastSegmentDuration;
+    private long edgeMillis;
+    private long startProgramDateTime = -1;
+
+    LiveEdgeTracker(@NonNull LivePlaylistPoller poller) {
+        this.poller = Objects.requireNonNull(poller);
+    }
+
+    /**
+     * Start following a playlist, replacing any previous one.
+     * @param url URL of a master or media playlist
+     */
+    void start(@NonNull String url) {
+        synchronized (lock) {
+            reset();
+            final int current = generation;
+            subscription = poller.subscribe(url, loaded -> onPlaylist(loaded, current));
+        }
+    }
+
+    /**
+     * Stop following the playlist and forget the edge.
+     */
+    void stop() {
+        synchronized (lock) {
+            reset();
+        }
+    }
+
+    /**
+     * Called when playback of the followed stream starts; anchors position 0.
+     */
+    void onPlaybackStarted() {
+        synchronized (lock) {
+            anchorSequence = -1;
+            startProgramDateTime = -1;
+            if (playlist != null && playlist.getSegmentCount() > 0) {
+                anchor(playlist);
+            } else {
+                anchorPending = true;
+            }
+        }
+    }
+
+    /**
+     * Get how far a position is behind the live edge.
+     * @param position Player position in milliseconds
+     * @return Milliseconds behind the edge, or -1 if the edge is not known yet
+     */
+    long getDistanceToEdge(long position) {
+        synchronized (lock) {
+            return anchorSequence < 0 ? -1 : Math.max(0, edgeMillis - position);
+        }
+    }
+
+    /**
+     * Get the position at which the newest segment in the playlist starts.
+     * @return Position in milliseconds, or -1 if the edge is not known yet
+     */
+    long getNewestSegmentStart() {
+        synchronized (lock) {
+            return anchorSequence < 0 ? -1 : edgeMillis - lastSegmentDuration;
+        }
+    }
+
+    /**
+     * Get the program date-time of position 0: the wall-clock time at which the segment
+     * playback started from was captured.
+     * @return Epoch milliseconds, or -1 if the edge is not known yet or the playlist
+     *         carries no {@code EXT-X-PROGRAM-DATE-TIME}
+     */
+    long getStartProgramDateTime() {
+        synchronized (lock) {
+            return anchorSequence < 0 ? -1 : startProgramDateTime;
+        }
+    }
+
+    /**
+     * Get the bitrate of the lowest rendition in the followed stream's master playlist.
+     * Whichever rendition the platform player picks, throughput below this one starves it.
+     * @return Bits per second, or 0 if the stream has no master playlist or it has not
+     *         loaded yet
+     */
+    long getLowestVariantBandwidth() {
+        HlsPlaylist master;
+        synchronized (lock) {
+            master = subscription != null ? subscription.getMasterPlaylist() : null;
+        }
+        if (master == null) {
+            return 0;
+        }
+        long lowest = Long.MAX_VALUE;
+        for (int index = 0; index < master.getVariantCount(); index++) {
+            long bandwidth = master.getVariantBandwidth(index);
+            if (bandwidth > 0) {
+                lowest = Math.min(lowest, bandwidth);
+            }
+        }
+        return lowest == Long.MAX_VALUE ? 0 : lowest;
+    }
+
+    /**
+     * Get the most recently loaded media playlist.
+     * @return The playlist, or null before the first load completes
+     */
+    HlsPlaylist getPlaylist() {
+        synchronized (lock) {
+            return playlist;
+        }
+    }
+
+    private void reset() {
+        generation++;
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+        playlist = null;
+        anchorPending = false;
+        anchorSequence = -1;
+        edgeMillis = 0;
+        startProgramDateTime = -1;
+    }
+
+    private void onPlaylist(HlsPlaylist loaded, int forGeneration) {
+        synchronized (lock) {
+            if (forGeneration == generation) {
+                update(loaded);
+            }
+        }
+    }
+
+    private void update(HlsPlaylist loaded) {
+        playlist = loaded;
+        if (anchorSequence >= 0) {
+            // Push the edge forward by every segment added since the last refresh.
+            for (long sequence = lastSequence + 1; sequence <= loaded.getLastMediaSequence(); sequence++) {
+                int index = (int) (sequence - loaded.getMediaSequence());
+                if (index >= 0) {
+                    lastSegmentDuration = loaded.getSegmentDurationMillis(index);
+                    edgeMillis += lastSegmentDuration;
+                }
+            }
+            lastSequence = Math.max(lastSequence, loaded.getLastMediaSequence());
+            if (startProgramDateTime < 0) {
+                startProgramDateTime = programDateTimeOf(loaded, anchorSequence);
+            }
+        } else if (anchorPending && loaded.getSegmentCount() > 0) {
+            anchor(loaded);
+        }
+    }
+
+    private void anchor(HlsPlaylist current) {
+        int count = current.getSegmentCount();
+        int first = Math.max(0, count - 1 - START_SEGMENTS_BEHIND_NEWEST);
+        edgeMillis = 0;
+        for (int index = first; index < count; index++) {
+            edgeMillis += current.getSegmentDurationMillis(index);
+        }
+        anchorSequence = current.getMediaSequence() + first;
+        lastSequence = current.getLastMediaSequence();
+        lastSegmentDuration = current.getSegmentDurationMillis(count - 1);
+        startProgramDateTime = current.getProgramDateTime(first);
+        anchorPending = false;
+    }
+
+    private static long programDateTimeOf(HlsPlaylist current, long sequence) {
+        long index = sequence - current.getMediaSequence();
+        return index >= 0 && index < current.getSegmentCount() ? current.getProgramDateTime((int) index) : -1;
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.os.Handler;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.metrics.LogHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps several live players, such as camera angles of one event, on a shared timeline.
+ *
+ * Each member maps its playback position onto the reference timeline through an offset:
+ * the reference time at which its position 0 lies. Members added with
+ * {@link #add(AWSLiveVideoPlayer)} take it from their stream's program date-time, and
+ * pick up the new one when a reconnect restarts their positions; members added with an
+ * explicit offset keep it until {@link #setTimelineOffset} changes it.
+ *
+ * Every {@link #DEFAULT_CHECK_INTERVAL_MILLIS} the group compares each member with the
+ * leader and nudges its playback rate by a few percent until the drift is inside the dead
+ * band, rather than seeking, so no member visibly jumps or rebuffers. Drift and correction
+ * statistics are kept per member. Use on the main thread.
+ */
+public final class LiveSyncGroup {
+
+    /**
+     * Default time between drift checks.
+     */
+    public static final long DEFAULT_CHECK_INTERVAL_MILLIS = 500L;
+    /**
+     * Default drift tolerated without correction.
+     */
+    public static final long DEFAULT_DEAD_BAND_MILLIS = 40L;
+    /**
+     * Default largest rate change applied, as a fraction of normal speed.
+     */
+    public static final float DEFAULT_MAX_RATE_ADJUSTMENT = 0.05f;
+
+    // Rate change per millisecond of drift, before clamping: 1 s of drift asks for the
+    // maximum adjustment long before reaching it.
+    private static final float GAIN_PER_MILLI = 0.0002f;
+    private static final long UNKNOWN_OFFSET = -1L;
+
+    private final Handler handler;
+    private final long checkIntervalMillis;
+    private final long deadBandMillis;
+    private final float maxRateAdjustment;
+    private final List<Member> members = new ArrayList<>();
+    private final Runnable check = this::check;
+    private boolean running;
+
+    /**
+     * Create a group with the default interval, dead band and maximum adjustment.
+     * @param handler Handler on the main thread
+     */
+    public LiveSyncGroup(@NonNull Handler handler) {
+        this(handler, DEFAULT_CHECK_INTERVAL_MILLIS, DEFAULT_DEAD_BAND_MILLIS, DEFAULT_MAX_RATE_ADJUSTMENT);
+    }
+
+    /**
+     * Create a group.
+     * @param handler Handler on the main thread
+     * @param checkIntervalMillis Time between drift checks
+     * @param deadBandMillis Drift tolerated without correction
+     * @param maxRateAdjustment Largest rate change applied, e.g. 0.05 for 95%-105% speed
+     */
+    public LiveSyncGroup(@NonNull Handler handler, long checkIntervalMillis, long deadBandMillis,
+                         float maxRateAdjustment) {
+        if (checkIntervalMillis <= 0 || deadBandMillis < 0 || !(maxRateAdjustment > 0 && maxRateAdjustment < 1)) {
+            throw new IllegalArgumentException("Invalid sync group parameters.");
+        }
+        this.handler = Objects.requireNonNull(handler);
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.deadBandMillis = deadBandMillis;
+        this.maxRateAdjustment = maxRateAdjustment;
+    }
+
+    /**
+     * Add a player aligned by program date-time: its offset is read from
+     * {@link AWSLiveVideoPlayer#getProgramDateTimeOffset()} at every check, so the player
+     * must have live edge tracking enabled before it attaches, and its stream must carry
+     * {@code EXT-X-PROGRAM-DATE-TIME} tags. Until the offset is known, the player is
+     * neither led nor corrected. The first player added leads; the others follow it.
+     * @param player A live player
+     */
+    public void add(@NonNull AWSLiveVideoPlayer player) {
+        add(player, UNKNOWN_OFFSET, true);
+    }
+
+    /**
+     * Add a player with a fixed offset. The first player added leads; the others follow it.
+     * @param player A live player
+     * @param timelineOffsetMillis Reference time at which the player's position 0 lies
+     */
+    public void add(@NonNull AWSLiveVideoPlayer player, long timelineOffsetMillis) {
+        add(player, timelineOffsetMillis, false);
+    }
+
+    private void add(AWSLiveVideoPlayer player, long timelineOffsetMillis, boolean fromProgramDateTime) {
+        Objects.requireNonNull(player);
+        Member member = find(player);
+        if (member == null) {
+            member = new Member(player);
+            members.add(member);
+        }
+        member.timelineOffset = timelineOffsetMillis;
+        member.fromProgramDateTime = fromProgramDateTime;
+    }
+
+    /**
+     * Remove a player and return it to normal speed.
+     * @param player A member of this group
+     * @return true if the player was a member
+     */
+    public boolean remove(@NonNull AWSLiveVideoPlayer player) {
+        Member member = find(player);
+        if (member == null) {
+            return false;
+        }
+        members.remove(member);
+        member.applyRate(1f);
+        return true;
+    }
+
+    /**
+     * Update where a member's position 0 lies on the reference timeline, e.g. after it
+     * reconnects and its positions restart. The member stops following its program
+     * date-time, if it was.
+     * @param player A member of this group
+     * @param timelineOffsetMillis Reference time at which the player's position 0 lies
+     */
+    public void setTimelineOffset(@NonNull AWSLiveVideoPlayer player, long timelineOffsetMillis) {
+        Member member = find(player);
+        if (member == null) {
+            throw new IllegalArgumentException("Player is not a member of this sync group.");
+        }
+        member.timelineOffset = timelineOffsetMillis;
+        member.fromProgramDateTime = false;
+    }
+
+    /**
+     * Start checking and correcting drift.
+     */
+    public void start() {
+        if (!running) {
+            running = true;
+            handler.post(check);
+        }
+    }
+
+    /**
+     * Stop correcting drift and return every member to normal speed.
+     */
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(check);
+        for (Member member : members) {
+            member.applyRate(1f);
+        }
+    }
+
+    /**
+     * Get the drift and correction statistics of a member.
+     * @param player A member of this group
+     * @return The member's statistics, updated in place as the group runs
+     */
+    @NonNull
+    public Stats getStats(@NonNull AWSLiveVideoPlayer player) {
+        Member member = find(player);
+        if (member == null) {
+            throw new IllegalArgumentException("Player is not a member of this sync group.");
+        }
+        return member.stats;
+    }
+
+    private Member find(AWSLiveVideoPlayer player) {
+        for (Member member : members) {
+            if (member.player == player) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    private void check() {
+        if (!running) {
+            return;
+        }
+        for (Member member : members) {
+            member.refreshOffset();
+        }
+        Member leader = members.isEmpty() ? null : members.get(0);
+        if (leader != null && leader.isAligned()) {
+            long reference = leader.referenceTime();
+            for (int index = 1; index < members.size(); index++) {
+                correct(members.get(index), reference);
+            }
+        }
+        handler.postDelayed(check, checkIntervalMillis);
+    }
+
+    private void correct(Member member, long reference) {
+        if (!member.isAligned()) {
+            return;
+        }
+        long drift = member.referenceTime() - reference;
+        member.stats.record(drift);
+        float rate = 1f;
+        if (Math.abs(drift) > deadBandMillis) {
+            // Ahead of the leader: slow down; behind: speed up.
+            float adjustment = Math.max(-maxRateAdjustment, Math.min(maxRateAdjustment, drift * GAIN_PER_MILLI));
+            rate = 1f - adjustment;
+        }
+        boolean changed = rate != member.rate;
+        // Corrective rates are re-applied each check, since a reconnect resets the engine to normal speed.
+        if ((changed || rate != 1f) && member.applyRate(rate) && changed && rate != 1f) {
+            member.stats.corrections++;
+        }
+    }
+
+    private static final class Member {
+        private final AWSLiveVideoPlayer player;
+        private final Stats stats = new Stats();
+        private long timelineOffset;
+        private boolean fromProgramDateTime;
+        private float rate = 1f;
+
+        Member(AWSLiveVideoPlayer player) {
+            this.player = player;
+        }
+
+        void refreshOffset() {
+            if (fromProgramDateTime) {
+                timelineOffset = player.getProgramDateTimeOffset();
+            }
+        }
+
+        boolean isAligned() {
+            return player.getState() == VideoPlayer.State.PLAYING
+                    && !(fromProgramDateTime && timelineOffset == UNKNOWN_OFFSET);
+        }
+
+        long referenceTime() {
+            // Read the engine rather than the interpolated playhead: drift is measured in
+            // tens of milliseconds, finer than the playhead's resampling.
+            return timelineOffset + player.getEngine().getCurrentPosition();
+        }
+
+        boolean applyRate(float newRate) {
+            if (player.setPlaybackRate(newRate)) {
+                rate = newRate;
+                stats.currentRate = newRate;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Drift and correction statistics of one member of a sync group.
+     */
+    public static final class Stats {
+        private final LogHistogram absoluteDrift = new LogHistogram();
+        private volatile long lastDrift;
+        private volatile long maxAbsoluteDrift;
+        private volatile int corrections;
+        private volatile float currentRate = 1f;
+
+        private Stats() { }
+
+        private void record(long drift) {
+            lastDrift = drift;
+            maxAbsoluteDrift = Math.max(maxAbsoluteDrift, Math.abs(drift));
+            absoluteDrift.record(Math.abs(drift));
+        }
+
+        /**
+         * Get the drift measured at the last check.
+         * @return Milliseconds ahead of the leader; negative if behind
+         */
+        public long getLastDriftMillis() {
+            return lastDrift;
+        }
+
+        /**
+         * Get the largest drift seen, in either direction.
+         * @return Milliseconds
+         */
+        public long getMaxAbsoluteDriftMillis() {
+            return maxAbsoluteDrift;
+        }
+
+        /**
+         * Get the distribution of drift magnitudes over all checks.
+         * @return Histogram in milliseconds
+         */
+        @NonNull
+        public LogHistogram getAbsoluteDrift() {
+            return absoluteDrift;
+        }
+
+        /**
+         * Get the number of times a corrective rate was applied.
+         * @return Correction count
+         */
+        public int getCorrectionCount() {
+            return corrections;
+        }
+
+        /**
+         * Get the playback rate the group last applied.
+         * @return Rate, where 1 is normal speed
+         */
+        public float getCurrentRate() {
+            return currentRate;
+        }
+    }
+}
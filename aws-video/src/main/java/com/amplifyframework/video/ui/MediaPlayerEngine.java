@@ -0,0 +1,222 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.media.MediaPlayer;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.PlaybackEngine;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * A {@link PlaybackEngine} which drives a {@link MediaPlayer} without any view.
+ *
+ * Use it to prepare a stream before its view exists, for background prefetch, or to run
+ * player logic without a UI. Attach output later with {@link #setSurface(Surface)}.
+ * Create it on the main thread so that the media player delivers callbacks there.
+ */
+public final class MediaPlayerEngine implements PlaybackEngine {
+
+    private static final String TAG = "MediaPlayerEngine";
+
+    private final MediaPlayer mediaPlayer;
+    private Callback callback;
+    private boolean prepared;
+    private boolean startWhenPrepared;
+    private long pendingSeek = -1;
+    private int bufferPercentage;
+
+    /**
+     * Create a headless engine over a new {@link MediaPlayer}.
+     */
+    public MediaPlayerEngine() {
+        this(new MediaPlayer());
+    }
+
+    /**
+     * Create a headless engine over an existing {@link MediaPlayer}. The engine takes over
+     * the player's listeners.
+     * @param mediaPlayer An idle media player
+     */
+    public MediaPlayerEngine(@NonNull MediaPlayer mediaPlayer) {
+        this.mediaPlayer = Objects.requireNonNull(mediaPlayer);
+        mediaPlayer.setOnPreparedListener(player -> onPrepared());
+        mediaPlayer.setOnInfoListener((player, what, extra) -> callback != null && callback.onInfo(what, extra));
+        mediaPlayer.setOnErrorListener((player, what, extra) -> callback != null && callback.onError(what, extra));
+        mediaPlayer.setOnBufferingUpdateListener((player, percent) -> bufferPercentage = percent);
+        mediaPlayer.setOnCompletionListener(player -> {
+            if (callback != null) {
+                callback.onCompletion();
+            }
+        });
+        mediaPlayer.setOnSeekCompleteListener(player -> {
+            if (callback != null) {
+                callback.onSeekComplete();
+            }
+        });
+    }
+
+    /**
+     * Render video into a surface, or stop rendering.
+     * @param surface A surface, e.g. from a SurfaceView or TextureView, or null to detach
+     */
+    public void setSurface(Surface surface) {
+        mediaPlayer.setSurface(surface);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(@NonNull Uri source) {
+        Objects.requireNonNull(source);
+        prepared = false;
+        startWhenPrepared = false;
+        pendingSeek = -1;
+        bufferPercentage = 0;
+        mediaPlayer.reset();
+        try {
+            mediaPlayer.setDataSource(source.toString());
+            mediaPlayer.prepareAsync();
+        } catch (IOException exception) {
+            Log.w(TAG, "Unable to open " + source, exception);
+            if (callback != null) {
+                callback.onError(MediaPlayer.MEDIA_ERROR_UNKNOWN, MediaPlayer.MEDIA_ERROR_IO);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start() {
+        if (prepared) {
+            mediaPlayer.start();
+        } else {
+            startWhenPrepared = true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void pause() {
+        if (prepared) {
+            mediaPlayer.pause();
+        } else {
+            startWhenPrepared = false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void seekTo(long positionMillis) {
+        if (prepared) {
+            mediaPlayer.seekTo((int) positionMillis);
+        } else {
+            pendingSeek = positionMillis;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean setPlaybackRate(float rate) {
+        // Setting params on a paused player would resume it.
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M || !isPlaying()) {
+            return false;
+        }
+        mediaPlayer.setPlaybackParams(mediaPlayer.getPlaybackParams().setSpeed(rate));
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCurrentPosition() {
+        return prepared ? mediaPlayer.getCurrentPosition() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDuration() {
+        return prepared ? mediaPlayer.getDuration() : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isPlaying() {
+        return prepared && mediaPlayer.isPlaying();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBufferPercentage() {
+        return prepared ? bufferPercentage : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release() {
+        prepared = false;
+        mediaPlayer.release();
+    }
+
+    private void onPrepared() {
+        prepared = true;
+        boolean shouldStart = startWhenPrepared;
+        startWhenPrepared = false;
+        if (pendingSeek >= 0) {
+            mediaPlayer.seekTo((int) pendingSeek);
+            pendingSeek = -1;
+        }
+        if (callback != null) {
+            callback.onPrepared();
+        }
+        // The callback may already have started playback.
+        if (shouldStart && !mediaPlayer.isPlaying()) {
+            mediaPlayer.start();
+        }
+    }
+}
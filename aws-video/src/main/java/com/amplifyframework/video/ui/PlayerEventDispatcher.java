@@ -0,0 +1,315 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.os.Handler;
+import android.view.MotionEvent;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.event.PlayerEvent;
+import com.amplifyframework.video.event.PlayerEventPipeline;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Delivers player events to {@link VideoPlayer.Listener}s on the player's {@link Handler}.
+ *
+ * Events raised while a delivery is already pending are appended to the same batch,
+ * so a state change and the event that caused it reach listeners in one posted frame.
+ * Event records live in preallocated parallel arrays which are reused between frames.
+ * When a {@link PlayerEventPipeline} is attached, every event is also published to it
+ * for consumers which run off the main thread.
+ */
+final class PlayerEventDispatcher implements Runnable {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Executor frames;
+    private final Supplier<VideoPlayer.Listener[]> listeners;
+    private final Supplier<PlayerMetrics> metrics;
+    private final Object lock = new Object();
+    private EventBatch pending;
+    private EventBatch draining;
+    private boolean posted;
+    private PlayerEventPipeline pipeline;
+    private int coalescedTouches;
+
+    /**
+     * Create a dispatcher which posts each frame through the given executor.
+     * @param frames Runs one delivery frame; the player passes its handler's {@code post},
+     *               so listener callbacks arrive on the handler's thread
+     * @param listeners Source of the current listener snapshot
+     * @param metrics Source of the player's current metrics instruments
+     */
+    PlayerEventDispatcher(@NonNull Executor frames,
+                          @NonNull Supplier<VideoPlayer.Listener[]> listeners,
+                          @NonNull Supplier<PlayerMetrics> metrics) {
+        this.frames = Objects.requireNonNull(frames);
+        this.listeners = Objects.requireNonNull(listeners);
+        this.metrics = Objects.requireNonNull(metrics);
+        this.pending = new EventBatch(INITIAL_CAPACITY);
+        this.draining = new EventBatch(INITIAL_CAPACITY);
+    }
+
+    void setPipeline(PlayerEventPipeline pipeline) {
+        synchronized (lock) {
+            this.pipeline = pipeline;
+        }
+    }
+
+    void dispatchStateChange(VideoPlayer.State newState) {
+        enqueue(PlayerEvent.Type.STATE_CHANGE, 0, 0, newState);
+    }
+
+    void dispatchPreparing(long totalDuration) {
+        enqueue(PlayerEvent.Type.PREPARING, totalDuration, 0, null);
+    }
+
+    void dispatchReady() {
+        enqueue(PlayerEvent.Type.READY, 0, 0, null);
+    }
+
+    void dispatchPlay(long currentPosition) {
+        enqueue(PlayerEvent.Type.PLAY, currentPosition, 0, null);
+    }
+
+    void dispatchPause(long currentPosition) {
+        enqueue(PlayerEvent.Type.PAUSE, currentPosition, 0, null);
+    }
+
+    void dispatchEnd(long totalDuration) {
+        enqueue(PlayerEvent.Type.END, totalDuration, 0, null);
+    }
+
+    void dispatchSeek(long oldPosition, int newPosition) {
+        enqueue(PlayerEvent.Type.SEEK, oldPosition, newPosition, null);
+    }
+
+    void dispatchBufferingStart(long currentPosition) {
+        enqueue(PlayerEvent.Type.BUFFERING_START, currentPosition, 0, null);
+    }
+
+    void dispatchBufferingComplete(long currentPosition) {
+        enqueue(PlayerEvent.Type.BUFFERING_COMPLETE, currentPosition, 0, null);
+    }
+
+    void dispatchStallPredicted(long currentPosition, long timeToStallMillis) {
+        enqueue(PlayerEvent.Type.STALL_PREDICTED, currentPosition, timeToStallMillis, null);
+    }
+
+    /**
+     * Queue a touch for listeners. The framework recycles {@code event} once the touch
+     * callback returns, so listeners receive a copy taken from the framework's
+     * {@link MotionEvent} pool, which is recycled again after delivery. Consecutive
+     * {@link MotionEvent#ACTION_MOVE}s within a frame collapse into the latest one.
+     * @param event Touch event from the view's touch listener
+     */
+    void dispatchTouch(MotionEvent event) {
+        synchronized (lock) {
+            final int action = event.getActionMasked();
+            if (pipeline != null) {
+                pipeline.publishTouch(action, event.getX(), event.getY());
+            }
+            if (listeners.get().length == 0) {
+                return;
+            }
+            MotionEvent copy = MotionEvent.obtain(event);
+            if (action == MotionEvent.ACTION_MOVE && pending.replaceTrailingMove(copy)) {
+                coalescedTouches++;
+                metrics.get().onTouchCoalesced();
+                return;
+            }
+            pending.add(PlayerEvent.Type.TOUCH, 0, 0, null, copy);
+            post();
+        }
+    }
+
+    /**
+     * Number of events waiting for the next delivery frame.
+     * @return Pending event count
+     */
+    int getPendingCount() {
+        synchronized (lock) {
+            return pending.size;
+        }
+    }
+
+    /**
+     * Number of touch moves folded into a later move instead of being delivered.
+     * @return Coalesced touch count
+     */
+    int getCoalescedTouchCount() {
+        synchronized (lock) {
+            return coalescedTouches;
+        }
+    }
+
+    private void enqueue(PlayerEvent.Type type, long first, long second, VideoPlayer.State state) {
+        synchronized (lock) {
+            // Publishing under the lock keeps the pipeline's single-producer contract.
+            if (pipeline != null) {
+                pipeline.publish(type, first, second, state);
+            }
+            // With no main-thread listeners there is nothing to post.
+            if (listeners.get().length == 0) {
+                return;
+            }
+            pending.add(type, first, second, state, null);
+            post();
+        }
+    }
+
+    private void post() {
+        metrics.get().onDispatchQueueDepth(pending.size);
+        if (!posted) {
+            posted = true;
+            frames.execute(this);
+        }
+    }
+
+    /**
+     * Deliver every event accumulated since the last frame, in order.
+     */
+    @Override
+    public void run() {
+        EventBatch batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = draining;
+            draining = batch;
+            posted = false;
+        }
+        VideoPlayer.Listener[] snapshot = listeners.get();
+        for (int index = 0; index < batch.size; index++) {
+            deliver(batch, index, snapshot);
+        }
+        batch.clear();
+    }
+
+    private static void deliver(EventBatch batch, int index, VideoPlayer.Listener[] snapshot) {
+        final long first = batch.firstArgs[index];
+        for (VideoPlayer.Listener listener : snapshot) {
+            switch (batch.types[index]) {
+                case STATE_CHANGE:
+                    listener.onStateChange(batch.states[index]);
+                    break;
+                case PREPARING:
+                    listener.onPreparing(first);
+                    break;
+                case READY:
+                    listener.onReady();
+                    break;
+                case PLAY:
+                    listener.onPlay(first);
+                    break;
+                case PAUSE:
+                    listener.onPause(first);
+                    break;
+                case END:
+                    listener.onEnd(first);
+                    break;
+                case SEEK:
+                    listener.onSeek(first, (int) batch.secondArgs[index]);
+                    break;
+                case BUFFERING_START:
+                    listener.onBufferingStart(first);
+                    break;
+                case BUFFERING_COMPLETE:
+                    listener.onBufferingComplete(first);
+                    break;
+                case STALL_PREDICTED:
+                    listener.onStallPredicted(first, batch.secondArgs[index]);
+                    break;
+                case TOUCH:
+                    listener.onTouch(batch.touches[index]);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown player event type: " + batch.types[index]);
+            }
+        }
+    }
+
+    /**
+     * Parallel arrays holding one frame's worth of events. Grows when a frame
+     * overflows it and keeps the larger capacity afterwards.
+     */
+    private static final class EventBatch {
+        private PlayerEvent.Type[] types;
+        private long[] firstArgs;
+        private long[] secondArgs;
+        private VideoPlayer.State[] states;
+        private MotionEvent[] touches;
+        private int size;
+
+        EventBatch(int capacity) {
+            types = new PlayerEvent.Type[capacity];
+            firstArgs = new long[capacity];
+            secondArgs = new long[capacity];
+            states = new VideoPlayer.State[capacity];
+            touches = new MotionEvent[capacity];
+        }
+
+        void add(PlayerEvent.Type type, long first, long second, VideoPlayer.State state, MotionEvent touch) {
+            if (size == types.length) {
+                int capacity = size * 2;
+                types = Arrays.copyOf(types, capacity);
+                firstArgs = Arrays.copyOf(firstArgs, capacity);
+                secondArgs = Arrays.copyOf(secondArgs, capacity);
+                states = Arrays.copyOf(states, capacity);
+                touches = Arrays.copyOf(touches, capacity);
+            }
+            types[size] = type;
+            firstArgs[size] = first;
+            secondArgs[size] = second;
+            states[size] = state;
+            touches[size] = touch;
+            size++;
+        }
+
+        /**
+         * Swap a new move into the last slot if that slot is also a move, so a burst
+         * of moves costs one delivery.
+         * @param move Copy of an {@link MotionEvent#ACTION_MOVE} event
+         * @return true if the move replaced the previous one
+         */
+        boolean replaceTrailingMove(MotionEvent move) {
+            int last = size - 1;
+            if (last < 0 || types[last] != PlayerEvent.Type.TOUCH
+                    || touches[last].getActionMasked() != MotionEvent.ACTION_MOVE) {
+                return false;
+            }
+            touches[last].recycle();
+            touches[last] = move;
+            return true;
+        }
+
+        void clear() {
+            for (int index = 0; index < size; index++) {
+                if (touches[index] != null) {
+                    touches[index].recycle();
+                    touches[index] = null;
+                }
+            }
+            Arrays.fill(types, 0, size, null);
+            Arrays.fill(states, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+import com.amplifyframework.video.metrics.Counter;
+import com.amplifyframework.video.metrics.Gauge;
+import com.amplifyframework.video.metrics.MetricsRegistry;
+import com.amplifyframework.video.metrics.Timer;
+
+/**
+ * The instruments a player reports its internals into. They are looked up once per
+ * registry, so reporting on playback paths is a field read and an interface call.
+ */
+final class PlayerMetrics {
+
+    private static final String PREFIX = "amplify.video.";
+
+    private final Counter reconnectAttempts;
+    private final Counter[] egressSelected;
+    private final Counter bufferingStarts;
+    private final Gauge bufferPercent;
+    private final Gauge dispatchQueueDepth;
+    private final Counter coalescedTouches;
+    private final Counter invalidTransitions;
+    private final Counter stallsPredicted;
+    private final Timer predictedTimeToStall;
+    private final Timer timeToFirstFrame;
+    private final Counter bytesSaved;
+
+    PlayerMetrics(@NonNull MetricsRegistry registry) {
+        reconnectAttempts = registry.counter(PREFIX + "reconnect.attempts");
+        EgressType[] types = EgressType.values();
+        egressSelected = new Counter[types.length];
+        for (EgressType type : types) {
+            egressSelected[type.ordinal()] = registry.counter(PREFIX + "egress.selected." + type.key());
+        }
+        bufferingStarts = registry.counter(PREFIX + "buffering.starts");
+        bufferPercent = registry.gauge(PREFIX + "buffer.percent");
+        dispatchQueueDepth = registry.gauge(PREFIX + "dispatch.queue.depth");
+        coalescedTouches = registry.counter(PREFIX + "dispatch.touch.coalesced");
+        invalidTransitions = registry.counter(PREFIX + "state.invalid_transitions");
+        stallsPredicted = registry.counter(PREFIX + "stall.predicted");
+        predictedTimeToStall = registry.timer(PREFIX + "stall.predicted_time_to_stall");
+        timeToFirstFrame = registry.timer(PREFIX + "startup.time_to_first_frame");
+        bytesSaved = registry.counter(PREFIX + "datasaver.bytes_saved");
+    }
+
+    void onReconnectAttempt() {
+        reconnectAttempts.increment();
+    }
+
+    void onEgressSelected(EgressType type) {
+        egressSelected[type.ordinal()].increment();
+    }
+
+    void onBufferingStart() {
+        bufferingStarts.increment();
+    }
+
+    void onBufferPercent(int percent) {
+        bufferPercent.set(percent);
+    }
+
+    void onDispatchQueueDepth(int depth) {
+        dispatchQueueDepth.set(depth);
+    }
+
+    void onTouchCoalesced() {
+        coalescedTouches.increment();
+    }
+
+    void onInvalidTransition() {
+        invalidTransitions.increment();
+    }
+
+    void onStallPredicted(long timeToStallMillis) {
+        stallsPredicted.increment();
+        predictedTimeToStall.record(timeToStallMillis);
+    }
+
+    void onFirstFrame(long millis) {
+        timeToFirstFrame.record(millis);
+    }
+
+    void onBytesSaved(long bytes) {
+        bytesSaved.add(bytes);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer.State;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The player's lifecycle as an explicit transition table.
+ *
+ * Each {@link Event} is valid only from the states listed for it. An event which is not
+ * valid in the current state leaves the state alone and is counted, rather than being
+ * applied anyway. Events may be fired from the main thread and from an engine thread at
+ * once. Each is applied under a lock, which only moves the state and queues the change;
+ * the listener receives the queued changes on the handler's thread, in the order they
+ * were applied. A change applied on that thread is delivered before {@link #fire(Event)}
+ * returns; one applied elsewhere is delivered by a posted, reused runnable.
+ */
+final class PlayerStateMachine {
+
+    private static final Map<State, Map<Event, State>> TRANSITIONS = buildTransitions();
+    private static final int INITIAL_QUEUE_CAPACITY = 4;
+
+    private final Object lock = new Object();
+    private final AtomicLong invalidTransitions = new AtomicLong();
+    private final Handler handler;
+    private final TransitionListener listener;
+    private final Runnable deliverQueued = this::deliverQueued;
+    private volatile State state = State.IDLE;
+    // Changes applied but not yet delivered, as a ring of (from, to) pairs; guarded by lock.
+    private State[] queuedFrom = new State[INITIAL_QUEUE_CAPACITY];
+    private State[] queuedTo = new State[INITIAL_QUEUE_CAPACITY];
+    private int queueHead;
+    private int queueSize;
+    private boolean deliveryPosted;
+    // Handler thread only.
+    private boolean delivering;
+
+    /**
+     * Create a state machine in {@link State#IDLE}.
+     * @param handler Handler on whose thread changes are delivered
+     * @param listener Called after every change of state, on the handler's thread
+     */
+    PlayerStateMachine(@NonNull Handler handler, @NonNull TransitionListener listener) {
+        this.handler = Objects.requireNonNull(handler);
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    /**
+     * Apply an event.
+     * @param event What happened
+     * @return true if the event is valid in the current state, whether or not it changed
+     *         the state; false if it was rejected and counted
+     */
+    boolean fire(@NonNull Event event) {
+        boolean onHandlerThread = Looper.myLooper() == handler.getLooper();
+        boolean post = false;
+        synchronized (lock) {
+            State from = state;
+            State to = TRANSITIONS.get(from).get(event);
+            if (to == null) {
+                invalidTransitions.incrementAndGet();
+                return false;
+            }
+            if (to == from) {
+                return true;
+            }
+            state = to;
+            enqueue(from, to);
+            if (!onHandlerThread && !deliveryPosted) {
+                deliveryPosted = true;
+                post = true;
+            }
+        }
+        if (onHandlerThread) {
+            deliverQueued();
+        } else if (post) {
+            handler.post(deliverQueued);
+        }
+        return true;
+    }
+
+    private void enqueue(State from, State to) {
+        if (queueSize == queuedFrom.length) {
+            // Unroll the ring into larger arrays, oldest change first.
+            State[] grownFrom = new State[queueSize * 2];
+            State[] grownTo = new State[queueSize * 2];
+            for (int index = 0; index < queueSize; index++) {
+                grownFrom[index] = queuedFrom[(queueHead + index) % queueSize];
+                grownTo[index] = queuedTo[(queueHead + index) % queueSize];
+            }
+            queuedFrom = grownFrom;
+            queuedTo = grownTo;
+            queueHead = 0;
+        }
+        int tail = (queueHead + queueSize) % queuedFrom.length;
+        queuedFrom[tail] = from;
+        queuedTo[tail] = to;
+        queueSize++;
+    }
+
+    private void deliverQueued() {
+        // A change applied by the listener itself is picked up by the loop below.
+        if (delivering) {
+            return;
+        }
+        delivering = true;
+        try {
+            while (true) {
+                State from;
+                State to;
+                synchronized (lock) {
+                    if (queueSize == 0) {
+                        deliveryPosted = false;
+                        return;
+                    }
+                    from = queuedFrom[queueHead];
+                    to = queuedTo[queueHead];
+                    queuedFrom[queueHead] = null;
+                    queuedTo[queueHead] = null;
+                    queueHead = (queueHead + 1) % queuedFrom.length;
+                    queueSize--;
+                }
+                listener.onTransition(from, to);
+            }
+        } finally {
+            delivering = false;
+        }
+    }
+
+    State getState() {
+        return state;
+    }
+
+    long getInvalidTransitionCount() {
+        return invalidTransitions.get();
+    }
+
+    private static Map<State, Map<Event, State>> buildTransitions() {
+        Map<State, Map<Event, State>> table = new EnumMap<>(State.class);
+        for (State from : State.values()) {
+            table.put(from, new EnumMap<>(Event.class));
+        }
+        // A new source can be attached from anywhere.
+        for (State from : State.values()) {
+            allow(table, from, Event.PREPARE, State.PREPARING);
+        }
+        allow(table, State.PREPARING, Event.READY, State.READY);
+        // Playback starts once the source is ready, and restarts after a pause or the end.
+        for (State from : new State[] {State.READY, State.PLAYING, State.PAUSED, State.ENDED}) {
+            allow(table, from, Event.PLAY, State.PLAYING);
+        }
+        for (State from : new State[] {State.READY, State.PLAYING, State.PAUSED, State.BUFFERING}) {
+            allow(table, from, Event.PAUSE, State.PAUSED);
+            allow(table, from, Event.END, State.ENDED);
+        }
+        // Live streams stall and reconnect even after they appear to have ended.
+        for (State from : new State[] {State.READY, State.PLAYING, State.PAUSED, State.BUFFERING, State.ENDED}) {
+            allow(table, from, Event.BUFFERING_START, State.BUFFERING);
+        }
+        allow(table, State.BUFFERING, Event.BUFFERING_COMPLETE, State.PLAYING);
+        for (Map.Entry<State, Map<Event, State>> entry : table.entrySet()) {
+            entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(table);
+    }
+
+    private static void allow(Map<State, Map<Event, State>> table, State from, Event event, State to) {
+        table.get(from).put(event, to);
+    }
+
+    /**
+     * Things that happen to a player.
+     */
+    enum Event {
+        PREPARE,
+        READY,
+        PLAY,
+        PAUSE,
+        END,
+        BUFFERING_START,
+        BUFFERING_COMPLETE
+    }
+
+    /**
+     * Receives state changes on the state machine's handler thread.
+     */
+    interface TransitionListener {
+        void onTransition(State from, State to);
+    }
+}
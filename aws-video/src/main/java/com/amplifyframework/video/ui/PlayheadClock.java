@@ -0,0 +1,280 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Estimates the playback position without querying the media player on every read.
+ *
+ * The real position is sampled at most every {@link #RESAMPLE_INTERVAL_MILLIS} while
+ * playing, and whenever playback starts, stops, buffers or seeks. In between, the
+ * position is extrapolated from a monotonic clock and the playback rate. The clock also
+ * drives {@link ProgressListener}s, ticking only while playing and at a cadence suited
+ * to the clip length, so apps do not need to poll.
+ */
+public final class PlayheadClock {
+
+    /**
+     * Longest time the clock extrapolates before sampling the real position again.
+     */
+    public static final long RESAMPLE_INTERVAL_MILLIS = 2000L;
+
+    private static final long MIN_TICK_MILLIS = 100L;
+    private static final long MAX_TICK_MILLIS = 1000L;
+    private static final long LIVE_TICK_MILLIS = 500L;
+    // Aim for roughly this many progress ticks across a whole on-demand clip.
+    private static final long TICKS_PER_CLIP = 1000L;
+    private static final ProgressListener[] NO_LISTENERS = new ProgressListener[0];
+
+    private final TimeSource clock;
+    private final LongSupplier positionSource;
+    private final LongSupplier durationSource;
+    private final Handler handler;
+    private final Runnable tick = this::onTick;
+
+    private long anchorPosition;
+    private long anchorTime;
+    private boolean running;
+    private float rate = 1f;
+    private long duration = -1;
+    private long durationSampledAt = Long.MIN_VALUE;
+    private volatile ProgressListener[] listeners = NO_LISTENERS;
+    private boolean ticking;
+
+    /**
+     * Create a clock over a media position source.
+     * @param clock Monotonic clock used for extrapolation
+     * @param positionSource Reads the real playback position in milliseconds
+     * @param durationSource Reads the real clip duration in milliseconds
+     * @param handler Handler on the thread which receives progress callbacks
+     */
+    public PlayheadClock(@NonNull TimeSource clock,
+                         @NonNull LongSupplier positionSource,
+                         @NonNull LongSupplier durationSource,
+                         @NonNull Handler handler) {
+        this.clock = Objects.requireNonNull(clock);
+        this.positionSource = Objects.requireNonNull(positionSource);
+        this.durationSource = Objects.requireNonNull(durationSource);
+        this.handler = Objects.requireNonNull(handler);
+        this.anchorTime = clock.now();
+    }
+
+    /**
+     * Get the estimated playback position.
+     * @return Position in milliseconds
+     */
+    public synchronized long getPosition() {
+        long now = clock.now();
+        if (running && now - anchorTime >= RESAMPLE_INTERVAL_MILLIS) {
+            sample(now);
+        }
+        return extrapolate(now);
+    }
+
+    /**
+     * Get the clip duration. Known durations are cached; unknown ones (before prepare,
+     * or for live streams) are re-read at most every {@link #RESAMPLE_INTERVAL_MILLIS}.
+     * @return Duration in milliseconds, or a non-positive value if unknown
+     */
+    public synchronized long getDuration() {
+        long now = clock.now();
+        // Compared before subtracting: now - Long.MIN_VALUE overflows to a negative value.
+        boolean due = durationSampledAt == Long.MIN_VALUE || now - durationSampledAt >= RESAMPLE_INTERVAL_MILLIS;
+        if (duration <= 0 && due) {
+            duration = durationSource.getAsLong();
+            durationSampledAt = now;
+        }
+        return duration;
+    }
+
+    /**
+     * Tell the clock the playback rate changed, e.g. after adjusting playback params.
+     * @param playbackRate New rate, where 1 is normal speed
+     */
+    public synchronized void setPlaybackRate(float playbackRate) {
+        long now = clock.now();
+        anchorPosition = extrapolate(now);
+        anchorTime = now;
+        rate = playbackRate;
+    }
+
+    /**
+     * Sample the real position now.
+     */
+    public synchronized void resync() {
+        sample(clock.now());
+    }
+
+    /**
+     * Add a listener which receives position updates while playing.
+     * @param listener A progress listener
+     */
+    public void addProgressListener(@NonNull ProgressListener listener) {
+        Objects.requireNonNull(listener);
+        synchronized (this) {
+            ProgressListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+            updated[listeners.length] = listener;
+            listeners = updated;
+        }
+        handler.post(this::updateTicking);
+    }
+
+    /**
+     * Remove a progress listener.
+     * @param listener A listener added before
+     * @return true if the listener was removed
+     */
+    public boolean removeProgressListener(@NonNull ProgressListener listener) {
+        synchronized (this) {
+            ProgressListener[] current = listeners;
+            int index = 0;
+            while (index < current.length && current[index] != listener) {
+                index++;
+            }
+            if (index == current.length) {
+                return false;
+            }
+            ProgressListener[] updated =
+                    current.length == 1 ? NO_LISTENERS : new ProgressListener[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            listeners = updated;
+        }
+        // Stop ticking once the last listener is gone.
+        handler.post(this::updateTicking);
+        return true;
+    }
+
+    void onStateChange(VideoPlayer.State newState) {
+        synchronized (this) {
+            sample(clock.now());
+            running = newState == VideoPlayer.State.PLAYING;
+        }
+        // State may change on an engine thread; ticks and callbacks stay on the handler's.
+        if (Looper.myLooper() == handler.getLooper()) {
+            onStateSettled();
+        } else {
+            handler.post(this::onStateSettled);
+        }
+    }
+
+    private void onStateSettled() {
+        updateTicking();
+        // One update on every transition, so paused or buffering UIs show the settled position.
+        notifyListeners();
+    }
+
+    synchronized void onSeek(long targetPosition) {
+        anchorPosition = targetPosition;
+        anchorTime = clock.now();
+    }
+
+    /**
+     * Start over for a new source. The playback rate is kept: the player applies it to the
+     * new source too, so a rate set by a {@link LiveSyncGroup} survives a reconnect.
+     */
+    synchronized void onSourceChanged() {
+        anchorPosition = 0;
+        anchorTime = clock.now();
+        duration = -1;
+        durationSampledAt = Long.MIN_VALUE;
+    }
+
+    private void sample(long now) {
+        anchorPosition = positionSource.getAsLong();
+        anchorTime = now;
+    }
+
+    private long extrapolate(long now) {
+        long position = anchorPosition;
+        if (running) {
+            position += (long) ((now - anchorTime) * rate);
+        }
+        return duration > 0 ? Math.min(position, duration) : position;
+    }
+
+    private void updateTicking() {
+        boolean shouldTick;
+        synchronized (this) {
+            shouldTick = running && listeners.length > 0;
+        }
+        if (shouldTick && !ticking) {
+            ticking = true;
+            handler.post(tick);
+        } else if (!shouldTick && ticking) {
+            ticking = false;
+            handler.removeCallbacks(tick);
+        }
+    }
+
+    private void onTick() {
+        if (!ticking) {
+            return;
+        }
+        long position = notifyListeners();
+        long interval = tickInterval(getDuration());
+        float currentRate;
+        synchronized (this) {
+            currentRate = rate > 0 ? rate : 1f;
+        }
+        // Land the next tick on the next whole interval of media time.
+        long delay = (long) ((interval - position % interval) / currentRate);
+        handler.postDelayed(tick, Math.max(MIN_TICK_MILLIS / 2, delay));
+    }
+
+    private long notifyListeners() {
+        ProgressListener[] snapshot = listeners;
+        long position = getPosition();
+        if (snapshot.length == 0) {
+            return position;
+        }
+        long total = getDuration();
+        for (ProgressListener listener : snapshot) {
+            listener.onProgress(position, total);
+        }
+        return position;
+    }
+
+    private static long tickInterval(long duration) {
+        if (duration <= 0) {
+            return LIVE_TICK_MILLIS;
+        }
+        return Math.max(MIN_TICK_MILLIS, Math.min(MAX_TICK_MILLIS, duration / TICKS_PER_CLIP));
+    }
+
+    /**
+     * Receives playback position updates on the main thread.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Called periodically while playing, and once after every state change.
+         * @param position Estimated playback position in milliseconds
+         * @param duration Clip duration in milliseconds, or a non-positive value if unknown
+         */
+        void onProgress(long position, long duration);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers where viewers stopped watching, keyed by an app-chosen string.
+ *
+ * Writes are write-behind: {@link #save(String, long)} only updates an in-memory map,
+ * and everything saved within {@link #DEFAULT_FLUSH_DELAY_MILLIS} is written to
+ * {@link SharedPreferences} in one commit on a background thread. Reads see pending
+ * writes, so checkpointing every few seconds from the main thread never touches disk.
+ */
+public final class ResumePositionStore {
+
+    /**
+     * Default delay between the first unsaved write and the batch commit.
+     */
+    public static final long DEFAULT_FLUSH_DELAY_MILLIS = 3000L;
+
+    private static final String PREFERENCES_NAME = "com.amplifyframework.video.resume";
+    private static final String KEY_PREFIX = "position:";
+    // Marks a pending removal in the pending map.
+    private static final long CLEARED = -1L;
+    private static volatile ResumePositionStore instance;
+
+    private final SharedPreferences preferences;
+    private final long flushDelayMillis;
+    private final ScheduledExecutorService writer;
+    private final Object lock = new Object();
+    private Map<String, Long> pending = new HashMap<>();
+    // The batch being committed, still consulted by reads until the commit finishes.
+    private Map<String, Long> writing = Collections.emptyMap();
+    private boolean flushScheduled;
+
+    /**
+     * Create a store over the given preferences.
+     * @param preferences Preferences to persist positions in
+     * @param flushDelayMillis How long writes are batched before being committed
+     */
+    public ResumePositionStore(@NonNull SharedPreferences preferences, long flushDelayMillis) {
+        this.preferences = Objects.requireNonNull(preferences);
+        this.flushDelayMillis = flushDelayMillis;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-resume");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the process-wide store backed by the app's private preferences.
+     * @param context Any context; only its application context is retained
+     * @return The shared store
+     */
+    @NonNull
+    public static ResumePositionStore getInstance(@NonNull Context context) {
+        ResumePositionStore store = instance;
+        if (store == null) {
+            synchronized (ResumePositionStore.class) {
+                store = instance;
+                if (store == null) {
+                    SharedPreferences preferences = context.getApplicationContext()
+                            .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+                    store = new ResumePositionStore(preferences, DEFAULT_FLUSH_DELAY_MILLIS);
+                    instance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Remember a position. Returns immediately; the write is committed with the next batch.
+     * @param key Identifies what is being watched
+     * @param positionMillis Position in milliseconds
+     */
+    public void save(@NonNull String key, long positionMillis) {
+        enqueue(Objects.requireNonNull(key), Math.max(0, positionMillis));
+    }
+
+    /**
+     * Forget a position, e.g. once the viewer has finished watching.
+     * @param key Identifies what was being watched
+     */
+    public void clear(@NonNull String key) {
+        enqueue(Objects.requireNonNull(key), CLEARED);
+    }
+
+    /**
+     * Get a remembered position, including writes not yet committed.
+     * @param key Identifies what is being watched
+     * @return Position in milliseconds, or -1 if none is remembered
+     */
+    public long get(@NonNull String key) {
+        synchronized (lock) {
+            Long position = pending.get(key);
+            if (position == null) {
+                position = writing.get(key);
+            }
+            if (position != null) {
+                return position;
+            }
+        }
+        return preferences.getLong(KEY_PREFIX + key, CLEARED);
+    }
+
+    /**
+     * Commit pending writes now instead of waiting for the batch delay, e.g. when the app
+     * goes to the background. The commit still happens on the background thread.
+     */
+    public void flush() {
+        writer.execute(this::writePending);
+    }
+
+    private void enqueue(String key, long position) {
+        synchronized (lock) {
+            pending.put(key, position);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                writer.schedule(this::writePending, flushDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void writePending() {
+        Map<String, Long> batch;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+            writing = batch;
+        }
+        SharedPreferences.Editor editor = preferences.edit();
+        for (Map.Entry<String, Long> entry : batch.entrySet()) {
+            if (entry.getValue() == CLEARED) {
+                editor.remove(KEY_PREFIX + entry.getKey());
+            } else {
+                editor.putLong(KEY_PREFIX + entry.getKey(), entry.getValue());
+            }
+        }
+        editor.commit();
+        synchronized (lock) {
+            writing = Collections.emptyMap();
+        }
+    }
+}
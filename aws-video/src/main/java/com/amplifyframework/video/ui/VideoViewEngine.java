@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.media.MediaPlayer;
+import android.net.Uri;
+import android.os.Build;
+import android.widget.VideoView;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.PlaybackEngine;
+
+import java.util.Objects;
+
+/**
+ * A {@link PlaybackEngine} backed by a {@link VideoView} and its stock {@link MediaPlayer}.
+ */
+public final class VideoViewEngine implements PlaybackEngine {
+
+    private final VideoView videoView;
+    private Callback callback;
+    private MediaPlayer mediaPlayer;
+
+    /**
+     * Create an engine which plays into a video view. The engine takes over the view's
+     * prepared, info, error and completion listeners.
+     * @param videoView View to play into
+     */
+    public VideoViewEngine(@NonNull VideoView videoView) {
+        this.videoView = Objects.requireNonNull(videoView);
+        videoView.setOnPreparedListener(this::onPrepared);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            videoView.setOnInfoListener((player, what, extra) -> callback != null && callback.onInfo(what, extra));
+        }
+        videoView.setOnErrorListener((player, what, extra) -> callback != null && callback.onError(what, extra));
+        videoView.setOnCompletionListener(player -> {
+            if (callback != null) {
+                callback.onCompletion();
+            }
+        });
+    }
+
+    /**
+     * Get the view this engine plays into.
+     * @return The video view
+     */
+    @NonNull
+    public VideoView getVideoView() {
+        return videoView;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(@NonNull Uri source) {
+        mediaPlayer = null;
+        videoView.setVideoURI(Objects.requireNonNull(source));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start() {
+        videoView.requestFocus();
+        videoView.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void pause() {
+        videoView.pause();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void seekTo(long positionMillis) {
+        videoView.seekTo((int) positionMillis);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean setPlaybackRate(float rate) {
+        // Setting params on a paused player would resume it.
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M || mediaPlayer == null || !videoView.isPlaying()) {
+            return false;
+        }
+        mediaPlayer.setPlaybackParams(mediaPlayer.getPlaybackParams().setSpeed(rate));
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCurrentPosition() {
+        return videoView.getCurrentPosition();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDuration() {
+        return videoView.getDuration();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isPlaying() {
+        return videoView.isPlaying();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBufferPercentage() {
+        return videoView.getBufferPercentage();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release() {
+        mediaPlayer = null;
+        videoView.stopPlayback();
+    }
+
+    private void onPrepared(MediaPlayer preparedPlayer) {
+        // VideoView does not expose its media player; keep the prepared one for seek
+        // completion and playback rate.
+        this.mediaPlayer = preparedPlayer;
+        preparedPlayer.setOnSeekCompleteListener(player -> {
+            if (callback != null) {
+                callback.onSeekComplete();
+            }
+        });
+        if (callback != null) {
+            callback.onPrepared();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.video.metrics.TimeSource;
+
+import java.util.Objects;
+
+/**
+ * Paces upload traffic with a token bucket, and can hold it back entirely.
+ *
+ * The bucket holds at most one second of traffic, so after an idle spell uploads burst
+ * for no more than a second before settling at the configured rate. Changes to the rate
+ * or the pause flag apply to callers already waiting.
+ */
+public final class BandwidthLimiter {
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private final TimeSource clock;
+    private long bytesPerSecond;
+    private boolean paused;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Create an unlimited, unpaused limiter.
+     * @param clock Monotonic millisecond clock
+     */
+    public BandwidthLimiter(@NonNull TimeSource clock) {
+        this.clock = Objects.requireNonNull(clock);
+        this.refilledAt = clock.now();
+    }
+
+    /**
+     * Set the sustained rate.
+     * @param bytesPerSecond Bytes per second, or 0 for no limit
+     */
+    public synchronized void setBytesPerSecond(long bytesPerSecond) {
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("Rate must not be negative: " + bytesPerSecond);
+        }
+        refill();
+        this.bytesPerSecond = bytesPerSecond;
+        notifyAll();
+    }
+
+    /**
+     * Get the sustained rate.
+     * @return Bytes per second, or 0 for no limit
+     */
+    public synchronized long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Hold back all traffic, or let it resume.
+     * @param paused true to make {@link #acquire(long)} wait until unpaused
+     */
+    public synchronized void setPaused(boolean paused) {
+        this.paused = paused;
+        notifyAll();
+    }
+
+    /**
+     * Whether traffic is held back.
+     * @return true if paused
+     */
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Wait until the given number of bytes may be sent. A request larger than the bucket
+     * is let through once the bucket is full and leaves it in debt, so the following
+     * requests wait for the excess to pay off.
+     * @param bytes Bytes about to be sent
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public synchronized void acquire(long bytes) throws InterruptedException {
+        while (true) {
+            refill();
+            if (!paused && (bytesPerSecond == 0 || tokens >= Math.min(bytes, bytesPerSecond))) {
+                if (bytesPerSecond != 0) {
+                    tokens -= bytes;
+                }
+                return;
+            }
+            if (paused) {
+                wait();
+            } else {
+                double missing = Math.min(bytes, bytesPerSecond) - tokens;
+                wait(Math.max(1, (long) Math.ceil(missing * MILLIS_PER_SECOND / bytesPerSecond)));
+            }
+        }
+    }
+
+    private void refill() {
+        long now = clock.now();
+        if (bytesPerSecond != 0) {
+            double earned = (now - refilledAt) * (double) bytesPerSecond / MILLIS_PER_SECOND;
+            tokens = Math.min(bytesPerSecond, tokens + earned);
+        }
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A fixed number of reusable direct buffers, shared by every upload on a
+ * {@link MultipartUploader}. Taking a buffer blocks while all are in use, which is what
+ * bounds the memory held by parts in flight.
+ *
+ * Buffers are allocated on first use and kept, so a long upload reads every part into the
+ * same few buffers and allocates nothing per part. Parts never outgrow the buffers: the
+ * uploader chooses part sizes to fit them.
+ */
+final class DirectBufferPool {
+
+    private final ArrayDeque<ByteBuffer> idle = new ArrayDeque<>();
+    private final int bufferSize;
+    private int available;
+
+    /**
+     * Create a pool.
+     * @param count Number of buffers
+     * @param bufferSize Capacity of each buffer in bytes
+     */
+    DirectBufferPool(int count, int bufferSize) {
+        this.available = count;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Take a buffer, waiting for one to be released if all are in use.
+     * @param size Bytes needed, at most the pool's buffer size
+     * @return A cleared buffer whose limit is {@code size}
+     * @throws InterruptedException If interrupted while waiting
+     */
+    synchronized ByteBuffer take(int size) throws InterruptedException {
+        if (size > bufferSize) {
+            throw new IllegalArgumentException("Part of " + size + " bytes exceeds the buffer size " + bufferSize);
+        }
+        while (available == 0) {
+            wait();
+        }
+        available--;
+        ByteBuffer buffer = idle.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * Return a buffer taken from this pool.
+     * @param buffer The buffer
+     */
+    synchronized void release(ByteBuffer buffer) {
+        idle.push(buffer);
+        available++;
+        notify();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * The S3 multipart upload calls a {@link MultipartUploader} makes, implemented over
+ * whichever S3 client or signing backend the app already uses.
+ *
+ * Every method blocks and may be called from several upload workers at once.
+ */
+public interface MultipartTransport {
+
+    /**
+     * Start a multipart upload.
+     * @param bucket Destination bucket
+     * @param key Destination object key
+     * @return The upload ID
+     * @throws IOException If the request fails
+     */
+    @NonNull
+    String initiate(@NonNull String bucket, @NonNull String key) throws IOException;
+
+    /**
+     * Upload one part.
+     * @param bucket Destination bucket
+     * @param key Destination object key
+     * @param uploadId Upload ID from {@link #initiate(String, String)}
+     * @param partNumber Part number, starting at 1
+     * @param data Part contents, from its position to its limit; read-only and reused for
+     *             other parts, so it must not be retained after returning
+     * @param checksum Base64 SHA-256 of the part, to send as {@code x-amz-checksum-sha256}
+     *                 so that S3 verifies the part on arrival
+     * @return The part's ETag
+     * @throws IOException If the request fails; the part will be retried
+     */
+    @NonNull
+    String uploadPart(@NonNull String bucket, @NonNull String key, @NonNull String uploadId,
+                      int partNumber, @NonNull ByteBuffer data, @NonNull String checksum) throws IOException;
+
+    /**
+     * Assemble the uploaded parts into the object.
+     * @param bucket Destination bucket
+     * @param key Destination object key
+     * @param uploadId Upload ID from {@link #initiate(String, String)}
+     * @param partETags ETag of every part, in part number order
+     * @param partChecksums Base64 SHA-256 of every part, in part number order
+     * @return The object's ETag
+     * @throws IOException If the request fails
+     */
+    @NonNull
+    String complete(@NonNull String bucket, @NonNull String key, @NonNull String uploadId,
+                    @NonNull List<String> partETags, @NonNull List<String> partChecksums) throws IOException;
+
+    /**
+     * Abandon an upload and discard its parts.
+     * @param bucket Destination bucket
+     * @param key Destination object key
+     * @param uploadId Upload ID from {@link #initiate(String, String)}
+     * @throws IOException If the request fails
+     */
+    void abort(@NonNull String bucket, @NonNull String key, @NonNull String uploadId) throws IOException;
+}
@@ -0,0 +1,491 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import android.util.Base64;
+import android.util.Log;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.ondemand.InputType;
+import com.amplifyframework.extended.video.resources.ondemand.OnDemandResource;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uploads source video to an on-demand resource's ingest bucket as an S3 multipart
+ * upload, several parts at a time.
+ *
+ * Each part is read once into a reusable direct buffer, and its SHA-256 is computed
+ * chunk by chunk as the buffer fills, so integrity checksums cost no second pass over the
+ * file and no per-chunk arrays. The buffers, sized to the memory budget, also bound how
+ * many parts are in flight at once across all uploads on this uploader. Failed parts are
+ * retried from the same buffer with exponential backoff. Each finished part is
+ * recorded in a state file, so an upload interrupted by an error, a cancellation or the
+ * process dying resumes from the parts still missing when it is started again.
+ */
+public final class MultipartUploader {
+
+    /**
+     * Smallest part size S3 accepts for any part but the last.
+     */
+    public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    /**
+     * Largest part size; each part is read whole into a single direct buffer.
+     */
+    public static final long MAX_PART_SIZE = Integer.MAX_VALUE;
+
+    /**
+     * Default part size.
+     */
+    public static final long DEFAULT_PART_SIZE = 8L * 1024 * 1024;
+
+    /**
+     * Default bound on the bytes of all parts in flight.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 32L * 1024 * 1024;
+
+    /**
+     * Default number of parts uploaded concurrently.
+     */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * Default number of attempts per part before the upload fails.
+     */
+    public static final int DEFAULT_MAX_PART_ATTEMPTS = 3;
+
+    // S3 limits a multipart upload to this many parts.
+    private static final int MAX_PARTS = 10_000;
+    private static final long RETRY_BASE_DELAY_MILLIS = 500L;
+    private static final String STATE_SUFFIX = ".upload";
+    private static final String TAG = "MultipartUploader";
+    // Reads are split into chunks this size so each is digested while still in cache.
+    private static final int READ_CHUNK_SIZE = 256 * 1024;
+    private static final ThreadLocal<MessageDigest> PART_DIGEST = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            return sha256();
+        }
+    };
+
+    private final MultipartTransport transport;
+    private final File stateDirectory;
+    private final long partSize;
+    private final int maxPartAttempts;
+    private final DirectBufferPool buffers;
+    private final ExecutorService workers;
+    private final BandwidthLimiter limiter = new BandwidthLimiter(TimeSource.SYSTEM);
+
+    private MultipartUploader(Builder builder) {
+        this.transport = Objects.requireNonNull(builder.transport, "A transport is required.");
+        this.stateDirectory = Objects.requireNonNull(builder.stateDirectory, "A state directory is required.");
+        this.partSize = builder.partSize;
+        this.maxPartAttempts = builder.maxPartAttempts;
+        long partsInBudget = Math.max(1, builder.memoryBudget / partSize);
+        this.buffers = new DirectBufferPool((int) Math.min(Integer.MAX_VALUE, partsInBudget), (int) partSize);
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(builder.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-upload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Upload a file into an on-demand resource's ingest bucket. Blocks until the object
+     * is complete; call it off the main thread.
+     * @param resource Resource whose {@link InputType#S3_BUCKET_NAME} input receives the file
+     * @param source File to upload
+     * @param key Destination object key
+     * @param listener Progress listener, or null
+     * @return The uploaded object's ETag and checksums
+     * @throws IOException If the upload fails; it can be resumed by calling again
+     * @throws InterruptedException If the calling thread is interrupted; it can be resumed
+     *         by calling again
+     */
+    @NonNull
+    public UploadResult upload(@NonNull OnDemandResource resource, @NonNull File source, @NonNull String key,
+                         ProgressListener listener) throws IOException, InterruptedException {
+        String bucket = resource.getInputPoint(InputType.S3_BUCKET_NAME);
+        if (bucket == null) {
+            throw new IllegalArgumentException("Resource " + resource.getIdentifier() + " has no S3 input bucket.");
+        }
+        return upload(source, bucket, key, listener);
+    }
+
+    /**
+     * Upload a file to a bucket. Blocks until the object is complete; call it off the main
+     * thread. If an earlier upload of the same, unchanged file to the same object was
+     * interrupted, only its missing parts are uploaded.
+     * @param source File to upload
+     * @param bucket Destination bucket
+     * @param key Destination object key
+     * @param listener Progress listener, or null
+     * @return The uploaded object's ETag and checksums
+     * @throws IOException If the upload fails; it can be resumed by calling again
+     * @throws InterruptedException If the calling thread is interrupted; it can be resumed
+     *         by calling again
+     */
+    @NonNull
+    public UploadResult upload(@NonNull File source, @NonNull String bucket, @NonNull String key,
+                         ProgressListener listener) throws IOException, InterruptedException {
+        File stateFile = stateFile(source, bucket, key);
+        UploadState state = UploadState.load(stateFile);
+        if (state != null && (!state.matches(source, bucket, key) || state.getPartSize() > partSize)) {
+            // The file changed since the parts were uploaded, or they were cut larger than
+            // this uploader's buffers.
+            discard(state, stateFile);
+            state = null;
+        }
+        if (state == null) {
+            // Parts are exactly buffer-sized, so reading one never allocates.
+            if (UploadState.partCount(source.length(), partSize) > MAX_PARTS) {
+                throw new IOException("File needs more than " + MAX_PARTS + " parts of " + partSize
+                        + " bytes; use a larger part size: " + source);
+            }
+            state = new UploadState(source, bucket, key, partSize, transport.initiate(bucket, key));
+            state.save(stateFile);
+        }
+
+        AtomicLong uploaded = new AtomicLong();
+        for (int index = 0; index < state.getPartCount(); index++) {
+            if (state.getPartETag(index) != null) {
+                uploaded.addAndGet(state.getPartLength(index));
+            }
+        }
+        try (FileInputStream input = new FileInputStream(source)) {
+            uploadParts(input.getChannel(), state, stateFile, uploaded, listener);
+        }
+        List<String> partChecksums = state.getPartChecksums();
+        String eTag = transport.complete(bucket, key, state.getUploadId(), state.getPartETags(), partChecksums);
+        if (!stateFile.delete()) {
+            Log.w(TAG, "Unable to delete finished upload state " + stateFile);
+        }
+        return new UploadResult(eTag, compositeChecksum(partChecksums), partChecksums);
+    }
+
+    /**
+     * Abandon an interrupted upload, discarding its uploaded parts and saved state.
+     * @param source File that was being uploaded
+     * @param bucket Destination bucket
+     * @param key Destination object key
+     * @return true if there was an upload to abandon
+     * @throws IOException If the abort request fails
+     */
+    public boolean abort(@NonNull File source, @NonNull String bucket, @NonNull String key) throws IOException {
+        File stateFile = stateFile(source, bucket, key);
+        UploadState state = UploadState.load(stateFile);
+        if (state == null) {
+            return false;
+        }
+        transport.abort(state.getBucket(), state.getKey(), state.getUploadId());
+        return stateFile.delete();
+    }
+
+    /**
+     * Get the limiter every part passes through before it is sent. Unlimited and unpaused
+     * until configured; an {@link UploadQueue} drives it from its own settings.
+     * @return This uploader's bandwidth limiter
+     */
+    @NonNull
+    public BandwidthLimiter getBandwidthLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Stop the upload workers. Uploads in progress fail and can be resumed by a new uploader
+     * over the same state directory.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void uploadParts(FileChannel channel, UploadState state, File stateFile, AtomicLong uploaded,
+                             ProgressListener listener) throws IOException, InterruptedException {
+        CompletionService<Void> completion = new ExecutorCompletionService<>(workers);
+        List<Future<Void>> parts = new ArrayList<>();
+        try {
+            for (int index = 0; index < state.getPartCount(); index++) {
+                if (state.getPartETag(index) == null) {
+                    final int part = index;
+                    parts.add(completion.submit(() -> {
+                        uploadPart(channel, state, part);
+                        state.save(stateFile);
+                        long total = uploaded.addAndGet(state.getPartLength(part));
+                        if (listener != null) {
+                            listener.onProgress(total, state.getLength());
+                        }
+                        return null;
+                    }));
+                }
+            }
+            // In completion order, so the first failure stops the upload at once.
+            for (int remaining = parts.size(); remaining > 0; remaining--) {
+                await(completion.take());
+            }
+        } finally {
+            for (Future<Void> part : parts) {
+                part.cancel(true);
+            }
+        }
+    }
+
+    private void uploadPart(FileChannel channel, UploadState state, int index)
+            throws IOException, InterruptedException {
+        // Taking a buffer waits while the memory budget is spent. Cancelled parts which
+        // never started hold none.
+        ByteBuffer buffer = buffers.take((int) state.getPartLength(index));
+        try {
+            String checksum = readPart(channel, index * state.getPartSize(), buffer);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    limiter.acquire(buffer.remaining());
+                    // A fresh read-only view per attempt, positioned at the start of the part.
+                    String eTag = transport.uploadPart(state.getBucket(), state.getKey(), state.getUploadId(),
+                            index + 1, buffer.asReadOnlyBuffer(), checksum);
+                    state.setPart(index, eTag, checksum);
+                    return;
+                } catch (InterruptedIOException interrupted) {
+                    throw interrupted;
+                } catch (IOException exception) {
+                    if (attempt >= maxPartAttempts) {
+                        throw exception;
+                    }
+                    Log.w(TAG, "Part " + (index + 1) + " failed; retrying.", exception);
+                    Thread.sleep(RETRY_BASE_DELAY_MILLIS << (attempt - 1));
+                }
+            }
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    /**
+     * Fill a buffer from the file, digesting each chunk as soon as it is read.
+     * @param channel Source file
+     * @param offset File offset of the part
+     * @param buffer Buffer whose limit is the part length; flipped for reading on return
+     * @return Base64 SHA-256 of the part
+     * @throws IOException If the file cannot be read or is shorter than expected
+     */
+    private static String readPart(FileChannel channel, long offset, ByteBuffer buffer) throws IOException {
+        MessageDigest digest = PART_DIGEST.get();
+        digest.reset();
+        ByteBuffer unread = buffer.duplicate();
+        int end = buffer.limit();
+        while (buffer.position() < end) {
+            buffer.limit(Math.min(end, buffer.position() + READ_CHUNK_SIZE));
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Source file shrank during upload.");
+            }
+            unread.limit(buffer.position());
+            digest.update(unread);
+        }
+        buffer.flip();
+        return Base64.encodeToString(digest.digest(), Base64.NO_WRAP);
+    }
+
+    private static String compositeChecksum(List<String> partChecksums) {
+        MessageDigest digest = sha256();
+        for (String checksum : partChecksums) {
+            digest.update(Base64.decode(checksum, Base64.NO_WRAP));
+        }
+        return Base64.encodeToString(digest.digest(), Base64.NO_WRAP) + "-" + partChecksums.size();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available.", exception);
+        }
+    }
+
+    private static void await(Future<?> part) throws IOException, InterruptedException {
+        try {
+            part.get();
+        } catch (ExecutionException failure) {
+            Throwable cause = failure.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private void discard(UploadState state, File stateFile) {
+        try {
+            transport.abort(state.getBucket(), state.getKey(), state.getUploadId());
+        } catch (IOException exception) {
+            // The bucket's lifecycle rules clean up parts we fail to abort.
+            Log.w(TAG, "Unable to abort stale upload " + state.getUploadId(), exception);
+        }
+        if (!stateFile.delete()) {
+            Log.w(TAG, "Unable to delete stale upload state " + stateFile);
+        }
+    }
+
+    private File stateFile(File source, String bucket, String key) {
+        String identity = bucket + '\n' + key + '\n' + source.getAbsolutePath();
+        // Collisions are harmless: the state records its identity and is discarded on mismatch.
+        return new File(stateDirectory, Integer.toHexString(identity.hashCode()) + STATE_SUFFIX);
+    }
+
+    /**
+     * Get a builder for a {@link MultipartUploader}.
+     * @return A new {@link MultipartUploader.Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Receives upload progress on an upload worker thread.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Called each time a part finishes.
+         * @param bytesUploaded Bytes of the file uploaded so far, including parts uploaded
+         *                      before a resume
+         * @param totalBytes Size of the file
+         */
+        void onProgress(long bytesUploaded, long totalBytes);
+    }
+
+    /**
+     * Builder class for {@link MultipartUploader}.
+     */
+    public static class Builder {
+        private MultipartTransport transport;
+        private File stateDirectory;
+        private long partSize = DEFAULT_PART_SIZE;
+        private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+        private int parallelism = DEFAULT_PARALLELISM;
+        private int maxPartAttempts = DEFAULT_MAX_PART_ATTEMPTS;
+
+        /**
+         * Set the transport which makes the S3 requests. Required.
+         * @param transport S3 multipart transport
+         * @return The {@link Builder}.
+         */
+        public Builder transport(@NonNull MultipartTransport transport) {
+            this.transport = Objects.requireNonNull(transport);
+            return this;
+        }
+
+        /**
+         * Set where upload state is kept between attempts, e.g. a directory under the
+         * app's files directory. Required; the directory is created if missing.
+         * @param stateDirectory Directory for upload state files
+         * @return The {@link Builder}.
+         */
+        public Builder stateDirectory(@NonNull File stateDirectory) {
+            this.stateDirectory = Objects.requireNonNull(stateDirectory);
+            return this;
+        }
+
+        /**
+         * Set the part size, which is also the size of each upload buffer. Files needing more
+         * than 10,000 parts of this size cannot be uploaded.
+         * @param partSize Bytes per part, from {@link #MIN_PART_SIZE} to {@link #MAX_PART_SIZE}
+         * @return The {@link Builder}.
+         */
+        public Builder partSize(long partSize) {
+            if (partSize < MIN_PART_SIZE || partSize > MAX_PART_SIZE) {
+                throw new IllegalArgumentException("Part size out of range: " + partSize);
+            }
+            this.partSize = partSize;
+            return this;
+        }
+
+        /**
+         * Set the bound on bytes in flight across all uploads, as a number of part-sized
+         * direct buffers. At least one part is always allowed in flight.
+         * @param memoryBudget Bytes
+         * @return The {@link Builder}.
+         */
+        public Builder memoryBudget(long memoryBudget) {
+            if (memoryBudget <= 0) {
+                throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+            }
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * Set the number of upload workers.
+         * @param parallelism Worker count
+         * @return The {@link Builder}.
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Set how many times a part is attempted before the upload fails.
+         * @param maxPartAttempts Attempts per part
+         * @return The {@link Builder}.
+         */
+        public Builder maxPartAttempts(int maxPartAttempts) {
+            if (maxPartAttempts <= 0) {
+                throw new IllegalArgumentException("Attempts must be positive: " + maxPartAttempts);
+            }
+            this.maxPartAttempts = maxPartAttempts;
+            return this;
+        }
+
+        /**
+         * Build the {@link MultipartUploader}.
+         * @return The {@link MultipartUploader}.
+         */
+        public MultipartUploader build() {
+            if (stateDirectory != null && !stateDirectory.isDirectory() && !stateDirectory.mkdirs()) {
+                throw new IllegalStateException("Unable to create state directory " + stateDirectory);
+            }
+            return new MultipartUploader(this);
+        }
+    }
+}
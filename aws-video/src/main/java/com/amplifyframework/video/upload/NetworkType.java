@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Build;
+import androidx.annotation.NonNull;
+
+/**
+ * The kind of network uploads would run over.
+ */
+public enum NetworkType {
+    /**
+     * No connected network.
+     */
+    NONE,
+    /**
+     * A network the user may pay for by the byte, such as cellular.
+     */
+    METERED,
+    /**
+     * A network without per-byte cost, such as most Wi-Fi.
+     */
+    UNMETERED;
+
+    /**
+     * Read the type of the active network. Needs the ACCESS_NETWORK_STATE permission, which
+     * this library's manifest declares.
+     * @param context Any context
+     * @return The active network's type
+     */
+    @NonNull
+    public static NetworkType current(@NonNull Context context) {
+        ConnectivityManager connectivity =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivity == null) {
+            return NONE;
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return legacyCurrent(connectivity);
+        }
+        Network active = connectivity.getActiveNetwork();
+        NetworkCapabilities capabilities = active == null ? null : connectivity.getNetworkCapabilities(active);
+        if (capabilities == null || !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)) {
+            return NONE;
+        }
+        return capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED) ? UNMETERED : METERED;
+    }
+
+    // Before API 23 there is no active Network handle; NetworkInfo is the only source.
+    @SuppressWarnings("deprecation")
+    private static NetworkType legacyCurrent(ConnectivityManager connectivity) {
+        NetworkInfo active = connectivity.getActiveNetworkInfo();
+        if (active == null || !active.isConnected()) {
+            return NONE;
+        }
+        return connectivity.isActiveNetworkMetered() ? METERED : UNMETERED;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * One file waiting in, or being uploaded by, an {@link UploadQueue}.
+ */
+public final class UploadJob {
+
+    private static final String FILE = "file";
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "key";
+    private static final String PRIORITY = "priority";
+    private static final String UNMETERED_ONLY = "unmeteredOnly";
+    private static final String SEQUENCE = "sequence";
+    private static final String ATTEMPTS = "attempts";
+
+    private final String id;
+    private final File file;
+    private final String bucket;
+    private final String key;
+    private final int priority;
+    private final boolean unmeteredOnly;
+    private final long sequence;
+    private final long size;
+
+    // Scheduling state, owned by the queue's dispatcher thread.
+    private int attempts;
+    private long notBefore;
+    private boolean cancelled;
+    private boolean preempted;
+
+    UploadJob(@NonNull String id, @NonNull File file, @NonNull String bucket, @NonNull String key,
+              int priority, boolean unmeteredOnly, long sequence) {
+        this.id = id;
+        this.file = file;
+        this.bucket = bucket;
+        this.key = key;
+        this.priority = priority;
+        this.unmeteredOnly = unmeteredOnly;
+        this.sequence = sequence;
+        this.size = file.length();
+    }
+
+    /**
+     * Get the job's identifier, stable across process restarts.
+     * @return Job ID
+     */
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get the file being uploaded.
+     * @return Source file
+     */
+    @NonNull
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the destination bucket.
+     * @return Bucket name
+     */
+    @NonNull
+    public String getBucket() {
+        return bucket;
+    }
+
+    /**
+     * Get the destination object key.
+     * @return Object key
+     */
+    @NonNull
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the job's priority; higher priorities upload first.
+     * @return Priority
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Whether the job waits for an unmetered network.
+     * @return true if the job never uploads over a metered network
+     */
+    public boolean isUnmeteredOnly() {
+        return unmeteredOnly;
+    }
+
+    /**
+     * Get the size of the file.
+     * @return Bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    int getAttempts() {
+        return attempts;
+    }
+
+    void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    long getNotBefore() {
+        return notBefore;
+    }
+
+    void setNotBefore(long notBefore) {
+        this.notBefore = notBefore;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    boolean isPreempted() {
+        return preempted;
+    }
+
+    void setPreempted(boolean preempted) {
+        this.preempted = preempted;
+    }
+
+    /**
+     * Read a job saved by {@link #save(File)}.
+     * @param jobFile Saved job
+     * @param id ID to give the job
+     * @return The job, or null if the file cannot be read
+     */
+    static UploadJob load(@NonNull File jobFile, @NonNull String id) {
+        Properties properties = new Properties();
+        try (InputStream input = new FileInputStream(jobFile)) {
+            properties.load(input);
+            UploadJob job = new UploadJob(id, new File(properties.getProperty(FILE)), properties.getProperty(BUCKET),
+                    properties.getProperty(KEY), Integer.parseInt(properties.getProperty(PRIORITY)),
+                    Boolean.parseBoolean(properties.getProperty(UNMETERED_ONLY)),
+                    Long.parseLong(properties.getProperty(SEQUENCE)));
+            job.attempts = Integer.parseInt(properties.getProperty(ATTEMPTS, "0"));
+            return job.bucket == null || job.key == null ? null : job;
+        } catch (IOException | RuntimeException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the job, replacing the previous copy atomically.
+     * @param jobFile Destination file
+     * @throws IOException If the job cannot be written
+     */
+    void save(@NonNull File jobFile) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(FILE, file.getAbsolutePath());
+        properties.setProperty(BUCKET, bucket);
+        properties.setProperty(KEY, key);
+        properties.setProperty(PRIORITY, Integer.toString(priority));
+        properties.setProperty(UNMETERED_ONLY, Boolean.toString(unmeteredOnly));
+        properties.setProperty(SEQUENCE, Long.toString(sequence));
+        properties.setProperty(ATTEMPTS, Integer.toString(attempts));
+        File temporary = new File(jobFile.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporary)) {
+            properties.store(output, null);
+            output.getFD().sync();
+        }
+        if (!temporary.renameTo(jobFile)) {
+            throw new IOException("Unable to replace upload job " + jobFile);
+        }
+    }
+}
@@ -0,0 +1,640 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import android.os.Handler;
+import android.util.Log;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.ondemand.InputType;
+import com.amplifyframework.extended.video.resources.ondemand.OnDemandResource;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A durable queue of uploads to on-demand inputs, run through a {@link MultipartUploader}.
+ *
+ * Every job is written to the queue directory before {@code enqueue} returns, and a queue
+ * created over the same directory after the process dies picks the jobs up again; the
+ * uploader's own state then resumes each one from its missing parts. Jobs start in order
+ * of priority, then size, smallest first, so short clips are not stuck behind long ones.
+ * Jobs marked unmetered-only wait for an unmetered network, and are pre-empted if the
+ * network becomes metered. At most {@link #setMaxConcurrentUploads(int)} jobs run at
+ * once, and their combined traffic is paced by the uploader's {@link BandwidthLimiter}.
+ *
+ * While a playback hold from {@link #holdForPlayback()} is active, e.g. one taken by a
+ * player given the queue through {@code AWSVideoPlayer.setUploadQueue}, no job starts and
+ * running jobs pause between parts.
+ *
+ * All scheduling runs on one background thread; listeners are called on the handler.
+ */
+public final class UploadQueue {
+
+    /**
+     * Default number of jobs uploading at once.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_UPLOADS = 1;
+
+    /**
+     * Attempts a job gets before it is dropped and reported as failed.
+     */
+    public static final int MAX_ATTEMPTS = 5;
+
+    private static final long RETRY_BASE_DELAY_MILLIS = 30_000L;
+    private static final long MAX_RETRY_DELAY_MILLIS = 10 * 60_000L;
+    private static final long STATUS_INTERVAL_MILLIS = 1000L;
+    // Weight of the newest interval in the throughput estimate.
+    private static final double SMOOTHING = 0.3;
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final String JOB_SUFFIX = ".job";
+    private static final String TAG = "UploadQueue";
+    private static final Listener[] NO_LISTENERS = new Listener[0];
+    private static final Comparator<UploadJob> ORDER = (first, second) -> {
+        if (first.getPriority() != second.getPriority()) {
+            return first.getPriority() > second.getPriority() ? -1 : 1;
+        }
+        if (first.getSize() != second.getSize()) {
+            return first.getSize() < second.getSize() ? -1 : 1;
+        }
+        return Long.compare(first.getSequence(), second.getSequence());
+    };
+
+    private final MultipartUploader uploader;
+    private final File queueDirectory;
+    private final Handler handler;
+    private final TimeSource clock;
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService runners;
+
+    // Dispatcher-thread state.
+    private final List<UploadJob> pending = new ArrayList<>();
+    private final Map<UploadJob, Future<?>> running = new HashMap<>();
+    private final Map<UploadJob, AtomicLong> progress = new HashMap<>();
+    private int maxConcurrentUploads = DEFAULT_MAX_CONCURRENT_UPLOADS;
+    private NetworkType networkType = NetworkType.METERED;
+    private int playbackHolds;
+    private ScheduledFuture<?> wakeUp;
+    private ScheduledFuture<?> statusTick;
+    private long lastUploadedTotal;
+    private long lastTickAt;
+    private double throughput;
+
+    private long nextSequence;
+    private volatile Status status = new Status(0, 0, 0, 0, false);
+    private volatile Listener[] listeners = NO_LISTENERS;
+
+    /**
+     * Create a queue and resume any jobs saved in its directory.
+     * @param uploader Uploader which runs the jobs; the queue takes over its bandwidth limiter
+     * @param queueDirectory Directory the queue persists jobs in; created if missing
+     * @param handler Handler whose thread receives listener callbacks
+     */
+    public UploadQueue(@NonNull MultipartUploader uploader, @NonNull File queueDirectory, @NonNull Handler handler) {
+        this(uploader, queueDirectory, handler, TimeSource.SYSTEM);
+    }
+
+    /**
+     * Create a queue and resume any jobs saved in its directory.
+     * @param uploader Uploader which runs the jobs; the queue takes over its bandwidth limiter
+     * @param queueDirectory Directory the queue persists jobs in; created if missing
+     * @param handler Handler whose thread receives listener callbacks
+     * @param clock Monotonic millisecond clock for retries and throughput
+     */
+    public UploadQueue(@NonNull MultipartUploader uploader, @NonNull File queueDirectory,
+                       @NonNull Handler handler, @NonNull TimeSource clock) {
+        this.uploader = Objects.requireNonNull(uploader);
+        this.queueDirectory = Objects.requireNonNull(queueDirectory);
+        this.handler = Objects.requireNonNull(handler);
+        this.clock = Objects.requireNonNull(clock);
+        if (!queueDirectory.isDirectory() && !queueDirectory.mkdirs()) {
+            throw new IllegalStateException("Unable to create queue directory " + queueDirectory);
+        }
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-upload-queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.runners = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "amplify-video-upload-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.execute(this::restore);
+    }
+
+    /**
+     * Queue a file for upload into an on-demand resource's ingest bucket.
+     * @param resource Resource whose {@link InputType#S3_BUCKET_NAME} input receives the file
+     * @param source File to upload
+     * @param key Destination object key
+     * @param priority Higher priorities upload first
+     * @param unmeteredOnly true to upload only over unmetered networks
+     * @return The queued job
+     * @throws IOException If the job cannot be persisted
+     */
+    @NonNull
+    public UploadJob enqueue(@NonNull OnDemandResource resource, @NonNull File source, @NonNull String key,
+                             int priority, boolean unmeteredOnly) throws IOException {
+        String bucket = resource.getInputPoint(InputType.S3_BUCKET_NAME);
+        if (bucket == null) {
+            throw new IllegalArgumentException("Resource " + resource.getIdentifier() + " has no S3 input bucket.");
+        }
+        return enqueue(source, bucket, key, priority, unmeteredOnly);
+    }
+
+    /**
+     * Queue a file for upload. The job is on disk when this returns.
+     * @param source File to upload
+     * @param bucket Destination bucket
+     * @param key Destination object key
+     * @param priority Higher priorities upload first
+     * @param unmeteredOnly true to upload only over unmetered networks
+     * @return The queued job
+     * @throws IOException If the job cannot be persisted
+     */
+    @NonNull
+    public UploadJob enqueue(@NonNull File source, @NonNull String bucket, @NonNull String key,
+                             int priority, boolean unmeteredOnly) throws IOException {
+        if (!source.isFile()) {
+            throw new IOException("Not a file: " + source);
+        }
+        long sequence;
+        synchronized (this) {
+            sequence = nextSequence++;
+        }
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), source.getAbsoluteFile(),
+                Objects.requireNonNull(bucket), Objects.requireNonNull(key), priority, unmeteredOnly, sequence);
+        job.save(jobFile(job));
+        dispatcher.execute(() -> {
+            pending.add(job);
+            schedule();
+        });
+        return job;
+    }
+
+    /**
+     * Remove a job. A running job is stopped and its uploaded parts are discarded.
+     * @param jobId ID of a queued job
+     */
+    public void cancel(@NonNull String jobId) {
+        dispatcher.execute(() -> {
+            for (UploadJob job : pending) {
+                if (job.getId().equals(jobId)) {
+                    pending.remove(job);
+                    forget(job);
+                    schedule();
+                    return;
+                }
+            }
+            for (Map.Entry<UploadJob, Future<?>> entry : running.entrySet()) {
+                if (entry.getKey().getId().equals(jobId)) {
+                    entry.getKey().setCancelled(true);
+                    entry.getValue().cancel(true);
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Set how many jobs may upload at once.
+     * @param maxConcurrentUploads Job count
+     */
+    public void setMaxConcurrentUploads(int maxConcurrentUploads) {
+        if (maxConcurrentUploads <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + maxConcurrentUploads);
+        }
+        dispatcher.execute(() -> {
+            this.maxConcurrentUploads = maxConcurrentUploads;
+            schedule();
+        });
+    }
+
+    /**
+     * Limit the combined upload rate of all jobs.
+     * @param bytesPerSecond Bytes per second, or 0 for no limit
+     */
+    public void setBytesPerSecond(long bytesPerSecond) {
+        uploader.getBandwidthLimiter().setBytesPerSecond(bytesPerSecond);
+    }
+
+    /**
+     * Tell the queue which network is active, e.g. from a connectivity callback using
+     * {@link NetworkType#current(android.content.Context)}. The queue assumes
+     * {@link NetworkType#METERED} until told otherwise, so unmetered-only jobs wait.
+     * @param type Active network type
+     */
+    public void setNetworkType(@NonNull NetworkType type) {
+        Objects.requireNonNull(type);
+        dispatcher.execute(() -> {
+            networkType = type;
+            if (type != NetworkType.UNMETERED) {
+                for (Map.Entry<UploadJob, Future<?>> entry : running.entrySet()) {
+                    if (entry.getKey().isUnmeteredOnly()) {
+                        entry.getKey().setPreempted(true);
+                        entry.getValue().cancel(true);
+                    }
+                }
+            }
+            schedule();
+        });
+    }
+
+    /**
+     * Hold uploads back while playback needs the bandwidth. No job starts and running jobs
+     * pause between parts until every hold is closed.
+     * @return A hold to close when playback no longer needs the bandwidth
+     */
+    @NonNull
+    public PlaybackHold holdForPlayback() {
+        dispatcher.execute(() -> {
+            playbackHolds++;
+            schedule();
+        });
+        return new PlaybackHold();
+    }
+
+    /**
+     * Get the latest queue status. It is refreshed every second while jobs are running.
+     * @return Queue status
+     */
+    @NonNull
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Add a listener for queue status and job outcomes.
+     * @param listener A listener, called on the queue's handler
+     */
+    public synchronized void addListener(@NonNull Listener listener) {
+        Objects.requireNonNull(listener);
+        Listener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Remove a listener.
+     * @param listener A listener added before
+     */
+    public synchronized void removeListener(@NonNull Listener listener) {
+        List<Listener> updated = new ArrayList<>(Arrays.asList(listeners));
+        updated.remove(listener);
+        listeners = updated.toArray(NO_LISTENERS);
+    }
+
+    private void restore() {
+        File[] saved = queueDirectory.listFiles((directory, name) -> name.endsWith(JOB_SUFFIX));
+        long maxSequence = -1;
+        for (File jobFile : saved == null ? new File[0] : saved) {
+            String name = jobFile.getName();
+            UploadJob job = UploadJob.load(jobFile, name.substring(0, name.length() - JOB_SUFFIX.length()));
+            if (job == null || !job.getFile().isFile()) {
+                Log.w(TAG, "Dropping unreadable or orphaned upload job " + jobFile);
+                if (!jobFile.delete()) {
+                    Log.w(TAG, "Unable to delete " + jobFile);
+                }
+                continue;
+            }
+            pending.add(job);
+            maxSequence = Math.max(maxSequence, job.getSequence());
+        }
+        synchronized (this) {
+            nextSequence = Math.max(nextSequence, maxSequence + 1);
+        }
+        schedule();
+    }
+
+    /**
+     * Start as many eligible jobs as the limits allow, and publish the status.
+     */
+    private void schedule() {
+        boolean held = playbackHolds > 0;
+        uploader.getBandwidthLimiter().setPaused(held);
+        long now = clock.now();
+        long nextRetry = Long.MAX_VALUE;
+        if (!held && networkType != NetworkType.NONE) {
+            pending.sort(ORDER);
+            for (int index = 0; index < pending.size() && running.size() < maxConcurrentUploads; index++) {
+                UploadJob job = pending.get(index);
+                if (job.isUnmeteredOnly() && networkType != NetworkType.UNMETERED) {
+                    continue;
+                }
+                if (job.getNotBefore() > now) {
+                    nextRetry = Math.min(nextRetry, job.getNotBefore());
+                    continue;
+                }
+                pending.remove(index--);
+                start(job);
+            }
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+        if (nextRetry != Long.MAX_VALUE) {
+            wakeUp = dispatcher.schedule(this::schedule, nextRetry - now, TimeUnit.MILLISECONDS);
+        }
+        if (running.isEmpty() && statusTick != null) {
+            statusTick.cancel(false);
+            statusTick = null;
+            throughput = 0;
+        } else if (!running.isEmpty() && statusTick == null) {
+            lastTickAt = now;
+            lastUploadedTotal = uploadedTotal();
+            statusTick = dispatcher.scheduleAtFixedRate(this::publishStatus, STATUS_INTERVAL_MILLIS,
+                    STATUS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        publishStatus();
+    }
+
+    private void start(UploadJob job) {
+        AtomicLong uploaded = new AtomicLong();
+        progress.put(job, uploaded);
+        running.put(job, runners.submit(() -> {
+            UploadResult result = null;
+            Exception failure = null;
+            try {
+                result = uploader.upload(job.getFile(), job.getBucket(), job.getKey(),
+                        (bytesUploaded, totalBytes) -> uploaded.set(bytesUploaded));
+            } catch (IOException | InterruptedException | RuntimeException exception) {
+                failure = exception;
+            }
+            if (job.isCancelled()) {
+                abandon(job);
+            }
+            final UploadResult outcome = result;
+            final Exception error = failure;
+            dispatcher.execute(() -> onFinished(job, outcome, error));
+        }));
+    }
+
+    private void onFinished(UploadJob job, UploadResult result, Exception failure) {
+        running.remove(job);
+        progress.remove(job);
+        if (job.isCancelled()) {
+            forget(job);
+        } else if (result != null) {
+            forget(job);
+            notifyListeners(listener -> listener.onUploadComplete(job, result));
+        } else if (job.isPreempted()) {
+            job.setPreempted(false);
+            pending.add(job);
+        } else {
+            retryOrDrop(job, failure);
+        }
+        schedule();
+    }
+
+    private void retryOrDrop(UploadJob job, Exception failure) {
+        job.setAttempts(job.getAttempts() + 1);
+        IOException error = failure instanceof IOException ? (IOException) failure : new IOException(failure);
+        if (job.getAttempts() >= MAX_ATTEMPTS) {
+            forget(job);
+            notifyListeners(listener -> listener.onUploadFailed(job, error));
+            return;
+        }
+        Log.w(TAG, "Upload of " + job.getFile() + " failed; will retry.", failure);
+        long delay = Math.min(MAX_RETRY_DELAY_MILLIS, RETRY_BASE_DELAY_MILLIS << (job.getAttempts() - 1));
+        job.setNotBefore(clock.now() + delay);
+        try {
+            job.save(jobFile(job));
+        } catch (IOException exception) {
+            Log.w(TAG, "Unable to record attempt count for " + job.getId(), exception);
+        }
+        pending.add(job);
+    }
+
+    private void abandon(UploadJob job) {
+        try {
+            uploader.abort(job.getFile(), job.getBucket(), job.getKey());
+        } catch (IOException exception) {
+            Log.w(TAG, "Unable to abort cancelled upload " + job.getId(), exception);
+        }
+    }
+
+    private void forget(UploadJob job) {
+        File jobFile = jobFile(job);
+        if (jobFile.exists() && !jobFile.delete()) {
+            Log.w(TAG, "Unable to delete " + jobFile);
+        }
+    }
+
+    private void publishStatus() {
+        long now = clock.now();
+        long uploadedTotal = uploadedTotal();
+        if (!running.isEmpty() && now > lastTickAt) {
+            double rate = (uploadedTotal - lastUploadedTotal) * (double) MILLIS_PER_SECOND / (now - lastTickAt);
+            throughput = throughput == 0 ? rate : SMOOTHING * rate + (1 - SMOOTHING) * throughput;
+        }
+        lastTickAt = now;
+        lastUploadedTotal = uploadedTotal;
+        long remaining = -uploadedTotal;
+        for (UploadJob job : pending) {
+            remaining += job.getSize();
+        }
+        for (UploadJob job : running.keySet()) {
+            remaining += job.getSize();
+        }
+        boolean held = playbackHolds > 0 || networkType == NetworkType.NONE;
+        Status current = new Status(pending.size(), running.size(), Math.max(0, remaining), (long) throughput, held);
+        if (!current.equals(status)) {
+            status = current;
+            notifyListeners(listener -> listener.onStatusChanged(current));
+        }
+    }
+
+    private long uploadedTotal() {
+        long total = 0;
+        for (AtomicLong uploaded : progress.values()) {
+            total += uploaded.get();
+        }
+        return total;
+    }
+
+    private void notifyListeners(ListenerAction action) {
+        final Listener[] snapshot = listeners;
+        if (snapshot.length == 0) {
+            return;
+        }
+        handler.post(() -> {
+            for (Listener listener : snapshot) {
+                action.apply(listener);
+            }
+        });
+    }
+
+    private File jobFile(UploadJob job) {
+        return new File(queueDirectory, job.getId() + JOB_SUFFIX);
+    }
+
+    private interface ListenerAction {
+        void apply(Listener listener);
+    }
+
+    /**
+     * Receives queue status and job outcomes on the queue's handler.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the queue's depth, throughput or estimate changes.
+         * @param status New status
+         */
+        void onStatusChanged(@NonNull Status status);
+
+        /**
+         * Called when a job's object is complete in the bucket.
+         * @param job The finished job, now removed from the queue
+         * @param result Upload result
+         */
+        void onUploadComplete(@NonNull UploadJob job, @NonNull UploadResult result);
+
+        /**
+         * Called when a job has failed {@link #MAX_ATTEMPTS} times and is dropped.
+         * @param job The dropped job
+         * @param error The last failure
+         */
+        void onUploadFailed(@NonNull UploadJob job, @NonNull IOException error);
+    }
+
+    /**
+     * A snapshot of the queue.
+     */
+    public static final class Status {
+        private final int pendingCount;
+        private final int activeCount;
+        private final long remainingBytes;
+        private final long throughput;
+        private final boolean held;
+
+        Status(int pendingCount, int activeCount, long remainingBytes, long throughput, boolean held) {
+            this.pendingCount = pendingCount;
+            this.activeCount = activeCount;
+            this.remainingBytes = remainingBytes;
+            this.throughput = throughput;
+            this.held = held;
+        }
+
+        /**
+         * Get the number of jobs waiting to start.
+         * @return Waiting job count
+         */
+        public int getPendingCount() {
+            return pendingCount;
+        }
+
+        /**
+         * Get the number of jobs uploading now.
+         * @return Running job count
+         */
+        public int getActiveCount() {
+            return activeCount;
+        }
+
+        /**
+         * Get the bytes left to upload across all jobs.
+         * @return Remaining bytes
+         */
+        public long getRemainingBytes() {
+            return remainingBytes;
+        }
+
+        /**
+         * Get the smoothed combined upload rate.
+         * @return Bytes per second
+         */
+        public long getThroughput() {
+            return throughput;
+        }
+
+        /**
+         * Get the estimated time until the queue is empty, at the current throughput.
+         * @return Milliseconds, or -1 if nothing is uploading
+         */
+        public long getEtaMillis() {
+            return throughput <= 0 ? -1 : remainingBytes * MILLIS_PER_SECOND / throughput;
+        }
+
+        /**
+         * Whether uploads are held back by playback or by having no network.
+         * @return true if held
+         */
+        public boolean isHeld() {
+            return held;
+        }
+
+        @Override
+        public boolean equals(Object thatObject) {
+            if (this == thatObject) {
+                return true;
+            }
+            if (thatObject == null || getClass() != thatObject.getClass()) {
+                return false;
+            }
+            Status that = (Status) thatObject;
+            return pendingCount == that.pendingCount && activeCount == that.activeCount
+                    && remainingBytes == that.remainingBytes && throughput == that.throughput && held == that.held;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pendingCount, activeCount, remainingBytes, throughput, held);
+        }
+    }
+
+    /**
+     * Holds uploads back until closed.
+     */
+    public final class PlaybackHold implements AutoCloseable {
+        private boolean closed;
+
+        private PlaybackHold() { }
+
+        /**
+         * Release the hold. Closing twice has no effect.
+         */
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            dispatcher.execute(() -> {
+                playbackHolds--;
+                schedule();
+            });
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The outcome of a completed {@link MultipartUploader} upload.
+ */
+public final class UploadResult {
+
+    private final String eTag;
+    private final String checksum;
+    private final List<String> partChecksums;
+
+    UploadResult(@NonNull String eTag, @NonNull String checksum, @NonNull List<String> partChecksums) {
+        this.eTag = Objects.requireNonNull(eTag);
+        this.checksum = Objects.requireNonNull(checksum);
+        this.partChecksums = Objects.requireNonNull(partChecksums);
+    }
+
+    /**
+     * Get the uploaded object's ETag.
+     * @return ETag reported by S3
+     */
+    @NonNull
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * Get the whole-object checksum in S3's composite form: the base64 SHA-256 of the
+     * concatenated part digests, followed by a dash and the part count. It equals the
+     * {@code x-amz-checksum-sha256} S3 reports for the object.
+     * @return Composite SHA-256 checksum
+     */
+    @NonNull
+    public String getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Get the checksum of every part, in part number order.
+     * @return Base64 SHA-256 digests
+     */
+    @NonNull
+    public List<String> getPartChecksums() {
+        return partChecksums;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Progress of one multipart upload, persisted so that an interrupted upload resumes
+ * with the parts it has not finished.
+ *
+ * The source file's length and modification time are recorded too; if either changes,
+ * the saved parts no longer describe the file and the upload starts over.
+ */
+final class UploadState {
+
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "key";
+    private static final String PATH = "path";
+    private static final String LENGTH = "length";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String PART_SIZE = "partSize";
+    private static final String UPLOAD_ID = "uploadId";
+    private static final String PART_PREFIX = "part.";
+    private static final String CHECKSUM_PREFIX = "checksum.";
+
+    private final String bucket;
+    private final String key;
+    private final String path;
+    private final long length;
+    private final long lastModified;
+    private final long partSize;
+    private final String uploadId;
+    private final String[] partETags;
+    private final String[] partChecksums;
+
+    UploadState(@NonNull File source, @NonNull String bucket, @NonNull String key,
+                long partSize, @NonNull String uploadId) {
+        this(bucket, key, source.getAbsolutePath(), source.length(), source.lastModified(), partSize, uploadId);
+    }
+
+    private UploadState(String bucket, String key, String path, long length, long lastModified,
+                        long partSize, String uploadId) {
+        this.bucket = bucket;
+        this.key = key;
+        this.path = path;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.partSize = partSize;
+        this.uploadId = uploadId;
+        this.partETags = new String[partCount(length, partSize)];
+        this.partChecksums = new String[partETags.length];
+    }
+
+    /**
+     * Read saved state.
+     * @param stateFile File written by {@link #save(File)}
+     * @return The state, or null if there is none or it cannot be read
+     */
+    static UploadState load(@NonNull File stateFile) {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = new FileInputStream(stateFile)) {
+            properties.load(input);
+            UploadState state = new UploadState(properties.getProperty(BUCKET), properties.getProperty(KEY),
+                    properties.getProperty(PATH), Long.parseLong(properties.getProperty(LENGTH)),
+                    Long.parseLong(properties.getProperty(LAST_MODIFIED)),
+                    Long.parseLong(properties.getProperty(PART_SIZE)), properties.getProperty(UPLOAD_ID));
+            for (int index = 0; index < state.partETags.length; index++) {
+                state.partETags[index] = properties.getProperty(PART_PREFIX + index);
+                state.partChecksums[index] = properties.getProperty(CHECKSUM_PREFIX + index);
+                if (state.partETags[index] != null && state.partChecksums[index] == null) {
+                    // Without its checksum the part cannot join the object checksum; resend it.
+                    state.partETags[index] = null;
+                }
+            }
+            return state.uploadId == null ? null : state;
+        } catch (IOException | RuntimeException exception) {
+            // A torn or foreign file; the upload starts over.
+            return null;
+        }
+    }
+
+    /**
+     * Write the state, replacing the previous copy atomically.
+     * @param stateFile Destination file
+     * @throws IOException If the state cannot be written
+     */
+    synchronized void save(@NonNull File stateFile) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(BUCKET, bucket);
+        properties.setProperty(KEY, key);
+        properties.setProperty(PATH, path);
+        properties.setProperty(LENGTH, Long.toString(length));
+        properties.setProperty(LAST_MODIFIED, Long.toString(lastModified));
+        properties.setProperty(PART_SIZE, Long.toString(partSize));
+        properties.setProperty(UPLOAD_ID, uploadId);
+        for (int index = 0; index < partETags.length; index++) {
+            if (partETags[index] != null) {
+                properties.setProperty(PART_PREFIX + index, partETags[index]);
+                properties.setProperty(CHECKSUM_PREFIX + index, partChecksums[index]);
+            }
+        }
+        File temporary = new File(stateFile.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporary)) {
+            properties.store(output, null);
+            output.getFD().sync();
+        }
+        if (!temporary.renameTo(stateFile)) {
+            throw new IOException("Unable to replace upload state " + stateFile);
+        }
+    }
+
+    /**
+     * Whether this state describes uploading the given file, unchanged, to the given object.
+     * @param source Source file
+     * @param toBucket Destination bucket
+     * @param toKey Destination object key
+     * @return true if the saved parts can be reused
+     */
+    boolean matches(@NonNull File source, @NonNull String toBucket, @NonNull String toKey) {
+        return bucket.equals(toBucket) && key.equals(toKey) && path.equals(source.getAbsolutePath())
+                && length == source.length() && lastModified == source.lastModified();
+    }
+
+    String getBucket() {
+        return bucket;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getUploadId() {
+        return uploadId;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    long getPartSize() {
+        return partSize;
+    }
+
+    int getPartCount() {
+        return partETags.length;
+    }
+
+    long getPartLength(int index) {
+        return Math.min(partSize, length - index * partSize);
+    }
+
+    synchronized String getPartETag(int index) {
+        return partETags[index];
+    }
+
+    synchronized void setPart(int index, @NonNull String eTag, @NonNull String checksum) {
+        partETags[index] = eTag;
+        partChecksums[index] = checksum;
+    }
+
+    synchronized List<String> getPartETags() {
+        return Collections.unmodifiableList(Arrays.asList(partETags.clone()));
+    }
+
+    synchronized List<String> getPartChecksums() {
+        return Collections.unmodifiableList(Arrays.asList(partChecksums.clone()));
+    }
+
+    static int partCount(long length, long partSize) {
+        // Even an empty file is uploaded as one (empty) part.
+        return (int) Math.max(1, (length + partSize - 1) / partSize);
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.extended.video;
+
+import android.content.Context;
+import android.net.Uri;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.core.category.CategoryType;
+import com.amplifyframework.extended.video.resources.live.EgressType;
+import com.amplifyframework.extended.video.resources.live.LiveResource;
+import com.amplifyframework.extended.video.resources.ondemand.InputType;
+import com.amplifyframework.extended.video.resources.ondemand.OnDemandResource;
+import com.amplifyframework.extended.video.resources.ondemand.OutputType;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Looks resources up through a {@link VideoCategory} over a fake plugin, whose batch
+ * lookups are the interfaces' defaults.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class VideoCategoryTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+    private static final Object NOT_FOUND = new Object();
+
+    private final FakeVideoPlugin plugin = new FakeVideoPlugin();
+    private final AtomicInteger selections = new AtomicInteger();
+    private volatile boolean configured = true;
+    private VideoCategory category;
+
+    /**
+     * Creates a category whose plugin selection is counted, and throws as the real one does
+     * until the category is configured.
+     */
+    @Before
+    public void setUp() {
+        category = new VideoCategory(() -> {
+            selections.incrementAndGet();
+            if (!configured) {
+                throw new IllegalStateException("The video category is not configured.");
+            }
+            return plugin;
+        });
+    }
+
+    /**
+     * The plugin is selected on the first successful lookup and kept for every later one;
+     * a failed selection before configuration is not kept.
+     */
+    @Test
+    public void keepsFirstSelectedPlugin() {
+        configured = false;
+        try {
+            category.getLiveResource("news");
+            fail("Lookups should fail before the category is configured.");
+        } catch (IllegalStateException expected) {
+            // Nothing is kept.
+        }
+
+        configured = true;
+        assertSame(plugin.live.get("news"), category.getLiveResource("news"));
+        category.liveResources();
+        category.getOnDemandResource("clip");
+        category.getEgressPoints(Collections.singletonList("news"));
+        assertEquals(2, selections.get());
+    }
+
+    /**
+     * Batch lookups return what the single lookups find, keyed and ordered as requested,
+     * leaving out identifiers with no resource.
+     */
+    @Test
+    public void batchLookupsKeepRequestOrder() {
+        Map<String, LiveResource> live = category.getLiveResources(Arrays.asList("sports", "missing", "news"));
+        assertEquals(Arrays.asList("sports", "news"), new ArrayList<>(live.keySet()));
+        assertSame(plugin.live.get("sports"), live.get("sports"));
+
+        Map<String, OnDemandResource> onDemand = category.getOnDemandResources(Arrays.asList("trailer", "clip"));
+        assertEquals(Arrays.asList("trailer", "clip"), new ArrayList<>(onDemand.keySet()));
+
+        Map<String, Uri> egress = category.getEgressPoints(Arrays.asList("sports", "news", "missing"));
+        assertEquals(Arrays.asList("sports", "news"), new ArrayList<>(egress.keySet()));
+        assertEquals(Uri.parse("https://example.com/sports.m3u8"), egress.get("sports"));
+    }
+
+    /**
+     * Callback lookups deliver their results on the category's lookup thread.
+     * @throws InterruptedException if interrupted while waiting for the callbacks
+     */
+    @Test
+    public void asyncLookupsDeliverResults() throws InterruptedException {
+        BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+        BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+        category.getLiveResources(Arrays.asList("news", "sports"), found -> {
+            threads.add(Thread.currentThread().getName());
+            results.add(new ArrayList<>(found.keySet()));
+        }, results::add);
+        category.getOnDemandResource("missing", found -> results.add(found == null ? NOT_FOUND : found), results::add);
+
+        assertEquals(Arrays.asList("news", "sports"), results.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertEquals("amplify-video-lookup", threads.poll());
+        // A missing resource is a null result, not an error.
+        assertSame(NOT_FOUND, results.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * A plugin failure, or a lookup before configuration, reaches the error callback as a
+     * {@link VideoException} caused by the original failure.
+     * @throws InterruptedException if interrupted while waiting for the callbacks
+     */
+    @Test
+    public void asyncFailuresAreWrappedInVideoException() throws InterruptedException {
+        BlockingQueue<VideoException> errors = new LinkedBlockingQueue<>();
+        configured = false;
+        category.getEgressFor("news", uri -> fail("No plugin is configured."), errors::add);
+        VideoException unconfigured = errors.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(unconfigured);
+        assertEquals(IllegalStateException.class, unconfigured.getCause().getClass());
+
+        configured = true;
+        plugin.failure = new IllegalArgumentException("Resource store unavailable.");
+        category.liveResources(resources -> fail("The plugin failed."), errors::add);
+        VideoException failed = errors.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(failed);
+        assertEquals("Video resource lookup failed.", failed.getMessage());
+        assertSame(plugin.failure, failed.getCause());
+        assertNotNull(failed.getRecoverySuggestion());
+    }
+
+    /**
+     * A plugin with two live and two on-demand resources, implementing only the single
+     * lookups.
+     */
+    private static final class FakeVideoPlugin extends VideoPlugin<Void> {
+        private final Map<String, LiveResource> live = new LinkedHashMap<>();
+        private final Map<String, OnDemandResource> onDemand = new LinkedHashMap<>();
+        private volatile RuntimeException failure;
+
+        FakeVideoPlugin() {
+            for (String name : Arrays.asList("news", "sports")) {
+                Map<EgressType, String> egress = new EnumMap<>(EgressType.class);
+                egress.put(EgressType.HLS, "https://example.com/" + name + ".m3u8");
+                live.put(name, new LiveResource(name, egress));
+            }
+            for (String name : Arrays.asList("clip", "trailer")) {
+                Map<InputType, String> input = new EnumMap<>(InputType.class);
+                input.put(InputType.S3_BUCKET_NAME, "vod-input");
+                Map<OutputType, String> output = new EnumMap<>(OutputType.class);
+                output.put(OutputType.BASE_URL, "https://example.com");
+                onDemand.put(name, new OnDemandResource(name, input, output));
+            }
+        }
+
+        @NonNull
+        @Override
+        public String getPluginKey() {
+            return "fakeVideoPlugin";
+        }
+
+        @Override
+        public void configure(JSONObject pluginConfiguration, @NonNull Context context) { }
+
+        @Override
+        public Void getEscapeHatch() {
+            return null;
+        }
+
+        @NonNull
+        @Override
+        public CategoryType getCategoryType() {
+            return CategoryType.API;
+        }
+
+        @Override
+        public Uri getEgressFor(String resourceName) {
+            LiveResource resource = getLiveResource(resourceName);
+            return resource == null ? null : Uri.parse(resource.getEgressPoint(EgressType.HLS));
+        }
+
+        @Override
+        public Collection<LiveResource> liveResources() {
+            check();
+            return live.values();
+        }
+
+        @Override
+        public LiveResource getLiveResource(String identifier) {
+            check();
+            return live.get(identifier);
+        }
+
+        @Override
+        public Collection<OnDemandResource> onDemandResources() {
+            check();
+            return onDemand.values();
+        }
+
+        @Override
+        public OnDemandResource getOnDemandResource(String identifier) {
+            check();
+            return onDemand.get(identifier);
+        }
+
+        private void check() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.egress;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+import com.amplifyframework.extended.video.resources.live.LiveResource;
+
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link CapabilityEgressPolicy} against fake capability tables.
+ */
+public final class CapabilityEgressPolicyTest {
+    private static final String AVC = "video/avc";
+    private static final String HEVC = "video/hevc";
+
+    /**
+     * A format the engine cannot read loses to one it can, whatever the preference.
+     */
+    @Test
+    public void prefersReadableContainer() {
+        CapabilityEgressPolicy policy = CapabilityEgressPolicy.builder()
+                .capabilities(CapabilityTable.builder()
+                        .container(EgressType.DASH)
+                        .decoder(AVC, DecoderSupport.HARDWARE)
+                        .build())
+                .preference(EgressType.HLS)
+                .build();
+        assertEquals(EgressType.DASH, policy.select(resource(EgressType.HLS, EgressType.DASH)));
+    }
+
+    /**
+     * Between readable formats, the one whose codec decodes in hardware wins.
+     */
+    @Test
+    public void prefersHardwareDecodedCodec() {
+        CapabilityEgressPolicy policy = CapabilityEgressPolicy.builder()
+                .capabilities(CapabilityTable.builder()
+                        .container(EgressType.HLS)
+                        .container(EgressType.DASH)
+                        .decoder(AVC, DecoderSupport.HARDWARE)
+                        .decoder(HEVC, DecoderSupport.SOFTWARE)
+                        .build())
+                .codec(EgressType.HLS, HEVC)
+                .build();
+        assertEquals(EgressType.DASH, policy.select(resource(EgressType.HLS, EgressType.DASH)));
+    }
+
+    /**
+     * A codec with no decoder at all ranks below software decoding.
+     */
+    @Test
+    public void softwareDecodingBeatsNone() {
+        CapabilityEgressPolicy policy = CapabilityEgressPolicy.builder()
+                .capabilities(CapabilityTable.builder()
+                        .container(EgressType.HLS)
+                        .container(EgressType.CMAF)
+                        .decoder(HEVC, DecoderSupport.SOFTWARE)
+                        .build())
+                .codec(EgressType.HLS, "video/av01")
+                .codec(EgressType.CMAF, HEVC)
+                .build();
+        assertEquals(EgressType.CMAF, policy.select(resource(EgressType.HLS, EgressType.CMAF)));
+    }
+
+    /**
+     * The app's preference breaks ties between equally capable formats.
+     */
+    @Test
+    public void preferenceBreaksTies() {
+        CapabilityTable table = CapabilityTable.builder()
+                .container(EgressType.HLS)
+                .container(EgressType.MEDIASTORE)
+                .decoder(AVC, DecoderSupport.HARDWARE)
+                .build();
+        LiveResource resource = resource(EgressType.HLS, EgressType.MEDIASTORE);
+        assertEquals(EgressType.HLS, CapabilityEgressPolicy.builder()
+                .capabilities(table).build().select(resource));
+        assertEquals(EgressType.MEDIASTORE, CapabilityEgressPolicy.builder()
+                .capabilities(table).preference(EgressType.MEDIASTORE).build().select(resource));
+    }
+
+    /**
+     * A resource whose formats are all unsupported still gets one, so the player can try.
+     */
+    @Test
+    public void unsupportedResourceStillGetsAnEgressPoint() {
+        CapabilityEgressPolicy policy = CapabilityEgressPolicy.builder()
+                .capabilities(CapabilityTable.builder().build())
+                .build();
+        assertEquals(EgressType.DASH, policy.select(resource(EgressType.MSS, EgressType.DASH)));
+    }
+
+    /**
+     * A resource without egress points gets none.
+     */
+    @Test
+    public void emptyResourceGetsNothing() {
+        CapabilityEgressPolicy policy = CapabilityEgressPolicy.builder()
+                .capabilities(CapabilityTable.builder().build())
+                .build();
+        assertNull(policy.select(resource()));
+    }
+
+    /**
+     * The default policy skips a format the platform player cannot read, where the old
+     * declaration order would have picked it.
+     */
+    @Test
+    public void defaultPolicySkipsFormatsThePlatformPlayerCannotRead() {
+        CapabilityEgressPolicy policy = CapabilityEgressPolicy.getDefault();
+        assertEquals(EgressType.MEDIASTORE, policy.select(resource(EgressType.DASH, EgressType.MEDIASTORE)));
+        assertEquals(EgressType.HLS, policy.select(resource(EgressType.CMAF, EgressType.HLS)));
+    }
+
+    /**
+     * Without declared codecs every format carries the same one, so decoders are never
+     * looked up.
+     */
+    @Test
+    public void undeclaredCodecsNeverQueryDecoders() {
+        CountingCapabilities capabilities = new CountingCapabilities(EgressType.HLS, EgressType.MEDIASTORE);
+        CapabilityEgressPolicy policy = CapabilityEgressPolicy.builder()
+                .capabilities(capabilities)
+                .preference(EgressType.MEDIASTORE)
+                .build();
+        assertEquals(EgressType.MEDIASTORE, policy.select(resource(EgressType.HLS, EgressType.MEDIASTORE)));
+        assertEquals(0, capabilities.decoderLookups.get());
+    }
+
+    /**
+     * Declared codecs are looked up once, on the first selection, and not per selection.
+     */
+    @Test
+    public void declaredCodecsAreLookedUpOnce() {
+        CountingCapabilities capabilities = new CountingCapabilities(EgressType.HLS, EgressType.CMAF);
+        CapabilityEgressPolicy policy = CapabilityEgressPolicy.builder()
+                .capabilities(capabilities)
+                .codec(EgressType.HLS, "video/av01")
+                .build();
+        assertEquals(0, capabilities.decoderLookups.get());
+
+        LiveResource resource = resource(EgressType.HLS, EgressType.CMAF);
+        assertEquals(EgressType.CMAF, policy.select(resource));
+        assertEquals(EgressType.CMAF, policy.select(resource));
+        assertEquals(EgressType.values().length, capabilities.decoderLookups.get());
+    }
+
+    private static LiveResource resource(EgressType... types) {
+        Map<EgressType, String> egress = new EnumMap<>(EgressType.class);
+        for (EgressType type : types) {
+            egress.put(type, "https://example.com/live/" + type.key());
+        }
+        return new LiveResource("channel", egress);
+    }
+
+    /**
+     * Reads the given containers and decodes only {@code video/avc}, in hardware, counting
+     * decoder lookups.
+     */
+    private static final class CountingCapabilities implements DeviceCapabilities {
+        private final AtomicInteger decoderLookups = new AtomicInteger();
+        private final DeviceCapabilities table;
+
+        CountingCapabilities(EgressType... containers) {
+            CapabilityTable.Builder builder = CapabilityTable.builder().decoder(AVC, DecoderSupport.HARDWARE);
+            for (EgressType type : containers) {
+                builder.container(type);
+            }
+            this.table = builder.build();
+        }
+
+        @Override
+        public boolean supportsContainer(@NonNull EgressType type) {
+            return table.supportsContainer(type);
+        }
+
+        @NonNull
+        @Override
+        public DecoderSupport getDecoderSupport(@NonNull String mimeType) {
+            decoderLookups.incrementAndGet();
+            return table.getDecoderSupport(mimeType);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.event;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link PlayerEventPipeline}'s counters, batching, shutdown, restart and producer
+ * binding.
+ */
+public final class PlayerEventPipelineTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    /**
+     * A full ring drops new events and counts them; the backlog and its high-water mark
+     * follow what was published and drained.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void countsDropsBacklogAndHighWaterMark() throws InterruptedException {
+        PlayerEventPipeline pipeline = new PlayerEventPipeline(4, () -> 0L);
+        for (int index = 0; index < 4; index++) {
+            assertTrue(pipeline.publish(PlayerEvent.Type.PLAY, index, 0, null));
+        }
+        assertFalse(pipeline.publish(PlayerEvent.Type.PLAY, 4, 0, null));
+        assertFalse(pipeline.publishTouch(0, 1f, 1f));
+        assertEquals(4, pipeline.getPublishedCount());
+        assertEquals(2, pipeline.getDroppedCount());
+        assertEquals(4, pipeline.getBacklog());
+        assertEquals(4, pipeline.getHighWaterMark());
+
+        pipeline.start();
+        awaitDelivered(pipeline, 4);
+        assertEquals(0, pipeline.getBacklog());
+        assertTrue(pipeline.publish(PlayerEvent.Type.PLAY, 5, 0, null));
+        awaitDelivered(pipeline, 5);
+        assertEquals(4, pipeline.getHighWaterMark());
+        assertEquals(2, pipeline.getDroppedCount());
+        pipeline.shutdown();
+    }
+
+    /**
+     * Events waiting when the worker starts are drained in order, in batches of at most 64,
+     * with a batch-end callback after each.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void drainsInOrderedBatches() throws InterruptedException {
+        PlayerEventPipeline pipeline = new PlayerEventPipeline(256, () -> 0L);
+        RecordingConsumer consumer = new RecordingConsumer(0);
+        pipeline.addConsumer(consumer);
+        for (int index = 0; index < 100; index++) {
+            pipeline.publish(PlayerEvent.Type.PLAY, index, 0, null);
+        }
+
+        pipeline.start();
+        awaitDelivered(pipeline, 100);
+        pipeline.shutdown();
+        assertEquals(2, pipeline.getBatchCount());
+        assertEquals(2, consumer.batchEnds.get());
+        assertEquals(sequence(100), consumer.positions());
+    }
+
+    /**
+     * Shutting down delivers the events already published, then tells each consumer once.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void shutdownDrainsBeforeNotifying() throws InterruptedException {
+        PlayerEventPipeline pipeline = new PlayerEventPipeline(256, () -> 0L);
+        RecordingConsumer consumer = new RecordingConsumer(1);
+        pipeline.addConsumer(consumer);
+        pipeline.start();
+        for (int index = 0; index < 20; index++) {
+            pipeline.publish(PlayerEvent.Type.PLAY, index, 0, null);
+        }
+        pipeline.shutdown();
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (consumer.shutdowns.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, consumer.shutdowns.get());
+        assertEquals(20, consumer.deliveredAtShutdown);
+    }
+
+    /**
+     * Starting again right after a shutdown, while the old worker is still draining, keeps
+     * to one consumer thread at a time and delivers every event once, in order.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void restartAfterShutdownDrainsOnOneThread() throws InterruptedException {
+        PlayerEventPipeline pipeline = new PlayerEventPipeline(256, () -> 0L);
+        RecordingConsumer consumer = new RecordingConsumer(1);
+        pipeline.addConsumer(consumer);
+        pipeline.start();
+        for (int index = 0; index < 50; index++) {
+            pipeline.publish(PlayerEvent.Type.PLAY, index, 0, null);
+        }
+        pipeline.shutdown();
+        pipeline.start();
+        for (int index = 50; index < 100; index++) {
+            pipeline.publish(PlayerEvent.Type.PLAY, index, 0, null);
+        }
+
+        awaitDelivered(pipeline, 100);
+        pipeline.shutdown();
+        assertEquals(1, consumer.maxConcurrent.get());
+        assertEquals(sequence(100), consumer.positions());
+    }
+
+    /**
+     * A pipeline bound to one player is refused to another until it is released.
+     */
+    @Test
+    public void refusesASecondProducer() {
+        PlayerEventPipeline pipeline = new PlayerEventPipeline();
+        VideoPlayer first = new IdlePlayer();
+        VideoPlayer second = new IdlePlayer();
+        pipeline.bindProducer(first);
+        pipeline.bindProducer(first);
+        try {
+            pipeline.bindProducer(second);
+            fail("A second player was bound.");
+        } catch (IllegalStateException expected) {
+            // Expected.
+        }
+        pipeline.unbindProducer(first);
+        pipeline.bindProducer(second);
+    }
+
+    private static void awaitDelivered(PlayerEventPipeline pipeline, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (pipeline.getDeliveredCount() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Delivered " + pipeline.getDeliveredCount() + " of " + count + " events.");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static List<Long> sequence(int count) {
+        List<Long> values = new ArrayList<>(count);
+        for (long value = 0; value < count; value++) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    private static final class RecordingConsumer extends PlayerEventPipeline.Consumer {
+        private final long delayMillis;
+        private final List<Long> positions = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final AtomicInteger batchEnds = new AtomicInteger();
+        private final AtomicInteger shutdowns = new AtomicInteger();
+        private volatile int deliveredAtShutdown;
+
+        RecordingConsumer(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void onEvent(@NonNull PlayerEvent event) {
+            int concurrent = inFlight.incrementAndGet();
+            maxConcurrent.accumulateAndGet(concurrent, Math::max);
+            positions.add(event.getPosition());
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            inFlight.decrementAndGet();
+        }
+
+        @Override
+        public void onBatchEnd() {
+            batchEnds.incrementAndGet();
+        }
+
+        @Override
+        public void onShutdown() {
+            deliveredAtShutdown = positions.size();
+            shutdowns.incrementAndGet();
+        }
+
+        List<Long> positions() {
+            synchronized (positions) {
+                return new ArrayList<>(positions);
+            }
+        }
+    }
+
+    private static final class IdlePlayer extends VideoPlayer {
+        @Override
+        public long getCurrentPosition() {
+            return 0;
+        }
+
+        @Override
+        public long getDuration() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.hls;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link HlsPlaylistLoader} against a local {@link MockWebServer}.
+ */
+public final class HlsPlaylistLoaderTest {
+    private static final String MASTER = "#EXTM3U\n"
+            + "#EXT-X-VERSION:3\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=2200000,RESOLUTION=1280x720\n"
+            + "channel_720p.m3u8\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360\n"
+            + "channel_360p.m3u8\n";
+    private static final String MEDIA = "#EXTM3U\n"
+            + "#EXT-X-VERSION:3\n"
+            + "#EXT-X-TARGETDURATION:7\n"
+            + "#EXT-X-MEDIA-SEQUENCE:15402\n"
+            + "#EXT-X-PROGRAM-DATE-TIME:2020-06-01T12:00:00.000Z\n"
+            + "#EXTINF:6.006,\nchannel_720p_15402.ts\n"
+            + "#EXTINF:6.006,\nchannel_720p_15403.ts\n"
+            + "#EXTINF:6.006,\nchannel_720p_15404.ts\n"
+            + "#EXTINF:6.006,\nchannel_720p_15405.ts\n"
+            + "#EXTINF:6.006,\nchannel_720p_15406.ts\n";
+
+    private MockWebServer server;
+
+    /**
+     * Starts a local origin.
+     * @throws IOException if the server cannot start
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    /**
+     * Stops the origin.
+     * @throws IOException if the server cannot stop
+     */
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * A media playlist is downloaded and parsed, with segment URIs resolved against its URL
+     * and program date-times carried forward from segment to segment.
+     * @throws IOException if loading fails
+     */
+    @Test
+    public void loadsMediaPlaylist() throws IOException {
+        server.enqueue(new MockResponse().setBody(MEDIA));
+        String url = server.url("/out/v1/channel_720p.m3u8").toString();
+
+        HlsPlaylist playlist = new HlsPlaylistLoader().loadMediaPlaylist(url);
+
+        assertFalse(playlist.isMaster());
+        assertEquals(5, playlist.getSegmentCount());
+        assertEquals(15_406, playlist.getLastMediaSequence());
+        assertEquals(7_000, playlist.getTargetDurationMillis());
+        assertEquals(server.url("/out/v1/channel_720p_15404.ts").toString(), playlist.getSegmentUri(2));
+        assertEquals(1_591_012_800_000L + 2 * 6_006, playlist.getProgramDateTime(2));
+    }
+
+    /**
+     * Loading a master playlist as a media playlist follows its first variant.
+     * @throws IOException if loading fails
+     * @throws InterruptedException if interrupted while reading the recorded requests
+     */
+    @Test
+    public void followsFirstVariantOfMaster() throws IOException, InterruptedException {
+        server.enqueue(new MockResponse().setBody(MASTER));
+        server.enqueue(new MockResponse().setBody(MEDIA));
+
+        HlsPlaylist playlist = new HlsPlaylistLoader().loadMediaPlaylist(server.url("/out/v1/index.m3u8").toString());
+
+        assertEquals(5, playlist.getSegmentCount());
+        assertEquals("/out/v1/index.m3u8", takePath());
+        assertEquals("/out/v1/channel_720p.m3u8", takePath());
+    }
+
+    /**
+     * Non-ASCII URIs are decoded as UTF-8.
+     * @throws IOException if loading fails
+     */
+    @Test
+    public void decodesUtf8() throws IOException {
+        server.enqueue(new MockResponse().setBody("#EXTM3U\n#EXT-X-TARGETDURATION:6\n#EXTINF:6.0,\ncaf\u00e9.ts\n"));
+
+        HlsPlaylist playlist = new HlsPlaylistLoader().load(server.url("/live.m3u8").toString());
+
+        assertTrue(playlist.getSegmentUri(0).endsWith("caf\u00e9.ts"));
+    }
+
+    /**
+     * An error status is reported as an I/O error rather than parsed.
+     */
+    @Test
+    public void errorStatusFails() {
+        server.enqueue(new MockResponse().setResponseCode(403).setBody("Forbidden"));
+        try {
+            new HlsPlaylistLoader().load(server.url("/live.m3u8").toString());
+            fail("Expected an IOException.");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("403"));
+        }
+    }
+
+    /**
+     * A body which is not a playlist is reported as an I/O error.
+     */
+    @Test(expected = IOException.class)
+    public void malformedPlaylistFails() throws IOException {
+        server.enqueue(new MockResponse().setBody("#EXTM3U\n#EXT-X-TARGETDURATION:six\n"));
+        new HlsPlaylistLoader().load(server.url("/live.m3u8").toString());
+    }
+
+    private String takePath() throws InterruptedException {
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        return request == null ? null : request.getPath();
+    }
+}
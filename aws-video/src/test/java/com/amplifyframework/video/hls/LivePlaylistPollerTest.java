@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.hls;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link LivePlaylistPoller} against a local {@link MockWebServer} whose media
+ * playlist gains a segment on every download.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class LivePlaylistPollerTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+    private static final String MASTER = "#EXTM3U\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=2200000,RESOLUTION=1280x720\n"
+            + "720p.m3u8\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360\n"
+            + "360p.m3u8\n";
+
+    private final AtomicInteger masterLoads = new AtomicInteger();
+    private final AtomicInteger mediaLoads = new AtomicInteger();
+    private MockWebServer server;
+    private LivePlaylistPoller poller;
+
+    /**
+     * Starts the origin and a poller of its own.
+     * @throws IOException if the server cannot start
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                if ("/master.m3u8".equals(request.getPath())) {
+                    masterLoads.incrementAndGet();
+                    return new MockResponse().setBody(MASTER);
+                }
+                return new MockResponse().setBody(playlist(100 + mediaLoads.getAndIncrement()));
+            }
+        });
+        server.start();
+        poller = new LivePlaylistPoller(new HlsPlaylistLoader());
+    }
+
+    /**
+     * Stops the origin.
+     * @throws IOException if the server cannot stop
+     */
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Two subscribers to one URL cost one download per refresh, and both receive the same
+     * playlist instance from it; the second starts from the latest playlist rather than
+     * downloading its own.
+     * @throws InterruptedException if interrupted while waiting for playlists
+     */
+    @Test
+    public void twoSubscribersShareOnePoll() throws InterruptedException {
+        BlockingQueue<HlsPlaylist> first = new LinkedBlockingQueue<>();
+        BlockingQueue<HlsPlaylist> second = new LinkedBlockingQueue<>();
+        String url = server.url("/live.m3u8").toString();
+
+        LivePlaylistPoller.Subscription one = poller.subscribe(url, first::add);
+        HlsPlaylist initial = take(first);
+        LivePlaylistPoller.Subscription two = poller.subscribe(url, second::add);
+        assertSame(initial, take(second));
+        assertEquals(1, server.getRequestCount());
+
+        HlsPlaylist refreshed = take(first);
+        assertSame(refreshed, take(second));
+        assertEquals(105, refreshed.getLastMediaSequence());
+        assertEquals(2, server.getRequestCount());
+        assertEquals(2, poller.getLoadCount());
+        assertEquals(1, poller.getFollowedCount());
+
+        one.close();
+        two.close();
+    }
+
+    /**
+     * Polling continues while any subscriber remains and stops once the last one closes.
+     * @throws InterruptedException if interrupted while waiting for playlists
+     */
+    @Test
+    public void closingLastSubscriberStopsPolling() throws InterruptedException {
+        BlockingQueue<HlsPlaylist> first = new LinkedBlockingQueue<>();
+        BlockingQueue<HlsPlaylist> second = new LinkedBlockingQueue<>();
+        String url = server.url("/live.m3u8").toString();
+        LivePlaylistPoller.Subscription one = poller.subscribe(url, first::add);
+        LivePlaylistPoller.Subscription two = poller.subscribe(url, second::add);
+        take(first);
+        take(second);
+
+        one.close();
+        one.close();
+        take(second);
+        assertEquals(1, poller.getFollowedCount());
+
+        two.close();
+        assertEquals(0, poller.getFollowedCount());
+        int requests = server.getRequestCount();
+        Thread.sleep(2_500);
+        assertEquals(requests, server.getRequestCount());
+        assertNull(first.poll());
+    }
+
+    /**
+     * A master playlist is downloaded once; refreshes poll its default variant, and every
+     * subscriber can see the master it came from.
+     * @throws InterruptedException if interrupted while waiting for playlists
+     */
+    @Test
+    public void masterIsDownloadedOnce() throws InterruptedException {
+        BlockingQueue<HlsPlaylist> first = new LinkedBlockingQueue<>();
+        BlockingQueue<HlsPlaylist> second = new LinkedBlockingQueue<>();
+        String url = server.url("/master.m3u8").toString();
+        LivePlaylistPoller.Subscription one = poller.subscribe(url, first::add);
+        take(first);
+        LivePlaylistPoller.Subscription two = poller.subscribe(url, second::add);
+        take(second);
+        take(first);
+        take(second);
+
+        assertEquals(1, masterLoads.get());
+        assertEquals(2, mediaLoads.get());
+        assertEquals(server.url("/720p.m3u8").toString(), variantOf(one));
+        assertEquals(server.url("/720p.m3u8").toString(), variantOf(two));
+        one.close();
+        two.close();
+    }
+
+    private static String variantOf(LivePlaylistPoller.Subscription subscription) {
+        HlsPlaylist master = subscription.getMasterPlaylist();
+        assertNotNull(master);
+        return master.getVariantUri(0);
+    }
+
+    private static HlsPlaylist take(BlockingQueue<HlsPlaylist> playlists) throws InterruptedException {
+        HlsPlaylist playlist = playlists.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(playlist);
+        return playlist;
+    }
+
+    private static String playlist(long mediaSequence) {
+        StringBuilder body = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n#EXT-X-TARGETDURATION:1\n")
+                .append("#EXT-X-MEDIA-SEQUENCE:").append(mediaSequence).append('\n');
+        for (long sequence = mediaSequence; sequence < mediaSequence + 5; sequence++) {
+            body.append("#EXTINF:1.0,\nsegment_").append(sequence).append(".ts\n");
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.hls;
+
+import android.net.Uri;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the playable copies a {@link ManifestCache} writes from master playlists fetched
+ * from a local {@link MockWebServer}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class ManifestCacheTest {
+    private static final long TIMEOUT_SECONDS = 5;
+    private static final String MASTER = "#EXTM3U\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=2200000,RESOLUTION=1280x720\n"
+            + "720p.m3u8\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360\n"
+            + "360p.m3u8\n";
+
+    /**
+     * Holds the cache directory.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private ManifestCache cache;
+
+    /**
+     * Starts a local origin and an empty cache.
+     * @throws IOException if the server cannot start
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        cache = new ManifestCache(folder.newFolder());
+    }
+
+    /**
+     * Stops the origin.
+     * @throws IOException if the server cannot stop
+     */
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * The copy of a cached master playlist is written when a playback asks for it, with
+     * its variants as the origin listed them, resolved against the URL being played.
+     * @throws Exception Not expected
+     */
+    @Test
+    public void playableCopyResolvesAgainstCurrentUrl() throws Exception {
+        server.enqueue(new MockResponse().setBody(MASTER.replace("720p.m3u8", "720p.m3u8?sig=old")));
+        cache.load(server.url("/live/master.m3u8?sig=old").toString());
+
+        // A later playback under a new signature, while the origin is still being revalidated.
+        server.enqueue(new MockResponse().setResponseCode(304));
+        Uri source = playableSource(server.url("/live/master.m3u8?sig=new").toString());
+        assertNotNull(source);
+        String copy = read(source);
+        assertTrue(copy.contains(server.url("/live/720p.m3u8?sig=old").toString()));
+        assertTrue(copy.contains(server.url("/live/360p.m3u8").toString()));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    /**
+     * A filtered copy drops the variants not kept, with their URIs.
+     * @throws IOException Not expected
+     */
+    @Test
+    public void filteredCopyKeepsOnlySelectedVariants() throws IOException {
+        String url = server.url("/live/master.m3u8").toString();
+        server.enqueue(new MockResponse().setBody(MASTER));
+        cache.load(url);
+
+        String copy = read(cache.getPlayableSource(url, new boolean[] {false, true}));
+        assertFalse(copy.contains("720p.m3u8"));
+        assertTrue(copy.contains(server.url("/live/360p.m3u8").toString()));
+    }
+
+    /**
+     * Entries are keyed by a hash; a URL whose hash collides with a cached one finds no copy
+     * rather than playing the other URL's playlist.
+     * @throws Exception Not expected
+     */
+    @Test
+    public void hashCollisionFindsNoCopy() throws Exception {
+        // "Aa" and "BB" have the same String hash code.
+        server.enqueue(new MockResponse().setBody(MASTER));
+        cache.load(server.url("/Aa").toString());
+
+        server.enqueue(new MockResponse().setResponseCode(404));
+        assertNull(playableSource(server.url("/BB").toString()));
+        assertNull(cache.getPlayableSource(server.url("/BB").toString(), new boolean[] {true, true}));
+    }
+
+    private Uri playableSource(String url) throws InterruptedException {
+        AtomicReference<Uri> result = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        cache.getPlayableSource(url, source -> {
+            result.set(source);
+            done.countDown();
+        });
+        assertTrue("Timed out waiting for the playable copy.", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private static String read(Uri source) throws IOException {
+        try (InputStream input = new FileInputStream(new File(source.getPath()))) {
+            return HlsPlaylistLoader.readText(input);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link LogHistogram}.
+ */
+public final class LogHistogramTest {
+    private static final double MAX_RELATIVE_ERROR = 1.0 / 8;
+
+    /**
+     * An empty histogram reports zero for every statistic.
+     */
+    @Test
+    public void emptyHistogramReportsZero() {
+        LogHistogram histogram = new LogHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    /**
+     * Values below the first sub-bucket boundary are recorded exactly.
+     */
+    @Test
+    public void smallValuesAreExact() {
+        LogHistogram histogram = new LogHistogram();
+        for (long value = 0; value < 8; value++) {
+            histogram.record(value);
+        }
+        assertEquals(3, histogram.getPercentile(50));
+        assertEquals(7, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0));
+        assertEquals(3.5, histogram.getMean(), 0);
+    }
+
+    /**
+     * Percentiles of a uniform distribution stay within the bucket resolution of the
+     * exact answer, and the extremes are exact.
+     */
+    @Test
+    public void percentilesOfUniformValuesAreWithinBucketResolution() {
+        LogHistogram histogram = new LogHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0);
+        assertWithinResolution(500, histogram.getPercentile(50));
+        assertWithinResolution(950, histogram.getPercentile(95));
+        assertWithinResolution(990, histogram.getPercentile(99));
+        assertEquals(1000, histogram.getPercentile(100));
+        assertEquals(1, histogram.getPercentile(0));
+    }
+
+    /**
+     * A single outlier shows up in the top percentile but not the median.
+     */
+    @Test
+    public void outlierOnlyMovesTheTail() {
+        LogHistogram histogram = new LogHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(20);
+        }
+        histogram.record(60_000);
+        assertWithinResolution(20, histogram.getPercentile(50));
+        assertWithinResolution(20, histogram.getPercentile(99));
+        assertEquals(60_000, histogram.getPercentile(100));
+    }
+
+    /**
+     * Negative values are clamped to zero.
+     */
+    @Test
+    public void negativeValuesRecordAsZero() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMean(), 0);
+    }
+
+    /**
+     * Reset discards every recorded value.
+     */
+    @Test
+    public void resetDiscardsValues() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    /**
+     * Percentiles outside [0, 100] are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPercentileAboveHundred() {
+        new LogHistogram().getPercentile(100.5);
+    }
+
+    /**
+     * Every value falls in a bucket whose upper bound is at least the value and no more
+     * than the bucket resolution above it, up to the largest long.
+     */
+    @Test
+    public void bucketsCoverTheWholeRange() {
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            long upper = LogHistogram.bucketUpperBound(LogHistogram.bucketIndex(value));
+            assertTrue("upper bound below " + value, upper >= value);
+            assertWithinResolution(value, upper);
+        }
+        assertEquals(Long.MAX_VALUE, LogHistogram.bucketUpperBound(LogHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    private static void assertWithinResolution(long expected, long actual) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue("expected ~" + expected + " but was " + actual, error <= MAX_RELATIVE_ERROR);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link QoeCollector} against a fake clock.
+ */
+public final class QoeCollectorTest {
+    private AtomicLong now;
+    private QoeCollector collector;
+
+    /**
+     * Creates a collector whose clock only moves when a test advances it.
+     */
+    @Before
+    public void setUp() {
+        now = new AtomicLong(10_000);
+        collector = new QoeCollector(now::get);
+    }
+
+    /**
+     * Time to first frame is measured from the attach, once per attach.
+     */
+    @Test
+    public void measuresTimeToFirstFrameOncePerAttach() {
+        collector.onAttach();
+        now.addAndGet(250);
+        assertEquals(250, collector.onFirstFrame());
+        now.addAndGet(100);
+        assertEquals(-1, collector.onFirstFrame());
+
+        collector.onAttach();
+        now.addAndGet(400);
+        assertEquals(400, collector.onFirstFrame());
+        assertEquals(2, collector.getTimeToFirstFrame().getCount());
+        assertEquals(400, collector.getTimeToFirstFrame().getMax());
+    }
+
+    /**
+     * Buffering before the first frame is startup; only later buffering counts as rebuffering.
+     */
+    @Test
+    public void startupBufferingIsNotARebuffer() {
+        collector.onAttach();
+        collector.onStateChange(VideoPlayer.State.BUFFERING);
+        now.addAndGet(2_000);
+        collector.onFirstFrame();
+        collector.onStateChange(VideoPlayer.State.PLAYING);
+        now.addAndGet(3_000);
+        collector.onStateChange(VideoPlayer.State.BUFFERING);
+        now.addAndGet(1_000);
+        collector.onStateChange(VideoPlayer.State.PLAYING);
+
+        assertEquals(1, collector.getRebufferCount());
+        assertEquals(1, collector.getRebufferDuration().getCount());
+        assertEquals(1_000, collector.getRebufferDuration().getMax());
+        assertEquals(0.25, collector.getRebufferRatio(), 1e-9);
+    }
+
+    /**
+     * A rebuffer still in progress counts toward the ratio.
+     */
+    @Test
+    public void ongoingRebufferCountsTowardRatio() {
+        collector.onAttach();
+        collector.onFirstFrame();
+        collector.onStateChange(VideoPlayer.State.PLAYING);
+        now.addAndGet(1_000);
+        collector.onStateChange(VideoPlayer.State.BUFFERING);
+        now.addAndGet(1_000);
+        assertEquals(0.5, collector.getRebufferRatio(), 1e-9);
+        assertEquals(0, collector.getRebufferDuration().getCount());
+    }
+
+    /**
+     * Time in state includes the current stay.
+     */
+    @Test
+    public void timeInStateIncludesCurrentStay() {
+        collector.onStateChange(VideoPlayer.State.PLAYING);
+        now.addAndGet(700);
+        collector.onStateChange(VideoPlayer.State.READY);
+        now.addAndGet(300);
+        collector.onStateChange(VideoPlayer.State.PLAYING);
+        now.addAndGet(200);
+        assertEquals(900, collector.getTimeInState(VideoPlayer.State.PLAYING));
+        assertEquals(300, collector.getTimeInState(VideoPlayer.State.READY));
+    }
+
+    /**
+     * Seek latency is measured from request to completion.
+     */
+    @Test
+    public void measuresSeekLatency() {
+        collector.onSeekStart();
+        now.addAndGet(180);
+        collector.onSeekComplete();
+        collector.onSeekComplete();
+        assertEquals(1, collector.getSeekLatency().getCount());
+        assertEquals(180, collector.getSeekLatency().getMax());
+    }
+
+    /**
+     * Reset discards collected metrics but keeps the current state.
+     */
+    @Test
+    public void resetKeepsCurrentState() {
+        collector.onReconnect();
+        collector.onStateChange(VideoPlayer.State.PLAYING);
+        now.addAndGet(500);
+        collector.reset();
+        now.addAndGet(100);
+        assertEquals(0, collector.getReconnectCount());
+        assertEquals(100, collector.getTimeInState(VideoPlayer.State.PLAYING));
+    }
+}
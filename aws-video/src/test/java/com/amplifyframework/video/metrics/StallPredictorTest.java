@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link StallPredictor}.
+ */
+public final class StallPredictorTest {
+    private static final long HORIZON = 4_000;
+
+    /**
+     * A buffer draining at playback speed with nothing arriving is predicted to run dry
+     * inside the horizon, and the warning is raised only once.
+     */
+    @Test
+    public void predictsDrainingBufferOnce() {
+        StallPredictor predictor = new StallPredictor(HORIZON);
+        long predicted = -1;
+        long predictedAtBuffer = -1;
+        for (int second = 0; second <= 10; second++) {
+            long bufferAhead = 10_000 - second * 1_000;
+            long result = predictor.sample(second * 1_000, bufferAhead, -1);
+            if (result >= 0) {
+                assertEquals("predicted twice", -1, predicted);
+                predicted = result;
+                predictedAtBuffer = bufferAhead;
+            }
+        }
+        assertTrue(predicted > 0 && predicted <= HORIZON);
+        // The true time to stall equals the buffer left; smoothing may only overestimate it.
+        assertTrue(predicted >= predictedAtBuffer);
+        assertEquals(1, predictor.getPredictionCount());
+    }
+
+    /**
+     * A buffer that holds steady never raises a prediction.
+     */
+    @Test
+    public void steadyBufferIsNotPredicted() {
+        StallPredictor predictor = new StallPredictor(HORIZON);
+        for (int second = 0; second < 30; second++) {
+            assertEquals(-1, predictor.sample(second * 1_000, 8_000, second * 1_000_000L));
+        }
+        assertEquals(0, predictor.getPredictionCount());
+    }
+
+    /**
+     * Throughput below the stream bitrate for consecutive samples predicts a stall even
+     * when the buffer level is unknown.
+     */
+    @Test
+    public void slowThroughputPredictsWithoutBufferLevel() {
+        StallPredictor predictor = new StallPredictor(HORIZON);
+        predictor.setStreamBitrate(8_000_000);
+        assertEquals(-1, predictor.sample(0, -1, 0));
+        assertEquals(-1, predictor.sample(1_000, -1, 500_000));
+        assertEquals(HORIZON, predictor.sample(2_000, -1, 1_000_000));
+        assertEquals(500_000, predictor.getThroughput());
+    }
+
+    /**
+     * Throughput above the stream bitrate does not predict a stall.
+     */
+    @Test
+    public void fastThroughputIsNotPredicted() {
+        StallPredictor predictor = new StallPredictor(HORIZON);
+        predictor.setStreamBitrate(1_000_000);
+        for (int second = 0; second < 10; second++) {
+            assertEquals(-1, predictor.sample(second * 1_000, -1, second * 250_000L));
+        }
+    }
+
+    /**
+     * Reset re-arms the predictor so the next stall is predicted again.
+     */
+    @Test
+    public void resetRearms() {
+        StallPredictor predictor = new StallPredictor(HORIZON);
+        predictor.setStreamBitrate(8_000_000);
+        predictor.sample(0, -1, 0);
+        predictor.sample(1_000, -1, 100_000);
+        assertTrue(predictor.sample(2_000, -1, 200_000) >= 0);
+        assertEquals(-1, predictor.sample(3_000, -1, 300_000));
+
+        predictor.reset();
+        predictor.sample(4_000, -1, 400_000);
+        predictor.sample(5_000, -1, 500_000);
+        assertTrue(predictor.sample(6_000, -1, 600_000) >= 0);
+        assertEquals(2, predictor.getPredictionCount());
+    }
+
+    /**
+     * Replays a bandwidth trace through a simple player model: 20 s at twice the stream
+     * bitrate, then a drop to half of it, with other app traffic on the same counter. The
+     * predictor stays quiet while healthy and warns once, within the horizon but at least
+     * a second before the buffer actually runs dry.
+     */
+    @Test
+    public void traceDrivenBandwidthDrop() {
+        final long bitrate = 2_000_000;
+        final long interval = 500;
+        final long maxBufferAhead = 30_000;
+        final long backgroundBytesPerSecond = 4_000;
+        StallPredictor predictor = new StallPredictor(HORIZON);
+        predictor.setStreamBitrate(bitrate);
+
+        double bufferAhead = 8_000;
+        long receivedBytes = 0;
+        long predictedAt = -1;
+        long predictedTimeToStall = -1;
+        long stalledAt = -1;
+        for (long now = 0; now <= 120_000 && stalledAt < 0; now += interval) {
+            long result = predictor.sample(now, (long) bufferAhead, receivedBytes);
+            if (result >= 0) {
+                assertEquals("predicted twice", -1, predictedAt);
+                predictedAt = now;
+                predictedTimeToStall = result;
+            }
+            long throughput = now < 20_000 ? bitrate * 2 : bitrate / 2;
+            long downloaded = bufferAhead < maxBufferAhead ? throughput * interval / 1_000 / 8 : 0;
+            receivedBytes += downloaded + backgroundBytesPerSecond * interval / 1_000;
+            bufferAhead += downloaded * 8_000.0 / bitrate - interval;
+            if (bufferAhead <= 0) {
+                stalledAt = now + interval;
+            }
+        }
+
+        assertTrue("never stalled", stalledAt > 0);
+        assertTrue("predicted while healthy: " + predictedAt, predictedAt >= 20_000);
+        long lead = stalledAt - predictedAt;
+        assertTrue("lead " + lead, lead >= 1_000 && lead <= HORIZON + interval);
+        assertTrue("estimate " + predictedTimeToStall, Math.abs(predictedTimeToStall - lead) <= 1_000);
+        assertEquals(1, predictor.getPredictionCount());
+    }
+
+    /**
+     * The horizon must be positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveHorizon() {
+        new StallPredictor(0);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.signing;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SignedUrlCache} against a fake clock and a scripted signer. Signing
+ * runs on the cache's own thread, so results are awaited with a timeout.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class SignedUrlCacheTest {
+    private static final String URL = "https://example.com/video/master.m3u8";
+    private static final long VALID_FOR_MILLIS = 300_000;
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final AtomicInteger signCalls = new AtomicInteger();
+    private final BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+    private volatile RuntimeException nextBug;
+
+    private SignedUrlCache cache;
+
+    /**
+     * Creates a cache whose signer appends a counter to the URL, or throws
+     * {@link #nextBug} once when it is set.
+     */
+    @Before
+    public void setUp() {
+        cache = new SignedUrlCache(url -> {
+            int call = signCalls.incrementAndGet();
+            RuntimeException bug = nextBug;
+            if (bug != null) {
+                nextBug = null;
+                throw bug;
+            }
+            return new SignedUrl(url + "?sig=" + call, VALID_FOR_MILLIS);
+        }, now::get, SignedUrlCache.DEFAULT_REFRESH_MARGIN_MILLIS);
+    }
+
+    /**
+     * A miss signs once; the next lookup is served from memory.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void signsOnceThenHits() throws InterruptedException {
+        cache.get(URL, new Collector());
+        assertEquals(URL + "?sig=1", nextResult());
+
+        cache.get(URL, new Collector());
+        assertEquals(URL + "?sig=1", nextResult());
+        assertEquals(1, signCalls.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * A signer throwing an unchecked exception fails the waiting request instead of leaving
+     * it, and every later request, waiting forever; the next request signs again.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void signerBugFailsWaitersAndAllowsRetry() throws InterruptedException {
+        IllegalStateException bug = new IllegalStateException("No key loaded.");
+        nextBug = bug;
+        cache.get(URL, new Collector());
+        Object failure = nextResult();
+        assertTrue(failure instanceof IOException);
+        assertEquals(bug, ((IOException) failure).getCause());
+
+        cache.get(URL, new Collector());
+        assertEquals(URL + "?sig=2", nextResult());
+        assertEquals(2, cache.getSigningCount());
+    }
+
+    private Object nextResult() throws InterruptedException {
+        Object result = results.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull("Timed out waiting for a signature.", result);
+        return result;
+    }
+
+    private final class Collector implements SignedUrlCache.Callback {
+        @Override
+        public void onSigned(@NonNull String signedUrl) {
+            results.add(signedUrl);
+        }
+
+        @Override
+        public void onError(@NonNull IOException error) {
+            results.add(error);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.media.MediaPlayer;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+import com.amplifyframework.extended.video.resources.live.LiveResource;
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.metrics.PlaybackTracer;
+import com.amplifyframework.video.metrics.StallPredictor;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Drives an {@link AWSLiveVideoPlayer} through a {@link FakePlaybackEngine} on virtual time,
+ * with its HLS egress point served by a local {@link MockWebServer}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class AWSLiveVideoPlayerTest {
+    private static final TimeSource CLOCK = SystemClock::uptimeMillis;
+    private static final long RECONNECT_DELAY = 3_000;
+    private static final String LIVE_PLAYLIST = "#EXTM3U\n"
+            + "#EXT-X-VERSION:3\n"
+            + "#EXT-X-TARGETDURATION:6\n"
+            + "#EXT-X-MEDIA-SEQUENCE:100\n"
+            + "#EXTINF:6.000,\nsegment100.ts\n"
+            + "#EXTINF:6.000,\nsegment101.ts\n"
+            + "#EXTINF:6.000,\nsegment102.ts\n"
+            + "#EXTINF:6.000,\nsegment103.ts\n"
+            + "#EXTINF:4.000,\nsegment104.ts\n";
+
+    private static final String MASTER_PLAYLIST = "#EXTM3U\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=2200000,RESOLUTION=1280x720\n"
+            + "720p.m3u8\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360\n"
+            + "360p.m3u8\n";
+
+    private MockWebServer server;
+    private FakePlaybackEngine engine;
+    private AWSLiveVideoPlayer player;
+
+    /**
+     * Starts a local HLS origin and creates a player over a fake engine on the main looper,
+     * whose clock is virtual.
+     * @throws IOException if the server cannot start
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        engine = new FakePlaybackEngine(CLOCK);
+        player = new AWSLiveVideoPlayer(engine, new Handler(Looper.getMainLooper()), CLOCK);
+        player.setEgressPolicy(resource -> EgressType.HLS);
+        player.setReconnectDelay(RECONNECT_DELAY);
+    }
+
+    /**
+     * Stops following the playlist before the origin goes away.
+     * @throws IOException if the server cannot stop
+     */
+    @After
+    public void tearDown() throws IOException {
+        player.setLiveEdgeTrackingEnabled(false);
+        server.shutdown();
+    }
+
+    /**
+     * Attaching connects to the HLS egress point and the first frame starts playback.
+     */
+    @Test
+    public void attachConnectsToHlsEgress() {
+        startPlaying();
+
+        assertEquals(Uri.parse(streamUrl()), engine.getSource());
+        assertEquals(VideoPlayer.State.PLAYING, player.getState());
+        assertEquals(1, engine.getPreparedSources().size());
+    }
+
+    /**
+     * The egress policy's choice is traced as egress selection; the configuration lookup
+     * only covers reading the resource's egress points.
+     */
+    @Test
+    public void egressChoiceIsTracedAsSelection() {
+        long choiceMillis = 50;
+        player.setEgressPolicy(resource -> {
+            try {
+                Thread.sleep(choiceMillis);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return EgressType.HLS;
+        });
+        PlaybackTracer tracer = player.getTracer();
+        tracer.setEnabled(true);
+        startPlaying();
+
+        long choiceNanos = TimeUnit.MILLISECONDS.toNanos(choiceMillis);
+        assertTrue(tracer.getLastDurationNanos(PlaybackTracer.Span.EGRESS_SELECTION) >= choiceNanos);
+        assertTrue(tracer.getLastDurationNanos(PlaybackTracer.Span.CONFIGURATION_LOOKUP) < choiceNanos);
+    }
+
+    /**
+     * A playback rate set on the player, e.g. by a sync group, is applied again to the
+     * stream after a reconnect, and position estimates keep following it.
+     */
+    @Test
+    public void reconnectKeepsThePlaybackRate() {
+        startPlaying();
+        assertTrue(player.setPlaybackRate(1.05f));
+        engine.raiseError(MediaPlayer.MEDIA_ERROR_UNKNOWN, MediaPlayer.MEDIA_ERROR_IO);
+        idleFor(RECONNECT_DELAY);
+        assertEquals(1f, engine.getPlaybackRate(), 0f);
+
+        engine.finishPreparing();
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START, 0);
+        assertEquals(VideoPlayer.State.PLAYING, player.getState());
+        assertEquals(1.05f, engine.getPlaybackRate(), 0f);
+        idleFor(1_000);
+        assertEquals(engine.getCurrentPosition(), player.getCurrentPosition());
+    }
+
+    /**
+     * An I/O error moves the player into buffering at once, and re-prepares the stream
+     * exactly one reconnect delay later, not before.
+     */
+    @Test
+    public void ioErrorReconnectsAfterDelay() {
+        startPlaying();
+        engine.raiseError(MediaPlayer.MEDIA_ERROR_UNKNOWN, MediaPlayer.MEDIA_ERROR_IO);
+        assertEquals(VideoPlayer.State.BUFFERING, player.getState());
+
+        idleFor(RECONNECT_DELAY - 1);
+        assertEquals(1, engine.getPreparedSources().size());
+        assertEquals(0, player.getQoeMetrics().getReconnectCount());
+
+        idleFor(1);
+        assertEquals(2, engine.getPreparedSources().size());
+        assertEquals(Uri.parse(streamUrl()), engine.getSource());
+        assertEquals(1, player.getQoeMetrics().getReconnectCount());
+        assertEquals(VideoPlayer.State.BUFFERING, player.getState());
+    }
+
+    /**
+     * A reconnect that fails with another I/O error schedules the next attempt one delay
+     * after that error; once a frame renders, the player leaves buffering and stops retrying.
+     */
+    @Test
+    public void failedReconnectRetriesUntilFrameRenders() {
+        startPlaying();
+        engine.raiseError(MediaPlayer.MEDIA_ERROR_UNKNOWN, MediaPlayer.MEDIA_ERROR_IO);
+        idleFor(RECONNECT_DELAY);
+        idleFor(500);
+        engine.raiseError(MediaPlayer.MEDIA_ERROR_UNKNOWN, MediaPlayer.MEDIA_ERROR_IO);
+
+        idleFor(RECONNECT_DELAY - 1);
+        assertEquals(2, engine.getPreparedSources().size());
+        idleFor(1);
+        assertEquals(3, engine.getPreparedSources().size());
+
+        engine.finishPreparing();
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START, 0);
+        assertEquals(VideoPlayer.State.PLAYING, player.getState());
+        idleFor(RECONNECT_DELAY * 2);
+        assertEquals(3, engine.getPreparedSources().size());
+        assertEquals(2, player.getQoeMetrics().getReconnectCount());
+    }
+
+    /**
+     * A buffering stall schedules a reconnect, which a rendered frame cancels if playback
+     * recovers within the delay. The stall counts as one rebuffer of its virtual duration.
+     */
+    @Test
+    public void recoveredStallCancelsReconnect() {
+        startPlaying();
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_BUFFERING_START, 0);
+        assertEquals(VideoPlayer.State.BUFFERING, player.getState());
+
+        idleFor(RECONNECT_DELAY / 2);
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START, 0);
+        assertEquals(VideoPlayer.State.PLAYING, player.getState());
+        idleFor(RECONNECT_DELAY * 2);
+
+        assertEquals(1, engine.getPreparedSources().size());
+        assertEquals(0, player.getQoeMetrics().getReconnectCount());
+        assertEquals(1, player.getQoeMetrics().getRebufferCount());
+        assertEquals(RECONNECT_DELAY / 2, player.getQoeMetrics().getRebufferDuration().getMax());
+    }
+
+    /**
+     * Repeated stall signals replace the pending attempt rather than stacking: one reconnect
+     * fires, one delay after the last signal.
+     */
+    @Test
+    public void repeatedStallsReplacePendingReconnect() {
+        startPlaying();
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_BUFFERING_START, 0);
+        idleFor(RECONNECT_DELAY - 1_000);
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_BUFFERING_START, 0);
+        idleFor(RECONNECT_DELAY - 1);
+        assertEquals(1, engine.getPreparedSources().size());
+
+        idleFor(1);
+        assertEquals(2, engine.getPreparedSources().size());
+        idleFor(RECONNECT_DELAY * 2);
+        assertEquals(2, engine.getPreparedSources().size());
+    }
+
+    /**
+     * With tracking on, the player downloads the live playlist from the origin and, once
+     * playback starts, locates the edge from the segment three behind the newest one, where
+     * the platform client starts.
+     * @throws InterruptedException if interrupted while waiting for the playlist
+     */
+    @Test
+    public void tracksLiveEdgeFromOrigin() throws InterruptedException {
+        player.setLiveEdgeTrackingEnabled(true);
+        startPlaying();
+
+        RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals("/live/index.m3u8", request.getPath());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (player.getLiveEdgeDistance() < 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(22_000, player.getLiveEdgeDistance());
+
+        assertTrue(player.skipToLive());
+        assertEquals(18_000L, (long) engine.getSeeks().get(engine.getSeeks().size() - 1));
+    }
+
+    /**
+     * With tracking on, a stalled origin shows up as the content ahead of the playhead
+     * draining: the stall is predicted once it is within the predictor's horizon, and not
+     * before.
+     * @throws InterruptedException if interrupted while waiting for the playlist
+     */
+    @Test
+    public void stalledOriginPredictsStall() throws InterruptedException {
+        player.setLiveEdgeTrackingEnabled(true);
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                boolean master = "/live/index.m3u8".equals(request.getPath());
+                return new MockResponse().setBody(master ? MASTER_PLAYLIST : LIVE_PLAYLIST);
+            }
+        });
+        player.attach(resource());
+        engine.finishPreparing();
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START, 0);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (player.getLiveEdgeDistance() < 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(22_000, player.getLiveEdgeDistance());
+
+        // No new segments arrive; the edge distance drains at playback speed.
+        idleFor(22_000 - StallPredictor.DEFAULT_HORIZON_MILLIS - 1_000);
+        assertEquals(0, player.getStallPredictor().getPredictionCount());
+        idleFor(1_500);
+        assertEquals(1, player.getStallPredictor().getPredictionCount());
+    }
+
+    private void startPlaying() {
+        for (int request = 0; request < 8; request++) {
+            server.enqueue(new MockResponse().setBody(LIVE_PLAYLIST));
+        }
+        player.attach(resource());
+        engine.finishPreparing();
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START, 0);
+    }
+
+    private String streamUrl() {
+        return server.url("/live/index.m3u8").toString();
+    }
+
+    private LiveResource resource() {
+        Map<EgressType, String> egress = new EnumMap<>(EgressType.class);
+        egress.put(EgressType.HLS, streamUrl());
+        egress.put(EgressType.DASH, server.url("/live/index.mpd").toString());
+        return new LiveResource("live", egress);
+    }
+
+    private static void idleFor(long millis) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(millis));
+    }
+}
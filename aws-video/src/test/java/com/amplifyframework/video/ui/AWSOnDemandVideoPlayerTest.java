@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.media.MediaPlayer;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.ondemand.InputType;
+import com.amplifyframework.extended.video.resources.ondemand.OnDemandResource;
+import com.amplifyframework.extended.video.resources.ondemand.OutputType;
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.event.PlayerEventPipeline;
+import com.amplifyframework.video.metrics.TimeSource;
+import com.amplifyframework.video.upload.MultipartTransport;
+import com.amplifyframework.video.upload.MultipartUploader;
+import com.amplifyframework.video.upload.UploadQueue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Drives an {@link AWSOnDemandVideoPlayer} through a {@link FakePlaybackEngine}, with no view.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class AWSOnDemandVideoPlayerTest {
+    private static final String BASE_URL = "https://d111111abcdef8.cloudfront.net";
+    private static final TimeSource CLOCK = SystemClock::uptimeMillis;
+
+    /**
+     * Provides an upload queue's directories.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakePlaybackEngine engine;
+    private AWSOnDemandVideoPlayer player;
+
+    /**
+     * Creates a player over a fake engine on the main looper, whose clock is virtual.
+     */
+    @Before
+    public void setUp() {
+        engine = new FakePlaybackEngine(CLOCK);
+        player = new AWSOnDemandVideoPlayer(engine, new Handler(Looper.getMainLooper()), CLOCK);
+    }
+
+    /**
+     * Attaching prepares the resource's output URL headlessly; once prepared, the player is
+     * ready and autoplay starts the engine.
+     */
+    @Test
+    public void attachPreparesAndAutoplays() {
+        player.attach(resource(), "clip/clip.m3u8");
+        assertEquals(Uri.parse(BASE_URL + "/clip/clip.m3u8"), engine.getSource());
+        assertEquals(VideoPlayer.State.PREPARING, player.getState());
+
+        engine.finishPreparing();
+        assertEquals(VideoPlayer.State.READY, player.getState());
+        assertTrue(engine.isPlaying());
+    }
+
+    /**
+     * The first rendered frame moves the player to playing and records the time to first
+     * frame on the player's clock.
+     */
+    @Test
+    public void firstFrameRecordsTimeToFirstFrame() {
+        player.attach(resource());
+        idleFor(400);
+        engine.finishPreparing();
+        idleFor(100);
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START, 0);
+
+        assertEquals(VideoPlayer.State.PLAYING, player.getState());
+        assertEquals(500, player.getQoeMetrics().getTimeToFirstFrame().getMax());
+    }
+
+    /**
+     * The duration is read from the engine once the source is prepared, from the first
+     * query on.
+     */
+    @Test
+    public void durationIsReadFromTheEngine() {
+        engine.setDuration(60_000);
+        player.attach(resource());
+        engine.finishPreparing();
+        assertEquals(60_000, player.getDuration());
+    }
+
+    /**
+     * Buffering info events move the player into and out of buffering and count a rebuffer.
+     */
+    @Test
+    public void bufferingEventsRoundTrip() {
+        startPlaying();
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_BUFFERING_START, 0);
+        assertEquals(VideoPlayer.State.BUFFERING, player.getState());
+        idleFor(750);
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_BUFFERING_END, 0);
+
+        assertEquals(VideoPlayer.State.PLAYING, player.getState());
+        assertEquals(1, player.getQoeMetrics().getRebufferCount());
+        assertEquals(750, player.getQoeMetrics().getRebufferDuration().getMax());
+    }
+
+    /**
+     * Pausing and seeking reach the engine, and the position follows the engine's clock.
+     */
+    @Test
+    public void pauseAndSeekReachTheEngine() {
+        engine.setDuration(60_000);
+        startPlaying();
+        idleFor(2_000);
+        assertEquals(2_000, engine.getCurrentPosition());
+
+        player.pause();
+        assertFalse(engine.isPlaying());
+        player.seekTo(30_000);
+        engine.finishSeek();
+
+        assertEquals(30_000L, (long) engine.getSeeks().get(engine.getSeeks().size() - 1));
+        assertEquals(30_000, player.getCurrentPosition());
+    }
+
+    /**
+     * An event pipeline serves one player. Releasing the player stops its publishing and
+     * frees the pipeline for another player.
+     */
+    @Test
+    public void releaseFreesTheEventPipeline() {
+        PlayerEventPipeline pipeline = new PlayerEventPipeline(PlayerEventPipeline.DEFAULT_CAPACITY, CLOCK);
+        player.setEventPipeline(pipeline);
+        AWSOnDemandVideoPlayer other =
+                new AWSOnDemandVideoPlayer(new FakePlaybackEngine(CLOCK), new Handler(Looper.getMainLooper()), CLOCK);
+        try {
+            other.setEventPipeline(pipeline);
+            fail("The pipeline was set on a second player.");
+        } catch (IllegalStateException expected) {
+            // Expected.
+        }
+
+        startPlaying();
+        long published = pipeline.getPublishedCount();
+        assertTrue(published > 0);
+        player.release();
+        player.pause();
+        assertEquals(published, pipeline.getPublishedCount());
+        other.setEventPipeline(pipeline);
+    }
+
+    /**
+     * A player given an upload queue holds its uploads back from preparing until paused,
+     * and again from resuming until released.
+     * @throws Exception if the queue cannot be created or waiting is interrupted
+     */
+    @Test
+    public void playbackHoldsUploadsBack() throws Exception {
+        MultipartUploader uploader = MultipartUploader.builder()
+                .transport(new NoTransport())
+                .stateDirectory(folder.newFolder("state"))
+                .build();
+        UploadQueue queue = new UploadQueue(uploader, folder.newFolder("queue"), new Handler(Looper.getMainLooper()));
+        player.setUploadQueue(queue);
+        awaitHeld(queue, false);
+
+        startPlaying();
+        awaitHeld(queue, true);
+        player.pause();
+        awaitHeld(queue, false);
+        player.play();
+        awaitHeld(queue, true);
+        player.release();
+        awaitHeld(queue, false);
+        uploader.shutdown();
+    }
+
+    private static void awaitHeld(UploadQueue queue, boolean held) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (queue.getStatus().isHeld() != held && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(held, queue.getStatus().isHeld());
+    }
+
+    private void startPlaying() {
+        player.attach(resource());
+        engine.finishPreparing();
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START, 0);
+    }
+
+    private static void idleFor(long millis) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(millis));
+    }
+
+    private static OnDemandResource resource() {
+        Map<InputType, String> input = new EnumMap<>(InputType.class);
+        input.put(InputType.S3_BUCKET_NAME, "vod-input");
+        Map<OutputType, String> output = new EnumMap<>(OutputType.class);
+        output.put(OutputType.S3_BUCKET_NAME, "vod-output");
+        output.put(OutputType.BASE_URL, BASE_URL);
+        return new OnDemandResource("vod", input, output);
+    }
+
+    /**
+     * A transport for a queue which never uploads.
+     */
+    private static final class NoTransport implements MultipartTransport {
+        @NonNull
+        @Override
+        public String initiate(@NonNull String bucket, @NonNull String key) throws IOException {
+            throw new IOException("No uploads in this test.");
+        }
+
+        @NonNull
+        @Override
+        public String uploadPart(@NonNull String bucket, @NonNull String key, @NonNull String uploadId,
+                                 int partNumber, @NonNull ByteBuffer data, @NonNull String checksum)
+                throws IOException {
+            throw new IOException("No uploads in this test.");
+        }
+
+        @NonNull
+        @Override
+        public String complete(@NonNull String bucket, @NonNull String key, @NonNull String uploadId,
+                               @NonNull List<String> partETags, @NonNull List<String> partChecksums)
+                throws IOException {
+            throw new IOException("No uploads in this test.");
+        }
+
+        @Override
+        public void abort(@NonNull String bucket, @NonNull String key, @NonNull String uploadId) throws IOException {
+            throw new IOException("No uploads in this test.");
+        }
+    }
+}
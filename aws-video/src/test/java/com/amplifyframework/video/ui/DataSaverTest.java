@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.ui;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.ondemand.InputType;
+import com.amplifyframework.extended.video.resources.ondemand.OnDemandResource;
+import com.amplifyframework.extended.video.resources.ondemand.OutputType;
+import com.amplifyframework.video.hls.ManifestCache;
+import com.amplifyframework.video.metrics.TimeSource;
+import com.amplifyframework.video.upload.NetworkType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Plays on-demand HLS through a {@link DataSaver} and a {@link ManifestCache} fed by a local
+ * {@link MockWebServer}, with a {@link FakePlaybackEngine} in place of the media player.
+ * The cache and the data saver work on their own threads, so results handed back to the
+ * main looper are awaited with a real-time deadline.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class DataSaverTest {
+    private static final TimeSource CLOCK = SystemClock::uptimeMillis;
+    private static final long TIMEOUT_MILLIS = 5_000;
+    private static final String MASTER = "#EXTM3U\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=4000000,RESOLUTION=1920x1080\n"
+            + "1080p.m3u8\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360\n"
+            + "360p.m3u8\n";
+
+    /**
+     * Holds the manifest cache.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private FakePlaybackEngine engine;
+    private AWSOnDemandVideoPlayer player;
+    private DataSaver dataSaver;
+
+    /**
+     * Starts an origin serving one master playlist, and a player capped by the default
+     * policy on a metered network.
+     * @throws IOException if the server or the cache directory cannot be set up
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                return "/vod/clip.m3u8".equals(request.getPath())
+                        ? new MockResponse().setBody(MASTER)
+                        : new MockResponse().setResponseCode(404);
+            }
+        });
+        server.start();
+        engine = new FakePlaybackEngine(CLOCK);
+        player = new AWSOnDemandVideoPlayer(engine, new Handler(Looper.getMainLooper()), CLOCK);
+        player.setManifestCache(new ManifestCache(folder.newFolder()));
+        dataSaver = new DataSaver(DataSaverPolicy.getDefault());
+        player.setDataSaver(dataSaver);
+    }
+
+    /**
+     * Stops the origin.
+     * @throws IOException if the server cannot stop
+     */
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * On a metered network the player is given a local master playlist without the
+     * renditions above the bitrate cap.
+     * @throws Exception Not expected
+     */
+    @Test
+    public void meteredNetworkPlaysCappedCopy() throws Exception {
+        player.attach(resource(), "clip.m3u8");
+        awaitMainLooper(() -> engine.getSource() != null);
+
+        String played = read(engine.getSource());
+        assertFalse(played.contains("1080p.m3u8"));
+        assertTrue(played.contains(server.url("/vod/360p.m3u8").toString()));
+    }
+
+    /**
+     * A network change leaves the session in progress alone and applies from the next attach.
+     * @throws Exception Not expected
+     */
+    @Test
+    public void networkChangeAppliesFromNextAttach() throws Exception {
+        player.attach(resource(), "clip.m3u8");
+        awaitMainLooper(() -> engine.getSource() != null);
+        engine.finishPreparing();
+        Uri capped = engine.getSource();
+
+        dataSaver.setNetworkType(NetworkType.UNMETERED);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(1, engine.getPreparedSources().size());
+        assertEquals(capped, engine.getSource());
+
+        player.attach(resource(), "clip.m3u8");
+        awaitMainLooper(() -> engine.getPreparedSources().size() == 2);
+        assertTrue(read(engine.getSource()).contains(server.url("/vod/1080p.m3u8").toString()));
+    }
+
+    /**
+     * Manifest prefetching warms only as many manifests as the network's limit allows.
+     */
+    @Test
+    public void prefetchesManifestsUpToTheLimit() {
+        ManifestCache cache = new ManifestCache(new File(folder.getRoot(), "prefetch"));
+        List<String> urls = Arrays.asList(server.url("/vod/clip.m3u8").toString(),
+                server.url("/vod/other.m3u8").toString());
+
+        assertEquals(DataSaverPolicy.DEFAULT_METERED_MAX_MANIFEST_PREFETCH, dataSaver.getManifestPrefetchLimit());
+        assertEquals(1, dataSaver.prefetchManifests(cache, urls));
+        dataSaver.setNetworkType(NetworkType.NONE);
+        assertEquals(0, dataSaver.prefetchManifests(cache, urls));
+    }
+
+    // Sleeps on the real clock; SystemClock.sleep would advance the player's virtual clock.
+    private static void awaitMainLooper(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        shadowOf(Looper.getMainLooper()).idle();
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        assertTrue("Timed out waiting for the main looper.", condition.getAsBoolean());
+    }
+
+    private static String read(Uri source) throws IOException {
+        try (InputStream input = new FileInputStream(new File(source.getPath()));
+                Scanner scanner = new Scanner(input, "UTF-8")) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+
+    private OnDemandResource resource() {
+        Map<InputType, String> input = new EnumMap<>(InputType.class);
+        input.put(InputType.S3_BUCKET_NAME, "vod-input");
+        Map<OutputType, String> output = new EnumMap<>(OutputType.class);
+        output.put(OutputType.S3_BUCKET_NAME, "vod-output");
+        output.put(OutputType.BASE_URL, server.url("/vod").toString());
+        return new OnDemandResource("vod", input, output);
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.ui;
+
+import android.net.Uri;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.ui.PlaybackEngine;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A scriptable {@link PlaybackEngine} which plays nothing. Tests decide when a source
+ * finishes preparing and which info, error, seek and completion events the engine raises,
+ * the way a {@link android.media.MediaPlayer} would. While playing, the position advances
+ * with a {@link TimeSource}, so a virtual clock drives it deterministically.
+ */
+public final class FakePlaybackEngine implements PlaybackEngine {
+
+    private final TimeSource clock;
+    private final List<Uri> preparedSources = new ArrayList<>();
+    private final List<Long> seeks = new ArrayList<>();
+    private Callback callback;
+    private boolean prepared;
+    private boolean playing;
+    private boolean startWhenPrepared;
+    private boolean released;
+    private boolean rateSupported = true;
+    private float rate = 1f;
+    private long anchorPosition;
+    private long anchorTime;
+    private long duration = -1;
+    private int bufferPercentage;
+    private int startCount;
+    private int pauseCount;
+
+    /**
+     * Create an engine whose position advances with the given clock while playing.
+     * @param clock Clock shared with the player under test
+     */
+    public FakePlaybackEngine(@NonNull TimeSource clock) {
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    @Override
+    public void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    @Override
+    public void prepare(@NonNull Uri source) {
+        checkNotReleased();
+        preparedSources.add(Objects.requireNonNull(source));
+        prepared = false;
+        playing = false;
+        startWhenPrepared = false;
+        // Like a new MediaPlayer, a new source plays at normal speed.
+        rate = 1f;
+        anchor(0);
+    }
+
+    @Override
+    public void start() {
+        checkNotReleased();
+        startCount++;
+        if (!prepared) {
+            startWhenPrepared = true;
+        } else if (!playing) {
+            anchor(getCurrentPosition());
+            playing = true;
+        }
+    }
+
+    @Override
+    public void pause() {
+        pauseCount++;
+        startWhenPrepared = false;
+        if (playing) {
+            anchor(getCurrentPosition());
+            playing = false;
+        }
+    }
+
+    @Override
+    public void seekTo(long positionMillis) {
+        seeks.add(positionMillis);
+        anchor(positionMillis);
+    }
+
+    @Override
+    public boolean setPlaybackRate(float rate) {
+        if (!rateSupported || !playing) {
+            return false;
+        }
+        anchor(getCurrentPosition());
+        this.rate = rate;
+        return true;
+    }
+
+    @Override
+    public long getCurrentPosition() {
+        if (!prepared) {
+            return 0;
+        }
+        long position = anchorPosition;
+        if (playing) {
+            position += (long) ((clock.now() - anchorTime) * rate);
+        }
+        return duration >= 0 ? Math.min(position, duration) : position;
+    }
+
+    @Override
+    public long getDuration() {
+        return duration;
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    @Override
+    public int getBufferPercentage() {
+        return bufferPercentage;
+    }
+
+    @Override
+    public void release() {
+        released = true;
+        playing = false;
+        callback = null;
+    }
+
+    /**
+     * Finish preparing the current source, starting it if {@link #start()} was called
+     * while it prepared, and report it prepared.
+     */
+    public void finishPreparing() {
+        checkNotReleased();
+        prepared = true;
+        anchor(anchorPosition);
+        if (startWhenPrepared) {
+            startWhenPrepared = false;
+            playing = true;
+        }
+        if (callback != null) {
+            callback.onPrepared();
+        }
+    }
+
+    /**
+     * Raise an informational event, such as {@code MEDIA_INFO_BUFFERING_START}.
+     * @param what One of MediaPlayer's MEDIA_INFO_* codes
+     * @param extra Code-specific detail
+     * @return Whether the callback handled it
+     */
+    public boolean raiseInfo(int what, int extra) {
+        return callback != null && callback.onInfo(what, extra);
+    }
+
+    /**
+     * Fail playback, as MediaPlayer does on e.g. {@code MEDIA_ERROR_IO}: playback stops.
+     * @param what One of MediaPlayer's MEDIA_ERROR_* codes
+     * @param extra Code-specific detail
+     * @return Whether the callback handled it
+     */
+    public boolean raiseError(int what, int extra) {
+        if (playing) {
+            anchor(getCurrentPosition());
+            playing = false;
+        }
+        return callback != null && callback.onError(what, extra);
+    }
+
+    /**
+     * Report that the last requested seek completed.
+     */
+    public void finishSeek() {
+        if (callback != null) {
+            callback.onSeekComplete();
+        }
+    }
+
+    /**
+     * Play to the end of the source and report completion.
+     */
+    public void complete() {
+        anchor(duration >= 0 ? duration : getCurrentPosition());
+        playing = false;
+        if (callback != null) {
+            callback.onCompletion();
+        }
+    }
+
+    /**
+     * Set the duration reported for the current source.
+     * @param durationMillis Duration, or -1 for unknown, as for live streams
+     */
+    public void setDuration(long durationMillis) {
+        this.duration = durationMillis;
+    }
+
+    /**
+     * Set the buffered percentage reported.
+     * @param percent Percentage from 0 to 100
+     */
+    public void setBufferPercentage(int percent) {
+        this.bufferPercentage = percent;
+    }
+
+    /**
+     * Choose whether the engine accepts playback rate changes.
+     * @param supported false to behave like an engine before Android M
+     */
+    public void setRateSupported(boolean supported) {
+        this.rateSupported = supported;
+    }
+
+    /**
+     * Get the speed the engine plays at.
+     * @return Playback rate, where 1 is normal speed
+     */
+    public float getPlaybackRate() {
+        return rate;
+    }
+
+    /**
+     * Get every source prepared so far, oldest first.
+     * @return Prepared sources
+     */
+    @NonNull
+    public List<Uri> getPreparedSources() {
+        return Collections.unmodifiableList(preparedSources);
+    }
+
+    /**
+     * Get the source prepared last.
+     * @return The current source, or null if none was prepared
+     */
+    public Uri getSource() {
+        return preparedSources.isEmpty() ? null : preparedSources.get(preparedSources.size() - 1);
+    }
+
+    /**
+     * Get every seek target requested so far, oldest first.
+     * @return Seek targets in milliseconds
+     */
+    @NonNull
+    public List<Long> getSeeks() {
+        return Collections.unmodifiableList(seeks);
+    }
+
+    /**
+     * Whether the current source finished preparing.
+     * @return true once {@link #finishPreparing()} ran for it
+     */
+    public boolean isPrepared() {
+        return prepared;
+    }
+
+    /**
+     * Get the number of {@link #start()} calls.
+     * @return Start count
+     */
+    public int getStartCount() {
+        return startCount;
+    }
+
+    /**
+     * Get the number of {@link #pause()} calls.
+     * @return Pause count
+     */
+    public int getPauseCount() {
+        return pauseCount;
+    }
+
+    /**
+     * Whether {@link #release()} was called.
+     * @return true once released
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
+    private void anchor(long position) {
+        anchorPosition = position;
+        anchorTime = clock.now();
+    }
+
+    private void checkNotReleased() {
+        if (released) {
+            throw new IllegalStateException("Engine used after release.");
+        }
+    }
+}
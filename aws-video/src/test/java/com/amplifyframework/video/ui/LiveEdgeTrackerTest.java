@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.ui;
+
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.video.hls.LivePlaylistPoller;
+import com.amplifyframework.video.hls.HlsPlaylistLoader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Follows live playlists served from a local {@link MockWebServer} with a
+ * {@link LiveEdgeTracker}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class LiveEdgeTrackerTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+    private static final String MASTER = "#EXTM3U\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=2200000,RESOLUTION=1280x720\n"
+            + "720p.m3u8\n"
+            + "#EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360\n"
+            + "360p.m3u8\n";
+
+    private final BlockingQueue<String> playlists = new LinkedBlockingQueue<>();
+    private MockWebServer server;
+    private LiveEdgeTracker tracker;
+    private volatile String current;
+
+    /**
+     * Starts an origin which serves each queued playlist once, then repeats the last, and a
+     * tracker over a poller of its own.
+     * @throws IOException if the server cannot start
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                if ("/master.m3u8".equals(request.getPath())) {
+                    return new MockResponse().setBody(MASTER);
+                }
+                String next = playlists.poll();
+                if (next != null) {
+                    current = next;
+                }
+                return new MockResponse().setBody(current);
+            }
+        });
+        server.start();
+        tracker = new LiveEdgeTracker(new LivePlaylistPoller(new HlsPlaylistLoader()));
+    }
+
+    /**
+     * Stops following and stops the origin.
+     * @throws IOException if the server cannot stop
+     */
+    @After
+    public void tearDown() throws IOException {
+        tracker.stop();
+        server.shutdown();
+    }
+
+    /**
+     * In a playlist shaped like a packager's live output, position 0 is the start of the
+     * segment three behind the newest, where the platform client starts; the edge is the
+     * end of the newest segment.
+     * @throws InterruptedException if interrupted while waiting for the playlist
+     */
+    @Test
+    public void anchorsThreeSegmentsBehindNewest() throws InterruptedException {
+        playlists.add(playlist(15_402, 7, 6.006));
+        tracker.start(server.url("/out/v1/channel_720p.m3u8").toString());
+        tracker.onPlaybackStarted();
+
+        awaitDistance(0, 4 * 6_006);
+        assertEquals(3 * 6_006, tracker.getNewestSegmentStart());
+    }
+
+    /**
+     * A playlist shorter than the start offset anchors at its first segment.
+     * @throws InterruptedException if interrupted while waiting for the playlist
+     */
+    @Test
+    public void anchorsShortPlaylistAtFirstSegment() throws InterruptedException {
+        playlists.add(playlist(7, 2, 2.0));
+        tracker.start(server.url("/live.m3u8").toString());
+        tracker.onPlaybackStarted();
+
+        awaitDistance(0, 4_000);
+    }
+
+    /**
+     * Each refresh pushes the edge forward by the segments added since the last one, so
+     * the distance from a fixed position grows as the window slides.
+     * @throws InterruptedException if interrupted while waiting for the playlists
+     */
+    @Test
+    public void edgeAdvancesAsWindowSlides() throws InterruptedException {
+        playlists.add(playlist(100, 5, 1.0));
+        playlists.add(playlist(102, 5, 1.0));
+        tracker.start(server.url("/live.m3u8").toString());
+        tracker.onPlaybackStarted();
+
+        awaitDistance(0, 4_000);
+        // The poller refreshes once per target duration: about a second here.
+        awaitDistance(0, 6_000);
+        assertEquals(5_000, tracker.getNewestSegmentStart());
+        assertEquals(1_000, tracker.getDistanceToEdge(5_000));
+    }
+
+    /**
+     * A master playlist is followed through its default variant, and its lowest rendition
+     * bitrate is reported for stall prediction.
+     * @throws InterruptedException if interrupted while waiting for the playlists
+     */
+    @Test
+    public void followsMasterAndReportsLowestBitrate() throws InterruptedException {
+        playlists.add(playlist(100, 5, 1.0));
+        tracker.start(server.url("/master.m3u8").toString());
+        tracker.onPlaybackStarted();
+
+        awaitDistance(0, 4_000);
+        assertEquals(800_000, tracker.getLowestVariantBandwidth());
+        assertEquals(server.url("/720p.m3u8").toString(), tracker.getPlaylist().getUrl());
+    }
+
+    /**
+     * Stopping forgets the edge.
+     * @throws InterruptedException if interrupted while waiting for the playlist
+     */
+    @Test
+    public void stopForgetsEdge() throws InterruptedException {
+        playlists.add(playlist(100, 5, 1.0));
+        tracker.start(server.url("/live.m3u8").toString());
+        tracker.onPlaybackStarted();
+        awaitDistance(0, 4_000);
+
+        tracker.stop();
+        assertEquals(-1, tracker.getDistanceToEdge(0));
+        assertEquals(-1, tracker.getNewestSegmentStart());
+    }
+
+    private void awaitDistance(long position, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (tracker.getDistanceToEdge(position) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, tracker.getDistanceToEdge(position));
+    }
+
+    private static String playlist(long mediaSequence, int segments, double segmentSeconds) {
+        StringBuilder body = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n")
+                .append("#EXT-X-TARGETDURATION:").append((long) Math.ceil(segmentSeconds)).append('\n')
+                .append("#EXT-X-MEDIA-SEQUENCE:").append(mediaSequence).append('\n');
+        for (long sequence = mediaSequence; sequence < mediaSequence + segments; sequence++) {
+            body.append("#EXTINF:").append(segmentSeconds).append(",\nsegment_").append(sequence).append(".ts\n");
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.ui;
+
+import android.media.MediaPlayer;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.extended.video.resources.live.EgressType;
+import com.amplifyframework.extended.video.resources.live.LiveResource;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Aligns live players in a {@link LiveSyncGroup} by the program date-times of playlists
+ * served from a local {@link MockWebServer}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class LiveSyncGroupTest {
+    private static final TimeSource CLOCK = SystemClock::uptimeMillis;
+    private static final String HEADER = "#EXTM3U\n#EXT-X-TARGETDURATION:6\n#EXT-X-MEDIA-SEQUENCE:100\n";
+
+    private MockWebServer server;
+    private Handler handler;
+
+    /**
+     * Starts an origin serving one camera angle at {@code /a.m3u8}, the same event two
+     * seconds later at {@code /b.m3u8}, and a stream without program date-times at
+     * {@code /plain.m3u8}.
+     * @throws IOException if the server cannot start
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                switch (String.valueOf(request.getPath())) {
+                    case "/a.m3u8":
+                        return new MockResponse().setBody(playlist("2020-06-01T12:00:00.000Z"));
+                    case "/b.m3u8":
+                        return new MockResponse().setBody(playlist("2020-06-01T12:00:02.000Z"));
+                    case "/plain.m3u8":
+                        return new MockResponse().setBody(playlist(null));
+                    default:
+                        return new MockResponse().setResponseCode(404);
+                }
+            }
+        });
+        server.start();
+        handler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Stops the origin.
+     * @throws IOException if the server cannot stop
+     */
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Position 0 of each player lies at the program date-time of the segment it started
+     * from, so a follower whose content is two seconds later is measured two seconds ahead
+     * and slowed down.
+     * @throws InterruptedException if interrupted while waiting for the playlists
+     */
+    @Test
+    public void alignsByProgramDateTime() throws InterruptedException {
+        AWSLiveVideoPlayer leader = startPlaying("/a.m3u8");
+        AWSLiveVideoPlayer follower = startPlaying("/b.m3u8");
+        awaitOffset(leader);
+        awaitOffset(follower);
+        // The players start three segments behind the newest: at the second of five.
+        assertEquals(1_591_012_806_000L, leader.getProgramDateTimeOffset());
+        assertEquals(1_591_012_808_000L, follower.getProgramDateTimeOffset());
+
+        LiveSyncGroup group = new LiveSyncGroup(handler);
+        group.add(leader);
+        group.add(follower);
+        group.start();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        LiveSyncGroup.Stats stats = group.getStats(follower);
+        assertEquals(2_000, stats.getLastDriftMillis());
+        assertEquals(1f - LiveSyncGroup.DEFAULT_MAX_RATE_ADJUSTMENT, stats.getCurrentRate(), 0f);
+        assertEquals(1, stats.getCorrectionCount());
+        group.stop();
+        release(leader, follower);
+    }
+
+    /**
+     * A follower whose stream carries no program date-time is never measured or corrected.
+     * @throws InterruptedException if interrupted while waiting for the playlists
+     */
+    @Test
+    public void skipsMembersWithoutProgramDateTime() throws InterruptedException {
+        AWSLiveVideoPlayer leader = startPlaying("/a.m3u8");
+        AWSLiveVideoPlayer follower = startPlaying("/plain.m3u8");
+        awaitOffset(leader);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (follower.getLiveEdgeDistance() < 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(follower.getLiveEdgeDistance() >= 0);
+        assertEquals(-1, follower.getProgramDateTimeOffset());
+
+        LiveSyncGroup group = new LiveSyncGroup(handler);
+        group.add(leader);
+        group.add(follower);
+        group.start();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        LiveSyncGroup.Stats stats = group.getStats(follower);
+        assertEquals(0, stats.getAbsoluteDrift().getCount());
+        assertEquals(0, stats.getCorrectionCount());
+        group.stop();
+        release(leader, follower);
+    }
+
+    private AWSLiveVideoPlayer startPlaying(String path) {
+        FakePlaybackEngine engine = new FakePlaybackEngine(CLOCK);
+        AWSLiveVideoPlayer player = new AWSLiveVideoPlayer(engine, handler, CLOCK);
+        player.setEgressPolicy(resource -> EgressType.HLS);
+        player.setLiveEdgeTrackingEnabled(true);
+        Map<EgressType, String> egress = Collections.singletonMap(EgressType.HLS, server.url(path).toString());
+        player.attach(new LiveResource(path, egress));
+        engine.finishPreparing();
+        engine.raiseInfo(MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START, 0);
+        return player;
+    }
+
+    private static void awaitOffset(AWSLiveVideoPlayer player) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (player.getProgramDateTimeOffset() < 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(player.getProgramDateTimeOffset() >= 0);
+    }
+
+    private static void release(AWSLiveVideoPlayer... players) {
+        for (AWSLiveVideoPlayer player : players) {
+            player.setLiveEdgeTrackingEnabled(false);
+        }
+    }
+
+    private static String playlist(String programDateTime) {
+        StringBuilder body = new StringBuilder(HEADER);
+        if (programDateTime != null) {
+            body.append("#EXT-X-PROGRAM-DATE-TIME:").append(programDateTime).append('\n');
+        }
+        for (int sequence = 100; sequence < 105; sequence++) {
+            body.append("#EXTINF:6.000,\nsegment").append(sequence).append(".ts\n");
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.ui;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer.State;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Tests the {@link PlayerStateMachine}, delivering on the main looper.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class PlayerStateMachineTest {
+
+    /**
+     * Playing is rejected and counted until the source is ready.
+     */
+    @Test
+    public void playIsRejectedBeforeReady() {
+        PlayerStateMachine machine = new PlayerStateMachine(mainHandler(), (from, to) -> { });
+        assertFalse(machine.fire(PlayerStateMachine.Event.PLAY));
+        assertTrue(machine.fire(PlayerStateMachine.Event.PREPARE));
+        assertFalse(machine.fire(PlayerStateMachine.Event.PLAY));
+        assertEquals(State.PREPARING, machine.getState());
+        assertEquals(2, machine.getInvalidTransitionCount());
+
+        assertTrue(machine.fire(PlayerStateMachine.Event.READY));
+        assertTrue(machine.fire(PlayerStateMachine.Event.PLAY));
+        assertEquals(State.PLAYING, machine.getState());
+    }
+
+    /**
+     * Pausing moves to its own state, distinct from idle, and playing resumes from it.
+     */
+    @Test
+    public void pauseAndResume() {
+        List<State> seen = new ArrayList<>();
+        PlayerStateMachine machine = new PlayerStateMachine(mainHandler(), (from, to) -> seen.add(to));
+        machine.fire(PlayerStateMachine.Event.PREPARE);
+        machine.fire(PlayerStateMachine.Event.READY);
+        machine.fire(PlayerStateMachine.Event.PLAY);
+        assertTrue(machine.fire(PlayerStateMachine.Event.PAUSE));
+        assertEquals(State.PAUSED, machine.getState());
+        assertTrue(machine.fire(PlayerStateMachine.Event.PLAY));
+
+        assertEquals(5, seen.size());
+        assertEquals(State.PAUSED, seen.get(3));
+        assertEquals(State.PLAYING, seen.get(4));
+    }
+
+    /**
+     * Buffering completes only while buffering, and an ended source cannot be paused.
+     */
+    @Test
+    public void outOfPlaceEventsAreRejected() {
+        PlayerStateMachine machine = new PlayerStateMachine(mainHandler(), (from, to) -> { });
+        assertFalse(machine.fire(PlayerStateMachine.Event.BUFFERING_COMPLETE));
+        machine.fire(PlayerStateMachine.Event.PREPARE);
+        machine.fire(PlayerStateMachine.Event.READY);
+        machine.fire(PlayerStateMachine.Event.END);
+        assertFalse(machine.fire(PlayerStateMachine.Event.PAUSE));
+        assertEquals(State.ENDED, machine.getState());
+        assertEquals(2, machine.getInvalidTransitionCount());
+    }
+
+    /**
+     * A change applied on another thread moves the state at once, but reaches the listener
+     * only on the handler's thread.
+     * @throws InterruptedException if interrupted while joining the thread
+     */
+    @Test
+    public void offThreadChangesAreDeliveredOnTheHandler() throws InterruptedException {
+        List<Thread> deliveredOn = new ArrayList<>();
+        PlayerStateMachine machine = new PlayerStateMachine(mainHandler(),
+                (from, to) -> deliveredOn.add(Thread.currentThread()));
+        Thread engine = new Thread(() -> {
+            machine.fire(PlayerStateMachine.Event.PREPARE);
+            machine.fire(PlayerStateMachine.Event.READY);
+        });
+        engine.start();
+        engine.join(10_000);
+        assertEquals(State.READY, machine.getState());
+        assertTrue(deliveredOn.isEmpty());
+
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(2, deliveredOn.size());
+        assertSame(Looper.getMainLooper().getThread(), deliveredOn.get(0));
+        assertSame(Looper.getMainLooper().getThread(), deliveredOn.get(1));
+    }
+
+    /**
+     * Events fired from two threads at once are delivered in the order they were applied:
+     * every delivered change starts from the state the previous one ended in.
+     * @throws InterruptedException if interrupted while joining the threads
+     */
+    @Test
+    public void concurrentTransitionsAreDeliveredInOrder() throws InterruptedException {
+        List<State[]> delivered = new ArrayList<>();
+        PlayerStateMachine machine = new PlayerStateMachine(mainHandler(),
+                (from, to) -> delivered.add(new State[] {from, to}));
+        machine.fire(PlayerStateMachine.Event.PREPARE);
+        machine.fire(PlayerStateMachine.Event.READY);
+        machine.fire(PlayerStateMachine.Event.PLAY);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread stalls = new Thread(() -> fireRepeatedly(machine, start,
+                PlayerStateMachine.Event.BUFFERING_START, PlayerStateMachine.Event.BUFFERING_COMPLETE));
+        Thread pauses = new Thread(() -> fireRepeatedly(machine, start,
+                PlayerStateMachine.Event.PAUSE, PlayerStateMachine.Event.PLAY));
+        stalls.start();
+        pauses.start();
+        start.countDown();
+        stalls.join(10_000);
+        pauses.join(10_000);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        for (int index = 1; index < delivered.size(); index++) {
+            assertEquals(delivered.get(index - 1)[1], delivered.get(index)[0]);
+        }
+        assertEquals(delivered.get(delivered.size() - 1)[1], machine.getState());
+    }
+
+    private static Handler mainHandler() {
+        return new Handler(Looper.getMainLooper());
+    }
+
+    private static void fireRepeatedly(PlayerStateMachine machine, CountDownLatch start,
+                                       PlayerStateMachine.Event first, PlayerStateMachine.Event second) {
+        try {
+            start.await();
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int round = 0; round < 2_000; round++) {
+            machine.fire(first);
+            machine.fire(second);
+        }
+    }
+}
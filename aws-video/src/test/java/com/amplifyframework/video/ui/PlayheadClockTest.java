@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.ui;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.amplifyframework.extended.video.ui.VideoPlayer;
+import com.amplifyframework.video.metrics.TimeSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Tests the {@link PlayheadClock}'s sampling, extrapolation and progress ticks on virtual time.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class PlayheadClockTest {
+    private static final TimeSource CLOCK = SystemClock::uptimeMillis;
+
+    private long position;
+    private int positionReads;
+    private long duration;
+    private int durationReads;
+    private PlayheadClock playhead;
+
+    /**
+     * Creates a clock over a settable position and duration, on the main looper.
+     */
+    @Before
+    public void setUp() {
+        duration = -1;
+        playhead = new PlayheadClock(CLOCK, () -> {
+            positionReads++;
+            return position;
+        }, () -> {
+            durationReads++;
+            return duration;
+        }, new Handler(Looper.getMainLooper()));
+    }
+
+    /**
+     * While playing, the position is extrapolated between samples and the real position
+     * is read again once {@link PlayheadClock#RESAMPLE_INTERVAL_MILLIS} has passed.
+     */
+    @Test
+    public void resamplesOnlyAfterTheInterval() {
+        position = 5_000;
+        playhead.onStateChange(VideoPlayer.State.PLAYING);
+        assertEquals(1, positionReads);
+
+        idleFor(PlayheadClock.RESAMPLE_INTERVAL_MILLIS - 500);
+        assertEquals(6_500, playhead.getPosition());
+        assertEquals(1, positionReads);
+
+        // The media fell behind the estimate; the next sample corrects it.
+        position = 6_800;
+        idleFor(500);
+        assertEquals(6_800, playhead.getPosition());
+        assertEquals(2, positionReads);
+    }
+
+    /**
+     * The estimate stops at the end of the clip rather than running past it.
+     */
+    @Test
+    public void clampsToTheDuration() {
+        duration = 10_000;
+        position = 9_500;
+        assertEquals(10_000, playhead.getDuration());
+        playhead.onStateChange(VideoPlayer.State.PLAYING);
+
+        idleFor(1_500);
+        assertEquals(10_000, playhead.getPosition());
+    }
+
+    /**
+     * An unknown duration is read again at most once per interval; a known one is cached
+     * until the source changes.
+     */
+    @Test
+    public void cachesTheKnownDuration() {
+        assertEquals(-1, playhead.getDuration());
+        idleFor(100);
+        assertEquals(-1, playhead.getDuration());
+        assertEquals(1, durationReads);
+
+        duration = 60_000;
+        idleFor(PlayheadClock.RESAMPLE_INTERVAL_MILLIS);
+        assertEquals(60_000, playhead.getDuration());
+        assertEquals(2, durationReads);
+
+        duration = 30_000;
+        idleFor(PlayheadClock.RESAMPLE_INTERVAL_MILLIS * 3);
+        assertEquals(60_000, playhead.getDuration());
+        assertEquals(2, durationReads);
+
+        playhead.onSourceChanged();
+        assertEquals(30_000, playhead.getDuration());
+        assertEquals(3, durationReads);
+    }
+
+    /**
+     * Progress ticks land on whole intervals of media time: one per 100 ms for a clip of a
+     * minute, one per 500 ms for a live stream. They stop when playback stops.
+     */
+    @Test
+    public void ticksAtTheClipCadence() {
+        duration = 60_000;
+        List<Long> onDemand = recordProgress();
+        playhead.onStateChange(VideoPlayer.State.PLAYING);
+        idleFor(1_000);
+        assertEquals(steps(0, 100, 1_000), onDemand.subList(1, onDemand.size()));
+
+        playhead.onStateChange(VideoPlayer.State.PAUSED);
+        int settled = onDemand.size();
+        idleFor(1_000);
+        assertEquals(settled, onDemand.size());
+
+        playhead.onSourceChanged();
+        duration = -1;
+        List<Long> live = recordProgress();
+        playhead.onStateChange(VideoPlayer.State.PLAYING);
+        idleFor(1_500);
+        assertEquals(steps(0, 500, 1_500), live.subList(1, live.size()));
+    }
+
+    /**
+     * A rate set before the source changes still applies to the new source's estimate.
+     */
+    @Test
+    public void keepsTheRateAcrossSources() {
+        playhead.setPlaybackRate(1.5f);
+        playhead.onSourceChanged();
+        position = 0;
+        playhead.onStateChange(VideoPlayer.State.PLAYING);
+
+        idleFor(1_000);
+        assertEquals(1_500, playhead.getPosition());
+    }
+
+    private List<Long> recordProgress() {
+        List<Long> positions = new ArrayList<>();
+        playhead.addProgressListener((current, total) -> positions.add(current));
+        return positions;
+    }
+
+    private static List<Long> steps(long from, long step, long to) {
+        List<Long> values = new ArrayList<>();
+        for (long value = from; value <= to; value += step) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    private static void idleFor(long millis) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(millis));
+    }
+}
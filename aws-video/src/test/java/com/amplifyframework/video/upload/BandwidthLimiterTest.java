@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link BandwidthLimiter} against a fake clock. Waits time out on the real
+ * clock, so a blocked caller re-checks within a bounded real delay.
+ */
+public final class BandwidthLimiterTest {
+    private static final long BLOCKED_CHECK_MILLIS = 100;
+    private static final long RELEASE_TIMEOUT_MILLIS = 5_000;
+
+    private AtomicLong now;
+    private BandwidthLimiter limiter;
+
+    /**
+     * Creates a limiter whose clock only moves when a test advances it.
+     */
+    @Before
+    public void setUp() {
+        now = new AtomicLong(1_000);
+        limiter = new BandwidthLimiter(now::get);
+    }
+
+    /**
+     * An unlimited limiter never waits, even with a frozen clock.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void unlimitedNeverWaits() throws InterruptedException {
+        limiter.acquire(Long.MAX_VALUE / 2);
+        limiter.acquire(1);
+    }
+
+    /**
+     * Tokens earned over time are spent without waiting; the next request waits for the
+     * clock to earn more.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void waitsForTokensToAccrue() throws InterruptedException {
+        limiter.setBytesPerSecond(1_000);
+        now.addAndGet(1_000);
+        limiter.acquire(1_000);
+
+        Thread caller = acquireInBackground(500);
+        caller.join(BLOCKED_CHECK_MILLIS);
+        assertTrue("acquired without tokens", caller.isAlive());
+
+        now.addAndGet(500);
+        caller.join(RELEASE_TIMEOUT_MILLIS);
+        assertFalse("still blocked after tokens accrued", caller.isAlive());
+    }
+
+    /**
+     * A request larger than the bucket passes once the bucket is full and leaves a debt
+     * that later requests pay off.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void oversizedRequestLeavesDebt() throws InterruptedException {
+        limiter.setBytesPerSecond(1_000);
+        now.addAndGet(1_000);
+        limiter.acquire(3_000);
+
+        Thread caller = acquireInBackground(1);
+        now.addAndGet(1_500);
+        caller.join(BLOCKED_CHECK_MILLIS);
+        assertTrue("debt was forgiven", caller.isAlive());
+
+        now.addAndGet(1_000);
+        caller.join(RELEASE_TIMEOUT_MILLIS);
+        assertFalse("still blocked after debt was paid", caller.isAlive());
+    }
+
+    /**
+     * A paused limiter holds back even an unlimited caller until resumed.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void pauseHoldsBackUntilResumed() throws InterruptedException {
+        limiter.setPaused(true);
+        Thread caller = acquireInBackground(1);
+        caller.join(BLOCKED_CHECK_MILLIS);
+        assertTrue("acquired while paused", caller.isAlive());
+
+        limiter.setPaused(false);
+        caller.join(RELEASE_TIMEOUT_MILLIS);
+        assertFalse("still blocked after resume", caller.isAlive());
+    }
+
+    /**
+     * Negative rates are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeRate() {
+        limiter.setBytesPerSecond(-1);
+    }
+
+    private Thread acquireInBackground(long bytes) {
+        Thread caller = new Thread(() -> {
+            try {
+                limiter.acquire(bytes);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        caller.setDaemon(true);
+        caller.start();
+        return caller;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.upload;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that the {@link DirectBufferPool} reuses its buffers and refuses parts that do not
+ * fit them.
+ */
+public final class DirectBufferPoolTest {
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * A released buffer is handed out again, limited to the size asked for.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void reusesReleasedBuffer() throws InterruptedException {
+        DirectBufferPool pool = new DirectBufferPool(1, BUFFER_SIZE);
+        ByteBuffer first = pool.take(BUFFER_SIZE);
+        pool.release(first);
+
+        ByteBuffer second = pool.take(100);
+        assertSame(first, second);
+        assertEquals(0, second.position());
+        assertEquals(100, second.limit());
+    }
+
+    /**
+     * A part larger than the pool's buffers is refused without taking a buffer, so parts
+     * never cost an allocation of their own.
+     * @throws InterruptedException Not expected
+     */
+    @Test
+    public void refusesOversizedPart() throws InterruptedException {
+        DirectBufferPool pool = new DirectBufferPool(1, BUFFER_SIZE);
+        try {
+            pool.take(BUFFER_SIZE + 1);
+            fail("An oversized part should be refused.");
+        } catch (IllegalArgumentException expected) {
+            // The one buffer is still available.
+        }
+
+        ByteBuffer buffer = pool.take(BUFFER_SIZE);
+        assertEquals(BUFFER_SIZE, buffer.capacity());
+    }
+}
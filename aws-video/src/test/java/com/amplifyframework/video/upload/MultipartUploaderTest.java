@@ -0,0 +1,469 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.upload;
+
+import android.util.Base64;
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Uploads files with a {@link MultipartUploader} through an S3-style transport to a local
+ * {@link MockWebServer} origin.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class MultipartUploaderTest {
+    private static final String BUCKET = "ingest";
+    private static final String KEY = "videos/clip.mp4";
+    private static final String UPLOAD_ID = "upload-1";
+    private static final long PART_SIZE = MultipartUploader.MIN_PART_SIZE;
+    // Two whole parts and a short last one.
+    private static final int FILE_SIZE = (int) (2 * PART_SIZE + 1_000_000);
+
+    /**
+     * Provides the source file and the state directory.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> partAttempts = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> partFailures = new ConcurrentHashMap<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger initiated = new AtomicInteger();
+    private volatile String completion;
+    private MockWebServer server;
+    private File stateDirectory;
+    private File source;
+    private byte[] contents;
+
+    /**
+     * Starts the origin and writes a source file of three parts.
+     * @throws IOException if the server cannot start or the file cannot be written
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Origin());
+        server.start();
+        stateDirectory = folder.newFolder("uploads");
+        contents = new byte[FILE_SIZE];
+        new Random(42).nextBytes(contents);
+        source = folder.newFile("clip.mp4");
+        try (OutputStream output = new FileOutputStream(source)) {
+            output.write(contents);
+        }
+    }
+
+    /**
+     * Stops the origin.
+     * @throws IOException if the server cannot stop
+     */
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * An upload creates one multipart upload, sends every part with its SHA-256, and
+     * completes with the parts' ETags and checksums in part order; the state file is removed.
+     * @throws Exception if the upload fails
+     */
+    @Test
+    public void uploadsEveryPartAndCompletes() throws Exception {
+        List<Long> progress = new CopyOnWriteArrayList<>();
+        MultipartUploader uploader = uploader(3);
+        UploadResult result = uploader.upload(source, BUCKET, KEY, (uploaded, total) -> progress.add(uploaded));
+        uploader.shutdown();
+
+        assertEquals("\"object-etag\"", result.getETag());
+        assertEquals(1, initiated.get());
+        assertEquals(3, parts.size());
+        List<String> checksums = new ArrayList<>();
+        for (int part = 1; part <= 3; part++) {
+            byte[] expected = slice(part);
+            assertArrayEquals(expected, parts.get(part));
+            checksums.add(sha256(expected));
+        }
+        assertEquals(checksums, result.getPartChecksums());
+        assertEquals(completionBody(checksums), completion);
+        assertEquals(Long.valueOf(FILE_SIZE), Collections.max(progress));
+        assertEquals(0, stateFiles().length);
+    }
+
+    /**
+     * A part whose request fails is sent again, and the upload still completes.
+     * @throws Exception if the upload fails
+     */
+    @Test
+    public void retriesFailedPart() throws Exception {
+        partFailures.put(2, new AtomicInteger(1));
+        MultipartUploader uploader = uploader(2);
+        uploader.upload(source, BUCKET, KEY, null);
+        uploader.shutdown();
+
+        assertEquals(2, partAttempts.get(2).get());
+        assertEquals(1, partAttempts.get(1).get());
+        assertEquals(1, partAttempts.get(3).get());
+        assertArrayEquals(slice(2), parts.get(2));
+        assertNotNull(completion);
+    }
+
+    /**
+     * After an upload fails, a new uploader over the same state directory resumes the same
+     * multipart upload and sends only the part that is missing; progress counts the parts
+     * uploaded before the resume.
+     * @throws Exception if the resumed upload fails
+     */
+    @Test
+    public void resumesFromSavedStateSkippingUploadedParts() throws Exception {
+        failUpload();
+        assertEquals(1, stateFiles().length);
+        assertEquals(1, partAttempts.get(1).get());
+        partFailures.clear();
+
+        List<Long> progress = new CopyOnWriteArrayList<>();
+        MultipartUploader resumed = uploader(1);
+        resumed.upload(source, BUCKET, KEY, (uploaded, total) -> progress.add(uploaded));
+        resumed.shutdown();
+
+        assertEquals(1, initiated.get());
+        assertEquals(1, partAttempts.get(1).get());
+        assertEquals(1, partAttempts.get(2).get());
+        assertEquals(2, partAttempts.get(3).get());
+        assertEquals(Collections.singletonList((long) FILE_SIZE), progress);
+        assertTrue(completion.contains("<PartNumber>3</PartNumber>"));
+        assertEquals(0, stateFiles().length);
+    }
+
+    /**
+     * Aborting an interrupted upload deletes it at the origin and forgets its state, so
+     * there is nothing left to abort.
+     * @throws Exception if the abort fails
+     */
+    @Test
+    public void abortDiscardsInterruptedUpload() throws Exception {
+        failUpload();
+        MultipartUploader uploader = uploader(1);
+
+        assertTrue(uploader.abort(source, BUCKET, KEY));
+        assertTrue(requests.contains("DELETE /" + BUCKET + "/" + KEY + "?uploadId=" + UPLOAD_ID));
+        assertEquals(0, stateFiles().length);
+        assertFalse(uploader.abort(source, BUCKET, KEY));
+        uploader.shutdown();
+    }
+
+    /**
+     * The object checksum is the SHA-256 of the concatenated part digests, suffixed with the
+     * part count, as S3 reports it for a composite SHA-256 upload. The second part is the
+     * FIPS 180-2 "abc" vector.
+     * @throws Exception if the upload fails
+     */
+    @Test
+    public void compositeChecksumMatchesKnownVector() throws Exception {
+        byte[] known = new byte[(int) PART_SIZE + 3];
+        System.arraycopy("abc".getBytes("UTF-8"), 0, known, (int) PART_SIZE, 3);
+        try (OutputStream output = new FileOutputStream(source)) {
+            output.write(known);
+        }
+        MultipartUploader uploader = uploader(2);
+        UploadResult result = uploader.upload(source, BUCKET, KEY, null);
+        uploader.shutdown();
+
+        assertEquals(Arrays.asList("wDbLt1U6kJ+LiHfURhkkMH8n7LZs/5KO7q/VacOIfik=",
+                "ungWv48Bz+pBQUDeXa4iI7ADYaOWF3qctBD/YfIAFa0="), result.getPartChecksums());
+        assertEquals("YgD5MmMOGkBA1Xe5eqGj3jSQK9w+pe1W02zWov7/zi0=-2", result.getChecksum());
+    }
+
+    /**
+     * A file needing more than S3's 10,000 parts of the configured size is refused before
+     * an upload is created, rather than cut into parts larger than the uploader's buffers.
+     * @throws Exception if the scratch file cannot be resized
+     */
+    @Test
+    public void refusesFileNeedingTooManyParts() throws Exception {
+        try (RandomAccessFile file = new RandomAccessFile(source, "rw")) {
+            // Sparse, so the file takes no disk space.
+            file.setLength(10_000 * PART_SIZE + 1);
+        }
+        MultipartUploader uploader = uploader(1);
+        try {
+            uploader.upload(source, BUCKET, KEY, null);
+            fail("The file needs 10,001 parts.");
+        } catch (IOException expected) {
+            assertEquals(0, initiated.get());
+        } finally {
+            uploader.shutdown();
+        }
+    }
+
+    // Sends parts one at a time with part 3 always failing, so parts 1 and 2 are saved.
+    private void failUpload() throws InterruptedException {
+        partFailures.put(3, new AtomicInteger(Integer.MAX_VALUE));
+        MultipartUploader uploader = MultipartUploader.builder()
+                .transport(new S3Transport(server.url("/")))
+                .stateDirectory(stateDirectory)
+                .partSize(PART_SIZE)
+                .parallelism(1)
+                .maxPartAttempts(1)
+                .build();
+        try {
+            uploader.upload(source, BUCKET, KEY, null);
+            fail("Part 3 should have failed the upload.");
+        } catch (IOException expected) {
+            // Parts 1 and 2 are recorded in the state file.
+        } finally {
+            uploader.shutdown();
+        }
+    }
+
+    private MultipartUploader uploader(int parallelism) {
+        return MultipartUploader.builder()
+                .transport(new S3Transport(server.url("/")))
+                .stateDirectory(stateDirectory)
+                .partSize(PART_SIZE)
+                .parallelism(parallelism)
+                .build();
+    }
+
+    private File[] stateFiles() {
+        return stateDirectory.listFiles((directory, name) -> name.endsWith(".upload"));
+    }
+
+    private byte[] slice(int partNumber) {
+        int from = (int) ((partNumber - 1) * PART_SIZE);
+        return Arrays.copyOfRange(contents, from, (int) Math.min(FILE_SIZE, from + PART_SIZE));
+    }
+
+    private static String completionBody(List<String> checksums) {
+        StringBuilder body = new StringBuilder("<CompleteMultipartUpload>");
+        for (int index = 0; index < checksums.size(); index++) {
+            body.append("<Part><PartNumber>").append(index + 1).append("</PartNumber>")
+                    .append("<ETag>\"etag-").append(index + 1).append("\"</ETag>")
+                    .append("<ChecksumSHA256>").append(checksums.get(index)).append("</ChecksumSHA256></Part>");
+        }
+        return body.append("</CompleteMultipartUpload>").toString();
+    }
+
+    private static String sha256(byte[] data) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+        return Base64.encodeToString(digest, Base64.NO_WRAP);
+    }
+
+    /**
+     * Answers the four S3 multipart calls, recording parts and failing the parts it is
+     * told to fail with a 500.
+     */
+    private final class Origin extends Dispatcher {
+        @NonNull
+        @Override
+        public MockResponse dispatch(@NonNull RecordedRequest request) {
+            requests.add(request.getMethod() + " " + request.getPath());
+            HttpUrl url = request.getRequestUrl();
+            String partNumber = url.queryParameter("partNumber");
+            if ("POST".equals(request.getMethod()) && url.queryParameter("uploads") != null) {
+                initiated.incrementAndGet();
+                return new MockResponse().setBody("<InitiateMultipartUploadResult><UploadId>" + UPLOAD_ID
+                        + "</UploadId></InitiateMultipartUploadResult>");
+            } else if ("PUT".equals(request.getMethod()) && partNumber != null) {
+                int part = Integer.parseInt(partNumber);
+                partAttempts.computeIfAbsent(part, unused -> new AtomicInteger()).incrementAndGet();
+                AtomicInteger failures = partFailures.get(part);
+                if (failures != null && failures.getAndDecrement() > 0) {
+                    return new MockResponse().setResponseCode(500);
+                }
+                byte[] body = request.getBody().readByteArray();
+                if (!request.getHeader("x-amz-checksum-sha256").equals(checksum(body))) {
+                    return new MockResponse().setResponseCode(400);
+                }
+                parts.put(part, body);
+                return new MockResponse().setHeader("ETag", "\"etag-" + part + "\"");
+            } else if ("POST".equals(request.getMethod())) {
+                completion = request.getBody().readUtf8();
+                return new MockResponse().setBody("<CompleteMultipartUploadResult><ETag>\"object-etag\"</ETag>"
+                        + "</CompleteMultipartUploadResult>");
+            } else if ("DELETE".equals(request.getMethod())) {
+                return new MockResponse().setResponseCode(204);
+            }
+            return new MockResponse().setResponseCode(405);
+        }
+
+        private String checksum(byte[] body) {
+            try {
+                return sha256(body);
+            } catch (NoSuchAlgorithmException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+    }
+
+    /**
+     * The S3 REST multipart calls, unsigned, over {@link HttpURLConnection}.
+     */
+    private static final class S3Transport implements MultipartTransport {
+        private final HttpUrl endpoint;
+
+        S3Transport(HttpUrl endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @NonNull
+        @Override
+        public String initiate(@NonNull String bucket, @NonNull String key) throws IOException {
+            String body = send("POST", object(bucket, key).addQueryParameter("uploads", "").build(), null, null);
+            return element(body, "UploadId");
+        }
+
+        @NonNull
+        @Override
+        public String uploadPart(@NonNull String bucket, @NonNull String key, @NonNull String uploadId,
+                                 int partNumber, @NonNull ByteBuffer data, @NonNull String checksum)
+                throws IOException {
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            HttpURLConnection connection = open("PUT", object(bucket, key)
+                    .addQueryParameter("partNumber", Integer.toString(partNumber))
+                    .addQueryParameter("uploadId", uploadId)
+                    .build());
+            connection.setRequestProperty("x-amz-checksum-sha256", checksum);
+            try {
+                write(connection, bytes);
+                read(connection);
+                return connection.getHeaderField("ETag");
+            } finally {
+                connection.disconnect();
+            }
+        }
+
+        @NonNull
+        @Override
+        public String complete(@NonNull String bucket, @NonNull String key, @NonNull String uploadId,
+                               @NonNull List<String> partETags, @NonNull List<String> partChecksums)
+                throws IOException {
+            StringBuilder request = new StringBuilder("<CompleteMultipartUpload>");
+            for (int index = 0; index < partETags.size(); index++) {
+                request.append("<Part><PartNumber>").append(index + 1).append("</PartNumber>")
+                        .append("<ETag>").append(partETags.get(index)).append("</ETag>")
+                        .append("<ChecksumSHA256>").append(partChecksums.get(index)).append("</ChecksumSHA256></Part>");
+            }
+            request.append("</CompleteMultipartUpload>");
+            HttpUrl url = object(bucket, key).addQueryParameter("uploadId", uploadId).build();
+            return element(send("POST", url, request.toString().getBytes("UTF-8"), "application/xml"), "ETag");
+        }
+
+        @Override
+        public void abort(@NonNull String bucket, @NonNull String key, @NonNull String uploadId) throws IOException {
+            send("DELETE", object(bucket, key).addQueryParameter("uploadId", uploadId).build(), null, null);
+        }
+
+        private HttpUrl.Builder object(String bucket, String key) {
+            return endpoint.newBuilder().addPathSegment(bucket).addPathSegments(key);
+        }
+
+        private String send(String method, HttpUrl url, byte[] body, String contentType) throws IOException {
+            HttpURLConnection connection = open(method, url);
+            try {
+                if (body != null) {
+                    connection.setRequestProperty("Content-Type", contentType);
+                    write(connection, body);
+                }
+                return read(connection);
+            } finally {
+                connection.disconnect();
+            }
+        }
+
+        private static HttpURLConnection open(String method, HttpUrl url) throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url.toString()).openConnection();
+            connection.setRequestMethod(method);
+            return connection;
+        }
+
+        private static void write(HttpURLConnection connection, byte[] body) throws IOException {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body);
+            }
+        }
+
+        private static String read(HttpURLConnection connection) throws IOException {
+            int status = connection.getResponseCode();
+            if (status / 100 != 2) {
+                throw new IOException("HTTP " + status);
+            }
+            try (InputStream input = connection.getInputStream()) {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                byte[] chunk = new byte[4096];
+                for (int read = input.read(chunk); read >= 0; read = input.read(chunk)) {
+                    body.write(chunk, 0, read);
+                }
+                return body.toString("UTF-8");
+            }
+        }
+
+        private static String element(String xml, String name) throws IOException {
+            int start = xml.indexOf("<" + name + ">");
+            int end = xml.indexOf("</" + name + ">");
+            if (start < 0 || end < start) {
+                throw new IOException("No " + name + " in response.");
+            }
+            return xml.substring(start + name.length() + 2, end);
+        }
+    }
+}
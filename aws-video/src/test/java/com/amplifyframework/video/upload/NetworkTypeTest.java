@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.upload;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetworkCapabilities;
+import org.robolectric.util.ReflectionHelpers;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Reads the {@link NetworkType} from the capabilities of the active network.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class NetworkTypeTest {
+    private Context context;
+    private ConnectivityManager connectivity;
+    private ShadowConnectivityManager shadowConnectivity;
+
+    /**
+     * Looks up the shadowed connectivity service.
+     */
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        shadowConnectivity = shadowOf(connectivity);
+    }
+
+    /**
+     * An active network whose capabilities are unknown, as when it has just gone away, is
+     * treated as no network.
+     */
+    @Test
+    public void unknownCapabilitiesAreNone() {
+        shadowConnectivity.setNetworkCapabilities(connectivity.getActiveNetwork(), null);
+        assertEquals(NetworkType.NONE, NetworkType.current(context));
+    }
+
+    /**
+     * A network that does not reach the internet is treated as no network.
+     */
+    @Test
+    public void networkWithoutInternetIsNone() {
+        setActiveCapabilities();
+        assertEquals(NetworkType.NONE, NetworkType.current(context));
+    }
+
+    /**
+     * An internet network without the not-metered capability may cost the user per byte.
+     */
+    @Test
+    public void internetWithoutNotMeteredIsMetered() {
+        setActiveCapabilities(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+        assertEquals(NetworkType.METERED, NetworkType.current(context));
+    }
+
+    /**
+     * An internet network that declares itself not metered is unmetered.
+     */
+    @Test
+    public void notMeteredInternetIsUnmetered() {
+        setActiveCapabilities(NetworkCapabilities.NET_CAPABILITY_INTERNET,
+                NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+        assertEquals(NetworkType.UNMETERED, NetworkType.current(context));
+    }
+
+    private void setActiveCapabilities(int... capabilities) {
+        NetworkCapabilities networkCapabilities = ShadowNetworkCapabilities.newInstance();
+        for (int capability : capabilities) {
+            // The setter is hidden from apps; the platform's own network stack calls it.
+            ReflectionHelpers.callInstanceMethod(networkCapabilities, "addCapability",
+                    ClassParameter.from(int.class, capability));
+        }
+        shadowConnectivity.setNetworkCapabilities(connectivity.getActiveNetwork(), networkCapabilities);
+    }
+}
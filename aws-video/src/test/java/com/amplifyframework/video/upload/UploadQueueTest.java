@@ -0,0 +1,317 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package com.amplifyframework.video.upload;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+
+import com.amplifyframework.video.metrics.TimeSource;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Runs an {@link UploadQueue} over a temporary directory, with a fake transport under its
+ * uploader, a manual clock and a handler on the paused main looper.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public final class UploadQueueTest {
+    private static final long TIMEOUT_MILLIS = 5_000;
+    private static final String BUCKET = "ingest";
+
+    /**
+     * Provides source files and the queue and upload state directories.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicLong now = new AtomicLong();
+    private final TimeSource clock = now::get;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final FakeTransport transport = new FakeTransport();
+    private final RecordingListener listener = new RecordingListener();
+    private File queueDirectory;
+    private File stateDirectory;
+
+    /**
+     * Creates the directories.
+     * @throws IOException if they cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        queueDirectory = folder.newFolder("queue");
+        stateDirectory = folder.newFolder("state");
+    }
+
+    /**
+     * Jobs left on disk by a queue are picked up and uploaded by the next queue over the
+     * same directory, as after the process dies, and removed once complete.
+     * @throws Exception if a job cannot be queued
+     */
+    @Test
+    public void restoresSavedJobsAfterRestart() throws Exception {
+        UploadQueue before = queue();
+        // Held, so the first queue never starts them.
+        before.holdForPlayback();
+        UploadJob low = before.enqueue(source("low.mp4", 100), BUCKET, "low", 0, false);
+        UploadJob high = before.enqueue(source("high.mp4", 100), BUCKET, "high", 1, false);
+        assertEquals(2, jobFiles().length);
+
+        queue().addListener(listener);
+        await(() -> listener.completed.size() == 2);
+        assertEquals(Arrays.asList(high.getId(), low.getId()), listener.completed);
+        assertEquals(Arrays.asList("high", "low"), transport.parts);
+        assertEquals(0, jobFiles().length);
+    }
+
+    /**
+     * Jobs start in order of priority, highest first, then size, smallest first.
+     * @throws Exception if a job cannot be queued
+     */
+    @Test
+    public void startsByPriorityThenSize() throws Exception {
+        UploadQueue queue = queue();
+        queue.addListener(listener);
+        UploadQueue.PlaybackHold hold = queue.holdForPlayback();
+        queue.enqueue(source("a.mp4", 300), BUCKET, "low-large", 0, false);
+        queue.enqueue(source("b.mp4", 500), BUCKET, "high-large", 1, false);
+        queue.enqueue(source("c.mp4", 100), BUCKET, "high-small", 1, false);
+        queue.enqueue(source("d.mp4", 200), BUCKET, "low-small", 0, false);
+        hold.close();
+
+        await(() -> listener.completed.size() == 4);
+        assertEquals(Arrays.asList("high-small", "high-large", "low-small", "low-large"), transport.parts);
+    }
+
+    /**
+     * An unmetered-only job waits for an unmetered network, is pre-empted without using an
+     * attempt when the network becomes metered, and resumes once it is unmetered again.
+     * @throws Exception if the job cannot be queued
+     */
+    @Test
+    public void preemptsUnmeteredOnlyJobOnMeteredNetwork() throws Exception {
+        UploadQueue queue = queue();
+        queue.addListener(listener);
+        CountDownLatch gate = transport.block("wifi");
+        UploadJob job = queue.enqueue(source("wifi.mp4", 100), BUCKET, "wifi", 0, true);
+        await(() -> queue.getStatus().getPendingCount() == 1);
+        assertTrue(transport.parts.isEmpty());
+
+        queue.setNetworkType(NetworkType.UNMETERED);
+        await(() -> transport.parts.size() == 1);
+        queue.setNetworkType(NetworkType.METERED);
+        await(() -> queue.getStatus().getPendingCount() == 1 && queue.getStatus().getActiveCount() == 0);
+
+        gate.countDown();
+        queue.setNetworkType(NetworkType.UNMETERED);
+        await(() -> listener.completed.size() == 1);
+        assertEquals(Arrays.asList("wifi", "wifi"), transport.parts);
+        assertEquals(0, job.getAttempts());
+    }
+
+    /**
+     * While any playback hold is open no job starts; closing a hold twice does not release
+     * another one, and jobs start once every hold is closed.
+     * @throws Exception if the job cannot be queued
+     */
+    @Test
+    public void playbackHoldsDeferJobs() throws Exception {
+        UploadQueue queue = queue();
+        queue.addListener(listener);
+        UploadQueue.PlaybackHold first = queue.holdForPlayback();
+        UploadQueue.PlaybackHold second = queue.holdForPlayback();
+        queue.enqueue(source("clip.mp4", 100), BUCKET, "clip", 0, false);
+        first.close();
+        first.close();
+        await(() -> queue.getStatus().isHeld() && queue.getStatus().getPendingCount() == 1);
+        assertTrue(transport.parts.isEmpty());
+
+        second.close();
+        await(() -> listener.completed.size() == 1);
+        assertFalse(queue.getStatus().isHeld());
+    }
+
+    /**
+     * A failed job waits out an exponential backoff on the queue's clock before each retry,
+     * and is dropped and reported after {@link UploadQueue#MAX_ATTEMPTS} failures.
+     * @throws Exception if the job cannot be queued
+     */
+    @Test
+    public void retriesWithBackoffThenDrops() throws Exception {
+        transport.failing.add("broken");
+        UploadQueue queue = queue();
+        queue.addListener(listener);
+        UploadJob job = queue.enqueue(source("broken.mp4", 100), BUCKET, "broken", 0, false);
+
+        long delay = 30_000;
+        for (int attempt = 1; attempt < UploadQueue.MAX_ATTEMPTS; attempt++) {
+            final int attempts = attempt;
+            await(() -> job.getAttempts() == attempts && queue.getStatus().getPendingCount() == 1);
+            now.addAndGet(delay - 1);
+            // Any setting change reschedules; one millisecond early, the job stays put.
+            queue.setMaxConcurrentUploads(1);
+            Thread.sleep(100);
+            assertEquals(attempt, transport.parts.size());
+            now.incrementAndGet();
+            queue.setMaxConcurrentUploads(1);
+            delay *= 2;
+        }
+        await(() -> listener.failed.size() == 1);
+        assertEquals(Collections.singletonList(job.getId()), listener.failed);
+        assertEquals(UploadQueue.MAX_ATTEMPTS, transport.parts.size());
+        assertEquals(0, jobFiles().length);
+        assertEquals(0, queue.getStatus().getPendingCount());
+    }
+
+    private UploadQueue queue() {
+        MultipartUploader uploader = MultipartUploader.builder()
+                .transport(transport)
+                .stateDirectory(stateDirectory)
+                .maxPartAttempts(1)
+                .build();
+        return new UploadQueue(uploader, queueDirectory, handler, clock);
+    }
+
+    private File source(String name, int size) throws IOException {
+        File file = folder.newFile(name);
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(new byte[size]);
+        }
+        return file;
+    }
+
+    private File[] jobFiles() {
+        return queueDirectory.listFiles((directory, name) -> name.endsWith(".job"));
+    }
+
+    // Delivers handler callbacks until the condition holds.
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Timed out waiting for the queue.");
+    }
+
+    /**
+     * Records job outcomes by job ID.
+     */
+    private static final class RecordingListener implements UploadQueue.Listener {
+        private final List<String> completed = new ArrayList<>();
+        private final List<String> failed = new ArrayList<>();
+
+        @Override
+        public void onStatusChanged(@NonNull UploadQueue.Status status) { }
+
+        @Override
+        public void onUploadComplete(@NonNull UploadJob job, @NonNull UploadResult result) {
+            completed.add(job.getId());
+        }
+
+        @Override
+        public void onUploadFailed(@NonNull UploadJob job, @NonNull IOException error) {
+            failed.add(job.getId());
+        }
+    }
+
+    /**
+     * Records the key of every part sent, fails parts of chosen keys, and holds parts of
+     * blocked keys until released or interrupted.
+     */
+    private static final class FakeTransport implements MultipartTransport {
+        private final List<String> parts = new CopyOnWriteArrayList<>();
+        private final Set<String> failing = ConcurrentHashMap.newKeySet();
+        private final Map<String, CountDownLatch> gates = new ConcurrentHashMap<>();
+
+        CountDownLatch block(String key) {
+            CountDownLatch gate = new CountDownLatch(1);
+            gates.put(key, gate);
+            return gate;
+        }
+
+        @NonNull
+        @Override
+        public String initiate(@NonNull String bucket, @NonNull String key) {
+            return "upload-" + key;
+        }
+
+        @NonNull
+        @Override
+        public String uploadPart(@NonNull String bucket, @NonNull String key, @NonNull String uploadId,
+                                 int partNumber, @NonNull ByteBuffer data, @NonNull String checksum)
+                throws IOException {
+            parts.add(key);
+            CountDownLatch gate = gates.get(key);
+            try {
+                if (gate != null) {
+                    gate.await();
+                }
+            } catch (InterruptedException interrupted) {
+                throw new InterruptedIOException("Part interrupted.");
+            }
+            if (failing.contains(key)) {
+                throw new IOException("Part rejected.");
+            }
+            return "etag-" + partNumber;
+        }
+
+        @NonNull
+        @Override
+        public String complete(@NonNull String bucket, @NonNull String key, @NonNull String uploadId,
+                               @NonNull List<String> partETags, @NonNull List<String> partChecksums) {
+            return "object-" + key;
+        }
+
+        @Override
+        public void abort(@NonNull String bucket, @NonNull String key, @NonNull String uploadId) { }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amplifyframework.video.upload;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that {@link UploadState} survives a save and load.
+ */
+public final class UploadStateTest {
+    private static final long PART_SIZE = 1_024;
+
+    /**
+     * Provides scratch source and state files.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Every field and every finished part survives a round trip.
+     * @throws IOException If the scratch files cannot be written
+     */
+    @Test
+    public void roundTripKeepsFinishedParts() throws IOException {
+        File source = sourceFile(2_500);
+        UploadState state = new UploadState(source, "bucket", "videos/clip.mp4", PART_SIZE, "upload-1");
+        state.setPart(0, "etag-0", "crc-0");
+        state.setPart(2, "etag-2", "crc-2");
+        File stateFile = folder.newFile("clip.state");
+        state.save(stateFile);
+
+        UploadState loaded = UploadState.load(stateFile);
+        assertEquals("bucket", loaded.getBucket());
+        assertEquals("videos/clip.mp4", loaded.getKey());
+        assertEquals("upload-1", loaded.getUploadId());
+        assertEquals(2_500, loaded.getLength());
+        assertEquals(PART_SIZE, loaded.getPartSize());
+        assertEquals(3, loaded.getPartCount());
+        assertEquals(2_500 - 2 * PART_SIZE, loaded.getPartLength(2));
+        assertEquals(Arrays.asList("etag-0", null, "etag-2"), loaded.getPartETags());
+        assertEquals(Arrays.asList("crc-0", null, "crc-2"), loaded.getPartChecksums());
+        assertTrue(loaded.matches(source, "bucket", "videos/clip.mp4"));
+        assertFalse(loaded.matches(source, "bucket", "videos/other.mp4"));
+    }
+
+    /**
+     * A source file that changed since the state was saved no longer matches it.
+     * @throws IOException If the scratch files cannot be written
+     */
+    @Test
+    public void changedSourceDoesNotMatch() throws IOException {
+        File source = sourceFile(2_500);
+        File stateFile = folder.newFile("clip.state");
+        new UploadState(source, "bucket", "key", PART_SIZE, "upload-1").save(stateFile);
+
+        try (RandomAccessFile file = new RandomAccessFile(source, "rw")) {
+            file.setLength(3_000);
+        }
+        assertFalse(UploadState.load(stateFile).matches(source, "bucket", "key"));
+    }
+
+    /**
+     * A part saved without its checksum is dropped so that it is sent again.
+     * @throws IOException If the scratch files cannot be written
+     */
+    @Test
+    public void partWithoutChecksumIsResent() throws IOException {
+        File source = sourceFile(2_500);
+        File stateFile = folder.newFile("clip.state");
+        UploadState state = new UploadState(source, "bucket", "key", PART_SIZE, "upload-1");
+        state.setPart(1, "etag-1", "crc-1");
+        state.save(stateFile);
+
+        Properties properties = new Properties();
+        try (InputStream input = new FileInputStream(stateFile)) {
+            properties.load(input);
+        }
+        properties.remove("checksum.1");
+        try (OutputStream output = new FileOutputStream(stateFile)) {
+            properties.store(output, null);
+        }
+        assertNull(UploadState.load(stateFile).getPartETag(1));
+    }
+
+    /**
+     * Missing and unreadable state files load as no state.
+     * @throws IOException If the scratch files cannot be written
+     */
+    @Test
+    public void missingOrTornStateLoadsAsNull() throws IOException {
+        assertNull(UploadState.load(new File(folder.getRoot(), "absent.state")));
+        File torn = folder.newFile("torn.state");
+        try (OutputStream output = new FileOutputStream(torn)) {
+            output.write("bucket=b\nlength=not-a-number\n".getBytes("UTF-8"));
+        }
+        assertNull(UploadState.load(torn));
+    }
+
+    /**
+     * An empty file is still uploaded as one part.
+     */
+    @Test
+    public void emptyFileHasOnePart() {
+        assertEquals(1, UploadState.partCount(0, PART_SIZE));
+        assertEquals(1, UploadState.partCount(PART_SIZE, PART_SIZE));
+        assertEquals(2, UploadState.partCount(PART_SIZE + 1, PART_SIZE));
+    }
+
+    private File sourceFile(long length) throws IOException {
+        File source = folder.newFile();
+        try (RandomAccessFile file = new RandomAccessFile(source, "rw")) {
+            file.setLength(length);
+        }
+        return source;
+    }
+}